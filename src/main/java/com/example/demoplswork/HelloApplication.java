@@ -2,6 +2,8 @@ package com.example.demoplswork;
 
 import com.example.demoplswork.controller.*;
 import com.example.demoplswork.model.Logs;
+import com.example.demoplswork.model.SearchIndex;
+import com.example.demoplswork.model.UploadService;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -19,7 +21,7 @@ import java.sql.SQLException;
  * It has a field to store the primary stage of the application.
  * It has a field to store the logged-in user's ID.
  * It has methods to get and set the logged-in user's ID.
- * It overrides the start method to set up the initial view and stage properties.
+ * It overrides the start method to set up the initial view and stage properties, starts building the search index and resumes unfinished uploads.
  * It has methods to show different views of the application, such as login, home, explore, logs, logs update, create account, and account views.
  * It has a main method to launch the application.
  */
@@ -56,6 +58,12 @@ public class    HelloApplication extends Application {
     public void start(Stage stage) throws IOException {
         this.primaryStage = stage;
 
+        // Build the search index in the background while the user logs in
+        SearchIndex.getInstance().start();
+
+        // Carry on with the uploads the last run did not finish, without holding up the login screen
+        Thread.ofVirtual().name("upload-resume").start(UploadService::getInstance);
+
         // Get screen size
         Rectangle2D screenBounds = Screen.getPrimary().getVisualBounds();
 
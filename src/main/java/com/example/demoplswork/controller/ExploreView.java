@@ -1,16 +1,21 @@
 package com.example.demoplswork.controller;
 
 import com.example.demoplswork.HelloApplication;
+import com.example.demoplswork.events.CommentPager;
 import com.example.demoplswork.events.EndEvent;
+import com.example.demoplswork.events.FeedCursor;
+import com.example.demoplswork.events.FeedItem;
 import com.example.demoplswork.events.ImageEvent;
 import com.example.demoplswork.events.LogEvent;
 import com.example.demoplswork.events.LogEventDAO;
 import com.example.demoplswork.model.*;
+import javafx.animation.PauseTransition;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
 import javafx.geometry.Side;
+import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -25,17 +30,15 @@ import javafx.scene.media.MediaPlayer;
 import javafx.scene.media.MediaView;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import javafx.util.Pair;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.sql.SQLException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
@@ -51,27 +54,55 @@ import java.time.format.DateTimeFormatter;
  * It has an onLogout method to log out the user.
  * It has a viewBlog method to display a blog's content.
  * It has a searchByHobby method to search for blogs by hobby.
- * It has a searchBlogs method to search for blogs based on user input.
+ * It has a searchNow method to search blogs and projects for the text in the search box; the search also runs
+ * a short pause after the user stops typing, and the previous search is cancelled when a new one starts.
+ * It has a showSuggestions method to list the best blogs, projects and people under the search box on every key,
+ * from the in-memory SearchIndex, with a correction when a word is misspelt.
  * It has a showCreateBlogDialog method to create a new blog.
- * It has a displayBlog method to display a blog in the UI.
- * It has a loadBlogsFromDatabase method to load blogs from the database.
+ * It has a loadNextBlogPage method to load the blog column a page of summaries at a time, with more pages loaded
+ * on scroll; the text of a blog is only read, by openBlog, when its article is opened.
+ * It has a createBlogPost method to make the post for a blog in the blog column.
  * It has a getCurrentUsername method to get the current user's username.
  * It has a saveBlogToDatabase method to save a blog to the database.
  * It has a viewBlogContent method to view the content of a blog.
- * It has a loadMyFeed method to load the user's feed.
+ * It has a loadMyFeed method to load the first page of the user's feed, with more pages loaded on scroll.
  * It has an addEventToFeed method to add an event to the feed.
- * It has a getContactForUserId method to get the contact for a user ID.
+ * It has a getContactForUserId method to get the contact for a user ID from the shared UserDirectory.
  * It has a showCommentsPopup method to show a comments popup.
  * It has a saveCommentForLog method to save a comment for a log.
  * It has a toggleLike method to toggle a like on an event.
+ * Database calls run on background threads through AsyncDAO; the UI is updated once their results arrive.
+ * Pictures are loaded in the background through ImageLoader, those on screen first, with a placeholder until they arrive.
  */
 public class ExploreView
 {
 
     private HelloApplication app;
     private ContextMenu accountMenu;
-    private ContactDAO contactDAO;
-    private LogEventDAO logEventDAO;
+    private final UserDirectory users = UserDirectory.getInstance();
+    private AsyncDAO<LogEventDAO> logEventDAO;
+    private AsyncDAO<LogsDAO> logsDAO;
+    private AsyncDAO<BlogDAO> blogDAO;
+    private AsyncDAO<SearchDAO> searchDAO;
+    private CompletableFuture<?> feedLoad;
+    private static final int FEED_PAGE_SIZE = 20;
+    private int feedViewerId;
+    private FeedCursor feedCursor;
+    private boolean feedExhausted;
+    private volatile boolean feedLoading;
+    private LocalDate lastFeedDate;
+    private static final int BLOG_PAGE_SIZE = 10;
+    private Integer blogCursor;
+    private boolean blogsExhausted;
+    private volatile boolean blogsLoading;
+    private static final int SEARCH_PAGE_SIZE = 10;
+    private static final Duration SEARCH_DELAY = Duration.millis(250);
+    private final PauseTransition searchDelay = new PauseTransition(SEARCH_DELAY);
+    private CompletableFuture<?> searchLoad;
+    private String searchText;
+    private int searchOffset;
+    private final SearchIndex searchIndex = SearchIndex.getInstance();
+    private ContextMenu suggestionMenu;
     private static final String BUCKET_NAME = "hobby-log";
     private static final String REGION = "ap-southeast-2";
 
@@ -88,12 +119,55 @@ public class ExploreView
      * @throws SQLException if a database access error occurs
      */
     public ExploreView() throws SQLException {
-        this.logEventDAO = new LogEventDAO();
+        this.logEventDAO = new AsyncDAO<>(new LogEventDAO());
+        this.logsDAO = new AsyncDAO<>(new LogsDAO());
+        this.blogDAO = new AsyncDAO<>(new BlogDAO());
+        this.searchDAO = new AsyncDAO<>(new SearchDAO());
+    }
+
+    /**
+     * The like and comment state of a post on screen. It starts from the event as read and changes as the user
+     * likes and comments, while the event itself stays as it was read.
+     */
+    private static final class PostState {
+        private boolean liked;
+        private int likeCount;
+        private int commentCount;
+
+        private PostState(LogEvent event) {
+            this.liked = event.isLikedByViewer();
+            this.likeCount = event.getLikeCount();
+            this.commentCount = event.getCommentCount();
+        }
+    }
+
+    /**
+     * One page of search results: the blogs with their authors, and the logs.
+     */
+    private static final class SearchPage {
+        private final List<Blog> blogs;
+        private final Map<Integer, Contact> authors;
+        private final List<LogSearchResult> logs;
+
+        private SearchPage(List<Blog> blogs, Map<Integer, Contact> authors, List<LogSearchResult> logs) {
+            this.blogs = blogs;
+            this.authors = authors;
+            this.logs = logs;
+        }
     }
 
     @FXML
     private VBox commentsContainer1;
 
+    @FXML
+    private ScrollPane feedScrollPane;
+
+    @FXML
+    private TextField searchField;
+
+    @FXML
+    private VBox searchResults;
+
     @FXML
     private Button accountButton;
 
@@ -114,7 +188,20 @@ public class ExploreView
     @FXML
     public void initialize() {
         accountMenu = new ContextMenu();
-        // hobbyChoiceBox.getItems().addAll(hobbys);
+        suggestionMenu = new ContextMenu();
+        hobbyChoiceBox.getItems().addAll(hobbys);
+
+        // Suggest on every key from the in-memory index, and run the full search once the user has stopped typing for a moment
+        searchDelay.setOnFinished(event -> startSearch());
+        searchField.textProperty().addListener((obs, oldText, newText) -> {
+            showSuggestions(newText);
+            searchDelay.playFromStart();
+        });
+        searchField.focusedProperty().addListener((obs, wasFocused, focused) -> {
+            if (!focused) {
+                suggestionMenu.hide();
+            }
+        });
 
         MenuItem viewProfile = new MenuItem("View Profile");
         viewProfile.setOnAction(event -> {
@@ -130,23 +217,18 @@ public class ExploreView
 
         accountMenu.getItems().addAll(viewProfile, logout);
 
-        // Load existing blogs when the page is initialized
-        loadExistingBlogs();
-    }
+        // Load the next page of the feed and of the blogs when the user scrolls to the bottom
+        feedScrollPane.vvalueProperty().addListener((obs, oldValue, newValue) -> {
+            if (newValue.doubleValue() >= feedScrollPane.getVmax()) {
+                if (app != null) {
+                    loadNextFeedPage();
+                }
+                loadNextBlogPage();
+            }
+        });
 
-    /**
-     * Searches the list of hobbies.
-     *
-     * @param searchHobby   the hobby to search for
-     * @param listOfStrings the list of strings to search in
-     * @return the list of matching hobbies
-     */
-    private List<String> searchList(String searchHobby, List<String> listOfStrings) {
-        List<String> searchHobbyArray = Arrays.asList(searchHobby.trim().split(" "));
-        return listOfStrings.stream().filter(input -> {
-            return searchHobbyArray.stream().allMatch(hobby ->
-                    input.toLowerCase().contains(hobby.toLowerCase()));
-        }).collect(Collectors.toList());
+        // Load the first page of blogs when the page is initialized
+        loadNextBlogPage();
     }
 
     /**
@@ -261,14 +343,179 @@ public class ExploreView
     @FXML
     private ComboBox<String> hobbyChoiceBox;
 
+    /**
+     * Searches for the hobby chosen in the hobby menu.
+     *
+     * @param event the action event
+     */
     @FXML
     void searchByHobby(ActionEvent event) {
-        /*listView.getItems().clear();
-
         String selectedHobby = hobbyChoiceBox.getValue();
         if (selectedHobby != null && !selectedHobby.isEmpty()) {
-            listView.getItems().addAll(searchList(selectedHobby, hobbys));
-        }*/
+            searchField.setText(selectedHobby);
+            searchNow();
+        }
+    }
+
+    /**
+     * Searches for the text in the search box straight away, without waiting for the user to stop typing.
+     */
+    @FXML
+    void searchNow() {
+        searchDelay.stop();
+        startSearch();
+    }
+
+    /**
+     * Starts a new search for the text in the search box, replacing any results shown.
+     * A search that is still running is cancelled; an empty search box hides the results.
+     */
+    private void startSearch() {
+        String text = searchField.getText();
+        if (text.equals(searchText) && searchResults.isVisible()) {
+            return;  // Already showing the results for this text
+        }
+        if (searchLoad != null) {
+            searchLoad.cancel(true);
+        }
+        searchText = text;
+        searchOffset = 0;
+        searchResults.getChildren().clear();
+        boolean hasWords = SearchDAO.toMatchQuery(text) != null;
+        searchResults.setVisible(hasWords);
+        searchResults.setManaged(hasWords);
+        if (hasWords) {
+            loadSearchPage();
+        }
+    }
+
+    /**
+     * Loads the next page of results for the current search in the background.
+     */
+    private void loadSearchPage() {
+        String text = searchText;
+        int offset = searchOffset;
+        searchLoad = searchDAO.load(dao -> {
+            List<Blog> blogs = dao.searchBlogs(text, offset, SEARCH_PAGE_SIZE);
+            List<LogSearchResult> logs = dao.searchLogs(text, offset, SEARCH_PAGE_SIZE);
+            Set<Integer> authorIds = new HashSet<>();
+            for (Blog blog : blogs) {
+                authorIds.add(blog.getUserId());
+            }
+            for (LogSearchResult log : logs) {
+                authorIds.add(log.getUserId());
+            }
+            return new SearchPage(blogs, users.getContacts(authorIds), logs);
+        }, page -> {
+            if (text.equals(searchText)) {  // Drop a page that arrives after the user has searched for something else
+                showSearchPage(page, offset);
+            }
+        });
+    }
+
+    /**
+     * Lists the best matches for the text in the search box under it. The in-memory index answers within a millisecond,
+     * so this runs on the FX thread as the user types. When a word is not found, the first item offers the corrected text.
+     *
+     * @param text the text in the search box
+     */
+    private void showSuggestions(String text) {
+        SearchResults results = searchIndex.search(text, SearchIndex.DEFAULT_HITS);
+        suggestionMenu.getItems().clear();
+        String suggestion = results.getSuggestion();
+        if (suggestion != null) {
+            MenuItem correction = new MenuItem("Did you mean \"" + suggestion + "\"?");
+            correction.setOnAction(e -> {
+                searchField.setText(suggestion);
+                searchField.positionCaret(suggestion.length());
+            });
+            suggestionMenu.getItems().add(correction);
+        }
+        for (SearchHit hit : results.getHits()) {
+            MenuItem item = new MenuItem(describeHit(hit));
+            item.setOnAction(e -> openSearchHit(hit));
+            suggestionMenu.getItems().add(item);
+        }
+        if (suggestionMenu.getItems().isEmpty()) {
+            suggestionMenu.hide();
+        } else if (!suggestionMenu.isShowing()) {
+            suggestionMenu.show(searchField, Side.BOTTOM, 0, 0);
+        }
+    }
+
+    // Helper method to label a suggestion by its kind
+    private String describeHit(SearchHit hit) {
+        switch (hit.getKind()) {
+            case BLOG:
+                return "Blog: " + hit.getLabel();
+            case LOG:
+                return "Project: " + hit.getLabel();
+            default:
+                return "Person: " + hit.getLabel();
+        }
+    }
+
+    /**
+     * Opens a suggestion: a blog is read and shown, a project opens its owner's profile and a person opens their profile.
+     *
+     * @param hit the suggestion chosen
+     */
+    private void openSearchHit(SearchHit hit) {
+        switch (hit.getKind()) {
+            case BLOG:
+                blogDAO.load(dao -> dao.getBlog(hit.getId()), blog -> {
+                    if (blog != null) {
+                        viewBlog(blog.getTitle(), blog.getDescription(), blog.getTag());
+                    }
+                });
+                break;
+            case LOG:
+                loadOtherUserProfile(hit.getOwnerId());
+                break;
+            default:
+                loadOtherUserProfile(hit.getId());
+                break;
+        }
+    }
+
+    /**
+     * Adds a page of search results below those already shown, with a button for more if the page was full.
+     *
+     * @param page   the page of results, best match first
+     * @param offset the number of results before the page
+     */
+    private void showSearchPage(SearchPage page, int offset) {
+        searchResults.getChildren().removeIf(node -> "more".equals(node.getId()));
+        if (offset == 0 && page.blogs.isEmpty() && page.logs.isEmpty()) {
+            searchResults.getChildren().add(new Label("No blogs or projects found for \"" + searchText.trim() + "\""));
+            return;
+        }
+        for (Blog blog : page.blogs) {
+            Contact author = page.authors.get(blog.getUserId());
+            Button result = new Button("Blog: " + blog.getTitle() + " by " + (author != null ? author.getFirstName() : "Unknown User"));
+            result.setStyle("-fx-background-color: #FFF8DC; -fx-font-family: 'Roboto';");
+            result.setMaxWidth(Double.MAX_VALUE);
+            result.setOnAction(e -> openBlog(blog.getId(), blog.getTitle(), blog.getTag()));  // Long blogs are found by their excerpt
+            searchResults.getChildren().add(result);
+        }
+        for (LogSearchResult log : page.logs) {
+            Contact owner = page.authors.get(log.getUserId());
+            Button result = new Button("Project: " + log.getLogName() + " by " + (owner != null ? owner.getFirstName() : "Unknown User"));
+            result.setStyle("-fx-background-color: #FFFFFF; -fx-border-color: #FFD643; -fx-font-family: 'Roboto';");
+            result.setMaxWidth(Double.MAX_VALUE);
+            result.setOnAction(e -> loadOtherUserProfile(log.getUserId()));
+            searchResults.getChildren().add(result);
+        }
+        searchOffset = offset + SEARCH_PAGE_SIZE;
+        if (page.blogs.size() == SEARCH_PAGE_SIZE || page.logs.size() == SEARCH_PAGE_SIZE) {
+            Button more = new Button("More results");
+            more.setId("more");
+            more.setOnAction(e -> {
+                more.setDisable(true);  // One page at a time
+                loadSearchPage();
+            });
+            searchResults.getChildren().add(more);
+        }
     }
 
     /**
@@ -297,7 +544,15 @@ public class ExploreView
 
         Button uploadImageButton = new Button("Upload Cover Image");
         Label imagePathLabel = new Label("No image selected");
+        Label uploadStatusLabel = new Label();
+
+        // Submit is enabled once the cover image has a URL to store
+        Node submitButton = dialog.getDialogPane().lookupButton(submitButtonType);
+        submitButton.setDisable(true);
 
+        // Only the latest image's upload updates the dialog, and none does once it is closed
+        AtomicReference<UploadService.Listener> currentUpload = new AtomicReference<>();
+        dialog.setOnHidden(event -> currentUpload.set(null));
 
         uploadImageButton.setOnAction(event -> {
             FileChooser fileChooser = new FileChooser();
@@ -305,11 +560,64 @@ public class ExploreView
             File selectedFile = fileChooser.showOpenDialog(dialog.getOwner());
 
             if (selectedFile != null) {
-                // Instantiate S3ImageUploader and upload the image
-                S3ImageUploader s3Uploader = new S3ImageUploader();
-                String s3Url = s3Uploader.uploadImage(selectedFile.getAbsolutePath(), selectedFile.getName());
+                // Upload the image in the background; its URL is known once it is hashed, so the blog can be submitted then
+                uploadStatusLabel.setText("Preparing upload");
+                imagePathLabel.setText("No image selected");
+                submitButton.setDisable(true);
+                UploadService.Listener listener = new UploadService.Listener() {
+                    private String queuedUrl;
+
+                    @Override
+                    public void onQueued(String s3Url) {
+                        queuedUrl = s3Url;
+                        if (currentUpload.get() != this) {
+                            return;
+                        }
+                        try {
+                            ImageDiskCache.getInstance().put(s3Url, selectedFile.toPath());  // Shown from the local copy until then
+                        } catch (IOException e) {
+                            e.printStackTrace();
+                        }
+                        imagePathLabel.setText(s3Url); // Set the image URL to store in the database
+                        submitButton.setDisable(false);
+                    }
+
+                    @Override
+                    public void onProgress(long sent, long total) {
+                        if (currentUpload.get() == this) {
+                            uploadStatusLabel.setText("Uploading " + (sent * 100 / Math.max(total, 1)) + "%");
+                        }
+                    }
+
+                    @Override
+                    public void onComplete(String url) {
+                        if (currentUpload.get() == this) {
+                            uploadStatusLabel.setText("Uploaded");
+                        }
+                    }
 
-                imagePathLabel.setText(s3Url); // Set the image file name to store in the database
+                    @Override
+                    public void onFailed(Exception error) {
+                        if (currentUpload.get() == this) {
+                            uploadStatusLabel.setText("Upload failed, it will be tried again the next time HobbyLog starts");
+                        }
+                    }
+
+                    @Override
+                    public void onAbandoned(Exception error) {
+                        if (queuedUrl != null) {
+                            // Its URL will never work, so take it off the blog if it has already been posted
+                            blogDAO.run(dao -> dao.removeImage(queuedUrl));
+                        }
+                        if (currentUpload.get() == this) {
+                            imagePathLabel.setText("No image selected");
+                            submitButton.setDisable(true);
+                            uploadStatusLabel.setText("Could not upload the image because it was moved, changed or could not be read");
+                        }
+                    }
+                };
+                currentUpload.set(listener);
+                UploadService.getInstance().submit(selectedFile.toPath(), listener);
             }
         });
 
@@ -319,7 +627,7 @@ public class ExploreView
                 new Label("Description:"), descriptionArea,
                 new Label("Category:"), categoryComboBox,
                 // new Label("Tag:"), tagField,  // Add the tag input
-                uploadImageButton, imagePathLabel
+                uploadImageButton, imagePathLabel, uploadStatusLabel
         );
         dialog.getDialogPane().setContent(dialogContent);
 
@@ -336,16 +644,15 @@ public class ExploreView
                     errorAlert.showAndWait();
                 } else {
                     // Create the new blog and add it to the database
-                    Blog newBlog = new Blog(app.getLoggedInUserID(), intro, description, imagePath, category);
-                    try {
-                        BlogDAO blogDAO = new BlogDAO();
-                        blogDAO.insertBlog(newBlog);
-                    } catch (SQLException e) {
-                        e.printStackTrace();
-                    }
-
-                    // Create and add the new blog post dynamically in the UI
-                    addNewBlogPost(intro, description, imagePath, category, app.getLoggedInUserID());
+                    int userId = app.getLoggedInUserID();
+                    Blog newBlog = new Blog(userId, intro, description, imagePath, category);
+                    blogDAO.load(dao -> {
+                        dao.insertBlog(newBlog);
+                        return getContactForUserId(userId);
+                    }, author -> {
+                        // Create and add the new blog post dynamically in the UI, above the older blogs
+                        post2.getChildren().add(0, createBlogPost(intro, imagePath, author, () -> viewBlog(intro, description, category)));
+                    });
                 }
             }
             return null;
@@ -355,31 +662,74 @@ public class ExploreView
     }
 
     /**
-     * Displays a blog in the UI.
-     *
+     * Loads the next page of blog summaries, older than the last one shown, in the background.
+     * Nothing is loaded while a page is still on its way or once there are no older blogs.
      */
-    private void loadExistingBlogs() {
-        try {
-            BlogDAO blogDAO = new BlogDAO();
-            List<Blog> blogs = blogDAO.getAllBlogs();
-
-            // Loop through the list of blogs and add them to the UI
-            for (Blog blog : blogs) {
-                addNewBlogPost(blog.getTitle(), blog.getDescription(), blog.getImagePath(), blog.getTag(), blog.getUserId()); // Pass userId
+    private void loadNextBlogPage() {
+        if (blogsExhausted || blogsLoading) {
+            return;
+        }
+        blogsLoading = true;
+        Integer cursor = blogCursor;
+        // Read the summaries and their authors in the background
+        blogDAO.load(dao -> {
+            List<BlogSummary> page = dao.getBlogSummaries(cursor, BLOG_PAGE_SIZE);
+            Set<Integer> authorIds = new HashSet<>();
+            for (BlogSummary blog : page) {
+                authorIds.add(blog.getUserId());
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            return new Pair<>(page, users.getContacts(authorIds));
+        }, loaded -> showBlogPage(loaded.getKey(), loaded.getValue())).whenComplete((loaded, error) -> {
+            if (error != null) {
+                blogsLoading = false;  // Allow another try on the next scroll
+            }
+        });
+    }
+
+    /**
+     * Adds a loaded page of blogs to the end of the blog column.
+     * The text of a blog is only read when its article is opened.
+     *
+     * @param page    the summaries, newest first
+     * @param authors the authors of the blogs by user ID
+     */
+    private void showBlogPage(List<BlogSummary> page, Map<Integer, Contact> authors) {
+        for (BlogSummary blog : page) {
+            post2.getChildren().add(createBlogPost(blog.getTitle(), blog.getImagePath(), authors.get(blog.getUserId()),
+                    () -> openBlog(blog.getId(), blog.getTitle(), blog.getTag())));
+        }
+        if (!page.isEmpty()) {
+            blogCursor = page.getLast().getId();
         }
+        blogsExhausted = page.size() < BLOG_PAGE_SIZE;
+        blogsLoading = false;
     }
 
     /**
-     * Displays a new blog post in the UI.
+     * Reads the text of a blog in the background and shows the blog.
      *
+     * @param blogId the ID of the blog
+     * @param title  the title of the blog
+     * @param tag    the tag of the blog
+     */
+    private void openBlog(int blogId, String title, String tag) {
+        blogDAO.load(dao -> dao.getBlogBody(blogId), body -> {
+            if (body != null) {
+                viewBlog(title, body, tag);
+            }
+        });
+    }
+
+    /**
+     * Makes the post for a blog in the blog column.
      *
+     * @param title       the title of the blog
+     * @param imagePath   the URL of the blog's cover image, or null
+     * @param contact     the author of the blog, or null if unknown
+     * @param openArticle what the Open article button does
+     * @return the post
      */
-    private void addNewBlogPost(String title, String description, String imagePath, String tag, int userId) {
-        // Fetch user details
-        Contact contact = getContactForUserId(userId); // Assuming you have this method available
+    private StackPane createBlogPost(String title, String imagePath, Contact contact, Runnable openArticle) {
         String username = contact != null ? contact.getFirstName() : "Unknown User";
 
         StackPane blogPost = new StackPane();
@@ -407,22 +757,9 @@ public class ExploreView
         profileImage.setFitHeight(50.0);
         profileImage.setFitWidth(50.0);
 
-        if (profilePhotoUrl != null && !profilePhotoUrl.isEmpty()) {
-            try {
-                // Download the image to a temporary file
-                Path tempFile = Files.createTempFile("tempUserImage", ".jpg");
-                try (InputStream in = new URL(profilePhotoUrl).openStream()) {
-                    Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
-                }
-                profileImage.setImage(new Image(tempFile.toUri().toString()));
-                tempFile.toFile().deleteOnExit();
-            } catch (IOException e) {
-                System.out.println("Failed to load profile image from URL: " + e.getMessage());
-                profileImage.setImage(new Image(getClass().getResourceAsStream("/images/account_circle.png")));  // Fallback
-            }
-        } else {
-            profileImage.setImage(new Image(getClass().getResourceAsStream("/images/account_circle.png")));  // Fallback if URL is not set
-        }
+        // Load the photo in the background, showing the default avatar until it arrives or if it is not set
+        Image defaultAvatar = ImageLoader.resource(ImageLoader.AVATAR_PLACEHOLDER);
+        ImageLoader.getInstance().load(profileImage, profilePhotoUrl, defaultAvatar, defaultAvatar);
 
         Label usernameLabel = new Label(username); // Dynamic username
         usernameLabel.setPrefHeight(20.0);
@@ -444,30 +781,9 @@ public class ExploreView
         coverImageView.setFitWidth(330.0);
         coverImageView.setPreserveRatio(true);
 
-        if (imagePath != null && !imagePath.isEmpty()) {
-            String imageUrl = imagePath;  // Assuming this is a complete S3 URL
-
-            try {
-                // Download the image to a temporary file
-                Path tempFile = Files.createTempFile("tempImage", ".jpg");
-                try (InputStream in = new URL(imageUrl).openStream()) {
-                    Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
-                }
-
-                // Load the image from the local temporary file
-                Image image = new Image(tempFile.toUri().toString());
-                coverImageView.setImage(image);
-
-                // Delete the temp file on application exit
-                tempFile.toFile().deleteOnExit();
-
-            } catch (IOException e) {
-                System.out.println("Failed to load image from URL: " + e.getMessage());
-                coverImageView.setImage(new Image(getClass().getResourceAsStream("/images/post-ph.jpg"))); // Fallback
-            }
-        } else {
-            coverImageView.setImage(new Image(getClass().getResourceAsStream("/images/post-ph.jpg"))); // Fallback if no image path
-        }
+        // Load the cover in the background, showing the placeholder until it arrives or if there is none
+        Image coverPlaceholder = ImageLoader.resource(ImageLoader.POST_PLACEHOLDER);
+        ImageLoader.getInstance().load(coverImageView, imagePath, coverPlaceholder, coverPlaceholder);
 
         coverImageContainer.getChildren().add(coverImageView);
 
@@ -480,15 +796,13 @@ public class ExploreView
         openArticleButton.setPrefHeight(27.0);
         openArticleButton.setPrefWidth(90.0);
         openArticleButton.setStyle("-fx-background-color: #FFD643;");
-        openArticleButton.setOnAction(e -> viewBlog(title, description, tag)); // Pass title and description to the viewBlog method
+        openArticleButton.setOnAction(e -> openArticle.run());
 
         buttonContainer.getChildren().add(openArticleButton);
 
         postContent.getChildren().addAll(titleLabel, header, coverImageContainer, buttonContainer);
         blogPost.getChildren().add(postContent);
-
-        // Add the new blog post to the VBox (post2)
-        post2.getChildren().addFirst(blogPost);
+        return blogPost;
     }
 
 
@@ -497,65 +811,81 @@ public class ExploreView
 
     /**
      * Loads the feed for the logged-in user.
+     * The first page is shown straight away; the next page is loaded whenever the user scrolls to the bottom.
      *
      * @param loggedInUserId the ID of the logged-in user
      */
     public void loadMyFeed(int loggedInUserId) {
-        try {
-            LogEventDAO logEventDAO = new LogEventDAO();
-            List<LogEvent> events = logEventDAO.getLogEventsForOtherUsers(loggedInUserId);
-
-            // Group the events by date (yyyy-MM-dd format)
-            Map<LocalDate, List<LogEvent>> eventsByDate = events.stream()
-                    .collect(Collectors.groupingBy(event -> LocalDate.parse(event.getTimestamp().substring(0, 10), DateTimeFormatter.ofPattern("yyyy-MM-dd"))));
-
-            // Sort the dates in descending order
-            List<LocalDate> sortedDates = eventsByDate.keySet().stream()
-                    .sorted(Comparator.reverseOrder()) // Sort in descending order
-                    .collect(Collectors.toList());
+        if (feedLoad != null) {
+            feedLoad.cancel(true);  // A newer load replaces one that is still running
+        }
+        feedViewerId = loggedInUserId;
+        feedCursor = null;
+        feedExhausted = false;
+        feedLoading = false;
+        lastFeedDate = null;
+        commentsContainer1.getChildren().clear();
+        loadNextFeedPage();
+    }
 
-            // Iterate over each sorted date group and add them to the feed
-            for (LocalDate date : sortedDates) {
-                List<LogEvent> eventsForDate = eventsByDate.get(date);
+    /**
+     * Loads the next page of the feed after the last event shown.
+     * Nothing is loaded while a page is still on its way or once the feed has run out.
+     */
+    private void loadNextFeedPage() {
+        if (feedExhausted || feedLoading) {
+            return;
+        }
+        feedLoading = true;
+        int viewerId = feedViewerId;
+        FeedCursor cursor = feedCursor;
+        feedLoad = logEventDAO.load(dao -> dao.getFeedPage(viewerId, cursor, FEED_PAGE_SIZE), this::showFeedPage);
+        feedLoad.whenComplete((page, error) -> {
+            if (error != null) {
+                feedLoading = false;  // Allow another try on the next scroll
+            }
+        });
+    }
 
-                // Reverse the list to show the most recent events first
-                Collections.reverse(eventsForDate);
+    /**
+     * Adds a loaded page to the end of the feed, under a header for each new day.
+     *
+     * @param page the page, newest first
+     */
+    private void showFeedPage(List<FeedItem> page) {
+        for (FeedItem item : page) {
+            LogEvent event = item.getEvent();
+            LocalDate date = LocalDate.parse(event.getTimestamp().substring(0, 10), DateTimeFormatter.ofPattern("yyyy-MM-dd"));
 
-                // Create a date header label
+            // Pages arrive newest first, so a header is only needed when the day changes
+            if (!date.equals(lastFeedDate)) {
                 Label dateHeader = new Label(date.format(DateTimeFormatter.ofPattern("MMMM dd, yyyy")));
                 dateHeader.setStyle("-fx-font-size: 13px; -fx-font-weight: bold; -fx-padding: 10 0 10 0;");
-
-                // Add the date header to the feed
                 commentsContainer1.getChildren().add(dateHeader);
+                lastFeedDate = date;
+            }
 
-                // Add all events for that date
-                for (LogEvent event : eventsForDate) {
-                    if (event instanceof EndEvent || event instanceof ImageEvent) {
-                        addEventToFeed(event, true); // true indicates these can have images
-                    } else {
-                        addEventToFeed(event, false); // Other events without images
-                    }
-                }
+            if (event instanceof EndEvent || event instanceof ImageEvent) {
+                addEventToFeed(item, true); // true indicates these can have images
+            } else {
+                addEventToFeed(item, false); // Other events without images
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
+        if (!page.isEmpty()) {
+            feedCursor = FeedCursor.after(page.getLast());
+        }
+        feedExhausted = page.size() < FEED_PAGE_SIZE;
+        feedLoading = false;
     }
 
     /**
      * Adds an event to the feed.
      *
-     * @param event    the event to add
+     * @param item     the feed item to add, with its author and log name
      * @param hasImage whether the event has an image
      */
-    private void addEventToFeed(LogEvent event, boolean hasImage) {
-        LogsDAO logsDAO = new LogsDAO();
-
-        // Check if the associated log exists
-        if (!logsDAO.doesLogExist(event.getLogId())) {
-            System.out.println("Log ID " + event.getLogId() + " does not exist. Skipping event.");
-            return; // Skip this event if the log does not exist
-        }
+    private void addEventToFeed(FeedItem item, boolean hasImage) {
+        LogEvent event = item.getEvent();
 
         StackPane postContainer = new StackPane();
         postContainer.setPrefHeight(200.0);
@@ -568,10 +898,9 @@ public class ExploreView
         postContent.setSpacing(10);
         postContent.setStyle("-fx-padding: 30;");
 
-        // Fetch user details
-        Contact contact = getContactForUserId(event.getUserId());
-        String username = contact != null ? contact.getFirstName() : "Unknown User";
-        String profilePhotoPath = contact != null ? contact.getPhoto() : "/images/account_circle.png";
+        // User details were read with the feed
+        String username = item.getAuthorName() != null ? item.getAuthorName() : "Unknown User";
+        String profilePhotoPath = item.getAuthorPhoto();
 
         // Profile Image and Username
         HBox header = new HBox(15); // Added spacing
@@ -579,23 +908,9 @@ public class ExploreView
         profileImage.setFitHeight(50.0);
         profileImage.setFitWidth(50.0);
 
-        // Load profile image from S3 URL using temporary file
-        try {
-            if (profilePhotoPath != null && !profilePhotoPath.isEmpty()) {
-                Path tempFile = Files.createTempFile("tempProfileImage", ".jpg");
-                try (InputStream in = new URL(profilePhotoPath).openStream()) {
-                    Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
-                }
-                profileImage.setImage(new Image(tempFile.toUri().toString()));
-                tempFile.toFile().deleteOnExit();  // Delete temp file on application exit
-            } else {
-                System.out.println("Profile image not found at S3 URL: " + profilePhotoPath);
-                profileImage.setImage(new Image(getClass().getResourceAsStream("/images/account_circle.png")));  // Fallback image
-            }
-        } catch (IOException e) {
-            System.out.println("Failed to load profile image from URL: " + e.getMessage());
-            profileImage.setImage(new Image(getClass().getResourceAsStream("/images/account_circle.png")));
-        }
+        // Load profile image from S3 URL in the background, showing the default avatar until it arrives
+        Image defaultAvatar = ImageLoader.resource(ImageLoader.AVATAR_PLACEHOLDER);
+        ImageLoader.getInstance().load(profileImage, profilePhotoPath != null ? profilePhotoPath.strip() : null, defaultAvatar, defaultAvatar);
 
 
         // Create bold label for the username
@@ -614,20 +929,20 @@ public class ExploreView
 
         userDescription.setOnMouseClicked(event1 -> loadOtherUserProfile(event.getUserId()));
 
-        Label logNameLabel = new Label("Project: " + event.getLogName(event.getLogId())); // Use method to get log name
+        Label logNameLabel = new Label("Project: " + item.getLogName());
         logNameLabel.setStyle("-fx-font-style: italic;");
         // Set onMouseEntered to underline the text on hover
         logNameLabel.setOnMouseEntered(e -> logNameLabel.setStyle("-fx-font-style: italic; -fx-underline: true;"));
 
         // Set onMouseExited to remove the underline when the mouse leaves
         logNameLabel.setOnMouseExited(e -> logNameLabel.setStyle("-fx-font-style: italic;"));
-        logNameLabel.setOnMouseClicked(e -> {
+        logNameLabel.setOnMouseClicked(e -> logsDAO.load(dao -> dao.getLogById(event.getLogId()), log -> {
             try {
-                goToUpdateLogs(event.getLogId(), logsDAO.getLogById(event.getLogId()));
+                goToUpdateLogs(event.getLogId(), log);
             } catch (IOException ex) {
                 throw new RuntimeException(ex);
             }
-        });
+        }));
 
 
         // Adjust Header Layout
@@ -671,17 +986,8 @@ public class ExploreView
                 eventImage.setFitWidth(200);
                 eventImage.setPreserveRatio(true);
 
-                try {
-                    Path tempFile = Files.createTempFile("tempEventImage", ".jpg");
-                    try (InputStream in = new URL(mediaUrl).openStream()) {
-                        Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
-                    }
-                    eventImage.setImage(new Image(tempFile.toUri().toString()));
-                    tempFile.toFile().deleteOnExit();
-                } catch (IOException e) {
-                    System.out.println("Failed to load image from URL: " + e.getMessage());
-                    eventImage.setImage(new Image(getClass().getResourceAsStream("/images/post-ph.jpg")));  // Fallback
-                }
+                Image eventPlaceholder = ImageLoader.resource(ImageLoader.POST_PLACEHOLDER);
+                ImageLoader.getInstance().load(eventImage, mediaUrl, eventPlaceholder, eventPlaceholder);
 
                 mediaContainer.getChildren().add(eventImage);
             }
@@ -690,21 +996,22 @@ public class ExploreView
 
 
         // Likes and Comments Controls
-        Label likeCountLabel = new Label(event.getLikes().size() + " Likes");
-        Label commentCountLabel = new Label(event.getComments().size() + " Comments");
+        PostState state = new PostState(event);
+        Label likeCountLabel = new Label(state.likeCount + " Likes");
+        Label commentCountLabel = new Label(state.commentCount + " Comments");
         HBox likeCommentControls = new HBox();
         likeCommentControls.setSpacing(10);
 
-        Button likeButton = new Button(event.getLikes().contains(app.getLoggedInUserID()) ? "Unlike" : "Like");
+        Button likeButton = new Button(state.liked ? "Unlike" : "Like");
         likeButton.setOnAction(e -> {
-            toggleLike(event, likeButton, likeCountLabel);
+            toggleLike(event.getId(), state, likeButton, likeCountLabel);
         });
 
         HBox countLabels = new HBox(likeCountLabel, commentCountLabel);
         countLabels.setSpacing(10);
 
         Button commentButton = new Button("Comment");
-        commentButton.setOnAction(e -> showCommentsPopup(event, commentCountLabel)); // Open comments popup
+        commentButton.setOnAction(e -> showCommentsPopup(event.getId(), state, commentCountLabel)); // Open comments popup
 
         likeCommentControls.getChildren().addAll(likeButton, commentButton);
 
@@ -746,40 +1053,27 @@ public class ExploreView
     }
 
     /**
-     * Gets the contact for a user ID.
+     * Gets the contact for a user ID from the shared user directory.
      *
      * @param userId the user ID
      * @return the contact for the user ID
      */
     private Contact getContactForUserId(int userId) {
-        contactDAO = new ContactDAO();
-
-        // Fetch the contact information for the logged-in user
-        Contact contact = contactDAO.getContactById(userId);
-
+        Contact contact = users.getContact(userId);
         if (contact == null) {
             System.out.println("No contact found for user ID: " + userId);
-            return null; // Safely return if no contact found
         }
-
-        // Now update the contact with profile details (bio, photo)
-        ProfileDAO profileDAO = new ProfileDAO();
-        try {
-            profileDAO.insertProfile(userId, " ", " ");
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
-        profileDAO.getProfileByUserId(contact, userId);
         return contact;
     }
 
     /**
      * Shows the comments popup for an event.
      *
-     * @param event             the event
+     * @param eventId           the ID of the event
+     * @param state             the like and comment state of the post
      * @param commentCountLabel the label to update the comment count
      */
-    private void showCommentsPopup(LogEvent event, Label commentCountLabel) {
+    private void showCommentsPopup(int eventId, PostState state, Label commentCountLabel) {
         Dialog<Void> dialog = new Dialog<>();
         dialog.setTitle("Comments");
 
@@ -792,16 +1086,7 @@ public class ExploreView
         contentBox.setPrefWidth(400);
         contentBox.setStyle("-fx-padding: 20;");
 
-        // Fetch and display existing comments
-        List<String> comments = new ArrayList<>(event.getCommentsFromDatabase());
-        System.out.println(comments);
         VBox commentsBox = new VBox(5);
-        if (comments != null) {
-            for (String comment : comments) {
-                Label commentLabel = new Label(comment);
-                commentsBox.getChildren().add(commentLabel);
-            }
-        }
 
         // Add commentsBox to a ScrollPane
         ScrollPane scrollPane = new ScrollPane();
@@ -809,6 +1094,10 @@ public class ExploreView
         scrollPane.setFitToWidth(true);
         scrollPane.setPrefHeight(200); // Adjust height as needed
 
+        // Show the first page of comments and load more as the user scrolls
+        CommentPager commentPager = new CommentPager(logEventDAO, eventId, commentsBox);
+        commentPager.attach(scrollPane);
+
         // Text field for adding a new comment
         TextField newCommentField = new TextField();
         newCommentField.setPromptText("Write a comment...");
@@ -817,21 +1106,18 @@ public class ExploreView
         addCommentButton.setOnAction(e -> {
             String newComment = newCommentField.getText().trim();
             if (!newComment.isEmpty()) {
-                // Fetch the current user's username
-                String currentUsername = getCurrentUsername(); // Implement this method to get the logged-in user's name
-
-                // Format the new comment as "Username: Comment Text"
-                String formattedComment = currentUsername + ": " + newComment;
-                commentsBox.getChildren().add(new Label(formattedComment));
                 newCommentField.clear();
 
-                // Save the new comment to the database (implement save logic)
-                saveCommentForLog(event.getId(), formattedComment);
+                // Save the new comment with its author, and fetch the current user's username
+                logEventDAO.load(dao -> new Pair<>(saveCommentForLog(eventId, newComment), getCurrentUsername()), saved -> {
+                    // Format the new comment as "Username: Comment Text"
+                    String formattedComment = saved.getValue() + ": " + newComment;
+                    commentPager.addNewComment(saved.getKey(), formattedComment);
 
-                // Update the comment list and label
-                comments.add(formattedComment);
-                event.setComments(comments); // Ensure the event's comments list is updated
-                commentCountLabel.setText(comments.size() + " Comments");
+                    // Update the comment count and label
+                    state.commentCount++;
+                    commentCountLabel.setText(state.commentCount + " Comments");
+                });
             }
         });
 
@@ -858,37 +1144,33 @@ public class ExploreView
      *
      * @param eventId the ID of the event
      * @param comment the comment to save
+     * @return the ID of the saved comment
      */
-    private void saveCommentForLog(int eventId, String comment) {
-        logEventDAO.saveCommentForLog(eventId, comment);
+    private int saveCommentForLog(int eventId, String comment) {
+        return logEventDAO.getDao().addComment(eventId, app.getLoggedInUserID(), comment);
     }
 
     /**
      * Toggles the like status for a log event.
      *
-     * @param event          the log event
+     * @param eventId        the ID of the log event
+     * @param state          the like and comment state of the post
      * @param likeButton     the button to toggle like status
      * @param likeCountLabel the label to update like count
      */
-    private void toggleLike(LogEvent event, Button likeButton, Label likeCountLabel) {
+    private void toggleLike(int eventId, PostState state, Button likeButton, Label likeCountLabel) {
         int userId = app.getLoggedInUserID();
-        List<Integer> likes = event.getLikes();
-
-        if (likes.contains(userId)) {
-            // User already liked the event, so unlike it
-            likes.remove(Integer.valueOf(userId));
-            likeButton.setText("Like");
-        } else {
-            // User has not liked the event, so like it
-            likes.add(userId);
-            likeButton.setText("Unlike");
-        }
+        boolean liked = state.liked;
 
-        // Update like count
-        likeCountLabel.setText(likes.size() + " Likes");
+        // If the user already liked the event, unlike it; otherwise like it
+        logEventDAO.load(dao -> liked ? dao.unlikeEvent(eventId, userId) : dao.likeEvent(eventId, userId), likeCount -> {
+            likeButton.setText(liked ? "Like" : "Unlike");
+            state.liked = !liked;
+            state.likeCount = likeCount;
 
-        // Save updated likes to the database
-        logEventDAO.updateLikesForLogEvent(event.getId(), likes);
+            // Update like count
+            likeCountLabel.setText(likeCount + " Likes");
+        });
     }
 
     /**
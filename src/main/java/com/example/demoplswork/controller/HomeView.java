@@ -2,6 +2,9 @@ package com.example.demoplswork.controller;
 
 import com.example.demoplswork.HelloApplication;
 import com.example.demoplswork.model.Analytics;
+import com.example.demoplswork.model.AsyncDAO;
+import com.example.demoplswork.model.ColumnKernels;
+import com.example.demoplswork.model.ImageLoader;
 import com.example.demoplswork.model.Logs;
 import com.example.demoplswork.model.LogsDAO;
 import javafx.beans.binding.Bindings;
@@ -9,18 +12,13 @@ import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.geometry.Side;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.util.Pair;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Random;
 
@@ -39,12 +37,14 @@ import java.util.Random;
  * It has a getRandomLog method to get a random log from the list of logs.
  * It has a getFirstIncompleteToDoItem method to get the first incomplete to-do item from the log.
  * It has a displayFeaturedLog method to display the log in the featured log section.
+ * Logs and analytics are loaded on background threads through AsyncDAO and shown once they arrive.
+ * Below the totals, the analytics show the spend, tasks completed and likes of the last week.
  */
 public class HomeView {
     private HelloApplication app;
     private ContextMenu accountMenu;
-    private LogsDAO logsDAO;
-    private Analytics analytics;
+    private AsyncDAO<LogsDAO> logsDAO;
+    private AsyncDAO<Analytics> analytics;
 
     @FXML
     private Button accountButton;
@@ -72,6 +72,12 @@ public class HomeView {
     private Label totalLikesLabel;  // Label for Total Likes
     @FXML
     private Label totalCommentsLabel;  // Label for Total Comments
+    @FXML
+    private Label weekSpentLabel;  // Label for Spent in the Last 7 Days
+    @FXML
+    private Label weekTasksLabel;  // Label for Tasks Completed This Week
+    @FXML
+    private Label weekLikesLabel;  // Label for Likes in the Last 7 Days
 
     /**
      * Sets the application instance.
@@ -90,8 +96,8 @@ public class HomeView {
      * @throws SQLException if a database access error occurs
      */
     public HomeView() throws SQLException {
-        logsDAO = new LogsDAO();
-        analytics = new Analytics();
+        logsDAO = new AsyncDAO<>(new LogsDAO());
+        analytics = new AsyncDAO<>(new Analytics());
     }
 
     /**
@@ -125,29 +131,24 @@ public class HomeView {
     private void loadAnalyticsForUser() {
         int userID = app.getLoggedInUserID();  // Get the logged-in user ID
 
-        // Calculate and display Total Spend
-        double totalSpent = analytics.calculateTotalSpend(userID);
-        totalSpentLabel.setText(String.format("$%.2f", totalSpent));
-
-        // Calculate and display Tasks Completed
-        int tasksCompleted = analytics.calculateTasksCompleted(userID);
-        tasksCompletedLabel.setText(String.valueOf(tasksCompleted));
-
-        // Calculate and display Projects Completed
-        int projectsCompleted = analytics.calculateProjectsCompleted(userID);
-        projectsCompletedLabel.setText(String.valueOf(projectsCompleted));
-
-        // Calculate and display Materials Used
-        int materialsUsed = analytics.calculateMaterialsUsed(userID);
-        materialsUsedLabel.setText(String.valueOf(materialsUsed));
-
-        // Calculate and display Total Likes
-        int totalLikes = analytics.calculateTotalLikes(userID);
-        totalLikesLabel.setText(String.valueOf(totalLikes));
+        // Calculate every metric in one pass off the FX thread, then display them together
+        analytics.load(a -> a.getUserStats(userID), stats -> {
+            totalSpentLabel.setText(String.format("$%.2f", stats.getTotalSpend()));
+            tasksCompletedLabel.setText(String.valueOf(stats.getTasksCompleted()));
+            projectsCompletedLabel.setText(String.valueOf(stats.getProjectsCompleted()));
+            materialsUsedLabel.setText(String.valueOf(stats.getMaterialsUsed()));
+            totalLikesLabel.setText(String.valueOf(stats.getTotalLikes()));
+            totalCommentsLabel.setText(String.valueOf(stats.getTotalComments()));
+        });
 
-        // Calculate and display Total Comments
-        int totalComments = analytics.calculateTotalComments(userID);
-        totalCommentsLabel.setText(String.valueOf(totalComments));
+        // The trends read the user's snapshot, which only reads rows added since the last call
+        LocalDate today = LocalDate.now();
+        analytics.load(a -> a.calculateRollingSpend(userID, today, 1, 7)[0],
+                spent -> weekSpentLabel.setText(String.format("$%.2f", spent)));
+        analytics.load(a -> a.calculateTasksCompletedByWeek(userID, today, 1)[0],
+                tasks -> weekTasksLabel.setText(String.valueOf(tasks)));
+        analytics.load(a -> ColumnKernels.sum(a.calculateLikesByDay(userID, today.minusDays(6), 7), 7),
+                likes -> weekLikesLabel.setText(String.valueOf(likes)));
     }
 
     /**
@@ -157,8 +158,15 @@ public class HomeView {
         int userID = app.getLoggedInUserID();
 
         // Fetch logs from the database for the specific user
-        List<Object[]> logs = logsDAO.getLogsForUser(userID);
+        logsDAO.load(dao -> dao.getLogsForUser(userID), this::showFeaturedLog);
+    }
 
+    /**
+     * Shows a random one of the user's logs, or a message if there are none.
+     *
+     * @param logs the user's logs
+     */
+    private void showFeaturedLog(List<Object[]> logs) {
         if (!logs.isEmpty()) {
             // Pick a random log
             Object[] randomLog = getRandomLog(logs);
@@ -233,25 +241,10 @@ public class HomeView {
         if (!log.getImages().isEmpty()) {
             String imageUrl = log.getImages().getFirst();  // Assuming this is a URL
 
-            try {
-                // Download the image to a temporary file
-                Path tempFile = Files.createTempFile("tempImage", ".jpg");
-                try (InputStream in = new URL(imageUrl).openStream()) {
-                    Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
-                }
-
-                // Load the image from the local temporary file
-                Image image = new Image(tempFile.toUri().toString());
-                featuredLogImageView.setImage(image);
-
-                // Delete the temp file on application exit
-                tempFile.toFile().deleteOnExit();
-
-            } catch (IOException e) {
-                System.out.println("Failed to load image from URL: " + e.getMessage());
-                featuredLogImageView.setImage(null); // Clear image view if loading fails
-            }
+            // Load the image in the background; the view stays empty until it arrives, or if it cannot be loaded
+            ImageLoader.getInstance().load(featuredLogImageView, imageUrl, null, null);
         } else {
+            ImageLoader.getInstance().cancel(featuredLogImageView);
             featuredLogImageView.setImage(null); // No images in list
         }
 
@@ -17,15 +17,13 @@ import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 import javafx.scene.media.MediaView;
 
-import java.io.InputStream;
-import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import javafx.scene.image.Image;
 import javafx.stage.FileChooser;
 import javafx.util.Pair;
@@ -42,22 +40,23 @@ import java.io.IOException;
  * It has methods to populate log details, load images from the log, and display log events.
  * It has methods to handle next and previous media navigation.
  * It has a showAlert method to display alerts with specified titles and messages.
- * It has a getTotalCost method to calculate the total cost of materials.
- * It has a getContactForUserId method to get the contact information for a user ID.
+ * It has a getTotalCost method to show the total cost of materials.
+ * Authors of log events are looked up in the shared UserDirectory.
+ * Database calls run on background threads through AsyncDAO; the UI is updated once their results arrive.
  */
 public class LogsUpdateView {
 
     private HelloApplication app;
     private ContextMenu accountMenu;
     private int logId;  // The ID of the log being updated
-    private LogsDAO logsDAO = new LogsDAO();
-    private LogEventDAO logEventDAO;
+    private AsyncDAO<LogsDAO> logsDAO = new AsyncDAO<>(new LogsDAO());
+    private AsyncDAO<LogEventDAO> logEventDAO;
     // VBox or ListView to display events
     @FXML
     private VBox logEventsBox;
     @FXML
     private ListView<LogEvent> logEventsListView;
-    private ContactDAO contactDAO;
+    private final UserDirectory users = UserDirectory.getInstance();
 
     @FXML
     private Button accountButton;
@@ -110,7 +109,7 @@ public class LogsUpdateView {
      * @throws SQLException
      */
     public LogsUpdateView() throws SQLException {
-        logEventDAO = new LogEventDAO();
+        logEventDAO = new AsyncDAO<>(new LogEventDAO());
         logEventsBox = new VBox();
         logEventsListView = new ListView<>();
     }
@@ -249,12 +248,6 @@ public class LogsUpdateView {
         toDoListVBox.getChildren().clear();
         materialsTable.getItems().clear();
 
-        if(logsDAO.getUserIdForLog(logId)!= app.getLoggedInUserID()){
-            addMediaButton.setVisible(false);
-            addMaterialButton.setVisible(false);
-            addToDoButton.setVisible(false);
-        }
-
         // Populate To-Do items in the VBox
         for (Pair<String, Boolean> toDoItem : log.getToDoItems()) {
             String task = toDoItem.getKey();      // The task description
@@ -264,47 +257,24 @@ public class LogsUpdateView {
             checkBox.setSelected(isChecked);      // Set checkbox to the stored checked state
             toDoListVBox.getChildren().add(checkBox);
 
-            if(logsDAO.getUserIdForLog(logId)!= app.getLoggedInUserID()){
-                checkBox.setDisable(true);
-            }
-
             // Event listener to update the log when a checkbox is checked/unchecked
-            checkBox.setOnAction(event -> {
-                boolean wasChecked = checkBox.isSelected();  // Capture the new state of the checkbox
-
-                // Update the task's checked state in the log
-                log.updateToDoItemStatus(task, checkBox.isSelected());  // Custom method to update the task's checked state
-                double progress = logsDAO.updateToDoItemStatus(logId, task, checkBox.isSelected());
-
-                LogsView logsView;
-                try {
-                    logsView = new LogsView();
-                } catch (SQLException e) {
-                    throw new RuntimeException(e);
-                }
-
-                // Add a ToDoEvent only if the box goes from unchecked to checked
-                if (wasChecked) {
-                    LogEvent newEvent = new ToDoEvent(0,app.getLoggedInUserID(), logId, task, new ArrayList<>(), new ArrayList<>());
-                    logsView.addEventToProgressLog(newEvent);
-                }
-
-                // Update the progress bar
-                progressBar.setProgress(progress / 100);
-
-                // If the progress reaches 100%, log an EndEvent
-                if (progress / 100 == 1) {
-                    LogEvent endEvent = new EndEvent(0, app.getLoggedInUserID(), logId, log.getLogName(), new ArrayList<>(), new ArrayList<>());
-                    logsView.addEventToProgressLog(endEvent);
-                }
-            });
-
+            checkBox.setOnAction(event -> onToDoToggled(checkBox, task));
         }
 
+        // Only the owner of the log can edit it
+        logsDAO.load(dao -> dao.getUserIdForLog(logId), ownerId -> {
+            if (ownerId != app.getLoggedInUserID()) {
+                addMediaButton.setVisible(false);
+                addMaterialButton.setVisible(false);
+                addToDoButton.setVisible(false);
+                toDoListVBox.getChildren().forEach(node -> node.setDisable(true));
+            }
+        });
+
         // Populate the materials in the table
         materialsTable.getItems().addAll(log.getMaterials());
 
-        getTotalCost(log.getMaterials());
+        getTotalCost();
 
         displayLogEvents(logId);
 
@@ -323,18 +293,50 @@ public class LogsUpdateView {
     }
 
     /**
-     * Method to calculate the total cost of materials and update the label.
-     *
-     * @param materials the list of materials
+     * Method to get the total cost of materials and update the label.
+     * The total is read from the log's row in log_stats, which the database keeps up to date.
      */
-    // Method to calculate total cost and update the label
-    public void getTotalCost(List<Material> materials) {
-        double totalCost = materials.stream()
-                .mapToDouble(material -> material.getPrice() * material.getQuantity()) // Multiply price and quantity
-                .sum(); // Calculate total cost
-
-        // Update the label with the formatted total cost
-        totalCostLabel.setText(String.format("Total Cost: $%.2f", totalCost));
+    // Method to get total cost and update the label
+    public void getTotalCost() {
+        logsDAO.load(dao -> dao.getLogStats(logId).getTotalSpend(), totalCost -> {
+            // Update the label with the formatted total cost
+            totalCostLabel.setText(String.format("Total Cost: $%.2f", totalCost));
+        });
+    }
+
+    /**
+     * Method to save a to-do item that was checked or unchecked and update the progress.
+     * A ToDoEvent is logged when the item is checked, and an EndEvent once every item is done.
+     * @param checkBox The checkbox of the item
+     * @param task The task description
+     */
+    private void onToDoToggled(CheckBox checkBox, String task) {
+        boolean wasChecked = checkBox.isSelected();  // Capture the new state of the checkbox
+        int userId = app.getLoggedInUserID();
+
+        // Update the task's checked state in the log
+        log.updateToDoItemStatus(task, wasChecked);  // Custom method to update the task's checked state
+
+        logsDAO.load(dao -> {
+            double progress = dao.updateToDoItemStatus(logId, task, wasChecked);
+            LogsView logsView = new LogsView();
+
+            // Add a ToDoEvent only if the box goes from unchecked to checked
+            if (wasChecked) {
+                LogEvent newEvent = new ToDoEvent(0, userId, logId, task);
+                logsView.addEventToProgressLog(newEvent);
+            }
+
+            // If the progress reaches 100%, log an EndEvent
+            if (progress / 100 == 1) {
+                LogEvent endEvent = new EndEvent(0, userId, logId, log.getLogName());
+                logsView.addEventToProgressLog(endEvent);
+            }
+            return progress;
+        }, progress -> {
+            // Update the progress bar
+            progressBar.setProgress(progress / 100);
+        });
     }
 
 
@@ -364,44 +366,13 @@ public class LogsUpdateView {
             toDoListVBox.getChildren().add(newTask);
 
             // Store the to-do item and its state in the database for the specific log
-            try {
-                logsDAO.addToDoItem(logId, task, isChecked);
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
-            }
-            double newProgress = logsDAO.updateToDoItemStatus(logId, task, newTask.isSelected());
-            progressBar.setProgress(newProgress / 100);
+            logsDAO.load(dao -> {
+                dao.addToDoItem(logId, task, isChecked);
+                return dao.updateToDoItemStatus(logId, task, isChecked);
+            }, newProgress -> progressBar.setProgress(newProgress / 100));
 
             // Event listener to update the log when a checkbox is checked/unchecked
-            newTask.setOnAction(event -> {
-                boolean wasChecked = newTask.isSelected();  // Capture the new state of the checkbox
-
-                // Update the task's checked state in the log
-                log.updateToDoItemStatus(task, newTask.isSelected());  // Custom method to update the task's checked state
-                double progress = logsDAO.updateToDoItemStatus(logId, task, newTask.isSelected());
-
-                LogsView logsView;
-                try {
-                    logsView = new LogsView();
-                } catch (SQLException e) {
-                    throw new RuntimeException(e);
-                }
-
-                // Add a ToDoEvent only if the box goes from unchecked to checked
-                if (wasChecked) {
-                    LogEvent newEvent = new ToDoEvent(0, app.getLoggedInUserID(), logId, task, new ArrayList<>(), new ArrayList<>());
-                    logsView.addEventToProgressLog(newEvent);
-                }
-
-                // Update the progress bar
-                progressBar.setProgress(progress / 100);
-
-                // If the progress reaches 100%, log an EndEvent
-                if (progress / 100 == 1) {
-                    LogEvent endEvent = new EndEvent(0, app.getLoggedInUserID(), logId, log.getLogName(), new ArrayList<>(), new ArrayList<>());
-                    logsView.addEventToProgressLog(endEvent);
-                }
-            });
+            newTask.setOnAction(event -> onToDoToggled(newTask, task));
 
         });
     }
@@ -453,20 +424,9 @@ public class LogsUpdateView {
                 newImageView.setFitWidth(300);
                 newImageView.setPreserveRatio(true);
 
-                try {
-                    // Download the image to a temporary file
-                    Path tempFile = Files.createTempFile("tempImage", ".jpg");
-                    try (InputStream in = new URL(currentUrl).openStream()) {
-                        Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
-                    }
-
-                    newImageView.setImage(new Image(tempFile.toUri().toString()));
-                    mediaContainer.getChildren().add(1, newImageView);
-
-                    tempFile.toFile().deleteOnExit();
-                } catch (IOException e) {
-                    System.out.println("Failed to load image from S3 URL: " + e.getMessage());
-                }
+                // Load the image in the background; it is dropped if the user moves on before it arrives
+                ImageLoader.getInstance().load(newImageView, currentUrl, null, null);
+                mediaContainer.getChildren().add(1, newImageView);
 
             } else if (currentUrl.endsWith(".mp4")) {
                 System.out.println("Displaying video: " + currentUrl);
@@ -510,30 +470,102 @@ public class LogsUpdateView {
         File selectedFile = fileChooser.showOpenDialog(null);
 
         if (selectedFile != null) {
-            try {
-                S3ImageUploader s3Uploader = new S3ImageUploader();
-                String s3Url = s3Uploader.uploadImage(selectedFile.getAbsolutePath(), selectedFile.getName());
+            // The file is uploaded in the background; its URL is known once it is hashed, so it is added to the log then
+            addMediaButton.setText("Preparing upload");
+            UploadService.getInstance().submit(selectedFile.toPath(), new UploadService.Listener() {
+                private String queuedUrl;
 
-                logsDAO.addImage(logId, s3Url);
-                List<String> imageList = new ArrayList<>(log.getImages());
-                imageList.add(s3Url);
-                log.setImages(imageList);
+                @Override
+                public void onQueued(String s3Url) {
+                    queuedUrl = s3Url;
+                    addQueuedMedia(s3Url, selectedFile);
+                }
 
-                Image image = new Image(s3Url);
-                images.add(image);  // Add to cached images list
+                @Override
+                public void onProgress(long sent, long total) {
+                    addMediaButton.setText("Uploading " + (sent * 100 / Math.max(total, 1)) + "%");
+                }
 
-                currentIndex = log.getImages().size() - 1;
-                updateMediaView();  // Update the view with the newly added media
-                updateButtonState();  // Update button states after adding
+                @Override
+                public void onComplete(String url) {
+                    addMediaButton.setText("Add Media");
+                    // A video can only be played once it is uploaded
+                    if (url.endsWith(".mp4") && currentIndex >= 0 && url.equals(log.getImages().get(currentIndex))) {
+                        updateMediaView();
+                    }
+                }
 
-                LogsView logsView = new LogsView();
-                LogEvent event = new ImageEvent(0, app.getLoggedInUserID(), logId, selectedFile.getName(), new ArrayList<>(), new ArrayList<>());
-                logsView.addEventToProgressLog(event);
+                @Override
+                public void onFailed(Exception error) {
+                    addMediaButton.setText("Add Media");
+                    new Alert(Alert.AlertType.ERROR, "Could not upload " + selectedFile.getName()
+                            + ". It will be tried again the next time HobbyLog starts.").show();
+                }
 
-            } catch (SQLException e) {
-                e.printStackTrace();
-                System.out.println("Failed to add media");
-            }
+                @Override
+                public void onAbandoned(Exception error) {
+                    addMediaButton.setText("Add Media");
+                    if (queuedUrl != null) {
+                        removeQueuedMedia(queuedUrl);  // Its URL will never work
+                    }
+                    new Alert(Alert.AlertType.ERROR, "Could not upload " + selectedFile.getName()
+                            + " because it was moved, changed or could not be read. Please add it again.").show();
+                }
+            });
+        }
+    }
+
+    // Helper method to add media to the log once it is in the outbox, before it has finished uploading
+    private void addQueuedMedia(String s3Url, File selectedFile) {
+        if (!selectedFile.getName().endsWith(".mp4")) {
+            cacheLocalCopy(s3Url, selectedFile);
+        }
+
+        logsDAO.run(dao -> dao.addImage(logId, s3Url));
+        List<String> imageList = new ArrayList<>(log.getImages());
+        imageList.add(s3Url);
+        log.setImages(imageList);
+
+        Image image = new Image(s3Url, true);
+        images.add(image);  // Add to cached images list
+
+        currentIndex = log.getImages().size() - 1;
+        updateMediaView();  // Update the view with the newly added media
+        updateButtonState();  // Update button states after adding
+
+        LogsView logsView = new LogsView();
+        LogEvent event = new ImageEvent(0, app.getLoggedInUserID(), logId, selectedFile.getName());
+        logsView.addEventToProgressLog(event);
+    }
+
+    // Helper method to take media back out of the log when it will never be uploaded
+    private void removeQueuedMedia(String s3Url) {
+        logsDAO.run(dao -> dao.removeImage(logId, s3Url));
+        int index = log.getImages().indexOf(s3Url);
+        if (index < 0) {
+            return;
+        }
+        List<String> imageList = new ArrayList<>(log.getImages());
+        imageList.remove(index);
+        log.setImages(imageList);
+        if (index < images.size()) {
+            images.remove(index);
+        }
+
+        mediaContainer.getChildren().removeIf(node -> node instanceof ImageView || node instanceof MediaView);
+        if (index < currentIndex || currentIndex >= images.size()) {
+            currentIndex--;  // Keep showing the same media, or the one before the removed one
+        }
+        updateMediaView();
+        updateButtonState();
+    }
+
+    // Helper method to show an image from the user's own file until it has been uploaded, and without downloading it again
+    private static void cacheLocalCopy(String url, File file) {
+        try {
+            ImageDiskCache.getInstance().put(url, file.toPath());
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 
@@ -655,19 +687,13 @@ public class LogsUpdateView {
             materialsTable.getItems().add(material);
             log.addMaterial(material);
 
-            // Add the material to the database (replace logId with the actual log ID you're working with)
-            logsDAO.addMaterial(logId, material);
-
-            getTotalCost(log.getMaterials());
-
-            LogsView logsView;
-            try {
-                logsView = new LogsView();
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
-            }
-            LogEvent event = new MaterialEvent(0, app.getLoggedInUserID(), logId, materialName, new ArrayList<>(), new ArrayList<>());
-            logsView.addEventToProgressLog(event);
+            // Add the material to the database, then refresh the total cost
+            int userId = app.getLoggedInUserID();
+            logsDAO.run(dao -> {
+                dao.addMaterial(logId, material);
+                LogEvent event = new MaterialEvent(0, userId, logId, materialName);
+                new LogsView().addEventToProgressLog(event);
+            }, this::getTotalCost);
         });
     }
 
@@ -686,11 +712,18 @@ public class LogsUpdateView {
      * Method to display log events.
      */
     public void displayLogEvents(int logId) {
-        try {
-            // Fetch log events from the database
-            List<LogEvent> logEvents = logEventDAO.getLogEventsForLog(logId);
+        // Fetch log events and their authors from the database in the background
+        logEventDAO.load(dao -> {
+            List<LogEvent> logEvents = dao.getLogEventsForLog(logId);
+            Set<Integer> authorIds = new HashSet<>();
+            for (LogEvent event : logEvents) {
+                authorIds.add(event.getUserId());
+            }
+            return new Pair<>(logEvents, users.getContacts(authorIds));
+        }, loaded -> {
+            Map<Integer, Contact> authors = loaded.getValue();
             // Create an observable list to populate the ListView
-            ObservableList<LogEvent> eventItems = FXCollections.observableArrayList(logEvents);
+            ObservableList<LogEvent> eventItems = FXCollections.observableArrayList(loaded.getKey());
             // Set the items in the ListView
             logEventsListView.setItems(eventItems);
             // Set a custom cell factory for the ListView to display LogEventCell
@@ -701,10 +734,12 @@ public class LogsUpdateView {
                     if (empty || event == null) {
                         setGraphic(null);
                     } else {
-                        // Fetch user details
-                        Contact contact = getContactForUserId(event.getUserId());
+                        // User details were read with the events
+                        Contact contact = authors.get(event.getUserId());
+                        String username = contact != null ? contact.getFirstName() : "Unknown User";
+                        String photo = contact != null ? contact.getPhoto() : null;
                         // Create a custom LogEventCell
-                        LogEventCell eventCell = new LogEventCell(event, contact.getFirstName(), contact.getPhoto(), event.getLikes().size(), event.getComments().size());
+                        LogEventCell eventCell = new LogEventCell(event, username, photo, event.getLikeCount(), event.getCommentCount(), logEventDAO);
                         setGraphic(eventCell);  // Set the custom cell graphic
                     }
                 }
@@ -713,29 +748,7 @@ public class LogsUpdateView {
             logEventsBox.getChildren().clear();
             // Add the ListView to the VBox or the container where you want to display it
             logEventsBox.getChildren().add(logEventsListView);
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-
-/*
-* Method to get the contact for the user
-* */
-    private Contact getContactForUserId(int userId) {
-        contactDAO = new ContactDAO();
-
-        // Fetch the contact information for the logged-in user
-        Contact contact = contactDAO.getContactById(userId);
-
-        // Now update the contact with profile details (bio, photo)
-        ProfileDAO profileDAO = new ProfileDAO();
-        try {
-            profileDAO.insertProfile(userId, " ", " ");
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
-        profileDAO.getProfileByUserId(contact, userId);
-        return contact;
+        });
     }
 }
 
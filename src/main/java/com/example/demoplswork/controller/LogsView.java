@@ -5,6 +5,8 @@ import com.example.demoplswork.events.LogEvent;
 import com.example.demoplswork.events.LogEventDAO;
 import com.example.demoplswork.events.ProgressLog;
 import com.example.demoplswork.events.StartEvent;
+import com.example.demoplswork.model.AsyncDAO;
+import com.example.demoplswork.model.ImageLoader;
 import com.example.demoplswork.model.Logs;
 import com.example.demoplswork.model.LogsDAO;
 import javafx.event.ActionEvent;
@@ -15,7 +17,6 @@ import javafx.geometry.Pos;
 import javafx.geometry.Side;
 import javafx.scene.Node;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
@@ -23,11 +24,6 @@ import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.shape.Rectangle;
 
-import java.io.InputStream;
-import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
@@ -200,20 +196,21 @@ public class LogsView {
      */
     private void loadLogsForUser() {
         int userID = app.getLoggedInUserID();
-        List<Object[]> logsList = logsDAO.getLogsForUser(userID);
-
-        for (Object[] logData : logsList) {
-            int logID = (int) logData[0];
-            Logs log = (Logs) logData[1];
-            VBox logModule = createLogModuleFromDatabase(log, logID);
-            projectsGrid.add(logModule, currentColumn, currentRow);
-
-            currentColumn++;
-            if (currentColumn >= LOGS_PER_ROW) {
-                currentColumn = 0;
-                currentRow++;
+        // Read the logs in the background and add them once they arrive
+        new AsyncDAO<>(logsDAO).load(dao -> dao.getLogsForUser(userID), logsList -> {
+            for (Object[] logData : logsList) {
+                int logID = (int) logData[0];
+                Logs log = (Logs) logData[1];
+                VBox logModule = createLogModuleFromDatabase(log, logID);
+                projectsGrid.add(logModule, currentColumn, currentRow);
+
+                currentColumn++;
+                if (currentColumn >= LOGS_PER_ROW) {
+                    currentColumn = 0;
+                    currentRow++;
+                }
             }
-        }
+        });
     }
 
     /**
@@ -239,24 +236,8 @@ public class LogsView {
         imageView.setFitWidth(250);
         imageView.setPreserveRatio(false);
 
-        try {
-            // Download the image to a temporary file
-            Path tempFile = Files.createTempFile("tempImage", ".jpg");
-            try (InputStream in = new URL(imageUrl).openStream()) {
-                Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
-            }
-
-            // Load the image from the local temporary file
-            Image image = new Image(tempFile.toUri().toString());
-            imageView.setImage(image);
-
-            // Delete the temp file on application exit
-            tempFile.toFile().deleteOnExit();
-
-        } catch (IOException e) {
-            System.out.println("Failed to load image from URL: " + e.getMessage());
-            imageView.setImage(null); // Clear image view if loading fails
-        }
+        // Load the image in the background; the view stays empty until it arrives, or if it cannot be loaded
+        ImageLoader.getInstance().load(imageView, imageUrl, null, null);
 
         imageContainer.getChildren().addAll(imageBackground, imageView);
 
@@ -444,7 +425,7 @@ public class LogsView {
             }
 
             try {
-                LogEvent startEvent = new StartEvent(0, userID, logID, projectName, new ArrayList<>(), new ArrayList<>());
+                LogEvent startEvent = new StartEvent(0, userID, logID, projectName);
                 addEventToProgressLog(startEvent);
                 goToUpdateLogs(logID, newLog);
             } catch (IOException e) {
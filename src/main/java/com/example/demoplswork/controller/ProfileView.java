@@ -16,12 +16,9 @@ import javafx.stage.FileChooser;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ProfileView class is the controller for managing the Profile View.
@@ -31,13 +28,16 @@ import java.util.List;
  * It has methods to load and display the user's logs, likes, and comments.
  * It has methods to navigate to different views such as Home, Explore, Logs, and Account.
  * It has a method to log out the user.
+ * Profile data, logs and counts are read on background threads through AsyncDAO and shown once they arrive.
  */
 public class ProfileView {
     private HelloApplication app;
     private ContextMenu accountMenu;
     private ContactDAO contactDAO;
-    private LogsDAO logsDAO;
-    private Analytics analytics;
+    private AsyncDAO<LogsDAO> logsDAO;
+    private AsyncDAO<Analytics> analytics;
+    private AsyncDAO<ProfileDAO> profileDAO;
+    private CompletableFuture<?> logsLoad;
 
     /**
      * Constructor for ProfileView.
@@ -46,8 +46,9 @@ public class ProfileView {
      * @throws SQLException if a database access error occurs
      */
     public ProfileView() throws SQLException {
-        logsDAO = new LogsDAO();
-        analytics = new Analytics();
+        logsDAO = new AsyncDAO<>(new LogsDAO());
+        analytics = new AsyncDAO<>(new Analytics());
+        profileDAO = new AsyncDAO<>(new ProfileDAO());
     }
 
     @FXML
@@ -121,16 +122,24 @@ public class ProfileView {
 
         contactDAO = new ContactDAO();
 
-        Contact contact = contactDAO.getContactById(userID);
+        profileDAO.load(dao -> {
+            Contact contact = contactDAO.getContactById(userID);
+            dao.insertProfile(userID, " ", " ");
+            dao.getProfileByUserId(contact, userID);
+            return contact;
+        }, contact -> showUser(userID, contact));
 
-        ProfileDAO profileDAO = new ProfileDAO();
-        try {
-            profileDAO.insertProfile(userID, " ", " ");
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
-        profileDAO.getProfileByUserId(contact, userID);
+        loadUserLogs(userID);
+
+    }
 
+    /**
+     * Shows the user's name, bio and photo.
+     *
+     * @param userID the user ID
+     * @param contact the user's contact details, with profile
+     */
+    private void showUser(int userID, Contact contact) {
         if(userID != app.getLoggedInUserID()){
             bioButton.setVisible(false);
             photoButton.setVisible(false);
@@ -145,25 +154,10 @@ public class ProfileView {
             bioText.setText(contact.getBio());
             String imageUrl = contact.getPhoto();  // Assuming this is the S3 URL
 
-            if (imageUrl != null && !imageUrl.isEmpty()) {
-                try {
-                    Path tempFile = Files.createTempFile("tempUserImage", ".jpg");
-                    try (InputStream in = new URL(imageUrl).openStream()) {
-                        Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
-                    }
-                    profileImageView.setImage(new Image(tempFile.toUri().toString()));
-                    tempFile.toFile().deleteOnExit();
-                } catch (IOException e) {
-                    System.out.println("Failed to load user image from URL: " + e.getMessage());
-                    profileImageView.setImage(new Image(getClass().getResourceAsStream("/images/account_circle.png")));  // Fallback
-                }
-            } else {
-                profileImageView.setImage(new Image(getClass().getResourceAsStream("/images/account_circle.png")));  // Fallback
-            }
+            // Load the photo in the background, showing the default avatar until it arrives or if it is not set
+            Image defaultAvatar = ImageLoader.resource(ImageLoader.AVATAR_PLACEHOLDER);
+            ImageLoader.getInstance().load(profileImageView, imageUrl, defaultAvatar, defaultAvatar);
         }
-
-        loadUserLogs(userID);
-
     }
 
     /**
@@ -171,25 +165,39 @@ public class ProfileView {
      */
     public void loadUserLogs(int userID) {
         logsContainer.getChildren().clear();
-        List<Object[]> logsList = logsDAO.getLogsForUser(userID);
-
-        for (Object[] logData : logsList) {
-            int logID = (int) logData[0];
-            Logs log = (Logs) logData[1];
-            HBox logEntry = createLogEntry(log, logID);
-            logsContainer.getChildren().add(logEntry);
+        if (logsLoad != null) {
+            logsLoad.cancel(true);  // Only the latest user's logs are shown
         }
+        Analytics analyticsDao = analytics.getDao();
+        logsLoad = logsDAO.load(dao -> {
+            List<Object[]> logsList = dao.getLogsForUser(userID);
+            // Fetch the likes and comments of all the logs in one query
+            LogCounts counts = analyticsDao.calculateLikesCommentsForLogs(userID);
+            for (int i = 0; i < logsList.size(); i++) {
+                int logID = (int) logsList.get(i)[0];
+                logsList.set(i, new Object[] { logID, logsList.get(i)[1], counts.getLikes(logID), counts.getComments(logID) });
+            }
+            return logsList;
+        }, logsList -> {
+            for (Object[] logData : logsList) {
+                int logID = (int) logData[0];
+                Logs log = (Logs) logData[1];
+                HBox logEntry = createLogEntry(log, logID, (int) logData[2], (int) logData[3]);
+                logsContainer.getChildren().add(logEntry);
+            }
+        });
     }
 
     public void loadLikesComments(int userID) {
 
-        // Calculate and display Total Likes
-        int totalLikes = analytics.calculateTotalLikes(userID);
-        profileLikes.setText(STR."\{String.valueOf(totalLikes)} likes");
+        // Calculate Total Likes and Total Comments in the background
+        analytics.load(a -> a.getUserStats(userID), stats -> {
+            int totalLikes = stats.getTotalLikes();
+            profileLikes.setText(STR."\{String.valueOf(totalLikes)} likes");
 
-        // Calculate and display Total Comments
-        int totalComments = analytics.calculateTotalComments(userID);
-        profileComments.setText(STR."\{String.valueOf(totalComments)} comments");
+            int totalComments = stats.getTotalComments();
+            profileComments.setText(STR."\{String.valueOf(totalComments)} comments");
+        });
     }
 
     /**
@@ -197,9 +205,11 @@ public class ProfileView {
      *
      * @param log the Logs object
      * @param logID the log ID
+     * @param totalLikes the total likes for this log
+     * @param totalComments the total comments for this log
      * @return the HBox containing the log entry
      */
-    private HBox createLogEntry(Logs log, int logID) {
+    private HBox createLogEntry(Logs log, int logID, int totalLikes, int totalComments) {
         HBox logEntry = new HBox();
         logEntry.setSpacing(30);
         logEntry.setStyle("-fx-border-color: lightgray; -fx-border-radius: 5; -fx-padding: 10;");
@@ -214,10 +224,6 @@ public class ProfileView {
         HBox likesComments = new HBox();
         likesComments.setSpacing(10);
 
-        // Fetch the real likes and comments for this log
-        int totalLikes = analytics.calculateTotalLikesForLog(logID);  // Fetch total likes for this log
-        int totalComments = analytics.calculateTotalCommentsForLog(logID);  // Fetch total comments for this log
-
         // Update likes and comments labels with actual values
         Label likesLabel = new Label(String.valueOf(totalLikes));
         InputStream imageStream = getClass().getResourceAsStream("/images/like-icon.png");
@@ -312,12 +318,8 @@ public class ProfileView {
                 bioText.setText(userBio);
 
                 int userID = app.getLoggedInUserID();
-                ProfileDAO profileDAO = new ProfileDAO();
-                try {
-                    profileDAO.updateProfile(userID, userBio, null);
-                } catch (SQLException e) {
-                    throw new RuntimeException(e);
-                }
+                String bio = userBio;
+                profileDAO.run(dao -> dao.updateProfile(userID, bio, null));
             }
             return null;
         });
@@ -342,20 +344,45 @@ public class ProfileView {
         File selectedFile = fileChooser.showOpenDialog(null);
 
         if (selectedFile != null) {
-            try {
-                S3ImageUploader s3Uploader = new S3ImageUploader();
-                String s3Url = s3Uploader.uploadImage(selectedFile.getAbsolutePath(), selectedFile.getName());
+            // The photo is uploaded in the background; its URL is known once it is hashed, so it is saved then
+            UploadService.getInstance().submit(selectedFile.toPath(), new UploadService.Listener() {
+                private String queuedUrl;
+
+                @Override
+                public void onQueued(String s3Url) {
+                    queuedUrl = s3Url;
+                    // Set the profile image from the local file, which is cached under the S3 URL
+                    try {
+                        ImageDiskCache.getInstance().put(s3Url, selectedFile.toPath());
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                    Image defaultAvatar = ImageLoader.resource(ImageLoader.AVATAR_PLACEHOLDER);
+                    ImageLoader.getInstance().load(profileImageView, s3Url, defaultAvatar, defaultAvatar);
 
-                // Set the profile image from S3 URL
-                profileImageView.setImage(new Image(s3Url));
+                    int userID = app.getLoggedInUserID();
+                    profileDAO.run(dao -> dao.updateProfile(userID, null, s3Url));  // Save S3 URL in the database
+                }
 
-                int userID = app.getLoggedInUserID();
-                ProfileDAO profileDAO = new ProfileDAO();
-                profileDAO.updateProfile(userID, null, s3Url);  // Save S3 URL in the database
-            } catch ( SQLException e) {
-                e.printStackTrace();
-                System.out.println("Failed to upload and save profile image.");
-            }
+                @Override
+                public void onFailed(Exception error) {
+                    new Alert(Alert.AlertType.ERROR, "Could not upload your profile photo. "
+                            + "It will be tried again the next time HobbyLog starts.").show();
+                }
+
+                @Override
+                public void onAbandoned(Exception error) {
+                    if (queuedUrl != null) {
+                        // Its URL will never work, so go back to the default avatar
+                        int userID = app.getLoggedInUserID();
+                        profileDAO.run(dao -> dao.removePhoto(userID, queuedUrl));
+                        Image defaultAvatar = ImageLoader.resource(ImageLoader.AVATAR_PLACEHOLDER);
+                        ImageLoader.getInstance().load(profileImageView, null, defaultAvatar, defaultAvatar);
+                    }
+                    new Alert(Alert.AlertType.ERROR, "Could not upload your profile photo because it was moved, "
+                            + "changed or could not be read. Please choose it again.").show();
+                }
+            });
         }
     }
 
@@ -0,0 +1,96 @@
+package com.example.demoplswork.events;
+
+import com.example.demoplswork.model.AsyncDAO;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.VBox;
+
+import java.util.List;
+
+/**
+ * CommentPager class fills a comments popup one page at a time.
+ * It has a method to attach to a ScrollPane, which shows the first page and loads the next page when the user scrolls to the bottom.
+ * It remembers the ID of the last comment shown, so each page is read straight from the event_comments index.
+ * It has a method to show a comment the user has just added without reloading the list.
+ * Pages are read on a background thread through AsyncDAO, one page at a time.
+ */
+public class CommentPager {
+    public static final int PAGE_SIZE = 20;
+
+    private final AsyncDAO<LogEventDAO> logEventDAO;
+    private final int eventId;
+    private final VBox commentsBox;
+    private int lastCommentId = 0;
+    private boolean exhausted = false;
+    private volatile boolean loading = false;
+
+    /**
+     * Constructor for CommentPager class.
+     * @param logEventDAO The DAO the comments are read through.
+     * @param eventId The ID of the event whose comments are shown.
+     * @param commentsBox The VBox that holds one label per comment.
+     */
+    public CommentPager(AsyncDAO<LogEventDAO> logEventDAO, int eventId, VBox commentsBox) {
+        this.logEventDAO = logEventDAO;
+        this.eventId = eventId;
+        this.commentsBox = commentsBox;
+    }
+
+    /**
+     * Method to show the first page and load more whenever the scroll pane reaches the bottom.
+     * @param scrollPane The scroll pane wrapping the comments box.
+     */
+    public void attach(ScrollPane scrollPane) {
+        loadNextPage();
+        scrollPane.vvalueProperty().addListener((obs, oldValue, newValue) -> {
+            if (newValue.doubleValue() >= scrollPane.getVmax()) {
+                loadNextPage();
+            }
+        });
+    }
+
+    /**
+     * Method to load the next page of comments into the comments box.
+     * Nothing is loaded while a page is still on its way.
+     */
+    public void loadNextPage() {
+        if (exhausted || loading) {
+            return;
+        }
+        loading = true;
+        int afterId = lastCommentId;
+        logEventDAO.load(dao -> dao.getComments(eventId, afterId, PAGE_SIZE), this::showPage)
+                .whenComplete((page, error) -> {
+                    if (error != null) {
+                        loading = false;  // Allow another try on the next scroll
+                    }
+                });
+    }
+
+    // Add a loaded page to the comments box
+    private void showPage(List<EventComment> page) {
+        for (EventComment comment : page) {
+            if (comment.getId() > lastCommentId) {
+                commentsBox.getChildren().add(new Label(comment.getDisplayText()));
+                lastCommentId = comment.getId();
+            }
+        }
+        if (page.size() < PAGE_SIZE) {
+            exhausted = true;
+        }
+        loading = false;
+    }
+
+    /**
+     * Method to show a comment that was just added.
+     * It is only shown straight away once every older comment is on screen; otherwise it arrives with its page.
+     * @param commentId The ID of the new comment.
+     * @param displayText The text to show.
+     */
+    public void addNewComment(int commentId, String displayText) {
+        if (exhausted) {
+            commentsBox.getChildren().add(new Label(displayText));
+            lastCommentId = Math.max(lastCommentId, commentId);
+        }
+    }
+}
@@ -1,49 +1,37 @@
 package com.example.demoplswork.events;
 
-import java.util.List;
 /**
  * EndEvent class is a subclass of LogEvent class. It is used to create an EndEvent object.
- * It has a constructor that takes in an id, userId, logId, description, comments, and likes.
- * It has a getDescription method that returns the description of the EndEvent object.
- * It has a setDescription method that returns the description of the EndEvent object.
- * It has a getComments method that returns the comments of the EndEvent object.
+ * Its description is the name of the completed project.
+ * It has constructors for a new event and for an event read from the database.
+ * It has a setDescription method that returns the formatted description of the EndEvent object.
  */
 public class EndEvent extends LogEvent {
-    private String projectName;
-    private List<String> comments;
-    private List<Integer> likes;
     /**
-     * Constructor for EndEvent class
-     * @param id
-     * @param userId
-     * @param logId
-     * @param description
-     * @param comments
-     * @param likes
+     * Constructor for a new EndEvent, dated today.
+     * @param id The unique identifier of the event.
+     * @param userId The unique identifier of the user who created the event.
+     * @param logId The unique identifier of the log that the event belongs to.
+     * @param description The name of the completed project.
      */
-    public EndEvent(int id, int userId, int logId, String description, List<String> comments, List<Integer> likes) {
-        super(id, logId, userId, description, comments, likes);
-        this.projectName = description;
-        this.comments = comments;
-        this.likes = likes;
+    public EndEvent(int id, int userId, int logId, String description) {
+        super(id, logId, userId, description);
     }
 
     /**
-     * Gets the comments of the EndEvent object
-     * return List of comments
+     * Constructor for a EndEvent read from the database.
+     * @param id The unique identifier of the event.
+     * @param userId The unique identifier of the user who created the event.
+     * @param logId The unique identifier of the log that the event belongs to.
+     * @param description The name of the completed project.
+     * @param timestamp The date of the event.
+     * @param likeCount The number of likes on the event.
+     * @param commentCount The number of comments on the event.
+     * @param likedByViewer Whether the user viewing the event has liked it.
      */
-    @Override
-    public List<String> getComments(){
-        return comments;
-    }
-
-    /**
-     * Gets the description of the EndEvent object
-     * return string description
-     */
-    @Override
-    public String getDescription() {
-        return projectName;
+    public EndEvent(int id, int userId, int logId, String description, String timestamp,
+                    int likeCount, int commentCount, boolean likedByViewer) {
+        super(id, logId, userId, description, timestamp, likeCount, commentCount, likedByViewer);
     }
 
     /**
@@ -52,8 +40,6 @@ public class EndEvent extends LogEvent {
      */
     @Override
     public String setDescription() {
-        return "completed the log! \"" + projectName + "\"";
+        return "completed the log! \"" + getDescription() + "\"";
     }
-
 }
-
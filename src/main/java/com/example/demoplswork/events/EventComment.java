@@ -0,0 +1,84 @@
+package com.example.demoplswork.events;
+
+/**
+ * EventComment class represents one comment on a log event, stored as a row in the event_comments table.
+ * It has fields for the comment ID, event ID, author ID, author first name, comment text and creation time.
+ * It has getter methods for each field.
+ * It has a getDisplayText method to return the comment as shown in the comments popup.
+ */
+public class EventComment {
+    private final int id;
+    private final int eventId;
+    private final int userId;
+    private final String authorName;
+    private final String body;
+    private final String createdAt;
+
+    /**
+     * Constructor for EventComment class.
+     * @param id The ID of the comment.
+     * @param eventId The ID of the event the comment belongs to.
+     * @param userId The ID of the author, or 0 for comments saved before authors were recorded.
+     * @param authorName The first name of the author, or null if unknown.
+     * @param body The comment text.
+     * @param createdAt The time the comment was added.
+     */
+    public EventComment(int id, int eventId, int userId, String authorName, String body, String createdAt) {
+        this.id = id;
+        this.eventId = eventId;
+        this.userId = userId;
+        this.authorName = authorName;
+        this.body = body;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Getter method for the comment ID. Comment IDs increase in the order comments are added.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Getter method for the event ID.
+     */
+    public int getEventId() {
+        return eventId;
+    }
+
+    /**
+     * Getter method for the author ID.
+     */
+    public int getUserId() {
+        return userId;
+    }
+
+    /**
+     * Getter method for the author's first name.
+     */
+    public String getAuthorName() {
+        return authorName;
+    }
+
+    /**
+     * Getter method for the comment text.
+     */
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * Getter method for the creation time.
+     */
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * getDisplayText method to return the comment as "Name: text".
+     * Older comments already contain the author's name in the text.
+     */
+    public String getDisplayText() {
+        return authorName != null ? authorName + ": " + body : body;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demoplswork.events;
+
+/**
+ * FeedCursor class marks where one page of the Explore feed ends.
+ * It holds the timestamp and ID of the last event shown; the next page starts with the event just older than it.
+ * The ID breaks ties between events with the same timestamp, so no event is skipped or shown twice between pages.
+ * It has static methods to make the cursor following a given event or feed item.
+ */
+public final class FeedCursor {
+    private final String timestamp;
+    private final int id;
+
+    /**
+     * Constructor for FeedCursor class.
+     * @param timestamp The timestamp of the last event shown.
+     * @param id The ID of the last event shown.
+     */
+    public FeedCursor(String timestamp, int id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    /**
+     * Method to make the cursor for the page after a given event.
+     * @param event The last event shown.
+     * @return The cursor.
+     */
+    public static FeedCursor after(LogEvent event) {
+        return new FeedCursor(event.getTimestamp(), event.getId());
+    }
+
+    /**
+     * Method to make the cursor for the page after a given feed item.
+     * @param item The last item shown.
+     * @return The cursor.
+     */
+    public static FeedCursor after(FeedItem item) {
+        return after(item.getEvent());
+    }
+
+    /**
+     * Getter method for the timestamp.
+     */
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Getter method for the event ID.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * toString method to return a string representation of the cursor.
+     */
+    @Override
+    public String toString() {
+        return timestamp + "#" + id;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demoplswork.events;
+
+/**
+ * FeedItem class is one post in the Explore feed, read in a single query with everything the post shows.
+ * It has fields for the event, which carries its like and comment counts, the author's first name and photo URL,
+ * and the name of the log the event belongs to.
+ * It has getter methods for each field.
+ */
+public final class FeedItem {
+    private final LogEvent event;
+    private final String authorName;
+    private final String authorPhoto;
+    private final String logName;
+
+    /**
+     * Constructor for FeedItem class.
+     * @param event The event, with its like and comment counts.
+     * @param authorName The first name of the author, or null if the author no longer exists.
+     * @param authorPhoto The URL of the author's profile photo, or null if they have none.
+     * @param logName The name of the log the event belongs to.
+     */
+    public FeedItem(LogEvent event, String authorName, String authorPhoto, String logName) {
+        this.event = event;
+        this.authorName = authorName;
+        this.authorPhoto = authorPhoto;
+        this.logName = logName;
+    }
+
+    /**
+     * Getter method for the event.
+     */
+    public LogEvent getEvent() {
+        return event;
+    }
+
+    /**
+     * Getter method for the author's first name.
+     */
+    public String getAuthorName() {
+        return authorName;
+    }
+
+    /**
+     * Getter method for the URL of the author's profile photo.
+     */
+    public String getAuthorPhoto() {
+        return authorPhoto;
+    }
+
+    /**
+     * Getter method for the log name.
+     */
+    public String getLogName() {
+        return logName;
+    }
+
+    /**
+     * Getter method for the number of likes on the event.
+     */
+    public int getLikeCount() {
+        return event.getLikeCount();
+    }
+
+    /**
+     * Getter method for the number of comments on the event.
+     */
+    public int getCommentCount() {
+        return event.getCommentCount();
+    }
+}
@@ -1,53 +1,38 @@
 package com.example.demoplswork.events;
 
-import com.example.demoplswork.model.LogsDAO;
-
-import java.util.List;
 /**
  * ImageEvent class is a subclass of LogEvent class. It is used to create an ImageEvent object.
- * It has a constructor that takes in an id, userId, logId, description, comments, and likes.
- * It has a getDescription method that returns the description of the ImageEvent object.
- * It has a setDescription method that sets the description of the ImageEvent object.
- * It has a getComments method that returns the comments of the ImageEvent object.
+ * Its description is the file name of the added image or video.
+ * It has constructors for a new event and for an event read from the database.
+ * It has a setDescription method that returns the formatted description of the ImageEvent object.
  * It has a getImagePath method to retrieve the image path for the log.
  */
 public class ImageEvent extends LogEvent {
-    private String imagePath;
-    private List<String> comments;
-    private List<Integer> likes;
-
-    /**
-     * Constructor for ImageEvent class.
-     * @param id The id of the ImageEvent object.
-     * @param userId The userId of the ImageEvent object.
-     * @param logId The logId of the ImageEvent object.
-     * @param description The description of the ImageEvent object.
-     * @param comments The comments of the ImageEvent object.
-     * @param likes The likes of the ImageEvent object.
-     */
-    public ImageEvent(int id, int userId, int logId, String description, List<String> comments, List<Integer> likes) {
-        super(id, logId, userId, description, comments, likes);
-        this.imagePath = description;
-        this.comments = comments;
-        this.likes = likes;
-    }
-
     /**
-     * Method to get the description of the ImageEvent object.
-     * @return The description of the ImageEvent object.
+     * Constructor for a new ImageEvent, dated today.
+     * @param id The unique identifier of the event.
+     * @param userId The unique identifier of the user who created the event.
+     * @param logId The unique identifier of the log that the event belongs to.
+     * @param description The file name of the image or video.
      */
-    @Override
-    public String getDescription() {
-        return imagePath;
+    public ImageEvent(int id, int userId, int logId, String description) {
+        super(id, logId, userId, description);
     }
 
     /**
-     * Method to get the comments of the ImageEvent object.
-     * @return The comments of the ImageEvent object.
+     * Constructor for a ImageEvent read from the database.
+     * @param id The unique identifier of the event.
+     * @param userId The unique identifier of the user who created the event.
+     * @param logId The unique identifier of the log that the event belongs to.
+     * @param description The file name of the image or video.
+     * @param timestamp The date of the event.
+     * @param likeCount The number of likes on the event.
+     * @param commentCount The number of comments on the event.
+     * @param likedByViewer Whether the user viewing the event has liked it.
      */
-    @Override
-    public List<String> getComments(){
-        return comments;
+    public ImageEvent(int id, int userId, int logId, String description, String timestamp,
+                      int likeCount, int commentCount, boolean likedByViewer) {
+        super(id, logId, userId, description, timestamp, likeCount, commentCount, likedByViewer);
     }
 
     /**
@@ -56,7 +41,7 @@ public class ImageEvent extends LogEvent {
      */
     @Override
     public String setDescription() {
-        return "added new media: " + imagePath;
+        return "added new media: " + getDescription();
     }
 
     /**
@@ -77,5 +62,3 @@ public class ImageEvent extends LogEvent {
         return imagePath;
     }
 }
-
-
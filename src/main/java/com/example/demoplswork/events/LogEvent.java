@@ -1,67 +1,72 @@
 package com.example.demoplswork.events;
 
-import com.example.demoplswork.model.LogsDAO;
-
-import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.LocalDate;
 /**
  * LogEvent class is an abstract class representing a log event.
- * It has fields for the timestamp, user ID, log ID, comments, likes, and description.
- * It has a constructor to initialize these fields.
- * It has getter and setter methods for the timestamp, user ID, log ID, comments, likes, and ID.
- * It has an abstract method getDescription to be implemented by subclasses.
+ * Events are plain immutable data: the timestamp, user ID, log ID, ID and description, plus the like and comment
+ * counts and whether the viewer has liked it, as read from the log_events row.
+ * It has a constructor for a new event dated today, and a constructor for an event read from the database.
+ * It has getter methods for each field.
+ * It has an abstract method setDescription to be implemented by subclasses, which formats the description for display.
  * It has a toString method to return a string representation of the log event.
- * It has a getLogName method to get the log name by log ID.
- * It has a getCommentsFromDatabase method to retrieve comments for the event from the database.
+ * Events do not read the database themselves; the log name and comments are looked up through LogsDAO and LogEventDAO.
  */
 public abstract class LogEvent {
-    protected String timestamp;
-    protected int userId;
-    protected int logId;
-    private List<String> comments; // New field to store comments
-    private List<Integer> likes; // New field to store user IDs who liked the event
-    private LogsDAO logsDAO;
-    private LogEventDAO logEventDAO;
-    private int id;
-    private String description;
+    private final int id;
+    private final int logId;
+    private final int userId;
+    private final String timestamp;
+    private final String description;
+    private final int likeCount;
+    private final int commentCount;
+    private final boolean likedByViewer;
 
     /**
-     * Constructor for LogEvent class.
+     * Constructor for LogEvent class, for a new event dated today.
      * @param id The ID of the log event.
      * @param logId The ID of the log.
      * @param userId The ID of the user.
      * @param description The description of the event.
-     * @param comments The comments for the event.
-     * @param likes The likes for the event.
      */
-    public LogEvent(int id, int logId, int userId, String description, List<String> comments, List<Integer> likes) {
+    public LogEvent(int id, int logId, int userId, String description) {
+        this(id, logId, userId, description, LocalDate.now().toString(), 0, 0, false);
+    }
+
+    /**
+     * Constructor for LogEvent class, for an event read from the database.
+     * @param id The ID of the log event.
+     * @param logId The ID of the log.
+     * @param userId The ID of the user.
+     * @param description The description of the event.
+     * @param timestamp The date of the event, as yyyy-MM-dd.
+     * @param likeCount The number of likes on the event.
+     * @param commentCount The number of comments on the event.
+     * @param likedByViewer Whether the user viewing the event has liked it.
+     */
+    public LogEvent(int id, int logId, int userId, String description, String timestamp,
+                    int likeCount, int commentCount, boolean likedByViewer) {
         this.id = id;
         this.logId = logId;
         this.userId = userId;
         this.description = description;
-        this.comments = comments != null ? comments : new ArrayList<>();
-        this.likes = likes != null ? likes : new ArrayList<>();
-        this.timestamp = java.time.LocalDate.now().toString();
-        this.logsDAO = new LogsDAO();
-        try {
-            this.logEventDAO = new LogEventDAO();
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        this.timestamp = timestamp;
+        this.likeCount = likeCount;
+        this.commentCount = commentCount;
+        this.likedByViewer = likedByViewer;
     }
+
     /**
-     * Getter method for the timestamp.
+     * Getter method for the ID.
      */
-    public String getTimestamp() {
-        return timestamp;
+    public int getId() {
+        return id;
     }
 
     /**
-     * Setter method for the timestamp.
+     * Getter method for the timestamp.
      */
-    public void setTimestamp(String timestamp) {
-        this.timestamp = timestamp;
+    public String getTimestamp() {
+        return timestamp;
     }
 
     /**
@@ -78,81 +83,44 @@ public abstract class LogEvent {
         return logId;
     }
 
-    /*
-     * Getter method for the description
-     * */
-    // Abstract method for event description, to be implemented by subclasses
-    public abstract String getDescription();
-
     /**
-     * toString method to return a string representation of the log event.
+     * Getter method for the description, as it is stored.
      */
-    @Override
-    public String toString() {
-        return timestamp + " - User" + userId + " " + setDescription() + " (Log ID: " + logId + ")";
+    public String getDescription() {
+        return description;
     }
 
     /**
-     * set description method to set the description of the event
+     * set description method to get the description of the event as it is shown and stored
      */
     public abstract String setDescription();
 
     /**
-     * getLogName method to get the log name by log ID.
+     * Getter method for the number of likes.
      */
-    public String getLogName(int logID) {
-        return logsDAO.getLogNameById(logID);
+    public int getLikeCount() {
+        return likeCount;
     }
 
     /**
-     * Getter method for the comments.
+     * Getter method for the number of comments.
      */
-    public List<String> getComments() {
-        return comments;
+    public int getCommentCount() {
+        return commentCount;
     }
 
     /**
-     * Setter method for the comments.
+     * Getter method for whether the user viewing the feed has liked the event.
      */
-    public void setComments(List<String> comments) {
-        this.comments = comments;
+    public boolean isLikedByViewer() {
+        return likedByViewer;
     }
 
     /**
-     * Getter method for the likes.
-     */
-    public List<Integer> getLikes() {
-        return likes;
-    }
-
-    /**
-     * Setter method for the likes.
-     */
-    public void setLikes(List<Integer> likes) {
-        this.likes = likes;
-    }
-
-    /**
-     * Getter method for the ID.
-     */
-    public int getId (){
-        return id;
-    }
-
-    /**
-     * Setter method for the ID.
-     */
-    public void setId (int id){
-        this.id = id;
-    }
-
-    /**
-     * getCommentsFromDatabase method to retrieve comments for the event from the database.
+     * toString method to return a string representation of the log event.
      */
-    // Method to fetch comments from the database
-    public List<String> getCommentsFromDatabase() {
-        return new ArrayList<>(logEventDAO.getCommentsForEvent(this.id));
+    @Override
+    public String toString() {
+        return timestamp + " - User" + userId + " " + setDescription() + " (Log ID: " + logId + ")";
     }
-
-
 }
@@ -1,5 +1,7 @@
 package com.example.demoplswork.events;
 
+import com.example.demoplswork.model.AsyncDAO;
+import com.example.demoplswork.model.ImageLoader;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -12,14 +14,7 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 
-import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
-import java.util.ArrayList;
-import java.util.List;
 /**
  * LogEventCell class is a custom JavaFX HBox component for displaying log events.
  * It displays the user's profile image, username, event description, and timestamp.
@@ -38,8 +33,10 @@ public class LogEventCell extends HBox {
      * @param profileImage Profile image of the user.
      * @param likes Number of likes for the event.
      * @param comments Number of comments for the event.
+     * @param logEventDAO The DAO the comments popup reads comments through.
      */
-    public LogEventCell(LogEvent event, String username, String profileImage, int likes, int comments) {
+    public LogEventCell(LogEvent event, String username, String profileImage, int likes, int comments,
+                        AsyncDAO<LogEventDAO> logEventDAO) {
         super(10);  // Add spacing between elements
         setPadding(new Insets(10));
 
@@ -48,40 +45,11 @@ public class LogEventCell extends HBox {
         avatar.setFitHeight(50);
         avatar.setFitWidth(50);
 
-        if (profileImage != null && !profileImage.isEmpty()) {
-            try {
-                // Create a temporary file to hold the image
-                Path tempFile = Files.createTempFile("tempAvatar", ".jpg");
-
-                // Check if profileImage is a URL
-                if (profileImage.startsWith("http")) {
-                    // Download the image from S3
-                    try (InputStream in = new URL(profileImage).openStream()) {
-                        Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
-                    }
-                } else {
-                    // Use a local default or fallback image
-                    InputStream localImageStream = getClass().getResourceAsStream("/images/account_circle.png");
-                    if (localImageStream != null) {
-                        Files.copy(localImageStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
-                    }
-                }
-
-                // Load the image from the temporary file
-                avatar.setImage(new Image(tempFile.toUri().toString()));
-
-                // Delete the temp file on application exit
-                tempFile.toFile().deleteOnExit();
-
-            } catch (IOException e) {
-                System.out.println("Failed to load profile image: " + e.getMessage());
-                // Use a fallback image if loading fails
-                avatar.setImage(new Image(getClass().getResourceAsStream("/images/account_circle.png")));
-            }
-        } else {
-            // Fallback to default profile image if profileImage is null or empty
-            avatar.setImage(new Image(getClass().getResourceAsStream("/images/account_circle.png")));
-        }
+        // Load the avatar from S3 in the background, showing the default avatar until it arrives,
+        // or instead if profileImage is not a URL or cannot be loaded
+        Image defaultAvatar = ImageLoader.resource(ImageLoader.AVATAR_PLACEHOLDER);
+        boolean remote = profileImage != null && profileImage.startsWith("http");
+        ImageLoader.getInstance().load(avatar, remote ? profileImage : null, defaultAvatar, defaultAvatar);
 
 
         // User details (username, event description)
@@ -132,7 +100,7 @@ public class LogEventCell extends HBox {
         getChildren().addAll(avatar, eventContainer, likesComments);
 
         // Handle click event for both the comments icon and comments text
-        EventHandler<MouseEvent> commentClickHandler = e -> showCommentsPopup(event);
+        EventHandler<MouseEvent> commentClickHandler = e -> showCommentsPopup(event, logEventDAO);
         commentIcon.setOnMouseClicked(commentClickHandler);
         commentsLabel.setOnMouseClicked(commentClickHandler);
 
@@ -167,8 +135,9 @@ public class LogEventCell extends HBox {
     /**
      * Method to display a popup dialog with comments for the event.
      * @param event LogEvent object containing event details.
+     * @param logEventDAO The DAO the comments are read through.
      */
-    private void showCommentsPopup(LogEvent event) {
+    private void showCommentsPopup(LogEvent event, AsyncDAO<LogEventDAO> logEventDAO) {
         Dialog<Void> dialog = new Dialog<>();
         dialog.setTitle("Comments");
 
@@ -181,15 +150,7 @@ public class LogEventCell extends HBox {
         contentBox.setPrefWidth(400);
         contentBox.setStyle("-fx-padding: 20;");
 
-        // Fetch and display existing comments
-        List<String> comments = new ArrayList<>(event.getCommentsFromDatabase());
         VBox commentsBox = new VBox(5);
-        if (comments != null) {
-            for (String comment : comments) {
-                Label commentLabel = new Label(comment);
-                commentsBox.getChildren().add(commentLabel);
-            }
-        }
 
         // Add commentsBox to a ScrollPane
         ScrollPane scrollPane = new ScrollPane();
@@ -197,6 +158,9 @@ public class LogEventCell extends HBox {
         scrollPane.setFitToWidth(true);
         scrollPane.setPrefHeight(200); // Adjust height as needed
 
+        // Show the first page of comments and load more as the user scrolls
+        new CommentPager(logEventDAO, event.getId(), commentsBox).attach(scrollPane);
+
 
 
         // Layout: Add scrollPane and new comment input
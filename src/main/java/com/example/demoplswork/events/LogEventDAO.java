@@ -3,6 +3,7 @@ package com.example.demoplswork.events;
 import com.example.demoplswork.model.BaseDAO;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 /**
@@ -12,9 +13,10 @@ import java.util.List;
  * It has a method to insert a LogEvent into the database.
  * It has a method to retrieve all LogEvents for a specific log ID.
  * It has a method to retrieve LogEvents for other users excluding the logged-in user.
- * It has a method to update likes for a specific log event.
- * It has a method to get comments for a specific event.
- * It has a method to save a comment for a specific log event.
+ * It has a method to retrieve one page of that feed as FeedItems, newest first, after a FeedCursor.
+ * It has methods to like and unlike a log event, which keep the like_count column on log_events in step with event_likes.
+ * It has a method to get a page of comments for a specific event.
+ * It has a method to add a comment to a specific log event, which also increases the comment_count column.
  * It has a helper method to create a LogEvent object based on the event type.
  */
 public class LogEventDAO extends BaseDAO implements ILogEventDAO {
@@ -38,14 +40,16 @@ public class LogEventDAO extends BaseDAO implements ILogEventDAO {
     public void insertLogEvent(LogEvent event) throws SQLException {
         String sql = "INSERT INTO log_events (timestamp, description, user_id, log_id, event_type) VALUES (?, ?, ?, ?, ?)";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, event.getTimestamp());
-            stmt.setString(2, event.setDescription());
-            stmt.setInt(3, event.getUserId());
-            stmt.setInt(4, event.getLogId());
-            stmt.setString(5, event.getClass().getSimpleName()); // Store event type as a string
-            stmt.executeUpdate();
-        }
+        write(conn -> {
+            try (PreparedStatement stmt = prepare(conn, sql)) {
+                stmt.setString(1, event.getTimestamp());
+                stmt.setString(2, event.setDescription());
+                stmt.setInt(3, event.getUserId());
+                stmt.setInt(4, event.getLogId());
+                stmt.setString(5, event.getClass().getSimpleName()); // Store event type as a string
+                return stmt.executeUpdate();
+            }
+        });
     }
 
     /**
@@ -60,35 +64,22 @@ public class LogEventDAO extends BaseDAO implements ILogEventDAO {
         List<LogEvent> events = new ArrayList<>();
         String sql = "SELECT * FROM log_events WHERE log_id = ? ORDER BY timestamp ASC";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, logId);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                List<String> commentsList = new ArrayList<>();
-                List<Integer> likesList = new ArrayList<>();
-                String eventType = rs.getString("event_type");
-                String timestamp = rs.getString("timestamp");
-                String description = rs.getString("description");
-                int userId = rs.getInt("user_id");
-                String commentsData = rs.getString("comments");
-                commentsList = LogEventUtils.deserializeComments(commentsData);
-                String likesData = rs.getString("likes");
-                likesList = LogEventUtils.deserializeLikes(likesData);
-                int Id = rs.getInt("id");
-
-                // Based on the event type, instantiate the correct subclass
-                LogEvent event = createLogEventFromType(eventType, userId, logId, description, commentsList, likesList);
-                event.setId(Id);
-                event.setTimestamp(timestamp);
-                System.out.println("LogEvent timestamp: " + timestamp);
-                events.add(event);
+        read(conn -> {
+            try (PreparedStatement stmt = prepare(conn, sql)) {
+                stmt.setInt(1, logId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        events.add(readLogEvent(rs, false));
+                    }
+                }
             }
-        }
+            return null;
+        });
         return events;
     }
     /**
      * Method to retrieve LogEvents for other users excluding the logged-in user.
+     * Each event also records whether the logged-in user has liked it.
      * @param loggedInUserId The ID of the logged-in user.
      * @return A list of LogEvent objects.
      * @throws SQLException
@@ -96,39 +87,76 @@ public class LogEventDAO extends BaseDAO implements ILogEventDAO {
     public List<LogEvent> getLogEventsForOtherUsers(int loggedInUserId) throws SQLException {
         List<LogEvent> events = new ArrayList<>();
 
-        String sql = "SELECT * FROM log_events WHERE user_id != ? ORDER BY timestamp ASC"; ;
-
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, loggedInUserId);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                List<String> commentsList;
-                List<Integer> likesList;
-                String eventType = rs.getString("event_type");
-                String timestamp = rs.getString("timestamp");
-                String description = rs.getString("description");
-                int userId = rs.getInt("user_id");
-                int logId = rs.getInt("log_id");
-                String commentsData = rs.getString("comments");
-                commentsList = LogEventUtils.deserializeComments(commentsData);
-                String likesData = rs.getString("likes");
-                likesList = LogEventUtils.deserializeLikes(likesData);
-                int Id = rs.getInt("id");
-
-                System.out.println(commentsList);
-
-                // Instantiate the correct subclass based on the event type
-                LogEvent event = createLogEventFromType(eventType, userId, logId, description, commentsList, likesList);
-                event.setTimestamp(timestamp);
-                System.out.println("LogEvent timestamp: " + timestamp);
-                event.setId(Id);
-                events.add(event);
+        String sql = "SELECT e.*, EXISTS (SELECT 1 FROM event_likes l WHERE l.event_id = e.id AND l.user_id = ?) AS liked_by_viewer "
+                + "FROM log_events e WHERE e.user_id != ? ORDER BY e.timestamp ASC";
+
+        read(conn -> {
+            try (PreparedStatement stmt = prepare(conn, sql)) {
+                stmt.setInt(1, loggedInUserId);
+                stmt.setInt(2, loggedInUserId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        events.add(readLogEvent(rs, rs.getBoolean("liked_by_viewer")));
+                    }
+                }
             }
-        }
+            return null;
+        });
         return events;
     }
 
+    /**
+     * Method to retrieve one page of the Explore feed: events by other users, newest first.
+     * Each item is read in one query together with the author's first name and photo, the log name,
+     * the like and comment counts and whether the logged-in user has liked it.
+     * Events whose log no longer exists are left out.
+     * Pages are found by the cursor of the last item shown, so each page is read straight from the
+     * (timestamp, id) index and costs the same however far the user has scrolled.
+     * @param viewerId The ID of the logged-in user.
+     * @param cursor The cursor after the last item shown, or null for the first page.
+     * @param limit The maximum number of items to return.
+     * @return A list of FeedItem objects, newest first.
+     * @throws SQLException if the page size is not positive or the query fails
+     */
+    public List<FeedItem> getFeedPage(int viewerId, FeedCursor cursor, int limit) throws SQLException {
+        if (limit <= 0) {
+            throw new SQLException("Invalid page size.");
+        }
+        List<FeedItem> items = new ArrayList<>();
+
+        String sql = "SELECT e.*, u.firstName AS author_name, p.photo AS author_photo, g.log_name, "
+                + "EXISTS (SELECT 1 FROM event_likes l WHERE l.event_id = e.id AND l.user_id = ?) AS liked_by_viewer "
+                + "FROM log_events e "
+                + "JOIN logs g ON g.id = e.log_id "
+                + "LEFT JOIN users u ON u.id = e.user_id "
+                + "LEFT JOIN user_profiles p ON p.user_id = e.user_id "
+                + "WHERE e.user_id != ? "
+                + (cursor != null ? "AND (e.timestamp, e.id) < (?, ?) " : "")
+                + "ORDER BY e.timestamp DESC, e.id DESC LIMIT ?";
+
+        read(conn -> {
+            try (PreparedStatement stmt = prepare(conn, sql)) {
+                int i = 1;
+                stmt.setInt(i++, viewerId);
+                stmt.setInt(i++, viewerId);
+                if (cursor != null) {
+                    stmt.setString(i++, cursor.getTimestamp());
+                    stmt.setInt(i++, cursor.getId());
+                }
+                stmt.setInt(i, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        LogEvent event = readLogEvent(rs, rs.getBoolean("liked_by_viewer"));
+                        items.add(new FeedItem(event, rs.getString("author_name"), rs.getString("author_photo"),
+                                rs.getString("log_name")));
+                    }
+                }
+            }
+            return null;
+        });
+        return items;
+    }
+
     /**
      * Method to retrieve LogEvents for a specific user.
      * @param userId The ID of the user for which to retrieve LogEvents.
@@ -140,118 +168,227 @@ public class LogEventDAO extends BaseDAO implements ILogEventDAO {
 
         String sql = "SELECT * FROM log_events WHERE user_id = ? ORDER BY timestamp ASC";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                List<String> commentsList;
-                List<Integer> likesList;
-                String eventType = rs.getString("event_type");
-                String timestamp = rs.getString("timestamp");
-                String description = rs.getString("description");
-                int logId = rs.getInt("log_id");
-                String commentsData = rs.getString("comments");
-                commentsList = LogEventUtils.deserializeComments(commentsData);
-                String likesData = rs.getString("likes");
-                likesList = LogEventUtils.deserializeLikes(likesData);
-                int eventId = rs.getInt("id");
-
-                LogEvent event = createLogEventFromType(eventType, userId, logId, description, commentsList, likesList);
-                event.setTimestamp(timestamp);
-                event.setId(eventId);
-                events.add(event);
+        read(conn -> {
+            try (PreparedStatement stmt = prepare(conn, sql)) {
+                stmt.setInt(1, userId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        events.add(readLogEvent(rs, false));
+                    }
+                }
             }
-        }
+            return null;
+        });
         return events;
     }
 
     /**
-     * Method to update likes for a specific log event.
-     * @param eventId The ID of the log event for which to update likes.
-     * @param likes A list of user IDs who liked the event.
+     * Method to like a log event. Liking an event twice has no effect.
+     * @param eventId The ID of the event to like.
+     * @param userId The ID of the user liking the event.
+     * @return The number of likes on the event after the change.
      */
-    public void updateLikesForLogEvent(int eventId, List<Integer> likes) {
-        String query = "UPDATE log_events SET likes = ? WHERE id = ?";
+    public int likeEvent(int eventId, int userId) {
+        try {
+            return transaction(conn -> {
+                int added;
+                try (PreparedStatement pstmt = prepare(conn, 
+                        "INSERT OR IGNORE INTO event_likes (event_id, user_id, created_at) VALUES (?, ?, ?)")) {
+                    pstmt.setInt(1, eventId);
+                    pstmt.setInt(2, userId);
+                    pstmt.setString(3, LocalDateTime.now().toString());
+                    added = pstmt.executeUpdate();
+                }
+                if (added > 0) {
+                    adjustCount(conn, "like_count", eventId, 1);
+                }
+                return readCount(conn, "like_count", eventId);
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            String serializedLikes = LogEventUtils.serializeLikes(likes);
-            pstmt.setString(1, serializedLikes);
-            pstmt.setInt(2, eventId);
-            pstmt.executeUpdate();
+    /**
+     * Method to remove a user's like from a log event.
+     * @param eventId The ID of the event to unlike.
+     * @param userId The ID of the user removing the like.
+     * @return The number of likes on the event after the change.
+     */
+    public int unlikeEvent(int eventId, int userId) {
+        try {
+            return transaction(conn -> {
+                int removed;
+                try (PreparedStatement pstmt = prepare(conn, 
+                        "DELETE FROM event_likes WHERE event_id = ? AND user_id = ?")) {
+                    pstmt.setInt(1, eventId);
+                    pstmt.setInt(2, userId);
+                    removed = pstmt.executeUpdate();
+                }
+                if (removed > 0) {
+                    adjustCount(conn, "like_count", eventId, -1);
+                }
+                return readCount(conn, "like_count", eventId);
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Method to check if a user has liked a log event.
+     * @param eventId The ID of the event.
+     * @param userId The ID of the user.
+     * @return True if the user has liked the event.
+     */
+    public boolean hasLiked(int eventId, int userId) {
+        String query = "SELECT 1 FROM event_likes WHERE event_id = ? AND user_id = ?";
+        try {
+            return read(conn -> {
+                try (PreparedStatement pstmt = prepare(conn, query)) {
+                    pstmt.setInt(1, eventId);
+                    pstmt.setInt(2, userId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return rs.next();
+                    }
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        return false;
     }
 
     /**
-     * Method to get comments for a specific event.
+     * Method to get one page of comments for a specific event, oldest first.
+     * Pages are found by the last comment ID seen, so each page costs the same however many comments came before it.
      * @param eventId The ID of the event for which to retrieve comments.
+     * @param afterCommentId The ID of the last comment already shown, or 0 for the first page.
+     * @param limit The maximum number of comments to return.
      * @return A list of comments.
      */
-    public List<String> getCommentsForEvent(int eventId) {
-        List<String> commentsList = new ArrayList<>();
-        String query = "SELECT comments FROM log_events WHERE id = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, eventId);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                String commentsData = rs.getString("comments");
-                commentsList = new ArrayList<>(LogEventUtils.deserializeComments(commentsData));
-            }
+    public List<EventComment> getComments(int eventId, int afterCommentId, int limit) {
+        List<EventComment> comments = new ArrayList<>();
+        String query = "SELECT c.id, c.user_id, c.body, c.created_at, u.firstName FROM event_comments c "
+                + "LEFT JOIN users u ON u.id = c.user_id "
+                + "WHERE c.event_id = ? AND c.id > ? ORDER BY c.id LIMIT ?";
+
+        try {
+            read(conn -> {
+                try (PreparedStatement pstmt = prepare(conn, query)) {
+                    pstmt.setInt(1, eventId);
+                    pstmt.setInt(2, afterCommentId);
+                    pstmt.setInt(3, limit);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            comments.add(new EventComment(rs.getInt("id"), eventId, rs.getInt("user_id"),
+                                    rs.getString("firstName"), rs.getString("body"), rs.getString("created_at")));
+                        }
+                    }
+                }
+                return null;
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
 
-        return commentsList;
+        return comments;
     }
 
-
     /**
-     * Method to save a comment for a specific log event.
-     * @param eventId The ID of the event to save the comment for.
-     * @param comment The comment to save.
+     * Method to get all comments for a specific event.
+     * @param eventId The ID of the event for which to retrieve comments.
+     * @return A list of comments as shown in the comments popup.
      */
-    public void saveCommentForLog(int eventId, String comment) {
-        String query = "UPDATE log_events SET comments = CASE " +
-                "WHEN comments IS NULL OR comments = '' THEN ? " +
-                "ELSE comments || '||' || ? " + // Use "||" as delimiter to separate comments
-                "END WHERE id = ?";
+    public List<String> getCommentsForEvent(int eventId) {
+        List<String> commentsList = new ArrayList<>();
+        for (EventComment comment : getComments(eventId, 0, Integer.MAX_VALUE)) {
+            commentsList.add(comment.getDisplayText());
+        }
+        return commentsList;
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, comment);  // If no existing comments, set it to the new comment
-            pstmt.setString(2, comment);  // Append the new comment to existing comments
-            pstmt.setInt(3, eventId);     // Specify which event to update
-            pstmt.executeUpdate();
-            System.out.println("Comment added to event " + eventId + ": " + comment);
 
+    /**
+     * Method to add a comment to a specific log event.
+     * @param eventId The ID of the event to comment on.
+     * @param userId The ID of the user writing the comment.
+     * @param body The comment text.
+     * @return The ID of the new comment, or -1 if it could not be saved.
+     */
+    public int addComment(int eventId, int userId, String body) {
+        String query = "INSERT INTO event_comments (event_id, user_id, body, created_at) VALUES (?, ?, ?, ?)";
+
+        try {
+            int commentId = transaction(conn -> {
+                int id;
+                try (PreparedStatement pstmt = prepare(conn, query, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setInt(1, eventId);
+                    pstmt.setInt(2, userId);
+                    pstmt.setString(3, body);
+                    pstmt.setString(4, LocalDateTime.now().toString());
+                    pstmt.executeUpdate();
+                    try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                        id = rs.next() ? rs.getInt(1) : -1;
+                    }
+                }
+                adjustCount(conn, "comment_count", eventId, 1);
+                return id;
+            });
+            return commentId;
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        return -1;
     }
 
+    // Helper method to move a counter column on log_events
+    private static void adjustCount(Connection conn, String column, int eventId, int delta) throws SQLException {
+        try (PreparedStatement pstmt = prepare(conn, 
+                "UPDATE log_events SET " + column + " = " + column + " + ? WHERE id = ?")) {
+            pstmt.setInt(1, delta);
+            pstmt.setInt(2, eventId);
+            pstmt.executeUpdate();
+        }
+    }
 
+    // Helper method to read a counter column on log_events
+    private static int readCount(Connection conn, String column, int eventId) throws SQLException {
+        try (PreparedStatement pstmt = prepare(conn, "SELECT " + column + " FROM log_events WHERE id = ?")) {
+            pstmt.setInt(1, eventId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
 
+    // Helper method to build a LogEvent from the current row, with its like and comment counts
+    private static LogEvent readLogEvent(ResultSet rs, boolean likedByViewer) throws SQLException {
+        return createLogEventFromType(rs.getString("event_type"), rs.getInt("id"), rs.getInt("user_id"), rs.getInt("log_id"),
+                rs.getString("description"), rs.getString("timestamp"), rs.getInt("like_count"), rs.getInt("comment_count"),
+                likedByViewer);
+    }
 
     /**
      * Method to create a LogEvent object based on the event type.
-     * @param eventId The ID of the log event to delete.
+     * @param eventType The simple class name stored in the event_type column.
      */
     // Helper method to create a LogEvent based on the event type
-    private LogEvent createLogEventFromType(String eventType, int userId, int logId, String description, List<String> comments, List<Integer> likes) {
+    private static LogEvent createLogEventFromType(String eventType, int id, int userId, int logId, String description,
+                                                   String timestamp, int likeCount, int commentCount, boolean likedByViewer) {
         switch (eventType) {
             case "StartEvent":
-                return new StartEvent(0, userId, logId, description, comments, likes);
+                return new StartEvent(id, userId, logId, description, timestamp, likeCount, commentCount, likedByViewer);
             case "EndEvent":
-                return new EndEvent(0, userId, logId, description, comments, likes);
+                return new EndEvent(id, userId, logId, description, timestamp, likeCount, commentCount, likedByViewer);
             case "ToDoEvent":
-                return new ToDoEvent(0, userId, logId, description, comments, likes);
+                return new ToDoEvent(id, userId, logId, description, timestamp, likeCount, commentCount, likedByViewer);
             case "MaterialEvent":
-                return new MaterialEvent(0, userId, logId, description, comments, likes);
+                return new MaterialEvent(id, userId, logId, description, timestamp, likeCount, commentCount, likedByViewer);
             case "ImageEvent":
-                return new ImageEvent(0, userId, logId, description, comments, likes);
+                return new ImageEvent(id, userId, logId, description, timestamp, likeCount, commentCount, likedByViewer);
             default:
                 throw new IllegalArgumentException("Unknown event type: " + eventType);
         }
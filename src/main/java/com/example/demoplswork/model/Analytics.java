@@ -1,36 +1,54 @@
 package com.example.demoplswork.model;
 
 
-import com.example.demoplswork.events.LogEvent;
-import com.example.demoplswork.events.LogEventDAO;
-import javafx.util.Pair;
-
 import java.sql.SQLException;
-import java.util.List;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Analytics class to calculate various user statistics for the MyAnalytics section.
  * It has methods to calculate the total amount of money spent, the number of tasks completed,
  * the number of projects completed, the total number of materials used, the total number of likes,
  * and the total number of comments for a user.
- * It also has methods to calculate the total number of likes and comments for a specific log.
+ * It also has methods to calculate the total number of likes and comments for a specific log, and the cost of a log's materials,
+ * and a method to calculate the likes and comments of all of a user's logs at once.
+ * It has a getUserStats method that reads all of the user metrics together from the user_stats table;
+ * the per-metric methods are views over it. The per-log methods read the log_stats table the same way.
+ * The trend methods (spend by day, tasks completed by week, likes by day and rolling spend) read an AnalyticsSnapshot
+ * of the user's rows, which is refreshed with only the new rows on each call.
+ * The snapshots are shared by every Analytics, so a new Analytics (e.g. each visit to the home page) starts warm;
+ * they are cleared when BaseDAO.setConnection replaces the database.
  */
 public class Analytics {
 
+    private static final Map<Integer, AnalyticsSnapshot> snapshots = new HashMap<>();
+
     private LogsDAO logsDAO;
-    private LogEventDAO logEventDAO;
 
     /**
-     * Constructor to initialize the LogsDAO and LogEventDAO objects.
+     * Constructor to initialize the LogsDAO object.
      *
      * @throws SQLException If there is an error connecting to the database.
      */
     public Analytics() throws SQLException {
         logsDAO = new LogsDAO();
-        logEventDAO = new LogEventDAO();
     }
 
 
+    /**
+     * Gets every dashboard metric for the user in one primary key lookup.
+     * The calculate methods below are views over this; callers that need several metrics should use it directly.
+     *
+     * @param userId The ID of the user.
+     * @return The user's stats.
+     */
+    public UserStats getUserStats(int userId) {
+        return logsDAO.getUserStats(userId);
+    }
+
     /**
      * Calculates the total amount of money spent by the user across all logs.
      *
@@ -38,25 +56,7 @@ public class Analytics {
      * @return The total amount spent.
      */
     public double calculateTotalSpend(int userId) {
-        double totalSpend = 0.0;
-
-        // Get the logs for the user
-        List<Object[]> userLogs = logsDAO.getLogsForUser(userId);
-
-        // Iterate over each log
-        for (Object[] logData : userLogs) {
-            Logs log = (Logs) logData[1];  // The log object is the second element in the array
-
-            // Get the materials for each log
-            List<Material> materials = log.getMaterials();
-
-            // Sum up the cost for each material
-            for (Material material : materials) {
-                totalSpend += material.getPrice() * material.getQuantity(); // Assuming there's a getQuantity() method as well
-            }
-        }
-
-        return totalSpend;
+        return getUserStats(userId).getTotalSpend();
     }
 
     /**
@@ -66,27 +66,7 @@ public class Analytics {
      * @return The number of completed tasks.
      */
     public int calculateTasksCompleted(int userId) {
-        int tasksCompleted = 0;
-
-        // Get the logs for the user
-        List<Object[]> userLogs = logsDAO.getLogsForUser(userId);
-
-        // Iterate over each log
-        for (Object[] logData : userLogs) {
-            Logs log = (Logs) logData[1];  // The log object is the second element in the array
-
-            // Get the to-do items for each log
-            List<Pair<String, Boolean>> toDoItems = log.getToDoItems();
-
-            // Count tasks that are completed (Boolean is true)
-            for (Pair<String, Boolean> toDoItem : toDoItems) {
-                if (toDoItem.getValue()) {
-                    tasksCompleted++;
-                }
-            }
-        }
-
-        return tasksCompleted;
+        return getUserStats(userId).getTasksCompleted();
     }
 
     /**
@@ -97,34 +77,7 @@ public class Analytics {
      * @return the number of completed projects (logs)
      */
     public int calculateProjectsCompleted(int userId) {
-        int projectsCompleted = 0;
-
-        // Get the logs for the user
-        List<Object[]> userLogs = logsDAO.getLogsForUser(userId);
-
-        // Iterate over each log
-        for (Object[] logData : userLogs) {
-            Logs log = (Logs) logData[1];
-
-            // Get the to-do items for the log
-            List<Pair<String, Boolean>> toDoItems = log.getToDoItems();
-
-            // Check if all to-do items are completed
-            boolean allTasksCompleted = true;
-            for (Pair<String, Boolean> toDoItem : toDoItems) {
-                if (!toDoItem.getValue()) {
-                    allTasksCompleted = false;
-                    break;  // No need to check further if a task is not completed
-                }
-            }
-
-            // If all tasks are completed, count this log as a completed project
-            if (allTasksCompleted && !toDoItems.isEmpty()) {
-                projectsCompleted++;
-            }
-        }
-
-        return projectsCompleted;
+        return getUserStats(userId).getProjectsCompleted();
     }
 
     /**
@@ -134,23 +87,17 @@ public class Analytics {
      * @return The number of materials used.
      */
     public int calculateMaterialsUsed(int userId) {
-        int totalMaterialsUsed = 0;
-
-        // Get the logs for the user
-        List<Object[]> userLogs = logsDAO.getLogsForUser(userId);
-
-        // Iterate over each log
-        for (Object[] logData : userLogs) {
-            Logs log = (Logs) logData[1];
-
-            // Get the list of materials for each log
-            List<Material> materials = log.getMaterials();
-
-            // Add the number of materials in this log to the total count
-            totalMaterialsUsed += materials.size();
-        }
+        return getUserStats(userId).getMaterialsUsed();
+    }
 
-        return totalMaterialsUsed;
+    /**
+     * Calculates the total cost of the materials in a specific log.
+     *
+     * @param logId The ID of the log.
+     * @return The total cost of the log's materials.
+     */
+    public double calculateLogCost(int logId) {
+        return logsDAO.getLogStats(logId).getTotalSpend();
     }
 
     /**
@@ -160,22 +107,7 @@ public class Analytics {
      * @return The total number of likes.
      */
     public int calculateTotalLikes(int userId) {
-        int totalLikes = 0;
-
-        try {
-            // Retrieve log events for the user
-            List<LogEvent> userEvents = logEventDAO.getLogEventsForUser(userId);
-
-            // Iterate through the events and sum up the likes
-            for (LogEvent event : userEvents) {
-                totalLikes += event.getLikes().size(); // Assumes getLikes() returns a list of likes
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return totalLikes;
+        return getUserStats(userId).getTotalLikes();
     }
 
     /**
@@ -185,22 +117,7 @@ public class Analytics {
      * @return The total number of comments.
      */
     public int calculateTotalComments(int userId) {
-        int totalComments = 0;
-
-        try {
-            // Retrieve log events for the user
-            List<LogEvent> userEvents = logEventDAO.getLogEventsForUser(userId);
-
-            // Iterate through the events and sum up the comments
-            for (LogEvent event : userEvents) {
-                totalComments += event.getComments().size(); // Assumes getComments() returns a list of comments
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return totalComments;
+        return getUserStats(userId).getTotalComments();
     }
 
     /**
@@ -210,22 +127,7 @@ public class Analytics {
      * @return The total number of likes.
      */
     public int calculateTotalLikesForLog(int logId) {
-        int totalLikes = 0;
-
-        try {
-            // Retrieve log events for the specific log
-            List<LogEvent> logEvents = logEventDAO.getLogEventsForLog(logId);
-
-            // Sum up the likes for each event in the log
-            for (LogEvent event : logEvents) {
-                totalLikes += event.getLikes().size(); // Assumes getLikes() returns a list of likes
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return totalLikes;
+        return logsDAO.getLogStats(logId).getTotalLikes();
     }
 
     /**
@@ -235,22 +137,100 @@ public class Analytics {
      * @return The total number of comments.
      */
     public int calculateTotalCommentsForLog(int logId) {
-        int totalComments = 0;
+        return logsDAO.getLogStats(logId).getTotalComments();
+    }
 
-        try {
-            // Retrieve log events for the specific log
-            List<LogEvent> logEvents = logEventDAO.getLogEventsForLog(logId);
+    /**
+     * Calculates the total number of likes and comments for every log of a user at once.
+     * Use this instead of the per-log methods when showing a list of logs.
+     *
+     * @param userId The ID of the user.
+     * @return The likes and comments by log ID.
+     */
+    public LogCounts calculateLikesCommentsForLogs(int userId) {
+        return logsDAO.getLogCountsForUser(userId);
+    }
 
-            // Sum up the comments for each event in the log
-            for (LogEvent event : logEvents) {
-                totalComments += event.getComments().size(); // Assumes getComments() returns a list of comments
-            }
+    /**
+     * Gets the user's snapshot, up to date with the database.
+     * The snapshot is shared by every Analytics, so only rows added since the last call for the user are read.
+     *
+     * @param userId The ID of the user.
+     * @return The snapshot.
+     * @throws SQLException If the new rows cannot be read.
+     */
+    public AnalyticsSnapshot getSnapshot(int userId) throws SQLException {
+        AnalyticsSnapshot snapshot;
+        synchronized (snapshots) {
+            snapshot = snapshots.computeIfAbsent(userId, AnalyticsSnapshot::new);
+        }
+        snapshot.refresh();  // Synchronized on the snapshot, so other users are not held up
+        return snapshot;
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+    /**
+     * Clears the shared snapshots, e.g. when the database connection is replaced.
+     */
+    static void clearShared() {
+        synchronized (snapshots) {
+            snapshots.clear();
         }
+    }
 
-        return totalComments;
+    /**
+     * Calculates the user's spend on materials for each day.
+     *
+     * @param userId The ID of the user.
+     * @param from The first day.
+     * @param days The number of days.
+     * @return The spend on each day, starting at from.
+     * @throws SQLException If the new rows cannot be read.
+     */
+    public double[] calculateSpendByDay(int userId, LocalDate from, int days) throws SQLException {
+        return getSnapshot(userId).getSpendByBucket((int) from.toEpochDay(), 1, days);
+    }
+
+    /**
+     * Calculates the user's spend on materials over a trailing window for each day, e.g. the last 7 or 30 days.
+     *
+     * @param userId The ID of the user.
+     * @param from The first day.
+     * @param days The number of days.
+     * @param window The number of days in each window.
+     * @return The spend in the window ending on each day, starting at from.
+     * @throws SQLException If the new rows cannot be read.
+     */
+    public double[] calculateRollingSpend(int userId, LocalDate from, int days, int window) throws SQLException {
+        // Start window - 1 days early, so the first day's window is full
+        double[] daily = calculateSpendByDay(userId, from.minusDays(window - 1), days + window - 1);
+        double[] rolling = ColumnKernels.rollingSum(daily, window);
+        return Arrays.copyOfRange(rolling, window - 1, rolling.length);
+    }
+
+    /**
+     * Calculates the number of tasks the user completed in each week, from the ToDoEvents in their progress log.
+     *
+     * @param userId The ID of the user.
+     * @param from A day in the first week; weeks start on Monday.
+     * @param weeks The number of weeks.
+     * @return The number of tasks completed in each week.
+     * @throws SQLException If the new rows cannot be read.
+     */
+    public int[] calculateTasksCompletedByWeek(int userId, LocalDate from, int weeks) throws SQLException {
+        LocalDate monday = from.minusDays(from.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue());
+        return getSnapshot(userId).getEventsByBucket(AnalyticsSnapshot.TODO, (int) monday.toEpochDay(), 7, weeks);
     }
-}
 
+    /**
+     * Calculates the number of likes the user's events received on each day.
+     *
+     * @param userId The ID of the user.
+     * @param from The first day.
+     * @param days The number of days.
+     * @return The number of likes made on each day, starting at from.
+     * @throws SQLException If the new rows cannot be read.
+     */
+    public int[] calculateLikesByDay(int userId, LocalDate from, int days) throws SQLException {
+        return getSnapshot(userId).getLikesByBucket((int) from.toEpochDay(), 1, days);
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.demoplswork.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * AnalyticsSnapshot class keeps one user's materials, events and likes in memory as primitive columns for the trend charts.
+ * Each table is held as parallel arrays: an epoch day column, an int key column and, for materials, a double value column.
+ * Materials are keyed by log ID with their cost (quantity times price) as the value, are dated by created_at,
+ * and materials with no date get NO_DAY. Events are keyed by an event type code (START, TODO, MATERIAL, IMAGE or END)
+ * and are dated by their timestamp. Likes on the user's events are keyed by event ID and dated when they were made.
+ * refresh() only reads rows with a higher ID than the last one held, so keeping the snapshot current is cheap.
+ * It first counts the rows the snapshot already covers; if any of them were deleted, that table is read again in full.
+ * The columns are aggregated with ColumnKernels. All methods are synchronized, so one snapshot can be shared between threads.
+ */
+public class AnalyticsSnapshot extends BaseDAO {
+    public static final int NO_DAY = Integer.MIN_VALUE;
+
+    public static final int START = 0;
+    public static final int TODO = 1;
+    public static final int MATERIAL = 2;
+    public static final int IMAGE = 3;
+    public static final int END = 4;
+
+    // The date in the first ten characters of a column ("yyyy-MM-dd" or an ISO date-time) as an epoch day
+    private static final String EPOCH_DAY = "CAST(julianday(substr(%s, 1, 10)) - 2440587.5 AS INTEGER)";
+
+    private static final String NEW_MATERIALS = "SELECT id, log_id, " + String.format(EPOCH_DAY, "created_at")
+            + ", quantity * price FROM log_materials WHERE id > ? AND log_id IN (SELECT id FROM logs WHERE user_id = ?)";
+    private static final String HELD_MATERIALS = "SELECT COUNT(*) FROM log_materials "
+            + "WHERE id <= ? AND log_id IN (SELECT id FROM logs WHERE user_id = ?)";
+    private static final String NEW_EVENTS = "SELECT id, CASE event_type WHEN 'StartEvent' THEN " + START
+            + " WHEN 'ToDoEvent' THEN " + TODO + " WHEN 'MaterialEvent' THEN " + MATERIAL
+            + " WHEN 'ImageEvent' THEN " + IMAGE + " WHEN 'EndEvent' THEN " + END + " ELSE -1 END, "
+            + String.format(EPOCH_DAY, "timestamp") + ", 0 FROM log_events WHERE id > ? AND user_id = ?";
+    private static final String HELD_EVENTS = "SELECT COUNT(*) FROM log_events WHERE id <= ? AND user_id = ?";
+    private static final String NEW_LIKES = "SELECT rowid, event_id, " + String.format(EPOCH_DAY, "created_at")
+            + ", 0 FROM event_likes WHERE rowid > ? AND event_id IN (SELECT id FROM log_events WHERE user_id = ?)";
+    private static final String HELD_LIKES = "SELECT COUNT(*) FROM event_likes "
+            + "WHERE rowid <= ? AND event_id IN (SELECT id FROM log_events WHERE user_id = ?)";
+
+    /**
+     * One table of the snapshot, as parallel primitive columns, with the highest row ID read so far.
+     */
+    private static final class Table {
+        private final String newRows;
+        private final String heldRows;
+        private long lastId = 0;
+        private int size = 0;
+        private int[] days = new int[64];
+        private int[] keys = new int[64];
+        private double[] values = new double[64];
+
+        private Table(String newRows, String heldRows) {
+            this.newRows = newRows;
+            this.heldRows = heldRows;
+        }
+
+        // Read the rows added since the last refresh, or every row if some of those held have been deleted
+        private int refresh(Connection conn, int userId) throws SQLException {
+            if (size > 0 && countHeld(conn, userId) != size) {
+                lastId = 0;
+                size = 0;
+            }
+            int added = 0;
+            try (PreparedStatement pstmt = prepare(conn, newRows)) {
+                pstmt.setLong(1, lastId);
+                pstmt.setInt(2, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (size == days.length) {
+                            int capacity = size * 2;
+                            days = Arrays.copyOf(days, capacity);
+                            keys = Arrays.copyOf(keys, capacity);
+                            values = Arrays.copyOf(values, capacity);
+                        }
+                        lastId = Math.max(lastId, rs.getLong(1));
+                        keys[size] = rs.getInt(2);
+                        int day = rs.getInt(3);
+                        days[size] = rs.wasNull() ? NO_DAY : day;
+                        values[size] = rs.getDouble(4);
+                        size++;
+                        added++;
+                    }
+                }
+            }
+            return added;
+        }
+
+        private int countHeld(Connection conn, int userId) throws SQLException {
+            try (PreparedStatement pstmt = prepare(conn, heldRows)) {
+                pstmt.setLong(1, lastId);
+                pstmt.setInt(2, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            }
+        }
+    }
+
+    private final int userId;
+    private final Table materials = new Table(NEW_MATERIALS, HELD_MATERIALS);
+    private final Table events = new Table(NEW_EVENTS, HELD_EVENTS);
+    private final Table likes = new Table(NEW_LIKES, HELD_LIKES);
+
+    /**
+     * Constructor for AnalyticsSnapshot class. The snapshot is empty until it is refreshed.
+     * @param userId the ID of the user whose data is held
+     */
+    public AnalyticsSnapshot(int userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Gets the ID of the user whose data is held.
+     * @return the user ID
+     */
+    public int getUserId() {
+        return userId;
+    }
+
+    /**
+     * Brings the snapshot up to date with the database.
+     * @return the number of rows read
+     * @throws SQLException if the rows cannot be read
+     */
+    public synchronized int refresh() throws SQLException {
+        return read(conn -> materials.refresh(conn, userId) + events.refresh(conn, userId) + likes.refresh(conn, userId));
+    }
+
+    /**
+     * Gets the total spend on materials.
+     * @return the sum of quantity times price over the user's materials
+     */
+    public synchronized double getTotalSpend() {
+        return ColumnKernels.sum(materials.values, materials.size);
+    }
+
+    /**
+     * Gets the spend on materials by day bucket.
+     * @param fromDay the epoch day of the first bucket
+     * @param bucketDays the number of days in each bucket
+     * @param buckets the number of buckets
+     * @return the spend in each bucket
+     */
+    public synchronized double[] getSpendByBucket(int fromDay, int bucketDays, int buckets) {
+        return ColumnKernels.sumByBucket(materials.days, materials.values, materials.size, fromDay, bucketDays, buckets);
+    }
+
+    /**
+     * Gets the number of events of one type by day bucket.
+     * @param type the event type code, e.g. TODO for completed tasks
+     * @param fromDay the epoch day of the first bucket
+     * @param bucketDays the number of days in each bucket
+     * @param buckets the number of buckets
+     * @return the number of events in each bucket
+     */
+    public synchronized int[] getEventsByBucket(int type, int fromDay, int bucketDays, int buckets) {
+        return ColumnKernels.countByBucket(events.days, events.keys, type, events.size, fromDay, bucketDays, buckets);
+    }
+
+    /**
+     * Gets the number of likes on the user's events by day bucket.
+     * @param fromDay the epoch day of the first bucket
+     * @param bucketDays the number of days in each bucket
+     * @param buckets the number of buckets
+     * @return the number of likes in each bucket
+     */
+    public synchronized int[] getLikesByBucket(int fromDay, int bucketDays, int buckets) {
+        return ColumnKernels.countByBucket(likes.days, null, 0, likes.size, fromDay, bucketDays, buckets);
+    }
+
+    /**
+     * Gets the number of materials, events and likes held.
+     * @return the number of rows in each table, as {materials, events, likes}
+     */
+    public synchronized int[] getRowCounts() {
+        return new int[] { materials.size, events.size, likes.size };
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "AnalyticsSnapshot[user=" + userId + ", materials=" + materials.size + ", events=" + events.size
+                + ", likes=" + likes.size + "]";
+    }
+}
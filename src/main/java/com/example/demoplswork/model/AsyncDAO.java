@@ -0,0 +1,195 @@
+package com.example.demoplswork.model;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * AsyncDAO class runs calls on a DAO (ILogsDAO, ILogEventDAO, IContactDAO, IBlogDAO, IProfileDAO, ...) off the JavaFX Application Thread.
+ * Each call runs on its own virtual thread and returns a CompletableFuture.
+ * Every statement the call prepares gets the call's query timeout, and the future fails with a TimeoutException once it runs out.
+ * Cancelling the returned future, or timing out, interrupts the query that is running.
+ * The load methods hand the result back to the FX thread so controllers can update the UI directly.
+ * @param <D> the type of the wrapped DAO
+ */
+public class AsyncDAO<D> {
+    public static final int DEFAULT_TIMEOUT_SECONDS = Integer.getInteger("hobbylog.db.queryTimeoutSeconds", 10);
+
+    private static final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * A call on the wrapped DAO.
+     * @param <D> the type of the DAO
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface DaoCall<D, T> {
+        T call(D dao) throws Exception;
+    }
+
+    /**
+     * A call on the wrapped DAO with no result.
+     * @param <D> the type of the DAO
+     */
+    @FunctionalInterface
+    public interface DaoAction<D> {
+        void run(D dao) throws Exception;
+    }
+
+    private final D dao;
+    private final int timeoutSeconds;
+    private final Executor fxExecutor;
+
+    /**
+     * Constructor for AsyncDAO class, using the default timeout and the JavaFX Application Thread.
+     * @param dao the DAO to wrap
+     */
+    public AsyncDAO(D dao) {
+        this(dao, DEFAULT_TIMEOUT_SECONDS, Platform::runLater);
+    }
+
+    /**
+     * Constructor for AsyncDAO class.
+     * @param dao the DAO to wrap
+     * @param timeoutSeconds the timeout for each call, or 0 for none
+     * @param fxExecutor where results of the load methods are handed over, normally Platform::runLater
+     */
+    public AsyncDAO(D dao, int timeoutSeconds, Executor fxExecutor) {
+        this.dao = dao;
+        this.timeoutSeconds = timeoutSeconds;
+        this.fxExecutor = fxExecutor;
+    }
+
+    /**
+     * Gets the wrapped DAO, for calls that must stay synchronous.
+     * @return the DAO
+     */
+    public D getDao() {
+        return dao;
+    }
+
+    /**
+     * Runs a call on a virtual thread.
+     * @param call the call to run
+     * @return a future for the result; cancelling it interrupts the running query
+     */
+    public <T> CompletableFuture<T> supply(DaoCall<D, T> call) {
+        return supply(call, timeoutSeconds);
+    }
+
+    /**
+     * Runs a call on a virtual thread with its own timeout.
+     * @param call the call to run
+     * @param timeoutSeconds the timeout for this call, or 0 for none
+     * @return a future for the result; cancelling it interrupts the running query
+     */
+    public <T> CompletableFuture<T> supply(DaoCall<D, T> call, int timeoutSeconds) {
+        QueryContext context = new QueryContext(timeoutSeconds);
+        CallFuture<T> future = new CallFuture<>(context);
+        future.task = executor.submit(() -> {
+            if (future.isDone()) {
+                return;  // Cancelled before it started
+            }
+            context.enter();
+            try {
+                future.complete(call.call(dao));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                context.exit();
+            }
+        });
+        if (timeoutSeconds > 0) {
+            future.orTimeout(timeoutSeconds, TimeUnit.SECONDS);
+        }
+        return future;
+    }
+
+    /**
+     * Runs a call with no result on a virtual thread. Failures are printed.
+     * @param action the call to run
+     * @return a future that completes when the call is done
+     */
+    public CompletableFuture<Void> run(DaoAction<D> action) {
+        CompletableFuture<Void> future = supply(dao -> {
+            action.run(dao);
+            return null;
+        });
+        future.whenComplete((ignored, error) -> {
+            if (error != null && !isCancellation(error)) {
+                error.printStackTrace();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Runs a call on a virtual thread and hands the result to the FX thread.
+     * Nothing is handed over if the call is cancelled; failures are printed.
+     * @param call the call to run
+     * @param onFx what to do with the result on the FX thread
+     * @return the future of the call, which can be cancelled
+     */
+    public <T> CompletableFuture<T> load(DaoCall<D, T> call, Consumer<? super T> onFx) {
+        CompletableFuture<T> future = supply(call);
+        future.whenCompleteAsync((result, error) -> {
+            if (error == null) {
+                onFx.accept(result);
+            } else if (!isCancellation(error)) {
+                error.printStackTrace();
+            }
+        }, fxExecutor);
+        return future;
+    }
+
+    /**
+     * Runs a call with no result on a virtual thread, then runs the follow-up on the FX thread.
+     * @param action the call to run
+     * @param onFx what to do on the FX thread once the call is done
+     * @return the future of the call, which can be cancelled
+     */
+    public CompletableFuture<Void> run(DaoAction<D> action, Runnable onFx) {
+        return load(dao -> {
+            action.run(dao);
+            return null;
+        }, ignored -> onFx.run());
+    }
+
+    private static boolean isCancellation(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof CancellationException;
+    }
+
+    /**
+     * The future returned for a call. Completing it early, by cancelling or timing out, also stops the call.
+     */
+    private static final class CallFuture<T> extends CompletableFuture<T> {
+        private final QueryContext context;
+        private volatile Future<?> task;
+
+        private CallFuture(QueryContext context) {
+            this.context = context;
+            whenComplete((result, error) -> {
+                if (error != null) {
+                    stop();
+                }
+            });
+        }
+
+        private void stop() {
+            context.cancel();
+            Future<?> running = task;
+            if (running != null) {
+                running.cancel(true);  // Also wakes a call waiting for a pooled connection
+            }
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package com.example.demoplswork.model;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 /**
@@ -9,36 +9,165 @@ import java.sql.Statement;
  * It initializes the database and creates necessary tables if they do not exist.
  * It provides methods to set the database connection and close it.
  * It has methods to create tables for user profiles, logs, log events, contacts, and blogs.
+ * Queries run through a shared ConnectionPool: reads use the read-only connections and writes use the single write connection.
+ * DAO queries are prepared through a shared StatementCache, so each SQL string is compiled once per connection.
  */
 public abstract class BaseDAO {
-    protected static Connection connection;
+    private static final String DATABASE_URL = "jdbc:sqlite:contacts.db";
+    private static final int READER_COUNT = Integer.getInteger("hobbylog.db.readers", 4);
+    private static final int BUSY_TIMEOUT_MILLIS = Integer.getInteger("hobbylog.db.busyTimeoutMs", 5000);
+    private static final int MAX_ATTEMPTS = Integer.getInteger("hobbylog.db.maxAttempts", 5);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("hobbylog.db.statementCacheSize", 64);
+    private static final StatementCache statementCache = new StatementCache(STATEMENT_CACHE_SIZE);
+
+    protected static volatile Connection connection;
+    private static volatile ConnectionPool pool;
 
 
     /**
      * The constructor initializes the database connection if it is not already initialized.
      * It also calls the initializeDatabase() method to create the necessary tables.
+     * DAOs are made on many threads, so only the first to get the lock opens the pool.
      */
     public BaseDAO() {
-        if (connection == null) {
-            try {
-                connection = DriverManager.getConnection("jdbc:sqlite:contacts.db");
-                initializeDatabase();
-            } catch (SQLException e) {
-                e.printStackTrace();
+        synchronized (BaseDAO.class) {
+            if (connection == null) {
+                try {
+                    RetryPolicy retryPolicy = new RetryPolicy(MAX_ATTEMPTS, 20, 500);
+                    pool = new ConnectionPool(DATABASE_URL, READER_COUNT, BUSY_TIMEOUT_MILLIS, retryPolicy);
+                    connection = pool.getWriteConnection();
+                    initializeDatabase();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
             }
         }
     }
 
     /**
      * The method to set the database connection.
+     * Reads and writes both go through the given connection until it is replaced.
      */
-    public static void setConnection(Connection conn) {
+    public static synchronized void setConnection(Connection conn) {
+        statementCache.clear();
+        UserDirectory.clearShared();  // Cached users belong to the old database
+        SearchIndex.clearShared();
+        Analytics.clearShared();
+        if (pool != null && pool.getWriteConnection() != conn) {
+            pool.close();
+        }
         connection = conn;
+        pool = conn != null ? ConnectionPool.wrap(conn) : null;
+    }
+
+    /**
+     * The method to get the statement cache shared by all DAOs, e.g. to read its hit and miss counters.
+     * @return the statement cache
+     */
+    public static StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * The method to get a prepared statement for the SQL from the statement cache.
+     * Close it as usual (try-with-resources); closing returns it to the cache.
+     * When called from an AsyncDAO call, the statement gets that call's query timeout and can be cancelled.
+     * @param conn the connection the work is running on
+     * @param sql the SQL text
+     * @return the cached statement
+     * @throws SQLException if the SQL cannot be compiled
+     */
+    protected static PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        PreparedStatement statement = statementCache.prepare(conn, sql);
+        QueryContext.apply(statement);  // Timeout and cancellation of the AsyncDAO call, if any
+        return statement;
+    }
+
+    /**
+     * The method to get a prepared statement that returns generated keys from the statement cache.
+     * @param conn the connection the work is running on
+     * @param sql the SQL text
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS or Statement.NO_GENERATED_KEYS
+     * @return the cached statement
+     * @throws SQLException if the SQL cannot be compiled
+     */
+    protected static PreparedStatement prepare(Connection conn, String sql, int autoGeneratedKeys) throws SQLException {
+        PreparedStatement statement = statementCache.prepare(conn, sql, autoGeneratedKeys);
+        QueryContext.apply(statement);
+        return statement;
+    }
+
+    /**
+     * The method to run read-only work on a pooled read connection.
+     * @param work the queries to run
+     * @return the result of the work
+     * @throws SQLException if the work fails after all retries
+     */
+    protected static <T> T read(ConnectionPool.SqlWork<T> work) throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            return releasing(work).run(connection);
+        }
+        return current.read(releasing(work));
+    }
+
+    /**
+     * The method to run work on the write connection, one writer at a time.
+     * @param work the statements to run
+     * @return the result of the work
+     * @throws SQLException if the work fails after all retries
+     */
+    protected static <T> T write(ConnectionPool.SqlWork<T> work) throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            return releasing(work).run(connection);
+        }
+        return current.write(releasing(work));
+    }
+
+    // Helper method to forget the AsyncDAO call's statement while its connection is still held,
+    // so cancelling the call later cannot interrupt whoever uses the connection next
+    private static <T> ConnectionPool.SqlWork<T> releasing(ConnectionPool.SqlWork<T> work) {
+        return conn -> {
+            try {
+                return work.run(conn);
+            } finally {
+                QueryContext.release();
+            }
+        };
+    }
+
+    /**
+     * The method to run several statements on the write connection as one transaction.
+     * The work is committed if it returns normally and rolled back if it throws.
+     * @param work the statements to run
+     * @return the result of the work
+     * @throws SQLException if the work fails after all retries
+     */
+    protected static <T> T transaction(ConnectionPool.SqlWork<T> work) throws SQLException {
+        return write(conn -> {
+            boolean autoCommit = conn.getAutoCommit();
+            if (!autoCommit) {
+                return work.run(conn);  // Already inside a transaction, join it
+            }
+            conn.setAutoCommit(false);
+            try {
+                T result = work.run(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        });
     }
 
 
     /**
      * The method to initialize the database connection.
+     * It creates any missing tables and then applies pending schema migrations.
      */
     // Method to initialize the database and create tables
     private void initializeDatabase() {
@@ -47,6 +176,11 @@ public abstract class BaseDAO {
         createContactsTable();
         createLogEventsTable();
         createBlogsTable();
+        try {
+            write(conn -> MigrationRunner.withDefaultMigrations().migrate(conn));
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
     }
 
     /**
@@ -80,10 +214,41 @@ public abstract class BaseDAO {
                 "images TEXT," +
                 "progress REAL," +
                 "materials TEXT," +
+                "todo_total INTEGER NOT NULL DEFAULT 0," +
+                "todo_completed INTEGER NOT NULL DEFAULT 0," +
                 "FOREIGN KEY (user_id) REFERENCES users(id))";
-        try {
-            Statement stmt = connection.createStatement();
+        // To-do items live in their own table, one row per item
+        String toDoQuery = "CREATE TABLE IF NOT EXISTS log_todo_items (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "log_id INTEGER NOT NULL," +
+                "task TEXT NOT NULL," +
+                "is_checked INTEGER NOT NULL DEFAULT 0," +
+                "FOREIGN KEY (log_id) REFERENCES logs(id))";
+        // Images and materials are kept in order by their position within the log
+        String imagesQuery = "CREATE TABLE IF NOT EXISTS log_images (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "log_id INTEGER NOT NULL," +
+                "position INTEGER NOT NULL," +
+                "path TEXT NOT NULL," +
+                "FOREIGN KEY (log_id) REFERENCES logs(id))";
+        String materialsQuery = "CREATE TABLE IF NOT EXISTS log_materials (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "log_id INTEGER NOT NULL," +
+                "position INTEGER NOT NULL," +
+                "name TEXT NOT NULL," +
+                "quantity INTEGER NOT NULL," +
+                "price REAL NOT NULL," +
+                "created_at TEXT," +
+                "FOREIGN KEY (log_id) REFERENCES logs(id))";
+        try (Statement stmt = connection.createStatement()) {
             stmt.execute(query);
+            stmt.execute(toDoQuery);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_log_todo_items_log_id ON log_todo_items(log_id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_log_todo_items_log_id_task ON log_todo_items(log_id, task)");
+            stmt.execute(imagesQuery);
+            stmt.execute(materialsQuery);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_log_images_log_id_position ON log_images(log_id, position)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_log_materials_log_id_position ON log_materials(log_id, position)");
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -102,11 +267,31 @@ public abstract class BaseDAO {
                 + "log_id INTEGER NOT NULL, "
                 + "event_type TEXT NOT NULL, "
                 + "comments TEXT, "
-                + "likes TEXT"
+                + "likes TEXT, "
+                + "like_count INTEGER NOT NULL DEFAULT 0, "
+                + "comment_count INTEGER NOT NULL DEFAULT 0"
                 + ");";
+        // One row per like, so a user can like an event only once
+        String likesSql = "CREATE TABLE IF NOT EXISTS event_likes ("
+                + "event_id INTEGER NOT NULL, "
+                + "user_id INTEGER NOT NULL, "
+                + "created_at TEXT NOT NULL, "
+                + "PRIMARY KEY (event_id, user_id)"
+                + ")";
+        // Comments are only ever appended
+        String commentsSql = "CREATE TABLE IF NOT EXISTS event_comments ("
+                + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + "event_id INTEGER NOT NULL, "
+                + "user_id INTEGER NOT NULL, "
+                + "body TEXT NOT NULL, "
+                + "created_at TEXT NOT NULL"
+                + ")";
 
         try (Statement stmt = connection.createStatement()) {
             stmt.execute(sql);
+            stmt.execute(likesSql);
+            stmt.execute(commentsSql);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_event_comments_event_id ON event_comments(event_id)");
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -158,6 +343,12 @@ public abstract class BaseDAO {
      */
     protected void closeConnection() {
         try {
+            statementCache.clear();
+            UserDirectory.clearShared();
+            SearchIndex.clearShared();
+            if (pool != null) {
+                pool.close();
+            }
             if (connection != null) {
                 connection.close();
             }
@@ -0,0 +1,75 @@
+package com.example.demoplswork.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Migration 10 adds blog_bodies, where the text of long blogs is kept compressed.
+ * A blog whose text is longer than BlogDAO.COMPRESS_THRESHOLD characters keeps only an excerpt in blogs.description,
+ * which is what blog_search indexes, and its whole text deflated in blog_bodies. Shorter blogs are stored as before.
+ * A trigger deletes a blog's body with the blog. Existing long blogs are compressed when the migration is applied.
+ */
+public class BlogBodiesMigration extends Migration {
+
+    @Override
+    public int getVersion() {
+        return 10;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Store the text of long blogs compressed in blog_bodies";
+    }
+
+    @Override
+    protected List<String> getStatements() {
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS blog_bodies ("
+                        + "blog_id INTEGER PRIMARY KEY,"
+                        + "body BLOB NOT NULL,"
+                        + "FOREIGN KEY (blog_id) REFERENCES blogs(id))",
+                "CREATE TRIGGER IF NOT EXISTS trg_blog_bodies_delete AFTER DELETE ON blogs BEGIN "
+                        + "DELETE FROM blog_bodies WHERE blog_id = OLD.id; "
+                        + "END"
+        );
+    }
+
+    @Override
+    protected int getCodeRevision() {
+        return 1;  // Bump when apply changes
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        super.apply(conn);
+
+        List<Object[]> longBlogs = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT id, description FROM blogs WHERE length(description) > ?")) {
+            pstmt.setInt(1, BlogDAO.COMPRESS_THRESHOLD);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    longBlogs.add(new Object[] { rs.getInt("id"), rs.getString("description") });
+                }
+            }
+        }
+
+        for (Object[] row : longBlogs) {
+            int blogId = (int) row[0];
+            String body = (String) row[1];
+            byte[] compressed = BlogDAO.compressBody(body);
+            if (compressed == null) {
+                continue;
+            }
+            BlogDAO.insertBody(conn, blogId, compressed);
+            try (PreparedStatement pstmt = conn.prepareStatement("UPDATE blogs SET description = ? WHERE id = ?")) {
+                pstmt.setString(1, BlogDAO.excerpt(body));
+                pstmt.setInt(2, blogId);
+                pstmt.executeUpdate();
+            }
+        }
+    }
+}
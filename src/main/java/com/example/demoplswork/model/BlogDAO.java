@@ -1,17 +1,37 @@
 package com.example.demoplswork.model;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 /**
  * BlogDAO class is responsible for performing CRUD operations on the Blog table in the database.
  * It extends the BaseDAO class to utilize the database connection and table creation methods.
  * It implements the IBlogDAO interface to ensure the implementation of required methods.
  * It has methods to insert a new blog, retrieve all blogs, and retrieve a blog by its ID.
+ * It has methods to list blog summaries a page at a time, newest first, and to read one blog's text on its own,
+ * so the Explore page only reads the text of an article that is opened.
+ * The text of a blog longer than COMPRESS_THRESHOLD characters is stored deflated in blog_bodies,
+ * with only an excerpt left in blogs.description for the full-text search (see BlogBodiesMigration).
  * It uses prepared statements to prevent SQL injection attacks.
+ * New blogs are reported to the shared SearchIndex.
  * It handles SQL exceptions and ensures the database connection is properly closed after operations.
  */
 public class BlogDAO extends BaseDAO implements IBlogDAO {
+    public static final int COMPRESS_THRESHOLD = 4096;
+    static final int EXCERPT_LENGTH = 1024;
+
+    private static final String BLOG_WITH_BODY = "SELECT b.id, b.user_id, b.title, b.description, b.image_path, b.tag, bb.body "
+            + "FROM blogs b LEFT JOIN blog_bodies bb ON bb.blog_id = b.id";
+    private static final String BLOG_SUMMARIES = "SELECT id, user_id, title, tag, image_path FROM blogs "
+            + "WHERE id < ? ORDER BY id DESC LIMIT ?";
 
     /*
         * Method to insert a new blog into the database.
@@ -19,14 +39,28 @@ public class BlogDAO extends BaseDAO implements IBlogDAO {
     @Override
     public void insertBlog(Blog blog) throws SQLException {
         String query = "INSERT INTO blogs (user_id, title, description, image_path, tag) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement statement = connection.prepareStatement(query)) {
-            statement.setInt(1, blog.getUserId());
-            statement.setString(2, blog.getTitle());
-            statement.setString(3, blog.getDescription());
-            statement.setString(4, blog.getImagePath());
-            statement.setString(5, blog.getTag());  // Insert the tag
-            statement.executeUpdate();
-        }
+        byte[] compressed = compressBody(blog.getDescription());
+        String description = compressed != null ? excerpt(blog.getDescription()) : blog.getDescription();
+        // The blog and its compressed text are inserted together
+        int blogId = transaction(conn -> {
+            int newBlogId;
+            try (PreparedStatement statement = prepare(conn, query, Statement.RETURN_GENERATED_KEYS)) {
+                statement.setInt(1, blog.getUserId());
+                statement.setString(2, blog.getTitle());
+                statement.setString(3, description);
+                statement.setString(4, blog.getImagePath());
+                statement.setString(5, blog.getTag());  // Insert the tag
+                statement.executeUpdate();
+                try (ResultSet rs = statement.getGeneratedKeys()) {
+                    newBlogId = rs.next() ? rs.getInt(1) : -1;
+                }
+            }
+            if (compressed != null) {
+                insertBody(conn, newBlogId, compressed);
+            }
+            return newBlogId;
+        });
+        SearchIndex.changedShared(SearchDocument.Kind.BLOG, blogId);
     }
 
     /*
@@ -34,24 +68,170 @@ public class BlogDAO extends BaseDAO implements IBlogDAO {
      */
     @Override
     public List<Blog> getAllBlogs() throws SQLException {
-        String query = "SELECT * FROM blogs";
         List<Blog> blogs = new ArrayList<>();
-        try (Statement statement = connection.createStatement()) {
-            ResultSet rs = statement.executeQuery(query);
-            while (rs.next()) {
-                Blog blog = new Blog(
-                        rs.getInt("id"),
-                        rs.getInt("user_id"),
-                        rs.getString("title"),
-                        rs.getString("description"),
-                        rs.getString("image_path"),
-                        rs.getString("tag")  // Retrieve the tag
-                );
-                blogs.add(blog);
+        read(conn -> {
+            try (PreparedStatement statement = prepare(conn, BLOG_WITH_BODY);
+                 ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    blogs.add(toBlog(rs));
+                }
             }
-        }
+            return null;
+        });
         return blogs;
     }
 
-}
+    /*
+        * Method to retrieve one blog by its ID, e.g. for a search hit.
+     */
+    @Override
+    public Blog getBlog(int id) throws SQLException {
+        String query = BLOG_WITH_BODY + " WHERE b.id = ?";
+        return read(conn -> {
+            try (PreparedStatement statement = prepare(conn, query)) {
+                statement.setInt(1, id);
+                try (ResultSet rs = statement.executeQuery()) {
+                    return rs.next() ? toBlog(rs) : null;
+                }
+            }
+        });
+    }
+
+    /*
+        * Method to retrieve a page of blog summaries, newest first, without their text.
+     */
+    @Override
+    public List<BlogSummary> getBlogSummaries(Integer beforeId, int limit) throws SQLException {
+        if (limit <= 0) {
+            throw new SQLException("Invalid page size: " + limit);
+        }
+        List<BlogSummary> summaries = new ArrayList<>();
+        read(conn -> {
+            try (PreparedStatement statement = prepare(conn, BLOG_SUMMARIES)) {
+                statement.setLong(1, beforeId != null ? beforeId : Long.MAX_VALUE);
+                statement.setInt(2, limit);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        summaries.add(new BlogSummary(rs.getInt("id"), rs.getInt("user_id"), rs.getString("title"),
+                                rs.getString("tag"), rs.getString("image_path")));
+                    }
+                }
+            }
+            return null;
+        });
+        return summaries;
+    }
+
+    /*
+        * Method to retrieve the whole text of one blog, when its article is opened.
+     */
+    @Override
+    public String getBlogBody(int id) throws SQLException {
+        String query = "SELECT b.description, bb.body FROM blogs b LEFT JOIN blog_bodies bb ON bb.blog_id = b.id WHERE b.id = ?";
+        return read(conn -> {
+            try (PreparedStatement statement = prepare(conn, query)) {
+                statement.setInt(1, id);
+                try (ResultSet rs = statement.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    byte[] compressed = rs.getBytes("body");
+                    return compressed != null ? decompressBody(compressed) : rs.getString("description");
+                }
+            }
+        });
+    }
+
+    /*
+        * Method to remove a cover image from every blog that uses it, when it could never be uploaded.
+     */
+    @Override
+    public void removeImage(String imagePath) throws SQLException {
+        String query = "UPDATE blogs SET image_path = NULL WHERE image_path = ?";
+        write(conn -> {
+            try (PreparedStatement statement = prepare(conn, query)) {
+                statement.setString(1, imagePath);
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    // Helper method to make a Blog from a BLOG_WITH_BODY row, with its whole text
+    private static Blog toBlog(ResultSet rs) throws SQLException {
+        byte[] compressed = rs.getBytes("body");
+        return new Blog(
+                rs.getInt("id"),
+                rs.getInt("user_id"),
+                rs.getString("title"),
+                compressed != null ? decompressBody(compressed) : rs.getString("description"),
+                rs.getString("image_path"),
+                rs.getString("tag")  // Retrieve the tag
+        );
+    }
 
+    // Helper method to store the compressed text of a blog
+    static int insertBody(Connection conn, int blogId, byte[] compressed) throws SQLException {
+        try (PreparedStatement pstmt = prepare(conn, "INSERT OR REPLACE INTO blog_bodies (blog_id, body) VALUES (?, ?)")) {
+            pstmt.setInt(1, blogId);
+            pstmt.setBytes(2, compressed);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Compresses the text of a blog if it is long enough to be worth it.
+     * @param body the text
+     * @return the deflated UTF-8 text, or null if the text is no longer than COMPRESS_THRESHOLD characters
+     *         or does not get smaller
+     */
+    static byte[] compressBody(String body) {
+        if (body == null || body.length() <= COMPRESS_THRESHOLD) {
+            return null;
+        }
+        byte[] text = body.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(text.length / 2);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, deflater)) {
+            deflate.write(text);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not compress blog text", e);  // Cannot happen writing to memory
+        } finally {
+            deflater.end();
+        }
+        return out.size() < text.length ? out.toByteArray() : null;
+    }
+
+    /**
+     * Decompresses the text of a blog stored by compressBody.
+     * @param compressed the deflated UTF-8 text
+     * @return the text
+     * @throws SQLException if the stored text is damaged
+     */
+    static String decompressBody(byte[] compressed) throws SQLException {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Damaged blog text", e);
+        }
+    }
+
+    /**
+     * Gets the start of a long blog's text for blogs.description, cut at a space where there is one near the end.
+     * @param body the text
+     * @return the first EXCERPT_LENGTH characters or fewer
+     */
+    static String excerpt(String body) {
+        if (body.length() <= EXCERPT_LENGTH) {
+            return body;
+        }
+        int end = EXCERPT_LENGTH;
+        int space = body.lastIndexOf(' ', end);
+        if (space > EXCERPT_LENGTH / 2) {
+            end = space;
+        } else if (Character.isHighSurrogate(body.charAt(end - 1))) {
+            end--;  // Do not split a character in two
+        }
+        return body.substring(0, end);
+    }
+
+}
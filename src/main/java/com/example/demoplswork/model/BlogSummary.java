@@ -0,0 +1,75 @@
+package com.example.demoplswork.model;
+
+/**
+ * BlogSummary class is what the Explore page's blog column shows for a blog before it is opened.
+ * It has the blog's ID, the ID of its author, its title, its tag and the path of its cover image, but not its text,
+ * which is read with BlogDAO.getBlogBody when the article is opened.
+ */
+public final class BlogSummary {
+    private final int id;
+    private final int userId;
+    private final String title;
+    private final String tag;
+    private final String imagePath;
+
+    /**
+     * Constructor for BlogSummary class.
+     * @param id the ID of the blog
+     * @param userId the ID of the blog's author
+     * @param title the title of the blog
+     * @param tag the tag of the blog
+     * @param imagePath the path of the blog's cover image, or null
+     */
+    public BlogSummary(int id, int userId, String title, String tag, String imagePath) {
+        this.id = id;
+        this.userId = userId;
+        this.title = title;
+        this.tag = tag;
+        this.imagePath = imagePath;
+    }
+
+    /**
+     * Gets the ID of the blog.
+     * @return the blog ID
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the ID of the blog's author.
+     * @return the user ID
+     */
+    public int getUserId() {
+        return userId;
+    }
+
+    /**
+     * Gets the title of the blog.
+     * @return the title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Gets the tag of the blog.
+     * @return the tag
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * Gets the path of the blog's cover image.
+     * @return the image path, or null
+     */
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    @Override
+    public String toString() {
+        return "BlogSummary[" + id + ", " + title + "]";
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.demoplswork.model;
+
+/**
+ * ColumnKernels class has the aggregate loops run over the primitive columns of an AnalyticsSnapshot.
+ * Days are epoch days (LocalDate.toEpochDay). Every kernel reads the first size entries of its columns
+ * and is a single counted loop over plain arrays with no boxing, which the JIT can unroll and vectorize.
+ * Group-by kernels put each row in a bucket of bucketDays days starting at fromDay; rows outside the buckets are skipped.
+ */
+public final class ColumnKernels {
+
+    private ColumnKernels() {
+    }
+
+    /**
+     * Sums a column.
+     * @param values the column
+     * @param size the number of rows
+     * @return the sum
+     */
+    public static double sum(double[] values, int size) {
+        // Four running sums, so each addition does not have to wait for the one before
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < size; i += 4) {
+            s0 += values[i];
+            s1 += values[i + 1];
+            s2 += values[i + 2];
+            s3 += values[i + 3];
+        }
+        for (; i < size; i++) {
+            s0 += values[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Sums a column.
+     * @param values the column
+     * @param size the number of rows
+     * @return the sum
+     */
+    public static long sum(int[] values, int size) {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Counts the rows whose day is in [fromDay, toDay).
+     * @param days the day column
+     * @param size the number of rows
+     * @param fromDay the first day counted
+     * @param toDay the day after the last day counted
+     * @return the number of rows in the range
+     */
+    public static int count(int[] days, int size, int fromDay, int toDay) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int day = days[i];
+            count += (day >= fromDay && day < toDay) ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Sums a column by day bucket.
+     * @param days the day column
+     * @param values the column to sum
+     * @param size the number of rows
+     * @param fromDay the first day of the first bucket
+     * @param bucketDays the number of days in each bucket, e.g. 1 for days or 7 for weeks
+     * @param buckets the number of buckets
+     * @return the sum of each bucket
+     */
+    public static double[] sumByBucket(int[] days, double[] values, int size, int fromDay, int bucketDays, int buckets) {
+        checkBuckets(bucketDays, buckets);
+        double[] sums = new double[buckets];
+        long span = (long) bucketDays * buckets;
+        for (int i = 0; i < size; i++) {
+            long offset = (long) days[i] - fromDay;
+            if (offset >= 0 && offset < span) {
+                sums[(int) (offset / bucketDays)] += values[i];
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Counts rows by day bucket, optionally only the rows with a given key.
+     * @param days the day column
+     * @param keys the key column, or null to count every row
+     * @param key the key of the rows to count, when keys is given
+     * @param size the number of rows
+     * @param fromDay the first day of the first bucket
+     * @param bucketDays the number of days in each bucket, e.g. 1 for days or 7 for weeks
+     * @param buckets the number of buckets
+     * @return the number of rows in each bucket
+     */
+    public static int[] countByBucket(int[] days, int[] keys, int key, int size, int fromDay, int bucketDays, int buckets) {
+        checkBuckets(bucketDays, buckets);
+        int[] counts = new int[buckets];
+        long span = (long) bucketDays * buckets;
+        for (int i = 0; i < size; i++) {
+            long offset = (long) days[i] - fromDay;
+            if (offset >= 0 && offset < span && (keys == null || keys[i] == key)) {
+                counts[(int) (offset / bucketDays)]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Computes trailing window sums: entry i is the sum of entries i - window + 1 to i,
+     * counting only entries that exist, so the first window - 1 results cover fewer entries.
+     * The running sum is compensated (Neumaier's variant of Kahan summation): the rounding error of each
+     * addition and subtraction is carried separately, so a large value leaving the window does not leave
+     * its rounding error behind in every later window of a long series.
+     * @param daily the values per bucket, e.g. from sumByBucket
+     * @param window the number of buckets in each window, e.g. 7 or 30
+     * @return the window sums
+     */
+    public static double[] rollingSum(double[] daily, int window) {
+        checkWindow(window);
+        double[] rolling = new double[daily.length];
+        double sum = 0;
+        double compensation = 0;
+        for (int i = 0; i < daily.length; i++) {
+            double in = daily[i];
+            double t = sum + in;
+            compensation += Math.abs(sum) >= Math.abs(in) ? (sum - t) + in : (in - t) + sum;
+            sum = t;
+            if (i >= window) {
+                double out = -daily[i - window];
+                t = sum + out;
+                compensation += Math.abs(sum) >= Math.abs(out) ? (sum - t) + out : (out - t) + sum;
+                sum = t;
+            }
+            rolling[i] = sum + compensation;
+        }
+        return rolling;
+    }
+
+    /**
+     * Computes trailing window sums: entry i is the sum of entries i - window + 1 to i,
+     * counting only entries that exist, so the first window - 1 results cover fewer entries.
+     * @param daily the counts per bucket, e.g. from countByBucket
+     * @param window the number of buckets in each window, e.g. 7 or 30
+     * @return the window sums
+     */
+    public static int[] rollingSum(int[] daily, int window) {
+        checkWindow(window);
+        int[] rolling = new int[daily.length];
+        int sum = 0;
+        for (int i = 0; i < daily.length; i++) {
+            sum += daily[i];
+            if (i >= window) {
+                sum -= daily[i - window];
+            }
+            rolling[i] = sum;
+        }
+        return rolling;
+    }
+
+    private static void checkBuckets(int bucketDays, int buckets) {
+        if (bucketDays <= 0 || buckets < 0) {
+            throw new IllegalArgumentException("Invalid buckets: " + buckets + " of " + bucketDays + " days");
+        }
+    }
+
+    private static void checkWindow(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Invalid window: " + window);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.demoplswork.model;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ConnectionPool class hands out SQLite connections to the DAOs.
+ * It keeps a single write connection and a fixed set of read-only connections.
+ * File databases are opened in WAL journal mode so readers are never blocked by the writer.
+ * Every unit of work runs under the configured busy timeout and RetryPolicy.
+ * A pool can also wrap one existing connection (e.g. an in-memory test database), in which case reads and writes share it.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * A unit of database work that runs against a borrowed connection.
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    private final Connection writer;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final BlockingQueue<Connection> readers;
+    private final List<Connection> allReaders = new ArrayList<>();
+    private final RetryPolicy retryPolicy;
+    private final long borrowTimeoutMillis;
+    private final boolean ownsConnections;
+
+    /**
+     * Opens a pool against a file database.
+     * @param url the JDBC url of the database, e.g. jdbc:sqlite:contacts.db
+     * @param readerCount the number of read-only connections to open
+     * @param busyTimeoutMillis how long SQLite itself waits on a locked database before failing
+     * @param retryPolicy the policy used when SQLite still reports the database as busy
+     * @throws SQLException if a connection cannot be opened
+     */
+    public ConnectionPool(String url, int readerCount, int busyTimeoutMillis, RetryPolicy retryPolicy) throws SQLException {
+        if (readerCount <= 0) {
+            throw new IllegalArgumentException("Reader count must be positive.");
+        }
+        this.retryPolicy = retryPolicy;
+        this.borrowTimeoutMillis = Math.max(busyTimeoutMillis, 1000);
+        this.ownsConnections = true;
+
+        this.writer = DriverManager.getConnection(url);
+        try (Statement stmt = writer.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = NORMAL");
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+        }
+
+        this.readers = new ArrayBlockingQueue<>(readerCount);
+        for (int i = 0; i < readerCount; i++) {
+            Connection reader = DriverManager.getConnection(url);
+            try (Statement stmt = reader.createStatement()) {
+                stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+                stmt.execute("PRAGMA query_only = ON");  // Reject writes on reader connections
+            }
+            allReaders.add(reader);
+            readers.add(reader);
+        }
+    }
+
+    /**
+     * Wraps a single existing connection. Reads and writes are serialized on it.
+     * The pool does not close the wrapped connection.
+     * @param conn the connection to wrap
+     * @param retryPolicy the policy used when the database reports it is busy
+     */
+    private ConnectionPool(Connection conn, RetryPolicy retryPolicy) {
+        this.writer = conn;
+        this.retryPolicy = retryPolicy;
+        this.borrowTimeoutMillis = 0;
+        this.readers = null;
+        this.ownsConnections = false;
+    }
+
+    /**
+     * Creates a pool backed by a single existing connection.
+     * @param conn the connection to wrap
+     * @return the pool
+     */
+    public static ConnectionPool wrap(Connection conn) {
+        return new ConnectionPool(conn, RetryPolicy.defaults());
+    }
+
+    /**
+     * Gets the write connection.
+     * @return the connection all writes go through
+     */
+    public Connection getWriteConnection() {
+        return writer;
+    }
+
+    /**
+     * Gets the number of read-only connections in the pool.
+     * @return the reader count, or 0 if the pool wraps a single connection
+     */
+    public int getReaderCount() {
+        return readers == null ? 0 : allReaders.size();
+    }
+
+    /**
+     * Runs read-only work on one of the reader connections.
+     * @param work the work to run
+     * @return the result of the work
+     * @throws SQLException if the work fails after all retries
+     */
+    public <T> T read(SqlWork<T> work) throws SQLException {
+        if (readers == null) {
+            return write(work);
+        }
+        Connection reader = borrowReader();
+        try {
+            return retryPolicy.execute(() -> work.run(reader));
+        } finally {
+            readers.offer(reader);
+        }
+    }
+
+    /**
+     * Runs work on the write connection. Only one writer runs at a time.
+     * @param work the work to run
+     * @return the result of the work
+     * @throws SQLException if the work fails after all retries
+     */
+    public <T> T write(SqlWork<T> work) throws SQLException {
+        writeLock.lock();
+        try {
+            return retryPolicy.execute(() -> work.run(writer));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Takes a reader connection, waiting up to the borrow timeout for one to be returned.
+     * @return a reader connection
+     * @throws SQLException if no reader becomes available in time
+     */
+    private Connection borrowReader() throws SQLException {
+        try {
+            Connection reader = readers.poll(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (reader == null) {
+                throw new SQLException("Timed out waiting for a read connection.");
+            }
+            return reader;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a read connection.", e);
+        }
+    }
+
+    /**
+     * Closes every connection opened by this pool. Wrapped connections are left open.
+     */
+    @Override
+    public void close() {
+        if (!ownsConnections) {
+            return;
+        }
+        for (Connection reader : allReaders) {
+            try {
+                reader.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        try {
+            writer.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
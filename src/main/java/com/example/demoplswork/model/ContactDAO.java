@@ -2,14 +2,23 @@ package com.example.demoplswork.model;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 /**
  * The DAO class responsible for managing contacts in the database for login/register pages.
  * It provides methods to create a new account, authenticate a user, update user details, delete a user, and retrieve all contacts.
  * It also includes methods to get a user ID by email and to get a contact by user ID.
+ * It has a method to get many contacts with their profiles at once, which the UserDirectory uses to fill its cache.
+ * Methods that change a user invalidate that user's UserDirectory entry and report the user to the shared SearchIndex.
  * It uses prepared statements to prevent SQL injection attacks and handles SQL exceptions.
  */
 public class ContactDAO extends BaseDAO implements IContactDAO  {
+    // Parameter counts used for batched ID lookups; SQLite allows at most 999 parameters per statement
+    private static final int[] ID_BATCH_SIZES = {1, 8, 64, 256};
 
 
     /**
@@ -24,12 +33,19 @@ public class ContactDAO extends BaseDAO implements IContactDAO  {
     public boolean createAccount(String firstName, String lastName, String email, String password) {
         String query = "INSERT INTO users (firstName, lastName, email, password) VALUES (?, ?, ?, ?)";
         try {
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            pstmt.setString(1, firstName);
-            pstmt.setString(2, lastName);
-            pstmt.setString(3, email);
-            pstmt.setString(4, password);  // Password should be hashed in production
-            pstmt.executeUpdate();
+            int userId = write(conn -> {
+                try (PreparedStatement pstmt = prepare(conn, query, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setString(1, firstName);
+                    pstmt.setString(2, lastName);
+                    pstmt.setString(3, email);
+                    pstmt.setString(4, password);  // Password should be hashed in production
+                    pstmt.executeUpdate();
+                    try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                        return rs.next() ? rs.getInt(1) : -1;
+                    }
+                }
+            });
+            SearchIndex.changedShared(SearchDocument.Kind.USER, userId);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -47,11 +63,15 @@ public class ContactDAO extends BaseDAO implements IContactDAO  {
     public boolean authenticateUser(String email, String password) {
         String query = "SELECT * FROM users WHERE email = ? AND password = ?";
         try {
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            pstmt.setString(1, email);
-            pstmt.setString(2, password);
-            ResultSet rs = pstmt.executeQuery();
-            return rs.next();  // Returns true if a match is found, otherwise false
+            return read(conn -> {
+                try (PreparedStatement pstmt = prepare(conn, query)) {
+                    pstmt.setString(1, email);
+                    pstmt.setString(2, password);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return rs.next();  // Returns true if a match is found, otherwise false
+                    }
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -71,13 +91,18 @@ public class ContactDAO extends BaseDAO implements IContactDAO  {
     public boolean updateUser(int id, String firstName, String lastName, String email, String password) {
         String query = "UPDATE users SET firstName = ?, lastName = ?, email = ?, password = ? WHERE id = ?";
         try {
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            pstmt.setString(1, firstName);
-            pstmt.setString(2, lastName);
-            pstmt.setString(3, email);
-            pstmt.setString(4, password);  // Password should be hashed
-            pstmt.setInt(5, id);
-            pstmt.executeUpdate();
+            write(conn -> {
+                try (PreparedStatement pstmt = prepare(conn, query)) {
+                    pstmt.setString(1, firstName);
+                    pstmt.setString(2, lastName);
+                    pstmt.setString(3, email);
+                    pstmt.setString(4, password);  // Password should be hashed
+                    pstmt.setInt(5, id);
+                    return pstmt.executeUpdate();
+                }
+            });
+            UserDirectory.invalidateShared(id);
+            SearchIndex.changedShared(SearchDocument.Kind.USER, id);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -93,9 +118,14 @@ public class ContactDAO extends BaseDAO implements IContactDAO  {
     public boolean deleteUser(int id) {
         String query = "DELETE FROM users WHERE id = ?";
         try {
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            pstmt.setInt(1, id);
-            pstmt.executeUpdate();
+            write(conn -> {
+                try (PreparedStatement pstmt = prepare(conn, query)) {
+                    pstmt.setInt(1, id);
+                    return pstmt.executeUpdate();
+                }
+            });
+            UserDirectory.invalidateShared(id);
+            SearchIndex.changedShared(SearchDocument.Kind.USER, id);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -112,15 +142,19 @@ public class ContactDAO extends BaseDAO implements IContactDAO  {
         List<Contact> contacts = new ArrayList<>();
         String query = "SELECT * FROM users";
         try {
-            Statement stmt = connection.createStatement();
-            ResultSet rs = stmt.executeQuery(query);
-            while (rs.next()) {
-                String firstName = rs.getString("firstName");
-                String lastName = rs.getString("lastName");
-                String email = rs.getString("email");
-                String password = rs.getString("password"); // You might want to omit password here
-                contacts.add(new Contact(firstName, lastName, email, password)); // Adjust according to your Contact class
-            }
+            read(conn -> {
+                try (PreparedStatement stmt = prepare(conn, query);
+                     ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        String firstName = rs.getString("firstName");
+                        String lastName = rs.getString("lastName");
+                        String email = rs.getString("email");
+                        String password = rs.getString("password"); // You might want to omit password here
+                        contacts.add(new Contact(firstName, lastName, email, password)); // Adjust according to your Contact class
+                    }
+                }
+                return null;
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -134,16 +168,19 @@ public class ContactDAO extends BaseDAO implements IContactDAO  {
      */
     public int getUserIDByEmail(String email) {
         String sql = "SELECT id FROM users WHERE email = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-
-            pstmt.setString(1, email);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                return rs.getInt("id");
-            } else {
-                return -1; // No user found with the given email
-            }
+        try {
+            return read(conn -> {
+                try (PreparedStatement pstmt = prepare(conn, sql)) {
+                    pstmt.setString(1, email);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (rs.next()) {
+                            return rs.getInt("id");
+                        } else {
+                            return -1; // No user found with the given email
+                        }
+                    }
+                }
+            });
         } catch (SQLException e) {
             System.out.println(e.getMessage());
             return -1;
@@ -159,21 +196,78 @@ public class ContactDAO extends BaseDAO implements IContactDAO  {
         Contact contact = null;
         String query = "SELECT firstName, lastName FROM users WHERE id = ?";
 
-        try (PreparedStatement statement = connection.prepareStatement(query)) {
-            statement.setInt(1, userId);
-            ResultSet rs = statement.executeQuery();
-
-            if (rs.next()) {
-                String firstName = rs.getString("firstName");
-                String lastName = rs.getString("lastName");
-                contact = new Contact(firstName, lastName, " ", " ");
-            }
+        try {
+            contact = read(conn -> {
+                try (PreparedStatement statement = prepare(conn, query)) {
+                    statement.setInt(1, userId);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        if (rs.next()) {
+                            String firstName = rs.getString("firstName");
+                            String lastName = rs.getString("lastName");
+                            return new Contact(firstName, lastName, " ", " ");
+                        }
+                        return null;
+                    }
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return contact;
     }
 
+    /**
+     * Retrieves the contacts with the given user IDs, with their profile bio and photo, in as few queries as possible.
+     * IDs are looked up in fixed-size batches so the same few statements are reused from the statement cache.
+     * Users without a profile have a null bio and photo.
+     * @param userIds the IDs of the users
+     * @return the contacts found, by user ID; IDs with no user are left out
+     */
+    public Map<Integer, Contact> getContactsByIds(Collection<Integer> userIds) {
+        Map<Integer, Contact> contacts = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(userIds));
+        try {
+            read(conn -> {
+                for (int start = 0; start < ids.size(); ) {
+                    int batch = batchSize(ids.size() - start);
+                    List<Integer> chunk = ids.subList(start, Math.min(start + batch, ids.size()));
+                    String query = "SELECT u.id, u.firstName, u.lastName, p.bio, p.photo FROM users u "
+                            + "LEFT JOIN user_profiles p ON p.user_id = u.id "
+                            + "WHERE u.id IN (" + String.join(", ", Collections.nCopies(batch, "?")) + ")";
+                    try (PreparedStatement statement = prepare(conn, query)) {
+                        for (int i = 0; i < batch; i++) {
+                            // Short batches repeat the last ID to fill the remaining parameters
+                            statement.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                        }
+                        try (ResultSet rs = statement.executeQuery()) {
+                            while (rs.next()) {
+                                Contact contact = new Contact(rs.getString("firstName"), rs.getString("lastName"),
+                                        rs.getString("bio"), rs.getString("photo"));
+                                contact.setId(rs.getInt("id"));
+                                contacts.put(contact.getId(), contact);
+                            }
+                        }
+                    }
+                    start += chunk.size();
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return contacts;
+    }
+
+    // Helper method to pick the number of parameters for the next batch of IDs
+    private static int batchSize(int remaining) {
+        for (int size : ID_BATCH_SIZES) {
+            if (remaining <= size) {
+                return size;
+            }
+        }
+        return ID_BATCH_SIZES[ID_BATCH_SIZES.length - 1];
+    }
+
 
 
 }
@@ -0,0 +1,111 @@
+package com.example.demoplswork.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * ContentHash class names uploaded media by what is in them rather than by the name of the user's file,
+ * so two different photos called IMG_0001.jpg get different keys and the same photo posted twice gets the same key.
+ * The key is "media/" followed by the SHA-256 hash of the file and its extension, which the views use to tell
+ * pictures from videos.
+ * A small file is read through a buffer; a large one is memory-mapped a window at a time, so it is hashed
+ * without being copied onto the Java heap.
+ */
+public final class ContentHash {
+    public static final long MAP_THRESHOLD = Long.getLong("hobbylog.uploads.mapMegabytes", 4) * 1024 * 1024;
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String KEY_PREFIX = "media/";
+    // A key made by key, or the key of one of its Renditions, e.g. "media/9f86...a08.jpg" or "media/9f86...a08.thumb.jpg"
+    private static final Pattern CONTENT_KEY = Pattern.compile("media/[0-9a-f]{64}(\\.[a-z]+)?(\\.[^./]*)?");
+
+    private ContentHash() {
+    }
+
+    /**
+     * Computes the SHA-256 hash of a file's contents.
+     * @param file the file
+     * @return the hash in hex
+     * @throws IOException if the file cannot be read
+     */
+    public static String sha256(Path file) throws IOException {
+        return sha256(file, MAP_THRESHOLD);
+    }
+
+    /**
+     * Computes the SHA-256 hash of a file's contents, memory-mapping it if it is at least mapThreshold bytes.
+     * @param file the file
+     * @param mapThreshold the size from which the file is memory-mapped
+     * @return the hash in hex
+     * @throws IOException if the file cannot be read
+     */
+    static String sha256(Path file, long mapThreshold) throws IOException {
+        MessageDigest digest = newDigest();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= mapThreshold) {
+                for (long position = 0; position < size; position += MAP_WINDOW) {
+                    MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position));
+                    digest.update(window);
+                }
+                return HexFormat.of().formatHex(digest.digest());
+            }
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Gets the key a file is uploaded under: "media/", the hash of its contents and its extension in lower case.
+     * @param file the file
+     * @return the key, e.g. "media/9f86d0...0f00a08.jpg"
+     * @throws IOException if the file cannot be read
+     */
+    public static String key(Path file) throws IOException {
+        return KEY_PREFIX + sha256(file) + extension(file.getFileName().toString());
+    }
+
+    /**
+     * Checks whether a key was made by key, or is the key of one of the Renditions of a file uploaded under one,
+     * so the file under it can only ever have the same contents. Other keys under "media/" are not.
+     * @param key the key
+     * @return true if it is named by its contents
+     */
+    public static boolean isContentKey(String key) {
+        return CONTENT_KEY.matcher(key).matches();
+    }
+
+    /**
+     * Gets the extension of a file name in lower case, with its dot.
+     * @param name the file name
+     * @return the extension, e.g. ".jpg", or "" if there is none
+     */
+    static String extension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(dot).toLowerCase() : "";
+    }
+
+    // Helper method to get a SHA-256 digest
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);  // Every JVM has it
+        }
+    }
+}
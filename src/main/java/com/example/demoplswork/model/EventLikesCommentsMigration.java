@@ -0,0 +1,101 @@
+package com.example.demoplswork.model;
+
+import com.example.demoplswork.events.LogEventUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Migration 4 moves likes and comments out of the log_events.likes and log_events.comments strings.
+ * Likes become rows in event_likes, one per event and user, and comments become rows in event_comments.
+ * The like_count and comment_count columns on log_events are set from the copied rows and the old columns are cleared.
+ * Old comments were stored already formatted as "Name: text" without the author's ID, so they are copied with user ID 0
+ * and the event's timestamp.
+ */
+public class EventLikesCommentsMigration extends Migration {
+
+    @Override
+    public int getVersion() {
+        return 4;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Move likes and comments into event_likes and event_comments with counters on log_events";
+    }
+
+    @Override
+    protected List<String> getStatements() {
+        return List.of(
+                "ALTER TABLE log_events ADD COLUMN like_count INTEGER NOT NULL DEFAULT 0",
+                "ALTER TABLE log_events ADD COLUMN comment_count INTEGER NOT NULL DEFAULT 0",
+                "CREATE TABLE IF NOT EXISTS event_likes ("
+                        + "event_id INTEGER NOT NULL, "
+                        + "user_id INTEGER NOT NULL, "
+                        + "created_at TEXT NOT NULL, "
+                        + "PRIMARY KEY (event_id, user_id))",
+                "CREATE TABLE IF NOT EXISTS event_comments ("
+                        + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                        + "event_id INTEGER NOT NULL, "
+                        + "user_id INTEGER NOT NULL, "
+                        + "body TEXT NOT NULL, "
+                        + "created_at TEXT NOT NULL)",
+                "CREATE INDEX IF NOT EXISTS idx_event_comments_event_id ON event_comments(event_id)"
+        );
+    }
+
+    @Override
+    protected int getCodeRevision() {
+        return 1;  // Bump when apply changes
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        super.apply(conn);
+
+        List<Object[]> legacyRows = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT id, timestamp, likes, comments FROM log_events "
+                + "WHERE (likes IS NOT NULL AND likes != '') OR (comments IS NOT NULL AND comments != '')");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                legacyRows.add(new Object[] { rs.getInt("id"), rs.getString("timestamp"), rs.getString("likes"), rs.getString("comments") });
+            }
+        }
+
+        try (PreparedStatement insertLike = conn.prepareStatement(
+                     "INSERT OR IGNORE INTO event_likes (event_id, user_id, created_at) VALUES (?, ?, ?)");
+             PreparedStatement insertComment = conn.prepareStatement(
+                     "INSERT INTO event_comments (event_id, user_id, body, created_at) VALUES (?, 0, ?, ?)");
+             PreparedStatement updateEvent = conn.prepareStatement("UPDATE log_events SET "
+                     + "like_count = (SELECT COUNT(*) FROM event_likes WHERE event_id = ?), "
+                     + "comment_count = (SELECT COUNT(*) FROM event_comments WHERE event_id = ?), "
+                     + "likes = NULL, comments = NULL WHERE id = ?")) {
+            for (Object[] row : legacyRows) {
+                int eventId = (int) row[0];
+                String timestamp = (String) row[1];
+
+                for (Integer userId : LogEventUtils.deserializeLikes((String) row[2])) {
+                    insertLike.setInt(1, eventId);
+                    insertLike.setInt(2, userId);
+                    insertLike.setString(3, timestamp);
+                    insertLike.executeUpdate();
+                }
+                for (String comment : LogEventUtils.deserializeComments((String) row[3])) {
+                    insertComment.setInt(1, eventId);
+                    insertComment.setString(2, comment);
+                    insertComment.setString(3, timestamp);
+                    insertComment.executeUpdate();
+                }
+
+                updateEvent.setInt(1, eventId);
+                updateEvent.setInt(2, eventId);
+                updateEvent.setInt(3, eventId);
+                updateEvent.executeUpdate();
+            }
+        }
+    }
+}
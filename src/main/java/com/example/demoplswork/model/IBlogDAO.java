@@ -5,7 +5,8 @@ import java.sql.SQLException;
 import java.util.List;
 /**
  * The IBlogDAO interface defines the methods for performing CRUD operations on the Blog table in the database.
- * It includes methods to insert a new blog and retrieve all blogs.
+ * It includes methods to insert a new blog, retrieve all blogs, retrieve one blog by its ID,
+ * list blog summaries a page at a time, retrieve the text of one blog and remove a cover image.
  * Implementing classes should handle SQL exceptions and ensure the database connection is properly managed.
  */
 public interface IBlogDAO {
@@ -21,4 +22,32 @@ public interface IBlogDAO {
      * @throws SQLException If an SQL exception occurs while retrieving the blogs
      */
     List<Blog> getAllBlogs() throws SQLException;
+    /**
+     * Retrieves one blog by its ID.
+     * @param id The ID of the blog
+     * @return The blog, or null if there is no blog with that ID
+     * @throws SQLException If an SQL exception occurs while retrieving the blog
+     */
+    Blog getBlog(int id) throws SQLException;
+    /**
+     * Retrieves a page of blog summaries, newest first, without the text of the blogs.
+     * @param beforeId The ID of the last blog of the previous page, or null for the first page
+     * @param limit The most summaries to return
+     * @return The summaries of the blogs older than beforeId
+     * @throws SQLException If the limit is not positive or an SQL exception occurs while retrieving the summaries
+     */
+    List<BlogSummary> getBlogSummaries(Integer beforeId, int limit) throws SQLException;
+    /**
+     * Retrieves the whole text of one blog.
+     * @param id The ID of the blog
+     * @return The text, or null if there is no blog with that ID
+     * @throws SQLException If an SQL exception occurs while retrieving the text
+     */
+    String getBlogBody(int id) throws SQLException;
+    /**
+     * Removes a cover image from every blog that uses it, e.g. one that could never be uploaded.
+     * @param imagePath The path of the image to remove
+     * @throws SQLException If an SQL exception occurs while updating the blogs
+     */
+    void removeImage(String imagePath) throws SQLException;
 }
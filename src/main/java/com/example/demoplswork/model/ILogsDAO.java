@@ -31,6 +31,13 @@ public interface ILogsDAO {
      * @throws SQLException If an SQL exception occurs while adding the image
      */
     void addImage(int logId, String imagePath) throws SQLException;
+    /**
+     * Removes an image from the specified log, e.g. one that could never be uploaded.
+     * @param logId The ID of the log to remove the image from
+     * @param imagePath The path of the image to remove
+     * @throws SQLException If an SQL exception occurs while removing the image
+     */
+    void removeImage(int logId, String imagePath) throws SQLException;
     /**
      * Adds a material to the specified log with the given material details.
      * @param logId The ID of the log to add the material to
@@ -64,5 +71,23 @@ public interface ILogsDAO {
      * @param logId The ID of the log to delete
      */
     void deleteLog(int logId);
+    /**
+     * Gets every dashboard metric for the specified user together.
+     * @param userId The ID of the user
+     * @return The user's total spend, tasks and projects completed, materials used, likes and comments
+     */
+    UserStats getUserStats(int userId);
+    /**
+     * Gets the same metrics for the specified log.
+     * @param logId The ID of the log
+     * @return The log's total spend, tasks completed, whether it is completed, materials used, likes and comments
+     */
+    UserStats getLogStats(int logId);
+    /**
+     * Gets the like and comment totals of every log of the specified user together.
+     * @param userId The ID of the user
+     * @return The totals by log ID
+     */
+    LogCounts getLogCountsForUser(int userId);
 }
 
@@ -29,6 +29,13 @@ public interface IProfileDAO {
      * @throws SQLException If an SQL exception occurs while updating the profile
      */
     void updateProfile(int userId, String bio, String photo) throws SQLException;
+    /**
+     * Removes the photo from the profile with the specified user ID, if it is still the given one.
+     * @param userId The user ID associated with the profile to update
+     * @param photo The file path or URL of the photo to remove
+     * @throws SQLException If an SQL exception occurs while updating the profile
+     */
+    void removePhoto(int userId, String photo) throws SQLException;
 
 }
 
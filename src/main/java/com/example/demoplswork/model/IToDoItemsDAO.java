@@ -0,0 +1,53 @@
+package com.example.demoplswork.model;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+/**
+ * The IToDoItemsDAO interface defines the methods for working with the to-do items of a log.
+ * Each to-do item is a row in the log_todo_items table identified by its own ID.
+ * The log keeps a total and a completed counter so its progress can be updated without reading every item.
+ */
+public interface IToDoItemsDAO {
+    /**
+     * Adds a to-do item to the specified log and updates the log's counters.
+     * @param logId The ID of the log to add the item to
+     * @param task The description of the to-do item
+     * @param isChecked The completion status of the to-do item
+     * @return The ID of the new item, or -1 if it could not be added
+     * @throws SQLException If the log ID is invalid
+     */
+    int addToDoItem(int logId, String task, boolean isChecked) throws SQLException;
+    /**
+     * Sets the completion status of a to-do item and updates the log's counters.
+     * @param itemId The ID of the item to update
+     * @param isChecked The new completion status
+     * @return The progress of the log the item belongs to
+     */
+    double setToDoItemChecked(int itemId, boolean isChecked);
+    /**
+     * Finds the first to-do item in a log with the given description.
+     * @param logId The ID of the log to search
+     * @param task The description of the to-do item
+     * @return The ID of the item, or -1 if there is no such item
+     */
+    int findToDoItemId(int logId, String task);
+    /**
+     * Retrieves the to-do items of a log in the order they were added.
+     * @param logId The ID of the log
+     * @return The to-do items of the log
+     */
+    List<ToDoItem> getToDoItems(int logId);
+    /**
+     * Retrieves the to-do items of every log owned by a user.
+     * @param userId The ID of the user
+     * @return The to-do items grouped by log ID, each list in the order the items were added
+     */
+    Map<Integer, List<ToDoItem>> getToDoItemsForUser(int userId);
+    /**
+     * Retrieves the stored progress of a log.
+     * @param logId The ID of the log
+     * @return The progress percentage, or 0 if the log does not exist
+     */
+    double getProgress(int logId);
+}
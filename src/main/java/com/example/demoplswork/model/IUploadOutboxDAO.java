@@ -0,0 +1,84 @@
+package com.example.demoplswork.model;
+
+import java.sql.SQLException;
+import java.util.List;
+/**
+ * The IUploadOutboxDAO interface defines the methods for keeping the uploads the UploadService has not finished.
+ * Each upload is a row in the upload_outbox table, and each part of a multipart upload already sent a row in upload_outbox_parts.
+ * The keys of the files known to be in the bucket are kept in media_objects, so a file is not uploaded twice.
+ */
+public interface IUploadOutboxDAO {
+    /**
+     * Adds an upload to the outbox.
+     * @param filePath The path of the local file
+     * @param key The key the file is uploaded under
+     * @return The ID of the new row
+     * @throws SQLException If the path or key is empty
+     */
+    int addUpload(String filePath, String key) throws SQLException;
+    /**
+     * Adds an upload of a file hashed for its key to the outbox, with the size and modified time it was hashed at.
+     * @param filePath The path of the local file
+     * @param key The key the file is uploaded under
+     * @param fileSize The size of the file when it was hashed
+     * @param fileModified The modified time of the file in milliseconds when it was hashed
+     * @return The ID of the new row
+     * @throws SQLException If the path or key is empty
+     */
+    int addUpload(String filePath, String key, long fileSize, long fileModified) throws SQLException;
+    /**
+     * Retrieves every upload in the outbox, oldest first.
+     * @return The uploads with the parts already sent
+     * @throws SQLException If an SQL exception occurs while reading the outbox
+     */
+    List<PendingUpload> getPendingUploads() throws SQLException;
+    /**
+     * Retrieves one upload in the outbox.
+     * @param id The ID of the row
+     * @return The upload with the parts already sent, or null if it is not in the outbox
+     * @throws SQLException If an SQL exception occurs while reading the outbox
+     */
+    PendingUpload getPendingUpload(int id) throws SQLException;
+    /**
+     * Records the multipart upload a file is sent in, or clears it together with its parts.
+     * @param id The ID of the row
+     * @param multipartId The ID of the multipart upload, or null to start again
+     * @throws SQLException If an SQL exception occurs while updating the row
+     */
+    void setMultipartId(int id, String multipartId) throws SQLException;
+    /**
+     * Records a part of a multipart upload that was sent.
+     * @param id The ID of the row
+     * @param partNumber The number of the part, starting at 1
+     * @param etag The ETag the bucket gave the part
+     * @throws SQLException If an SQL exception occurs while adding the part
+     */
+    void addPart(int id, int partNumber, String etag) throws SQLException;
+    /**
+     * Records a failed attempt at an upload.
+     * @param id The ID of the row
+     * @param error The reason it failed
+     * @throws SQLException If an SQL exception occurs while updating the row
+     */
+    void recordFailure(int id, String error) throws SQLException;
+    /**
+     * Removes a finished or abandoned upload and its parts from the outbox.
+     * @param id The ID of the row
+     * @throws SQLException If an SQL exception occurs while deleting the row
+     */
+    void removeUpload(int id) throws SQLException;
+    /**
+     * Checks whether a file is known to be in the bucket.
+     * @param key The key of the file
+     * @return True if it was uploaded or found in the bucket before
+     * @throws SQLException If an SQL exception occurs while reading media_objects
+     */
+    boolean isUploaded(String key) throws SQLException;
+    /**
+     * Records that a file is in the bucket.
+     * @param key The key of the file
+     * @param size The size of the file
+     * @throws SQLException If an SQL exception occurs while adding the key
+     */
+    void recordUploaded(String key, long size) throws SQLException;
+}
@@ -0,0 +1,568 @@
+package com.example.demoplswork.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * ImageDiskCache class is a shared cache of downloaded images on disk, so each image is downloaded once
+ * rather than to a new temporary file every time a screen shows it.
+ * A file is named by the SHA-256 hash of its URL and kept until the cache grows past its size limit,
+ * when the least recently used files are deleted. The order of use is kept in the files' modified times,
+ * so it carries over to the next run.
+ * A download is written to a temporary file in the cache directory and moved into place in one step, so a file
+ * in the cache is always whole. When several threads ask for the same image at once, one downloads it and the rest wait.
+ * The ETag a file was served with is kept next to it in a .meta file. Once a file is older than the revalidation age
+ * it is checked with the server before it is used again, and only downloaded again if it has changed;
+ * if the server cannot be reached, the cached file is used.
+ * Listeners are told the URL of a cached file that is replaced by a new version, so copies decoded from the old one
+ * (see ImageMemoryCache) can be dropped.
+ */
+public class ImageDiskCache {
+    public static final long DEFAULT_MAX_BYTES = Long.getLong("hobbylog.images.cacheMegabytes", 256) * 1024 * 1024;
+    public static final long DEFAULT_REVALIDATE_MILLIS = Long.getLong("hobbylog.images.revalidateSeconds", 3600) * 1000;
+    public static final Path DEFAULT_DIRECTORY = Path.of(System.getProperty("hobbylog.images.cacheDir",
+            Path.of(System.getProperty("user.home"), ".hobbylog", "images").toString()));
+    private static final String TEMP_SUFFIX = ".part";
+    private static final String META_SUFFIX = ".meta";
+
+    private static ImageDiskCache instance;
+
+    /**
+     * Opens the download of a URL.
+     */
+    @FunctionalInterface
+    public interface Fetcher {
+        /**
+         * Opens a stream of the contents of a URL.
+         * @param url the URL
+         * @return the contents, which the caller closes
+         * @throws IOException if the URL cannot be read
+         */
+        InputStream open(String url) throws IOException;
+
+        /**
+         * Opens a stream of the contents of a URL unless they still have the given ETag.
+         * Fetchers that cannot ask the server always download the contents again.
+         * @param url the URL
+         * @param etag the ETag of the copy already held, or null
+         * @return the contents and their ETag, or null if they have not changed
+         * @throws IOException if the URL cannot be read
+         */
+        default Download openIfChanged(String url, String etag) throws IOException {
+            return new Download(open(url), null);
+        }
+    }
+
+    /**
+     * The contents of a URL as they are downloaded, with the ETag the server gave them.
+     */
+    public static final class Download {
+        private final InputStream body;
+        private final String etag;
+
+        /**
+         * Constructor for Download class.
+         * @param body the contents, which the cache closes
+         * @param etag the ETag, or null if the server gave none
+         */
+        public Download(InputStream body, String etag) {
+            this.body = body;
+            this.etag = etag;
+        }
+
+        /**
+         * Gets the contents.
+         * @return the contents
+         */
+        public InputStream getBody() {
+            return body;
+        }
+
+        /**
+         * Gets the ETag.
+         * @return the ETag, or null
+         */
+        public String getEtag() {
+            return etag;
+        }
+    }
+
+    /**
+     * One cached file: its size, its ETag and when it was last downloaded or checked with the server.
+     */
+    private static final class Entry {
+        private final long size;
+        private final String etag;
+        private long validatedAt;
+
+        private Entry(long size, String etag, long validatedAt) {
+            this.size = size;
+            this.etag = etag;
+            this.validatedAt = validatedAt;
+        }
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Fetcher fetcher;
+    private final long revalidateMillis;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);  // By file name
+    private final ConcurrentHashMap<String, CompletableFuture<Path>> downloads = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> replacedListeners = new CopyOnWriteArrayList<>();
+    private long totalBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long revalidations = 0;
+    private long notModified = 0;
+
+    /**
+     * Constructor for ImageDiskCache class, downloading through the shared MediaFetcher
+     * and checking files older than DEFAULT_REVALIDATE_MILLIS with the server.
+     * @param directory the directory the files are kept in, which is made if missing
+     * @param maxBytes the most bytes of files kept
+     * @throws IOException if the directory cannot be made or read
+     */
+    public ImageDiskCache(Path directory, long maxBytes) throws IOException {
+        this(directory, maxBytes, MediaFetcher.getInstance(), DEFAULT_REVALIDATE_MILLIS);
+    }
+
+    /**
+     * Constructor for ImageDiskCache class, never checking cached files with the server.
+     * @param directory the directory the files are kept in, which is made if missing
+     * @param maxBytes the most bytes of files kept
+     * @param fetcher how a URL is downloaded
+     * @throws IOException if the directory cannot be made or read
+     */
+    public ImageDiskCache(Path directory, long maxBytes, Fetcher fetcher) throws IOException {
+        this(directory, maxBytes, fetcher, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructor for ImageDiskCache class. Files already in the directory are kept, most recently used last,
+     * and downloads left unfinished by an earlier run are deleted.
+     * @param directory the directory the files are kept in, which is made if missing
+     * @param maxBytes the most bytes of files kept
+     * @param fetcher how a URL is downloaded
+     * @param revalidateMillis how long after a file was downloaded or checked it is checked with the server again
+     * @throws IOException if the directory cannot be made or read
+     */
+    public ImageDiskCache(Path directory, long maxBytes, Fetcher fetcher, long revalidateMillis) throws IOException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.fetcher = fetcher;
+        this.revalidateMillis = revalidateMillis;
+        Files.createDirectories(directory);
+
+        List<Path> files = new ArrayList<>();
+        List<Path> metas = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(META_SUFFIX)) {
+                    metas.add(file);
+                } else if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        Map<Path, FileTime> modified = new LinkedHashMap<>();
+        for (Path file : files) {
+            modified.put(file, Files.getLastModifiedTime(file));
+        }
+        files.sort(Comparator.comparing(modified::get));
+        synchronized (this) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long size = Files.size(file);
+                entries.put(name, readEntry(name, size));
+                totalBytes += size;
+            }
+            evict();
+        }
+        for (Path meta : metas) {
+            String name = meta.getFileName().toString();
+            if (!Files.exists(directory.resolve(name.substring(0, name.length() - META_SUFFIX.length())))) {
+                Files.deleteIfExists(meta);  // Its file is gone
+            }
+        }
+    }
+
+    /**
+     * Gets the cache shared by the whole application, in DEFAULT_DIRECTORY.
+     * @return the shared cache
+     * @throws IOException if the cache directory cannot be made or read
+     */
+    public static synchronized ImageDiskCache getInstance() throws IOException {
+        if (instance == null) {
+            instance = new ImageDiskCache(DEFAULT_DIRECTORY, DEFAULT_MAX_BYTES);
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the cached file of a URL, downloading it first if it is not cached,
+     * or checking it with the server first if it is older than the revalidation age.
+     * @param url the URL of the image
+     * @return the file
+     * @throws IOException if the image is not cached and cannot be downloaded
+     */
+    public Path get(String url) throws IOException {
+        String name = fileName(url);
+        Path file = directory.resolve(name);
+        if (touch(name, file)) {
+            return file;
+        }
+
+        CompletableFuture<Path> download = new CompletableFuture<>();
+        CompletableFuture<Path> running = downloads.putIfAbsent(name, download);
+        if (running != null) {
+            return await(running);  // Another thread is downloading or checking it
+        }
+        try {
+            if (touch(name, file)) {  // Finished between the first look and now
+                download.complete(file);
+                return file;
+            }
+            String etag;
+            synchronized (this) {
+                Entry cached = entries.get(name);
+                etag = cached != null ? cached.etag : null;
+                if (cached != null) {
+                    revalidations++;
+                } else {
+                    misses++;
+                }
+            }
+            download(url, name, file, etag);
+            download.complete(file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            download.completeExceptionally(e);
+            throw e;
+        } finally {
+            downloads.remove(name, download);
+        }
+    }
+
+    /**
+     * Gets the cached file of a URL as a URI string, e.g. for javafx.scene.image.Image.
+     * @param url the URL of the image
+     * @return the file URI
+     * @throws IOException if the image is not cached and cannot be downloaded
+     */
+    public String getUri(String url) throws IOException {
+        return get(url).toUri().toString();
+    }
+
+    /**
+     * Caches a local copy of a URL's contents, e.g. a file the user has just uploaded, so it is not downloaded again.
+     * The copy has no ETag, so it is downloaded once more when it is next checked with the server.
+     * @param url the URL the file can be read from
+     * @param source the local file, which is copied
+     * @throws IOException if the file cannot be copied
+     */
+    public void put(String url, Path source) throws IOException {
+        String name = fileName(url);
+        try (InputStream in = Files.newInputStream(source)) {
+            install(url, name, directory.resolve(name), in, null);
+        }
+    }
+
+    /**
+     * Adds a listener told the URL of a cached file whenever it is replaced by a new version,
+     * either downloaded because its ETag changed or put from a local copy. It is called on the thread that replaced it.
+     * @param listener the listener
+     */
+    public void addReplacedListener(Consumer<String> listener) {
+        replacedListeners.add(listener);
+    }
+
+    /**
+     * Checks whether a URL is cached, without downloading it or changing the order of use.
+     * @param url the URL of the image
+     * @return true if the file is cached
+     */
+    public synchronized boolean contains(String url) {
+        return entries.containsKey(fileName(url));
+    }
+
+    /**
+     * Deletes every cached file.
+     */
+    public synchronized void clear() {
+        for (String name : new ArrayList<>(entries.keySet())) {
+            delete(name);
+            entries.remove(name);
+        }
+        totalBytes = 0;
+    }
+
+    // Helper method to mark a cached file as just used; false if it is not cached or is due a check with the server
+    private boolean touch(String name, Path file) {
+        synchronized (this) {
+            Entry entry = entries.get(name);
+            if (entry == null) {
+                return false;
+            }
+            if (!Files.exists(file)) {  // Deleted behind the cache's back
+                totalBytes -= entries.remove(name).size;
+                return false;
+            }
+            if (System.currentTimeMillis() - entry.validatedAt >= revalidateMillis) {
+                return false;
+            }
+            hits++;
+        }
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            e.printStackTrace();  // Only the order on the next run is affected
+        }
+        return true;
+    }
+
+    // Helper method to download a URL to a temporary file and move it into place, or keep the cached file if it has not changed
+    private void download(String url, String name, Path file, String etag) throws IOException {
+        Download download;
+        try {
+            download = fetcher.openIfChanged(url, etag);
+        } catch (IOException e) {
+            if (keepStale(name, file)) {
+                return;  // Offline or the server failed: the cached copy is still better than nothing
+            }
+            throw e;
+        }
+        if (download == null) {
+            synchronized (this) {
+                notModified++;
+            }
+            validated(name, file);
+            return;
+        }
+
+        try (InputStream in = download.getBody()) {
+            install(url, name, file, in, download.getEtag());
+        }
+    }
+
+    // Helper method to write contents to a temporary file and move it into place with its ETag
+    private void install(String url, String name, Path file, InputStream in, String etag) throws IOException {
+        Path temp = Files.createTempFile(directory, name, TEMP_SUFFIX);
+        try {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            long size = Files.size(temp);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            writeEtag(name, etag);
+            Entry old;
+            synchronized (this) {
+                old = entries.put(name, new Entry(size, etag, System.currentTimeMillis()));
+                totalBytes += size - (old != null ? old.size : 0);
+                evict();
+            }
+            if (old != null) {
+                for (Consumer<String> listener : replacedListeners) {
+                    listener.accept(url);  // Outside the lock, as listeners take locks of their own
+                }
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Helper method to use a cached file that could not be checked; false if it is not cached
+    private boolean keepStale(String name, Path file) {
+        synchronized (this) {
+            if (!entries.containsKey(name) || !Files.exists(file)) {
+                return false;
+            }
+            hits++;
+        }
+        return true;
+    }
+
+    // Helper method to record that the server said a cached file has not changed
+    private void validated(String name, Path file) throws IOException {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry entry = entries.get(name);
+            if (entry != null) {
+                entry.validatedAt = now;
+            }
+        }
+        Path meta = directory.resolve(name + META_SUFFIX);
+        if (Files.exists(meta)) {
+            Files.setLastModifiedTime(meta, FileTime.fromMillis(now));
+        }
+        Files.setLastModifiedTime(file, FileTime.fromMillis(now));
+    }
+
+    // Helper method to keep the ETag of a file next to it; the .meta file's modified time is when it was last checked
+    private void writeEtag(String name, String etag) throws IOException {
+        Path meta = directory.resolve(name + META_SUFFIX);
+        if (etag == null) {
+            Files.deleteIfExists(meta);
+            return;
+        }
+        Path temp = Files.createTempFile(directory, name, TEMP_SUFFIX);
+        try {
+            Files.writeString(temp, etag, StandardCharsets.UTF_8);
+            Files.move(temp, meta, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Helper method to read the ETag and last check of a file found on disk; a file without a .meta file is due a check
+    private Entry readEntry(String name, long size) throws IOException {
+        Path meta = directory.resolve(name + META_SUFFIX);
+        if (!Files.exists(meta)) {
+            return new Entry(size, null, 0);
+        }
+        return new Entry(size, Files.readString(meta, StandardCharsets.UTF_8).strip(), Files.getLastModifiedTime(meta).toMillis());
+    }
+
+    // Helper method to delete the least recently used files until the cache fits, always keeping the newest file
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && entries.size() > 1 && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            if (downloads.containsKey(eldest.getKey())) {
+                continue;
+            }
+            delete(eldest.getKey());
+            totalBytes -= eldest.getValue().size;
+            it.remove();
+            evictions++;
+        }
+    }
+
+    // Helper method to delete one cached file and its ETag
+    private void delete(String name) {
+        try {
+            Files.deleteIfExists(directory.resolve(name));
+            Files.deleteIfExists(directory.resolve(name + META_SUFFIX));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Helper method to wait for another thread's download
+    private static Path await(CompletableFuture<Path> download) throws IOException {
+        try {
+            return download.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a download", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new IOException(cause.getMessage(), cause);
+            }
+            throw new IOException("Download failed", cause);
+        }
+    }
+
+    /**
+     * Gets the name of the cached file of a URL: the SHA-256 hash of the URL in hex.
+     * @param url the URL
+     * @return the file name
+     */
+    static String fileName(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);  // Every JVM has it
+        }
+    }
+
+    /**
+     * Gets the directory the files are kept in.
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets the number of bytes of files cached.
+     * @return the total size
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Gets the number of files cached.
+     * @return the number of files
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of lookups that used the cached file.
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that downloaded the file.
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of files deleted to keep the cache within its size.
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the number of times a cached file was checked with the server.
+     * @return the number of checks
+     */
+    public synchronized long getRevalidations() {
+        return revalidations;
+    }
+
+    /**
+     * Gets the number of checks the server answered with 304 Not Modified.
+     * @return the number of unchanged files
+     */
+    public synchronized long getNotModified() {
+        return notModified;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.demoplswork.model;
+
+import java.util.Comparator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * ImageLoadQueue class loads images through an ImageMemoryCache on a fixed number of virtual threads,
+ * so a screen with many pictures does not start a download for each of them at once.
+ * Requests for images that are on screen are loaded before the rest, and otherwise in the order they were made.
+ * A request's priority can change while it waits, e.g. when the user scrolls, and a request can be cancelled,
+ * in which case it is skipped if it has not started and its result is dropped if it has.
+ * Results are handed to the callbacks on a given executor, the JavaFX Application Thread in the application.
+ * @param <I> the type of the decoded images
+ */
+public class ImageLoadQueue<I> {
+
+    /**
+     * A request to load one image, which can be reprioritized or cancelled while it waits.
+     */
+    public final class Ticket {
+        private final String source;
+        private final double width;
+        private final double height;
+        private final long order;
+        private final Consumer<? super I> onLoaded;
+        private final Consumer<? super Exception> onFailed;
+        private volatile boolean visible;
+        private volatile boolean cancelled;
+
+        private Ticket(String source, double width, double height, boolean visible,
+                       Consumer<? super I> onLoaded, Consumer<? super Exception> onFailed) {
+            this.source = source;
+            this.width = width;
+            this.height = height;
+            this.visible = visible;
+            this.order = sequence.getAndIncrement();
+            this.onLoaded = onLoaded;
+            this.onFailed = onFailed;
+        }
+
+        /**
+         * Moves the request ahead of the requests for images that are not on screen, or back behind them.
+         * @param visible whether the image is on screen
+         */
+        public void setVisible(boolean visible) {
+            if (this.visible == visible) {
+                return;
+            }
+            // The queue only orders a request when it is added, so it is taken out and put back in
+            boolean waiting = queue.remove(this);
+            this.visible = visible;
+            if (waiting && !cancelled) {
+                queue.add(this);
+            }
+        }
+
+        /**
+         * Cancels the request. Its callbacks are not called after this returns, if it is called on the callback executor.
+         */
+        public void cancel() {
+            cancelled = true;
+            if (queue.remove(this)) {
+                skipped.incrementAndGet();
+            }
+        }
+
+        /**
+         * Checks whether the request was cancelled.
+         * @return true if it was cancelled
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Checks whether the request is for an image on screen.
+         * @return true if the image is on screen
+         */
+        public boolean isVisible() {
+            return visible;
+        }
+    }
+
+    private final ImageMemoryCache<I> cache;
+    private final Executor callbackExecutor;
+    private final AtomicLong sequence = new AtomicLong();
+    private final PriorityBlockingQueue<Ticket> queue = new PriorityBlockingQueue<>(64,
+            Comparator.comparing((Ticket ticket) -> !ticket.visible).thenComparingLong(ticket -> ticket.order));
+    private final AtomicLong loaded = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    /**
+     * Constructor for ImageLoadQueue class. The worker threads are started straight away and run for the life of the JVM.
+     * @param cache the cache the images are loaded through
+     * @param workers the most images loaded at once
+     * @param callbackExecutor where the callbacks run
+     */
+    public ImageLoadQueue(ImageMemoryCache<I> cache, int workers, Executor callbackExecutor) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Number of workers must be positive: " + workers);
+        }
+        this.cache = cache;
+        this.callbackExecutor = callbackExecutor;
+        for (int i = 0; i < workers; i++) {
+            Thread.ofVirtual().name("image-loader-" + i).start(this::work);
+        }
+    }
+
+    /**
+     * Adds a request to load an image decoded to fit a box.
+     * @param source the URL of the image
+     * @param width the width of the box
+     * @param height the height of the box
+     * @param visible whether the image is on screen
+     * @param onLoaded called with the image once it is loaded, unless the request is cancelled
+     * @param onFailed called with the error if it cannot be loaded, unless the request is cancelled
+     * @return the request
+     */
+    public Ticket submit(String source, double width, double height, boolean visible,
+                         Consumer<? super I> onLoaded, Consumer<? super Exception> onFailed) {
+        Ticket ticket = new Ticket(source, width, height, visible, onLoaded, onFailed);
+        queue.add(ticket);
+        return ticket;
+    }
+
+    // Helper method run by each worker: load the most urgent request, forever
+    private void work() {
+        while (true) {
+            Ticket ticket;
+            try {
+                ticket = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (ticket.cancelled) {
+                skipped.incrementAndGet();
+                continue;
+            }
+            try {
+                I image = cache.get(ticket.source, ticket.width, ticket.height);
+                loaded.incrementAndGet();
+                callbackExecutor.execute(() -> {
+                    if (!ticket.cancelled) {
+                        ticket.onLoaded.accept(image);
+                    }
+                });
+            } catch (Exception e) {
+                callbackExecutor.execute(() -> {
+                    if (!ticket.cancelled) {
+                        ticket.onFailed.accept(e);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Gets the number of requests waiting to be loaded.
+     * @return the number of requests waiting
+     */
+    public int getWaiting() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the number of images loaded.
+     * @return the number of images loaded
+     */
+    public long getLoaded() {
+        return loaded.get();
+    }
+
+    /**
+     * Gets the number of cancelled requests that were skipped before they were loaded.
+     * @return the number of requests skipped
+     */
+    public long getSkipped() {
+        return skipped.get();
+    }
+}
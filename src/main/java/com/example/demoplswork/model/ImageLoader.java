@@ -0,0 +1,279 @@
+package com.example.demoplswork.model;
+
+import javafx.application.Platform;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ImageLoader class fills ImageViews with remote images without blocking the JavaFX Application Thread.
+ * A view shows a placeholder straight away, and the image, decoded at the view's fit size, once it has been
+ * downloaded and decoded in the background by the shared ImageLoadQueue; an image already in the ImageMemoryCache
+ * is shown at once.
+ * A picture uploaded with Renditions is loaded at the smallest rendition that covers the view, and at full size
+ * if that rendition cannot be loaded, e.g. because it has not been uploaded yet.
+ * After each layout pass the loader checks which waiting views are inside the visible part of their ScrollPanes
+ * and window, and loads those first. A request is cancelled when its view scrolls out of sight before the image
+ * arrives, and made again if it scrolls back, and when its view is taken off the screen or the app moves to
+ * another screen.
+ * All methods must be called on the JavaFX Application Thread.
+ */
+public class ImageLoader {
+    public static final int DEFAULT_WORKERS = Integer.getInteger("hobbylog.images.loaders", 6);
+    public static final String AVATAR_PLACEHOLDER = "/images/account_circle.png";  // Users without a photo
+    public static final String POST_PLACEHOLDER = "/images/logo.jpg";  // Blog covers and pictures in the feed
+    private static final String REQUEST_KEY = "hobbylog.imageRequest";
+
+    private static ImageLoader instance;
+    private static final Map<String, Image> resources = new ConcurrentHashMap<>();
+
+    /**
+     * The image a view is waiting for.
+     */
+    private static final class Request {
+        private final ImageView view;
+        private final String source;
+        private String url;  // The rendition of the source being loaded
+        private final Image fallback;
+        private ImageLoadQueue<Image>.Ticket ticket;
+        private boolean attached;  // Its view has been on a screen
+        private boolean visible;
+        private boolean deferred;  // Cancelled when it scrolled out of sight, to be made again if it comes back
+
+        private Request(ImageView view, String source, Image fallback) {
+            this.view = view;
+            this.source = source;
+            this.url = source;
+            this.fallback = fallback;
+        }
+    }
+
+    private final ImageMemoryCache<Image> cache;
+    private final ImageLoadQueue<Image> queue;
+    private final List<Request> pending = new ArrayList<>();
+    private final Set<Scene> scenes = Collections.newSetFromMap(new WeakHashMap<>());
+    private final Set<String> missingRenditions = new HashSet<>();  // Failed to load, so the original is used instead
+    private boolean refreshScheduled;
+
+    /**
+     * Constructor for ImageLoader class.
+     * @param cache the cache images are looked up in first
+     * @param queue the queue images are loaded on, which hands results to the JavaFX Application Thread
+     */
+    public ImageLoader(ImageMemoryCache<Image> cache, ImageLoadQueue<Image> queue) {
+        this.cache = cache;
+        this.queue = queue;
+    }
+
+    /**
+     * Gets the loader shared by the whole application, loading through the shared ImageMemoryCache
+     * on DEFAULT_WORKERS virtual threads.
+     * @return the shared loader
+     */
+    public static synchronized ImageLoader getInstance() {
+        if (instance == null) {
+            ImageMemoryCache<Image> cache = ImageMemoryCache.getInstance();
+            instance = new ImageLoader(cache, new ImageLoadQueue<>(cache, DEFAULT_WORKERS, Platform::runLater));
+        }
+        return instance;
+    }
+
+    /**
+     * Gets an image bundled with the application, such as a placeholder, decoding it only once.
+     * A missing image is reported and null is returned, so a view is left empty rather than the screen failing.
+     * @param path the path of the resource, e.g. AVATAR_PLACEHOLDER
+     * @return the image, or null if there is no such resource
+     */
+    public static Image resource(String path) {
+        return resources.computeIfAbsent(path, key -> {
+            InputStream in = ImageLoader.class.getResourceAsStream(key);
+            if (in == null) {
+                System.err.println("No such image: " + key);
+                return null;  // Not cached, so it is looked for again next time
+            }
+            return new Image(in);
+        });
+    }
+
+    /**
+     * Shows a remote image in a view, decoded at the view's fit size, loading it in the background if it is not cached.
+     * A picture with renditions is shown from the smallest one that covers the view.
+     * Any image the view was still waiting for is cancelled.
+     * @param view the view, whose fit width and height are already set
+     * @param source the URL of the image, or null or empty for none
+     * @param placeholder shown until the image arrives, or null
+     * @param fallback shown if there is no image or it cannot be loaded, or null
+     */
+    public void load(ImageView view, String source, Image placeholder, Image fallback) {
+        cancel(view);
+        if (source == null || source.isEmpty()) {
+            view.setImage(fallback);
+            return;
+        }
+        String url = Rendition.resolve(source, view.getFitWidth(), view.getFitHeight());
+        if (missingRenditions.contains(url)) {
+            url = source;
+        }
+        Image cached = cache.getIfPresent(url, view.getFitWidth(), view.getFitHeight());
+        if (cached != null) {
+            view.setImage(cached);
+            return;
+        }
+        view.setImage(placeholder);
+        Request request = new Request(view, source, fallback);
+        request.url = url;
+        view.getProperties().put(REQUEST_KEY, request);
+        pending.add(request);
+        submit(request);
+        scheduleRefresh();  // Once the view has been added to the screen
+    }
+
+    /**
+     * Cancels the image a view is waiting for, if any. The view keeps the image it shows.
+     * @param view the view
+     */
+    public void cancel(ImageView view) {
+        Object request = view.getProperties().remove(REQUEST_KEY);
+        if (request instanceof Request) {
+            Request waiting = (Request) request;
+            pending.remove(waiting);
+            if (waiting.ticket != null) {
+                waiting.ticket.cancel();
+            }
+        }
+    }
+
+    // Helper method to queue a request at its current priority
+    private void submit(Request request) {
+        request.ticket = queue.submit(request.url, request.view.getFitWidth(), request.view.getFitHeight(), request.visible,
+                image -> finish(request, image),
+                error -> {
+                    if (!request.url.equals(request.source) && request.view.getProperties().get(REQUEST_KEY) == request) {
+                        // The rendition is not in the bucket, so the original is loaded instead
+                        missingRenditions.add(request.url);
+                        request.url = request.source;
+                        submit(request);
+                        return;
+                    }
+                    System.out.println("Failed to load image from URL: " + error.getMessage());
+                    finish(request, request.fallback);
+                });
+    }
+
+    // Helper method to show the result of a request
+    private void finish(Request request, Image image) {
+        if (request.view.getProperties().remove(REQUEST_KEY, request)) {
+            pending.remove(request);
+            request.view.setImage(image);
+        }
+    }
+
+    // Helper method to check the waiting views once the current event has been handled
+    private void scheduleRefresh() {
+        if (!refreshScheduled) {
+            refreshScheduled = true;
+            Platform.runLater(this::refresh);
+        }
+    }
+
+    /**
+     * Checks every waiting view: requests whose views left the screen are cancelled, and the rest are moved ahead
+     * or behind as their views come into sight or leave it.
+     */
+    private void refresh() {
+        refreshScheduled = false;
+        Iterator<Request> it = pending.iterator();
+        while (it.hasNext()) {
+            Request request = it.next();
+            Scene scene = request.view.getScene();
+            if (scene != null) {
+                watch(scene);
+                request.attached = true;
+            }
+            if (request.attached && (scene == null || scene.getWindow() == null)) {
+                // The view was taken off the screen, or the app moved to another screen
+                it.remove();
+                request.view.getProperties().remove(REQUEST_KEY, request);
+                request.ticket.cancel();
+                continue;
+            }
+            if (scene == null) {
+                continue;  // Not on a screen yet
+            }
+            boolean visible = isInViewport(request.view);
+            if (visible == request.visible) {
+                continue;
+            }
+            request.visible = visible;
+            if (request.deferred) {
+                request.deferred = false;
+                submit(request);
+            } else if (visible) {
+                request.ticket.setVisible(true);
+            } else {
+                request.deferred = true;  // Scrolled out of sight before it arrived
+                request.ticket.cancel();
+            }
+        }
+    }
+
+    // Helper method to check the waiting views after each layout of a screen, and when the screen is left
+    private void watch(Scene scene) {
+        if (scenes.add(scene)) {
+            scene.addPostLayoutPulseListener(() -> {
+                if (!pending.isEmpty()) {
+                    refresh();
+                }
+            });
+            scene.windowProperty().addListener((obs, oldWindow, newWindow) -> scheduleRefresh());
+        }
+    }
+
+    /**
+     * Checks whether any part of a node is inside its window and the visible part of every ScrollPane it is in.
+     * @param node the node
+     * @return true if the node can be seen
+     */
+    static boolean isInViewport(Node node) {
+        Scene scene = node.getScene();
+        if (scene == null || scene.getWindow() == null || !node.isVisible()) {
+            return false;
+        }
+        Bounds bounds = node.localToScene(node.getBoundsInLocal());
+        if (!bounds.intersects(0, 0, scene.getWidth(), scene.getHeight())) {
+            return false;
+        }
+        for (Parent parent = node.getParent(); parent != null; parent = parent.getParent()) {
+            if (!parent.isVisible()) {
+                return false;
+            }
+            if (parent instanceof ScrollPane && !parent.localToScene(parent.getLayoutBounds()).intersects(bounds)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of views waiting for an image.
+     * @return the number of views waiting
+     */
+    public int getPending() {
+        return pending.size();
+    }
+}
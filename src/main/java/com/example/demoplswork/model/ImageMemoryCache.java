@@ -0,0 +1,344 @@
+package com.example.demoplswork.model;
+
+import javafx.scene.image.Image;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * ImageMemoryCache class is a shared cache of decoded images, so a screen that shows the same picture again
+ * does not read and decode it again.
+ * Images are decoded at the size they are shown at, not at their full resolution, and are cached by source and size:
+ * a 50x50 avatar and a 150x150 profile picture of the same photo are two entries.
+ * Cached images are held strongly up to a budget of bytes, counted as width x height x 4.
+ * The least recently used images past the budget are moved to a second tier held by soft references,
+ * which the garbage collector clears when memory runs low, and are moved back if they are used again before that.
+ * Hits in each tier, misses and the bytes held are counted.
+ * The shared cache drops every size of an image when the ImageDiskCache downloads a new version of it.
+ * @param <I> the type of the decoded images, javafx.scene.image.Image for the shared cache
+ */
+public class ImageMemoryCache<I> {
+    public static final long DEFAULT_MAX_BYTES = Long.getLong("hobbylog.images.memoryMegabytes", 128) * 1024 * 1024;
+    public static final int DEFAULT_MAX_SOFT_ENTRIES = Integer.getInteger("hobbylog.images.softEntries", 2048);
+
+    private static ImageMemoryCache<Image> instance;
+
+    /**
+     * Decodes an image at a requested size.
+     * @param <I> the type of the decoded images
+     */
+    @FunctionalInterface
+    public interface Decoder<I> {
+        /**
+         * Decodes an image to fit within a box, keeping its aspect ratio.
+         * @param source the URL of the image
+         * @param width the width of the box, or 0 for the image's own width
+         * @param height the height of the box, or 0 for the image's own height
+         * @return the image
+         * @throws IOException if the image cannot be read or decoded
+         */
+        I decode(String source, int width, int height) throws IOException;
+    }
+
+    /**
+     * The source and requested size an image was decoded for.
+     */
+    private static final class Key {
+        private final String source;
+        private final int width;
+        private final int height;
+
+        private Key(String source, int width, int height) {
+            this.source = source;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return width == other.width && height == other.height && source.equals(other.source);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(source, width, height);
+        }
+    }
+
+    /**
+     * One strongly held image and its size in bytes.
+     */
+    private static final class Entry<I> {
+        private final I image;
+        private final long bytes;
+
+        private Entry(I image, long bytes) {
+            this.image = image;
+            this.bytes = bytes;
+        }
+    }
+
+    private final long maxBytes;
+    private final Decoder<I> decoder;
+    private final ToLongFunction<I> sizeOf;
+    private final LinkedHashMap<Key, Entry<I>> strong = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Key, SoftReference<I>> soft;
+    private long bytes = 0;
+    private long hits = 0;
+    private long softHits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Constructor for ImageMemoryCache class.
+     * @param maxBytes the most bytes of images held strongly
+     * @param maxSoftEntries the most images held by soft references
+     * @param decoder how an image is decoded when it is not cached
+     * @param sizeOf the size of a decoded image in bytes
+     */
+    public ImageMemoryCache(long maxBytes, int maxSoftEntries, Decoder<I> decoder, ToLongFunction<I> sizeOf) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.decoder = decoder;
+        this.sizeOf = sizeOf;
+        this.soft = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, SoftReference<I>> eldest) {
+                return size() > maxSoftEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets the cache of JavaFX images shared by the whole application.
+     * Images are read through the shared ImageDiskCache and decoded with JavaFX's requested-size constructor.
+     * @return the shared cache
+     */
+    public static synchronized ImageMemoryCache<Image> getInstance() {
+        if (instance == null) {
+            instance = new ImageMemoryCache<>(DEFAULT_MAX_BYTES, DEFAULT_MAX_SOFT_ENTRIES,
+                    ImageMemoryCache::decodeImage, ImageMemoryCache::sizeOf);
+            try {
+                ImageDiskCache.getInstance().addReplacedListener(instance::invalidate);
+            } catch (IOException e) {
+                e.printStackTrace();  // Every decode fails the same way, so nothing is cached to go stale
+            }
+        }
+        return instance;
+    }
+
+    // Helper method to decode a JavaFX image at the requested size from the disk cache
+    private static Image decodeImage(String source, int width, int height) throws IOException {
+        Image image = new Image(ImageDiskCache.getInstance().getUri(source), width, height, true, true);
+        if (image.isError()) {
+            throw new IOException("Could not decode " + source, image.getException());
+        }
+        return image;
+    }
+
+    /**
+     * Gets the size of a decoded JavaFX image in bytes, four per pixel.
+     * @param image the image
+     * @return the size in bytes
+     */
+    public static long sizeOf(Image image) {
+        return (long) (Math.ceil(image.getWidth()) * Math.ceil(image.getHeight()) * 4);
+    }
+
+    /**
+     * Gets an image decoded to fit a box, decoding it if it is not cached.
+     * Sizes are rounded up to whole pixels, so an ImageView's fit width and height can be passed as they are.
+     * @param source the URL of the image
+     * @param width the width of the box, or 0 for the image's own width
+     * @param height the height of the box, or 0 for the image's own height
+     * @return the image
+     * @throws IOException if the image is not cached and cannot be read or decoded
+     */
+    public I get(String source, double width, double height) throws IOException {
+        Key key = key(source, width, height);
+        I image = lookUp(key);
+        if (image != null) {
+            return image;
+        }
+        image = decoder.decode(key.source, key.width, key.height);  // Outside the lock, as decoding is slow
+        put(key, image);
+        return image;
+    }
+
+    /**
+     * Gets an image decoded to fit a box if it is cached, without decoding it.
+     * @param source the URL of the image
+     * @param width the width of the box, or 0 for the image's own width
+     * @param height the height of the box, or 0 for the image's own height
+     * @return the image, or null if it is not cached
+     */
+    public I getIfPresent(String source, double width, double height) {
+        return lookUp(key(source, width, height));
+    }
+
+    /**
+     * Caches an image decoded elsewhere to fit a box.
+     * @param source the URL of the image
+     * @param width the width of the box, or 0 for the image's own width
+     * @param height the height of the box, or 0 for the image's own height
+     * @param image the decoded image
+     */
+    public void put(String source, double width, double height, I image) {
+        put(key(source, width, height), image);
+    }
+
+    /**
+     * Removes every size of an image, in both tiers, e.g. because a new version of it was downloaded.
+     * @param source the URL of the image
+     */
+    public synchronized void invalidate(String source) {
+        Iterator<Map.Entry<Key, Entry<I>>> it = strong.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry<I>> entry = it.next();
+            if (entry.getKey().source.equals(source)) {
+                it.remove();
+                bytes -= entry.getValue().bytes;
+            }
+        }
+        soft.keySet().removeIf(key -> key.source.equals(source));
+    }
+
+    /**
+     * Removes every image, in both tiers.
+     */
+    public synchronized void clear() {
+        strong.clear();
+        soft.clear();
+        bytes = 0;
+    }
+
+    // Helper method to make the key of a source and size, rounding the size up to whole pixels
+    private static Key key(String source, double width, double height) {
+        if (source == null || width < 0 || height < 0) {
+            throw new IllegalArgumentException("Invalid image request: " + source + " " + width + "x" + height);
+        }
+        return new Key(source, (int) Math.ceil(width), (int) Math.ceil(height));
+    }
+
+    // Helper method to find a cached image, moving it back to the strong tier if it is found in the soft tier
+    private synchronized I lookUp(Key key) {
+        Entry<I> entry = strong.get(key);
+        if (entry != null) {
+            hits++;
+            return entry.image;
+        }
+        SoftReference<I> reference = soft.remove(key);
+        I image = reference != null ? reference.get() : null;
+        if (image != null) {
+            softHits++;
+            store(key, image);
+            return image;
+        }
+        misses++;
+        return null;
+    }
+
+    // Helper method to add an image, replacing any image with the same key
+    private synchronized void put(Key key, I image) {
+        soft.remove(key);
+        Entry<I> old = strong.remove(key);
+        if (old != null) {
+            bytes -= old.bytes;
+        }
+        store(key, image);
+    }
+
+    // Helper method to hold an image strongly and move the least recently used images past the budget to the soft tier
+    private void store(Key key, I image) {
+        long size = sizeOf.applyAsLong(image);
+        if (size > maxBytes) {
+            soft.put(key, new SoftReference<>(image));  // Too big to hold strongly at all
+            return;
+        }
+        strong.put(key, new Entry<>(image, size));
+        bytes += size;
+        Iterator<Map.Entry<Key, Entry<I>>> it = strong.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Map.Entry<Key, Entry<I>> eldest = it.next();
+            it.remove();
+            bytes -= eldest.getValue().bytes;
+            soft.put(eldest.getKey(), new SoftReference<>(eldest.getValue().image));
+            evictions++;
+        }
+    }
+
+    /**
+     * Gets the number of bytes of images held strongly.
+     * @return the bytes held
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets the most bytes of images held strongly.
+     * @return the budget in bytes
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Gets the number of images held strongly.
+     * @return the number of images
+     */
+    public synchronized int size() {
+        return strong.size();
+    }
+
+    /**
+     * Gets the number of images held by soft references, some of which may have been cleared.
+     * @return the number of soft references
+     */
+    public synchronized int getSoftSize() {
+        return soft.size();
+    }
+
+    /**
+     * Gets the number of lookups that found the image held strongly.
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that found the image in the soft tier.
+     * @return the number of soft hits
+     */
+    public synchronized long getSoftHits() {
+        return softHits;
+    }
+
+    /**
+     * Gets the number of lookups that did not find the image.
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of images moved to the soft tier to keep within the budget.
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,647 @@
+package com.example.demoplswork.model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * InvertedIndex class is an in-memory full-text index of SearchDocuments for search as you type.
+ * Each document gets a number when it is added, counting up, so newer documents have higher numbers.
+ * Each word has a posting list of the documents that contain it: a document number is stored as the gap
+ * from the one before, with the bottom bit saying whether the word is in the primary text, in a variable-length
+ * byte encoding, so most entries take one or two bytes. Every BLOCK_SIZE entries, the list records where the block starts,
+ * so a search can jump straight to the documents in a range of numbers.
+ * A search finds the documents that match every word. The last word also matches as a prefix while it is being typed,
+ * and a word that is not in the index matches the words one edit away (a letter added, removed, changed or two swapped).
+ * The best k are kept, newest first among equal scores. Documents are searched newest first in windows of numbers
+ * that start small and double, so a common word is done after the first window,
+ * and the search stops once no older document could beat the hits it has, or once its time budget runs out.
+ * Within a window, the rarest word is read first; the other words' lists are then read through the window,
+ * or, when only a few documents are left, jumped through to just those documents' blocks.
+ * Changing or removing a document only marks its old number as dead; the posting lists are rewritten
+ * to drop dead numbers when they outnumber the live ones. All methods are synchronized.
+ */
+public class InvertedIndex {
+    public static final long DEFAULT_BUDGET_NANOS = 1_000_000;
+
+    static final int BLOCK_SIZE = 128;
+    private static final int MIN_WINDOW = 1 << 10;
+    private static final int MAX_WINDOW = 1 << 16;
+    private static final int MAX_EXPANSIONS = 64;  // Words searched for one prefix or one word with a typo
+    private static final int MAX_PREFIX_SCAN = 1024;
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final int MAX_WORD_LENGTH = 40;
+    private static final int MIN_DEAD_TO_COMPACT = 1024;
+    private static final int CHECK_EVERY = 4096;  // Postings read between looks at the clock
+
+    // How well a word matched; each word's score is the quality times two, plus one for the primary text
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int FUZZY = 1;
+
+    private static final SearchDocument.Kind[] KINDS = SearchDocument.Kind.values();
+
+    /**
+     * The posting list of one word, as gap-encoded document numbers in blocks.
+     */
+    private static final class Postings {
+        private byte[] data = new byte[8];
+        private int size;
+        private int count;
+        private int lastDoc = -1;
+        private boolean anyPrimary = false;
+        private int[] blockBase = new int[1];  // The document before each block's first entry
+        private int[] blockOffset = new int[1];
+        private int blocks;
+
+        private void add(int doc, boolean primary) {
+            if (count % BLOCK_SIZE == 0) {
+                if (blocks == blockBase.length) {
+                    blockBase = Arrays.copyOf(blockBase, blocks * 2);
+                    blockOffset = Arrays.copyOf(blockOffset, blocks * 2);
+                }
+                blockBase[blocks] = lastDoc;
+                blockOffset[blocks] = size;
+                blocks++;
+            }
+            if (size + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + 5));
+            }
+            int value = (doc - lastDoc) << 1 | (primary ? 1 : 0);
+            while ((value & ~0x7F) != 0) {
+                data[size++] = (byte) (value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+            lastDoc = doc;
+            anyPrimary |= primary;
+            count++;
+        }
+
+        // The first block that can hold a document numbered lo or higher
+        private int blockFor(int lo) {
+            int low = 0;
+            int high = blocks - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (blockBase[mid] < lo) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * The posting lists that can match one word of a search, with the quality of each.
+     */
+    private static final class Group {
+        private Postings[] lists = new Postings[4];
+        private int[] qualities = new int[4];
+        private int size;
+        private long postings;
+        private int best;  // The highest score one of the lists can give
+
+        private void add(Postings list, int quality) {
+            if (size == lists.length) {
+                lists = Arrays.copyOf(lists, size * 2);
+                qualities = Arrays.copyOf(qualities, size * 2);
+            }
+            lists[size] = list;
+            qualities[size] = quality;
+            size++;
+            postings += list.count;
+            best = Math.max(best, quality * 2 + (list.anyPrimary ? 1 : 0));
+        }
+    }
+
+    private final Map<String, Postings> dictionary = new HashMap<>();
+    private final TreeMap<String, Postings> sortedWords = new TreeMap<>();  // The same lists in order, for prefixes
+    private final BitSet alphabet = new BitSet();  // Every character in a word, for typo corrections
+    private final Map<Long, Integer> documents = new HashMap<>();  // Document number by kind and ID
+    private final BitSet live = new BitSet();
+    private byte[] kinds = new byte[64];
+    private int[] ids = new int[64];
+    private int[] owners = new int[64];
+    private String[] labels = new String[64];
+    private int documentCount = 0;
+    private int liveCount = 0;
+
+    // Scratch space for one window of a search
+    private int[] stamps = new int[0];
+    private int[] groupScores = new int[0];
+    private int[] totals = new int[0];
+    private int[] candidates = new int[0];  // Documents that matched every group so far
+    private int[] matches = new int[0];  // Documents that matched the group being read
+    private int candidateCount = 0;
+    private int matchCount = 0;
+    private int stampBase = 0;
+    private int visited = 0;
+
+    /**
+     * Splits text into the words that are indexed and searched: runs of letters and digits, in lower case, with accents removed.
+     * Words longer than 40 characters are left out.
+     * @param text the text, or null
+     * @return the words in order
+     */
+    public static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String folded = text;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                folded = Normalizer.normalize(text, Normalizer.Form.NFD);  // Split accents off their letters
+                break;
+            }
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= folded.length(); i++) {
+            char c = i < folded.length() ? folded.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && word.length() > 0) {
+                if (word.length() <= MAX_WORD_LENGTH) {
+                    words.add(word.toString());
+                }
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Adds a document, replacing the one with the same kind and ID if there is one.
+     * @param document the document
+     */
+    public synchronized void addDocument(SearchDocument document) {
+        removeDocument(document.getKind(), document.getId());
+        Map<String, Boolean> words = new LinkedHashMap<>();
+        for (String word : tokenize(document.getPrimaryText())) {
+            words.put(word, true);
+        }
+        for (String word : tokenize(document.getSecondaryText())) {
+            words.putIfAbsent(word, false);
+        }
+
+        int doc = documentCount;
+        if (doc == ids.length) {
+            int capacity = doc * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+            labels = Arrays.copyOf(labels, capacity);
+        }
+        kinds[doc] = (byte) document.getKind().ordinal();
+        ids[doc] = document.getId();
+        owners[doc] = document.getOwnerId();
+        labels[doc] = document.getLabel();
+        documentCount++;
+        liveCount++;
+        live.set(doc);
+        documents.put(key(document.getKind(), document.getId()), doc);
+
+        for (Map.Entry<String, Boolean> entry : words.entrySet()) {
+            String word = entry.getKey();
+            Postings postings = dictionary.get(word);
+            if (postings == null) {
+                postings = new Postings();
+                dictionary.put(word, postings);
+                sortedWords.put(word, postings);
+                for (int i = 0; i < word.length(); i++) {
+                    alphabet.set(word.charAt(i));
+                }
+            }
+            postings.add(doc, entry.getValue());
+        }
+    }
+
+    /**
+     * Removes a document.
+     * @param kind the kind of document
+     * @param id the ID of the blog, log or user
+     * @return true if the document was in the index
+     */
+    public synchronized boolean removeDocument(SearchDocument.Kind kind, int id) {
+        Integer doc = documents.remove(key(kind, id));
+        if (doc == null) {
+            return false;
+        }
+        live.clear(doc);
+        labels[doc] = null;
+        liveCount--;
+        int dead = documentCount - liveCount;
+        if (dead >= MIN_DEAD_TO_COMPACT && dead > liveCount) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Rewrites the posting lists without the numbers of changed and removed documents, and numbers the rest again from zero.
+     * Words left with no documents are dropped.
+     */
+    public synchronized void compact() {
+        int[] renumber = new int[documentCount];
+        int next = 0;
+        for (int doc = 0; doc < documentCount; doc++) {
+            if (live.get(doc)) {
+                renumber[doc] = next;
+                kinds[next] = kinds[doc];
+                ids[next] = ids[doc];
+                owners[next] = owners[doc];
+                labels[next] = labels[doc];
+                next++;
+            } else {
+                renumber[doc] = -1;
+            }
+        }
+        Arrays.fill(labels, next, documentCount, null);
+
+        dictionary.clear();
+        for (var iterator = sortedWords.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<String, Postings> entry = iterator.next();
+            Postings old = entry.getValue();
+            Postings kept = new Postings();
+            int offset = 0;
+            int doc = -1;
+            while (offset < old.size) {
+                int value = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = old.data[offset++];
+                    value |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                doc += value >>> 1;
+                if (renumber[doc] >= 0) {
+                    kept.add(renumber[doc], (value & 1) != 0);
+                }
+            }
+            if (kept.count == 0) {
+                iterator.remove();
+            } else {
+                entry.setValue(kept);
+                dictionary.put(entry.getKey(), kept);
+            }
+        }
+        documents.replaceAll((key, doc) -> renumber[doc]);
+        live.clear();
+        live.set(0, next);
+        documentCount = next;
+    }
+
+    /**
+     * Removes every document.
+     */
+    public synchronized void clear() {
+        dictionary.clear();
+        sortedWords.clear();
+        alphabet.clear();
+        documents.clear();
+        live.clear();
+        Arrays.fill(labels, null);
+        documentCount = 0;
+        liveCount = 0;
+    }
+
+    /**
+     * Searches with the default time budget of one millisecond.
+     * @param query what the user typed
+     * @param k the maximum number of hits
+     * @return the best hits
+     */
+    public SearchResults search(String query, int k) {
+        return search(query, k, DEFAULT_BUDGET_NANOS);
+    }
+
+    /**
+     * Finds the k documents that best match every word of a query.
+     * While the user is still typing the last word, i.e. the query ends with a letter or digit, it also matches as a prefix.
+     * @param query what the user typed
+     * @param k the maximum number of hits
+     * @param budgetNanos how long the search may take before it returns what it has found
+     * @return the best hits, best first, newest first among equal scores
+     */
+    public synchronized SearchResults search(String query, int k, long budgetNanos) {
+        long start = System.nanoTime();
+        List<String> words = tokenize(query);
+        if (words.isEmpty() || k <= 0) {
+            return new SearchResults(List.of(), null, true, System.nanoTime() - start);
+        }
+        boolean typing = Character.isLetterOrDigit(query.charAt(query.length() - 1));
+
+        // Find the posting lists each word can match, correcting words that are not in the index
+        List<Group> groups = new ArrayList<>();
+        String[] corrected = words.toArray(new String[0]);
+        boolean anyCorrected = false;
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            Group group = new Group();
+            Postings exact = dictionary.get(word);
+            if (exact != null) {
+                group.add(exact, EXACT);
+            }
+            if (typing && i == words.size() - 1) {
+                addPrefixMatches(word, group);
+            }
+            if (group.size == 0) {
+                List<String> near = nearWords(word);
+                for (String nearWord : near) {
+                    group.add(dictionary.get(nearWord), FUZZY);
+                }
+                if (!near.isEmpty()) {
+                    corrected[i] = near.get(0);
+                    anyCorrected = true;
+                }
+            }
+            if (group.size == 0) {
+                return new SearchResults(List.of(), null, true, System.nanoTime() - start);
+            }
+            groups.add(group);
+        }
+        String suggestion = anyCorrected ? String.join(" ", corrected) : null;
+
+        // Rare words first, so the common ones only have to be checked against their few matches
+        groups.sort((x, y) -> Long.compare(x.postings, y.postings));
+        int maxScore = 0;
+        for (Group group : groups) {
+            maxScore += group.best;
+        }
+        int maxWindow = Math.min(MAX_WINDOW, documentCount);
+        if (stamps.length < maxWindow) {
+            stamps = new int[maxWindow];
+            groupScores = new int[maxWindow];
+            totals = new int[maxWindow];
+            candidates = new int[maxWindow];
+            matches = new int[maxWindow];
+            stampBase = 0;
+        }
+
+        PriorityQueue<Long> top = new PriorityQueue<>();  // Score in the high half and document in the low, worst first
+        visited = 0;
+        boolean complete = true;
+        int window = MIN_WINDOW;
+        for (int hi = documentCount; hi > 0; hi -= window, window = Math.min(window * 2, MAX_WINDOW)) {
+            int lo = Math.max(0, hi - window);
+            if (!searchWindow(groups, lo, hi, start, budgetNanos)) {
+                complete = false;
+                break;
+            }
+            for (int c = 0; c < candidateCount; c++) {
+                int doc = lo + candidates[c];
+                if (live.get(doc)) {
+                    offer(top, k, (long) totals[candidates[c]] << 32 | doc);
+                }
+            }
+            if (top.size() == k && (int) (top.peek() >>> 32) >= maxScore) {
+                break;  // Every older document could at best tie, and ties go to the newer
+            }
+            if (lo > 0 && System.nanoTime() - start > budgetNanos) {
+                complete = false;
+                break;
+            }
+        }
+
+        Long[] entries = top.toArray(new Long[0]);
+        Arrays.sort(entries, Collections.reverseOrder());
+        List<SearchHit> hits = new ArrayList<>(entries.length);
+        for (long entry : entries) {
+            int doc = (int) entry;
+            hits.add(new SearchHit(KINDS[kinds[doc]], ids[doc], owners[doc], labels[doc], (int) (entry >>> 32)));
+        }
+        return new SearchResults(hits, suggestion, complete, System.nanoTime() - start);
+    }
+
+    /**
+     * Finds the documents numbered from lo up to hi that match every group, leaving them in candidates with their totals.
+     * The first group's lists are read through the window. Each later group either does the same, or, when only a few documents
+     * are left, looks each of them up by jumping to its block, whichever reads fewer entries.
+     * @return false if the time budget ran out first
+     */
+    private boolean searchWindow(List<Group> groups, int lo, int hi, long start, long budgetNanos) {
+        if (stampBase > Integer.MAX_VALUE - groups.size() - 2) {
+            Arrays.fill(stamps, 0);
+            stampBase = 0;
+        }
+        // A document that matched every group up to g is stamped base + g
+        int base = stampBase + 1;
+        stampBase += groups.size() + 1;
+        candidateCount = 0;
+        for (int g = 0; g < groups.size(); g++) {
+            Group group = groups.get(g);
+            matchCount = 0;
+            for (int l = 0; l < group.size; l++) {
+                Postings postings = group.lists[l];
+                if (postings.lastDoc < lo) {
+                    continue;
+                }
+                int quality = group.qualities[l] * 2;
+                long expected = (long) postings.count * (hi - lo) / documentCount;  // Entries of the list likely in the window
+                if (g > 0 && (long) candidateCount * (BLOCK_SIZE / 2) < expected) {
+                    for (int c = 0; c < candidateCount; c++) {
+                        if (!scan(postings, lo, lo + candidates[c], lo + candidates[c] + 1, quality, g, base, start, budgetNanos)) {
+                            return false;
+                        }
+                    }
+                } else if (!scan(postings, lo, lo, hi, quality, g, base, start, budgetNanos)) {
+                    return false;
+                }
+            }
+            int[] swap = candidates;
+            candidates = matches;
+            matches = swap;
+            candidateCount = matchCount;
+            if (candidateCount == 0) {
+                break;  // No document in this window matched every word so far
+            }
+        }
+        return true;
+    }
+
+    // Read the entries of a list from from up to to, scoring the documents in the window that starts at lo
+    private boolean scan(Postings postings, int lo, int from, int to, int quality, int g, int base, long start, long budgetNanos) {
+        byte[] data = postings.data;
+        int block = postings.blockFor(from);
+        int offset = postings.blockOffset[block];
+        int doc = postings.blockBase[block];
+        int passed = base + g - 1;
+        int current = base + g;
+        while (offset < postings.size) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += value >>> 1;
+            if ((++visited & (CHECK_EVERY - 1)) == 0 && System.nanoTime() - start > budgetNanos) {
+                return false;
+            }
+            if (doc >= to) {
+                break;
+            }
+            if (doc < from) {
+                continue;
+            }
+            int i = doc - lo;
+            int score = quality | value & 1;
+            if (stamps[i] == current) {
+                if (score > groupScores[i]) {  // Matched this word again, better
+                    totals[i] += score - groupScores[i];
+                    groupScores[i] = score;
+                }
+            } else if (g == 0 || stamps[i] == passed) {
+                stamps[i] = current;
+                totals[i] = g == 0 ? score : totals[i] + score;
+                groupScores[i] = score;
+                matches[matchCount++] = i;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the indexed words one edit away from a word: a letter added, removed or changed, or two letters next to each other swapped.
+     * Words shorter than three letters get no suggestions.
+     * @param word the word
+     * @param max the maximum number of suggestions
+     * @return the words, those in the most documents first
+     */
+    public synchronized List<String> suggest(String word, int max) {
+        List<String> words = tokenize(word);
+        if (words.size() != 1) {
+            return List.of();
+        }
+        List<String> near = nearWords(words.get(0));
+        return List.copyOf(near.subList(0, Math.min(max, near.size())));
+    }
+
+    // Add the words that start with a prefix, keeping those in the most documents if there are too many
+    private void addPrefixMatches(String prefix, Group group) {
+        List<Map.Entry<String, Postings>> found = new ArrayList<>();
+        for (Map.Entry<String, Postings> entry : sortedWords.tailMap(prefix, false).entrySet()) {
+            if (!entry.getKey().startsWith(prefix) || found.size() == MAX_PREFIX_SCAN) {
+                break;
+            }
+            found.add(entry);
+        }
+        if (found.size() > MAX_EXPANSIONS) {
+            found.sort((a, b) -> Integer.compare(b.getValue().count, a.getValue().count));
+        }
+        for (int i = 0; i < Math.min(MAX_EXPANSIONS, found.size()); i++) {
+            group.add(found.get(i).getValue(), PREFIX);
+        }
+    }
+
+    // The indexed words one edit away from a word, those in the most documents first
+    private List<String> nearWords(String word) {
+        if (word.length() < MIN_FUZZY_LENGTH) {
+            return List.of();
+        }
+        Set<String> edits = new LinkedHashSet<>();
+        StringBuilder sb = new StringBuilder(word.length() + 1);
+        for (int i = 0; i <= word.length(); i++) {
+            if (i < word.length()) {
+                edits.add(sb.append(word, 0, i).append(word, i + 1, word.length()).toString());
+                sb.setLength(0);
+            }
+            if (i < word.length() - 1) {
+                edits.add(sb.append(word, 0, i).append(word.charAt(i + 1)).append(word.charAt(i))
+                        .append(word, i + 2, word.length()).toString());
+                sb.setLength(0);
+            }
+            for (int c = alphabet.nextSetBit(0); c >= 0; c = alphabet.nextSetBit(c + 1)) {
+                if (i < word.length() && c != word.charAt(i)) {
+                    edits.add(sb.append(word, 0, i).append((char) c).append(word, i + 1, word.length()).toString());
+                    sb.setLength(0);
+                }
+                edits.add(sb.append(word, 0, i).append((char) c).append(word, i, word.length()).toString());
+                sb.setLength(0);
+            }
+        }
+        List<String> near = new ArrayList<>();
+        for (String edit : edits) {
+            if (dictionary.containsKey(edit) && !edit.equals(word)) {
+                near.add(edit);
+            }
+        }
+        near.sort((a, b) -> Integer.compare(dictionary.get(b).count, dictionary.get(a).count));
+        return near.size() > MAX_EXPANSIONS ? near.subList(0, MAX_EXPANSIONS) : near;
+    }
+
+    private static void offer(PriorityQueue<Long> top, int k, long entry) {
+        if (top.size() < k) {
+            top.add(entry);
+        } else if (entry > top.peek()) {
+            top.poll();
+            top.add(entry);
+        }
+    }
+
+    private static long key(SearchDocument.Kind kind, int id) {
+        return (long) kind.ordinal() << 32 | (id & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gets the number of documents in the index.
+     * @return the number of documents
+     */
+    public synchronized int size() {
+        return liveCount;
+    }
+
+    /**
+     * Gets the number of distinct words indexed.
+     * @return the number of words
+     */
+    public synchronized int getWordCount() {
+        return dictionary.size();
+    }
+
+    /**
+     * Gets the number of entries in all posting lists, including those of dead document numbers.
+     * @return the number of entries
+     */
+    public synchronized long getPostingCount() {
+        long count = 0;
+        for (Postings postings : dictionary.values()) {
+            count += postings.count;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the bytes used by the encoded entries of all posting lists.
+     * @return the number of bytes
+     */
+    public synchronized long getPostingBytes() {
+        long bytes = 0;
+        for (Postings postings : dictionary.values()) {
+            bytes += postings.size;
+        }
+        return bytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "InvertedIndex[documents=" + liveCount + ", dead=" + (documentCount - liveCount)
+                + ", words=" + dictionary.size() + "]";
+    }
+}
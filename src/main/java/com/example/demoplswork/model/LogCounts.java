@@ -0,0 +1,129 @@
+package com.example.demoplswork.model;
+
+/**
+ * LogCounts class holds the like and comment totals of many logs, keyed by log ID.
+ * It is a map from int to a pair of ints kept in plain int arrays with open addressing,
+ * so a user's whole log list is held without boxing an Integer or allocating an entry per log.
+ * Logs that were never put have zero likes and comments.
+ */
+public final class LogCounts {
+    private static final int EMPTY = 0;  // Log IDs start at 1, so 0 marks a free slot
+
+    private int[] keys;
+    private int[] likes;
+    private int[] comments;
+    private int size;
+
+    /**
+     * Constructor for LogCounts class.
+     * @param expectedSize the number of logs expected, so the arrays do not need to grow
+     */
+    public LogCounts(int expectedSize) {
+        int capacity = 8;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+        likes = new int[capacity];
+        comments = new int[capacity];
+    }
+
+    /**
+     * Sets the totals of a log, replacing any set before.
+     * @param logId the ID of the log, greater than zero
+     * @param likeCount the total likes on the log's events
+     * @param commentCount the total comments on the log's events
+     */
+    public void put(int logId, int likeCount, int commentCount) {
+        if (logId == EMPTY) {
+            throw new IllegalArgumentException("Invalid log ID: " + logId);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int slot = slotOf(logId);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = logId;
+            size++;
+        }
+        likes[slot] = likeCount;
+        comments[slot] = commentCount;
+    }
+
+    /**
+     * Gets the total likes of a log.
+     * @param logId the ID of the log
+     * @return the likes, or 0 if the log was not put
+     */
+    public int getLikes(int logId) {
+        int slot = slotOf(logId);
+        return keys[slot] == logId ? likes[slot] : 0;
+    }
+
+    /**
+     * Gets the total comments of a log.
+     * @param logId the ID of the log
+     * @return the comments, or 0 if the log was not put
+     */
+    public int getComments(int logId) {
+        int slot = slotOf(logId);
+        return keys[slot] == logId ? comments[slot] : 0;
+    }
+
+    /**
+     * Checks if the totals of a log were put.
+     * @param logId the ID of the log
+     * @return true if the log is present
+     */
+    public boolean contains(int logId) {
+        return logId != EMPTY && keys[slotOf(logId)] == logId;
+    }
+
+    /**
+     * Gets the number of logs held.
+     * @return the number of logs
+     */
+    public int size() {
+        return size;
+    }
+
+    // Find the slot holding the log, or the free slot where it would go
+    private int slotOf(int logId) {
+        int mask = keys.length - 1;
+        int hash = logId * 0x9E3779B9;  // Spread sequential IDs across the table
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != logId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldLikes = likes;
+        int[] oldComments = comments;
+        keys = new int[oldKeys.length * 2];
+        likes = new int[keys.length];
+        comments = new int[keys.length];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldLikes[i], oldComments[i]);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("LogCounts[");
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                if (sb.length() > 10) {
+                    sb.append(", ");
+                }
+                sb.append(keys[i]).append('=').append(likes[i]).append('/').append(comments[i]);
+            }
+        }
+        return sb.append(']').toString();
+    }
+}
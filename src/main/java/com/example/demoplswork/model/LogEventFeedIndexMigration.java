@@ -0,0 +1,28 @@
+package com.example.demoplswork.model;
+
+import java.util.List;
+
+/**
+ * Migration 6 adds the index used by the paged Explore feed.
+ * Feed pages are read newest first by (timestamp, id), so the first page walks the index backwards
+ * and every later page seeks straight to its cursor instead of skipping the rows already shown.
+ */
+public class LogEventFeedIndexMigration extends Migration {
+
+    @Override
+    public int getVersion() {
+        return 6;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Add log_events (timestamp, id) index for the paged feed";
+    }
+
+    @Override
+    protected List<String> getStatements() {
+        return List.of(
+                "CREATE INDEX IF NOT EXISTS idx_log_events_timestamp_id ON log_events(timestamp, id)"
+        );
+    }
+}
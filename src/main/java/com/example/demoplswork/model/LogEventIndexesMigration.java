@@ -0,0 +1,31 @@
+package com.example.demoplswork.model;
+
+import java.util.List;
+
+/**
+ * Migration 1 adds the indexes used by the LogEventDAO queries.
+ * Events for a log or for a user are looked up by id and returned in timestamp order straight from the index.
+ * The feed query (user_id != ?) cannot seek, so it walks the (timestamp, user_id) index in order
+ * and filters on user_id without sorting or reading rows it skips.
+ */
+public class LogEventIndexesMigration extends Migration {
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Add log_events indexes for log, user and feed queries";
+    }
+
+    @Override
+    protected List<String> getStatements() {
+        return List.of(
+                "CREATE INDEX IF NOT EXISTS idx_log_events_log_id_timestamp ON log_events(log_id, timestamp)",
+                "CREATE INDEX IF NOT EXISTS idx_log_events_user_id_timestamp ON log_events(user_id, timestamp)",
+                "CREATE INDEX IF NOT EXISTS idx_log_events_timestamp_user_id ON log_events(timestamp, user_id)"
+        );
+    }
+}
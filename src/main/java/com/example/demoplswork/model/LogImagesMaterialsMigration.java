@@ -0,0 +1,113 @@
+package com.example.demoplswork.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Migration 5 moves images and materials out of the logs.images and logs.materials strings.
+ * Images become rows in log_images and materials become rows in log_materials with typed quantity and price,
+ * both keeping their original order in a position column. The old columns are cleared once copied.
+ * The old formats are comma separated paths and "name:quantity:price," entries; entries that do not parse are skipped,
+ * the same as when they were read before.
+ */
+public class LogImagesMaterialsMigration extends Migration {
+
+    @Override
+    public int getVersion() {
+        return 5;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Move log images and materials into log_images and log_materials";
+    }
+
+    @Override
+    protected List<String> getStatements() {
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS log_images ("
+                        + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                        + "log_id INTEGER NOT NULL,"
+                        + "position INTEGER NOT NULL,"
+                        + "path TEXT NOT NULL,"
+                        + "FOREIGN KEY (log_id) REFERENCES logs(id))",
+                "CREATE TABLE IF NOT EXISTS log_materials ("
+                        + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                        + "log_id INTEGER NOT NULL,"
+                        + "position INTEGER NOT NULL,"
+                        + "name TEXT NOT NULL,"
+                        + "quantity INTEGER NOT NULL,"
+                        + "price REAL NOT NULL,"
+                        + "FOREIGN KEY (log_id) REFERENCES logs(id))",
+                "CREATE INDEX IF NOT EXISTS idx_log_images_log_id_position ON log_images(log_id, position)",
+                "CREATE INDEX IF NOT EXISTS idx_log_materials_log_id_position ON log_materials(log_id, position)"
+        );
+    }
+
+    @Override
+    protected int getCodeRevision() {
+        return 1;  // Bump when apply changes
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        super.apply(conn);
+
+        List<Object[]> legacyRows = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT id, images, materials FROM logs "
+                + "WHERE (images IS NOT NULL AND images != '') OR (materials IS NOT NULL AND materials != '')");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                legacyRows.add(new Object[] { rs.getInt("id"), rs.getString("images"), rs.getString("materials") });
+            }
+        }
+
+        for (Object[] row : legacyRows) {
+            int logId = (int) row[0];
+            String images = (String) row[1];
+            String materials = (String) row[2];
+
+            if (images != null) {
+                for (String path : images.split(",")) {
+                    if (!path.trim().isEmpty()) {
+                        LogsDAO.insertImage(conn, logId, path.trim());
+                    }
+                }
+            }
+            if (materials != null) {
+                for (String entry : materials.split(",")) {
+                    Material material = parseLegacyMaterial(entry);
+                    if (material != null) {
+                        LogsDAO.insertMaterial(conn, logId, material);
+                    }
+                }
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement("UPDATE logs SET images = NULL, materials = NULL WHERE id = ?")) {
+                pstmt.setInt(1, logId);
+                pstmt.executeUpdate();
+            }
+        }
+    }
+
+    // Parse one "name:quantity:price" entry, or return null if it is malformed
+    private static Material parseLegacyMaterial(String entry) {
+        String[] details = entry.split(":");
+        if (details.length != 3) {
+            if (!entry.trim().isEmpty()) {
+                System.err.println("Invalid material format: " + entry);
+            }
+            return null;
+        }
+        try {
+            return new Material(details[0], Integer.parseInt(details[1]), Double.parseDouble(details[2]));
+        } catch (NumberFormatException e) {
+            System.err.println("Error parsing material: " + entry);
+            return null;
+        }
+    }
+}
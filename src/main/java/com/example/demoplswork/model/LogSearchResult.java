@@ -0,0 +1,52 @@
+package com.example.demoplswork.model;
+
+/**
+ * LogSearchResult class is a log found by a search on the Explore page.
+ * It has the log's ID, the ID of the user who owns it and its name.
+ */
+public final class LogSearchResult {
+    private final int logId;
+    private final int userId;
+    private final String logName;
+
+    /**
+     * Constructor for LogSearchResult class.
+     * @param logId the ID of the log
+     * @param userId the ID of the user who owns the log
+     * @param logName the name of the log
+     */
+    public LogSearchResult(int logId, int userId, String logName) {
+        this.logId = logId;
+        this.userId = userId;
+        this.logName = logName;
+    }
+
+    /**
+     * Gets the ID of the log.
+     * @return the log ID
+     */
+    public int getLogId() {
+        return logId;
+    }
+
+    /**
+     * Gets the ID of the user who owns the log.
+     * @return the user ID
+     */
+    public int getUserId() {
+        return userId;
+    }
+
+    /**
+     * Gets the name of the log.
+     * @return the log name
+     */
+    public String getLogName() {
+        return logName;
+    }
+
+    @Override
+    public String toString() {
+        return "LogSearchResult[log=" + logId + ", user=" + userId + ", name=" + logName + "]";
+    }
+}
@@ -3,16 +3,44 @@ package com.example.demoplswork.model;
 import javafx.util.Pair;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 /**
  * The ILogsDAO interface defines the methods for performing CRUD operations on the Logs table in the database.
  * It includes methods to insert a new log, add to-do items, add images, add materials, retrieve logs for a user, update to-do item status, update log name, and delete a log.
  * Implementing classes should handle SQL exceptions and ensure the database connection is properly managed.
+ * To-do items are stored by ToDoItemsDAO; the task based ILogsDAO methods look the item up by log and task and delegate to it.
+ * Images and materials are stored as rows in log_images and log_materials, ordered by position within their log.
+ * It has methods to read every dashboard metric for a user or a log from the user_stats and log_stats tables (see StatsDAO),
+ * and the like and comment totals of all of a user's logs at once.
+ * Logs that are added, renamed, given a material or deleted are reported to the shared SearchIndex.
  */
 public class LogsDAO extends BaseDAO implements ILogsDAO{
 
+    private static final String IMAGES_FOR_LOG =
+            "SELECT log_id, path FROM log_images WHERE log_id = ? ORDER BY position";
+    private static final String IMAGES_FOR_USER =
+            "SELECT log_id, path FROM log_images WHERE log_id IN (SELECT id FROM logs WHERE user_id = ?) ORDER BY log_id, position";
+    private static final String MATERIALS_FOR_LOG =
+            "SELECT log_id, name, quantity, price FROM log_materials WHERE log_id = ? ORDER BY position";
+    private static final String MATERIALS_FOR_USER =
+            "SELECT log_id, name, quantity, price FROM log_materials WHERE log_id IN (SELECT id FROM logs WHERE user_id = ?) ORDER BY log_id, position";
+
+    // Both read one row of the stats tables kept up to date by the StatsMigration triggers
+    private static final String USER_STATS =
+            "SELECT total_spend, tasks_completed, projects_completed, materials_used, total_likes, total_comments "
+            + "FROM user_stats WHERE user_id = ?";
+    private static final String LOG_STATS =
+            "SELECT total_spend, tasks_completed, projects_completed, materials_used, total_likes, total_comments "
+            + "FROM log_stats WHERE log_id = ?";
+    private static final String LOG_COUNTS_FOR_USER =
+            "SELECT log_id, total_likes, total_comments FROM log_stats WHERE user_id = ?";
+
+    private final ToDoItemsDAO toDoItemsDAO = new ToDoItemsDAO();
+
     /**
     * Insert a new log into the database
     * @param userId the ID of the user who owns the log
@@ -29,72 +57,49 @@ public class LogsDAO extends BaseDAO implements ILogsDAO{
             throw new SQLException("Invalid user ID.");
         }
 
-        String query = "INSERT INTO logs(user_id, log_name, to_do_items, images, progress, materials) VALUES(?, ?, ?, ?, ?, ?)";
-        ResultSet rs = null;
+        String query = "INSERT INTO logs(user_id, log_name, progress) VALUES(?, ?, ?)";
         int logId = -1;
 
         try {
-            PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
-            pstmt.setInt(1, userId);
-            pstmt.setString(2, log.getLogName());
-
-            // Serialize the to-do items (task:checked format)
-            String serializedToDoItems = serializeToDoItems(log.getToDoItems());
-            pstmt.setString(3, serializedToDoItems);
-
-            // Serialize images into a comma-separated string
-            pstmt.setString(4, String.join(",", log.getImages()));
-
-            // Set progress value
-            pstmt.setDouble(5, log.getProgress());
-
-            // Serialize materials
-            pstmt.setString(6, serializeMaterials(log.getMaterials()));
-
-            // Execute the update
-            pstmt.executeUpdate();
-
-            // Retrieve the generated log ID
-            rs = pstmt.getGeneratedKeys();
-            if (rs.next()) {
-                logId = rs.getInt(1);  // This will be the generated ID
-            }
+            // The log and its to-do items, images and materials are inserted together
+            logId = transaction(conn -> {
+                int newLogId;
+                try (PreparedStatement pstmt = prepare(conn, query, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setInt(1, userId);
+                    pstmt.setString(2, log.getLogName());
+
+                    // Set progress value
+                    pstmt.setDouble(3, log.getProgress());
+
+                    // Execute the update
+                    pstmt.executeUpdate();
+
+                    // Retrieve the generated log ID
+                    try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                        newLogId = rs.next() ? rs.getInt(1) : -1;  // This will be the generated ID
+                    }
+                }
 
+                // Store each to-do item as its own row; this also sets the counters and progress
+                for (Pair<String, Boolean> toDoItem : log.getToDoItems()) {
+                    ToDoItemsDAO.insertItem(conn, newLogId, toDoItem.getKey(), toDoItem.getValue());
+                }
+                for (String imagePath : log.getImages()) {
+                    insertImage(conn, newLogId, imagePath);
+                }
+                for (Material material : log.getMaterials()) {
+                    insertMaterial(conn, newLogId, material);
+                }
+                return newLogId;
+            });
         } catch (SQLException e) {
             e.printStackTrace();
-        } finally {
-            try {
-                if (rs != null) {
-                    rs.close();
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-        }
-
-        return logId;
-    }
-
-    /**
-    * Serialize to-do items as task:isChecked format
-    * */
-    // Serialize to-do items as task:isChecked format
-    private String serializeToDoItems(List<Pair<String, Boolean>> toDoItems) {
-        StringBuilder sb = new StringBuilder();
-
-        for (Pair<String, Boolean> toDoItem : toDoItems) {
-            sb.append(toDoItem.getKey())  // Task description
-                    .append(":")
-                    .append(toDoItem.getValue())  // Checked state
-                    .append(",");
         }
 
-        // Remove the trailing comma if any
-        if (sb.length() > 0) {
-            sb.setLength(sb.length() - 1);
+        if (logId > 0) {
+            SearchIndex.changedShared(SearchDocument.Kind.LOG, logId);
         }
-
-        return sb.toString();
+        return logId;
     }
 
     /**
@@ -102,14 +107,15 @@ public class LogsDAO extends BaseDAO implements ILogsDAO{
     * */
     public boolean doesLogExist(int logId) {
         String query = "SELECT COUNT(1) FROM logs WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, logId);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                int count = rs.getInt(1);
-                return count > 0; // If count is greater than 0, the log exists
-            }
+        try {
+            return read(conn -> {
+                try (PreparedStatement pstmt = prepare(conn, query)) {
+                    pstmt.setInt(1, logId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return rs.next() && rs.getInt(1) > 0; // If count is greater than 0, the log exists
+                    }
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -128,26 +134,7 @@ public class LogsDAO extends BaseDAO implements ILogsDAO{
      */
     @Override
     public void addToDoItem(int logId, String toDoItem, boolean isChecked) throws SQLException {
-        if (logId <= 0) {
-            throw new SQLException("Invalid log ID.");
-        }
-        String query = "UPDATE logs SET to_do_items = CASE " +
-                "WHEN to_do_items IS NULL OR to_do_items = '' THEN ? " +
-                "ELSE to_do_items || ',' || ? " +
-                "END WHERE id = ?";
-
-        // Prepare the to-do item with its state
-        String toDoWithState = toDoItem + ":" + (isChecked ? "true" : "false");
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, toDoWithState);  // If empty, just add the to-do item
-            pstmt.setString(2, toDoWithState);  // Append the new to-do item with its state
-            pstmt.setInt(3, logId);  // Specify which log to update
-            pstmt.executeUpdate();
-            System.out.println("To-do item added to log " + logId + " with state: " + isChecked);
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        toDoItemsDAO.addToDoItem(logId, toDoItem, isChecked);
     }
 
     // Method to add an image path to a specific log
@@ -162,16 +149,8 @@ public class LogsDAO extends BaseDAO implements ILogsDAO{
         if (logId <= 0) {
             throw new SQLException("Invalid log ID.");
         }
-        String query = "UPDATE logs SET images = CASE " +
-                "WHEN images IS NULL OR images = '' THEN ? " +
-                "ELSE images || ',' || ? " +
-                "END WHERE id = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, imagePath);  // If empty, just add the image path
-            pstmt.setString(2, imagePath);  // Append the new image path
-            pstmt.setInt(3, logId);  // Specify which log to update
-            pstmt.executeUpdate();
+        try {
+            write(conn -> insertImage(conn, logId, imagePath));
             System.out.println("Image added to log " + logId + ": " + imagePath);
 
         } catch (SQLException e) {
@@ -179,6 +158,32 @@ public class LogsDAO extends BaseDAO implements ILogsDAO{
         }
     }
 
+    /**
+     * Remove an image path from a specific log
+     * @param logId the ID of the log to remove the image from
+     * @param imagePath the path of the image to remove
+     * @throws SQLException if the log ID is invalid
+     */
+    @Override
+    public void removeImage(int logId, String imagePath) throws SQLException {
+        if (logId <= 0) {
+            throw new SQLException("Invalid log ID.");
+        }
+        String query = "DELETE FROM log_images WHERE log_id = ? AND path = ?";
+        try {
+            write(conn -> {
+                try (PreparedStatement pstmt = prepare(conn, query)) {
+                    pstmt.setInt(1, logId);
+                    pstmt.setString(2, imagePath);
+                    return pstmt.executeUpdate();
+                }
+            });
+            System.out.println("Image removed from log " + logId + ": " + imagePath);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
     // Method to add a material to a specific log
     /**
      * Add a material to a specific log
@@ -187,19 +192,10 @@ public class LogsDAO extends BaseDAO implements ILogsDAO{
      */
     @Override
     public void addMaterial(int logId, Material material) {
-        String query = "UPDATE logs SET materials = CASE " +
-                "WHEN materials IS NULL OR materials = '' THEN ? " +
-                "ELSE materials || ',' || ? " +
-                "END WHERE id = ?";
-
-        String serializedMaterial = material.getName() + ":" + material.getQuantity() + ":" + material.getPrice();
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, serializedMaterial);  // If empty, just add the material
-            pstmt.setString(2, serializedMaterial);  // Append the new material
-            pstmt.setInt(3, logId);  // Specify which log to update
-            pstmt.executeUpdate();
-            System.out.println("Material added to log " + logId + ": " + serializedMaterial);
+        try {
+            write(conn -> insertMaterial(conn, logId, material));
+            SearchIndex.changedShared(SearchDocument.Kind.LOG, logId);  // Logs are found by their material names
+            System.out.println("Material added to log " + logId + ": " + material.getName());
 
         } catch (SQLException e) {
             e.printStackTrace();
@@ -213,32 +209,43 @@ public class LogsDAO extends BaseDAO implements ILogsDAO{
      */
     @Override
     public List<Object[]> getLogsForUser(int userId) {
-        String query = "SELECT id, log_name, to_do_items, images, materials, progress FROM logs WHERE user_id = ?";
+        String query = "SELECT id, log_name, progress FROM logs WHERE user_id = ?";
         List<Object[]> logsList = new ArrayList<>();
 
+        // Load the to-do items, images and materials of all the user's logs in one query each instead of one per log
+        Map<Integer, List<ToDoItem>> toDoItemsByLog = toDoItemsDAO.getToDoItemsForUser(userId);
+        Map<Integer, List<String>> imagesByLog = new HashMap<>();
+        Map<Integer, List<Material>> materialsByLog = new HashMap<>();
+
         try {
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            pstmt.setInt(1, userId);
-            var rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                // Extract the log details, including the log ID
-                int logID = rs.getInt("id");
-                String logName = rs.getString("log_name");
-                List<Pair<String, Boolean>> toDoItems = parseToDoItems(rs.getString("to_do_items"));
-                List<String> images = parseImages(rs.getString("images")); // Deserialize images
-                List<Material> materials = parseMaterials(rs.getString("materials")); // Deserialize materials
-                double progress = rs.getDouble("progress");
-
-                // Create a Logs object without the ID
-                Logs log = new Logs(logName, toDoItems, images, materials);
-                log.setProgress(progress);
-
-                System.out.println("Log retrieved: " + logName + ". Progress: " + progress);
-
-                // Add the log and its ID to the list
-                logsList.add(new Object[] { logID, log });
-            }
+            read(conn -> {
+                loadImages(conn, IMAGES_FOR_USER, userId, imagesByLog);
+                loadMaterials(conn, MATERIALS_FOR_USER, userId, materialsByLog);
+                try (PreparedStatement pstmt = prepare(conn, query)) {
+                    pstmt.setInt(1, userId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            // Extract the log details, including the log ID
+                            int logID = rs.getInt("id");
+                            String logName = rs.getString("log_name");
+                            List<Pair<String, Boolean>> toDoItems = toPairs(toDoItemsByLog.getOrDefault(logID, List.of()));
+                            List<String> images = imagesByLog.getOrDefault(logID, new ArrayList<>());
+                            List<Material> materials = materialsByLog.getOrDefault(logID, new ArrayList<>());
+                            double progress = rs.getDouble("progress");
+
+                            // Create a Logs object without the ID
+                            Logs log = new Logs(logName, toDoItems, images, materials);
+                            log.setProgress(progress);
+
+                            System.out.println("Log retrieved: " + logName + ". Progress: " + progress);
+
+                            // Add the log and its ID to the list
+                            logsList.add(new Object[] { logID, log });
+                        }
+                    }
+                }
+                return null;
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -252,28 +259,36 @@ public class LogsDAO extends BaseDAO implements ILogsDAO{
      * @return the Logs object corresponding to the ID
      */
     public Logs getLogById(int logID) {
-        String query = "SELECT log_name, to_do_items, images, materials, progress FROM logs WHERE id = ?";
+        String query = "SELECT log_name, progress FROM logs WHERE id = ?";
         Logs log = null;
 
         try {
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            pstmt.setInt(1, logID);
-            var rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                // Extract log details from the result set
-                String logName = rs.getString("log_name");
-                List<Pair<String, Boolean>> toDoItems = parseToDoItems(rs.getString("to_do_items")); // Deserialize to-do items
-                List<String> images = parseImages(rs.getString("images")); // Deserialize images
-                List<Material> materials = parseMaterials(rs.getString("materials")); // Deserialize materials
-                double progress = rs.getDouble("progress");
-
-                // Create the Logs object
-                log = new Logs(logName, toDoItems, images, materials);
-                log.setProgress(progress);
-
-                System.out.println("Log retrieved by ID: " + logName + ". Progress: " + progress);
-            }
+            List<Pair<String, Boolean>> toDoItems = toPairs(toDoItemsDAO.getToDoItems(logID));
+            log = read(conn -> {
+                try (PreparedStatement pstmt = prepare(conn, query)) {
+                    pstmt.setInt(1, logID);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (!rs.next()) {
+                            return null;
+                        }
+                        // Extract log details from the result set
+                        String logName = rs.getString("log_name");
+                        Map<Integer, List<String>> images = new HashMap<>();
+                        Map<Integer, List<Material>> materials = new HashMap<>();
+                        loadImages(conn, IMAGES_FOR_LOG, logID, images);
+                        loadMaterials(conn, MATERIALS_FOR_LOG, logID, materials);
+                        double progress = rs.getDouble("progress");
+
+                        // Create the Logs object
+                        Logs found = new Logs(logName, toDoItems,
+                                images.getOrDefault(logID, new ArrayList<>()), materials.getOrDefault(logID, new ArrayList<>()));
+                        found.setProgress(progress);
+
+                        System.out.println("Log retrieved by ID: " + logName + ". Progress: " + progress);
+                        return found;
+                    }
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -291,13 +306,14 @@ public class LogsDAO extends BaseDAO implements ILogsDAO{
         int userID = -1; // Default value if no user is found
 
         try {
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            pstmt.setInt(1, logID);
-            var rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                userID = rs.getInt("user_id"); // Get the user ID from the result set
-            }
+            userID = read(conn -> {
+                try (PreparedStatement pstmt = prepare(conn, query)) {
+                    pstmt.setInt(1, logID);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return rs.next() ? rs.getInt("user_id") : -1; // Get the user ID from the result set
+                    }
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -316,13 +332,14 @@ public class LogsDAO extends BaseDAO implements ILogsDAO{
         String logName = null;
 
         try {
-            PreparedStatement pstmt = connection.prepareStatement(query);
-            pstmt.setInt(1, logId);
-            var rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                logName = rs.getString("log_name");
-            }
+            logName = read(conn -> {
+                try (PreparedStatement pstmt = prepare(conn, query)) {
+                    pstmt.setInt(1, logId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return rs.next() ? rs.getString("log_name") : null;
+                    }
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -331,68 +348,10 @@ public class LogsDAO extends BaseDAO implements ILogsDAO{
     }
 
 
-    /**
-     * Retrieve the to-do items associated with a specific log ID
-     * @param logId the ID of the log to retrieve the to-do items for
-     * @return a list of Pair objects containing the task description and checked state
-     */
-    // Helper method to serialize materials into a string format (e.g., name:quantity:cost)
-    private String serializeMaterials(List<Material> materials) {
-        StringBuilder sb = new StringBuilder();
-        for (Material material : materials) {
-            sb.append(material.getName()).append(":")
-                    .append(material.getQuantity()).append(":")
-                    .append(material.getPrice()).append(",");
-        }
-        return sb.toString();
-    }
-
-    // Helper method to deserialize materials from a string format
-    /**
-     * Deserialize materials from a string format
-     * @param materialsStr the string containing the serialized materials
-     * @return a list of Material objects
-     */
-    private List<Material> parseMaterials(String materialsStr) {
-        List<Material> materials = new ArrayList<>();
-
-        // Check if materialsStr is null or empty
-        if (materialsStr == null || materialsStr.isEmpty()) {
-            return materials;  // Return an empty list if there's no material data
-        }
-
-        // Split the string by commas to get each material
-        String[] materialArr = materialsStr.split(",");
-
-        for (String mat : materialArr) {
-            // Split each material string by colon to get details (name, quantity, price)
-            String[] details = mat.split(":");
-
-            // Check if the details array has the correct number of parts (3 parts: name, quantity, price)
-            if (details.length == 3) {
-                try {
-                    String name = details[0];
-                    int quantity = Integer.parseInt(details[1]);  // Parse the quantity as an integer
-                    double price = Double.parseDouble(details[2]);  // Parse the price as a double
-
-                    // Add the material to the list
-                    materials.add(new Material(name, quantity, price));
-                } catch (NumberFormatException e) {
-                    // Handle any parsing errors gracefully (e.g., log the error)
-                    System.err.println("Error parsing material: " + mat);
-                }
-            } else {
-                // Handle the case where details do not have exactly 3 parts
-                System.err.println("Invalid material format: " + mat);
-            }
-        }
-
-        return materials;
-    }
-
     // Update a specific to-do item's status in the database and recalculate progress
     /**
-     * Update a specific to-do item's status in the database and recalculate progress
+     * Update a specific to-do item's status in the database and recalculate progress.
+     * The item is looked up by log and task, then updated by its ID so only the log's counters change.
      * @param logId the ID of the log containing the to-do item
      * @param task the description of the to-do item to update
      * @param isChecked the new status of the to-do item
@@ -400,47 +359,11 @@ public class LogsDAO extends BaseDAO implements ILogsDAO{
      */
     @Override
     public double updateToDoItemStatus(int logId, String task, boolean isChecked) {
-        String querySelect = "SELECT to_do_items, progress FROM logs WHERE id = ?";
-        String queryUpdate = "UPDATE logs SET to_do_items = ?, progress = ? WHERE id = ?";
-
-        try {
-            // Step 1: Retrieve the current to-do items and progress
-            PreparedStatement pstmtSelect = connection.prepareStatement(querySelect);
-            pstmtSelect.setInt(1, logId);
-            ResultSet rs = pstmtSelect.executeQuery();
-
-            if (rs.next()) {
-                String toDoItemsStr = rs.getString("to_do_items");
-                List<Pair<String, Boolean>> toDoItems = parseToDoItems(toDoItemsStr);
-
-                // Step 2: Update the status of the specific task
-                for (int i = 0; i < toDoItems.size(); i++) {
-                    if (toDoItems.get(i).getKey().equals(task)) {
-                        toDoItems.set(i, new Pair<>(task, isChecked));
-                        break;
-                    }
-                }
-
-                // Step 3: Calculate the new progress
-                double progress = calculateProgress(toDoItems);
-
-                // Step 4: Serialize the updated to-do items back into the string format
-                String updatedToDoItemsStr = serializeToDoItems(toDoItems);
-
-                // Step 5: Update the database with the new to-do list and progress
-                PreparedStatement pstmtUpdate = connection.prepareStatement(queryUpdate);
-                pstmtUpdate.setString(1, updatedToDoItemsStr);
-                pstmtUpdate.setDouble(2, progress);  // Update progress
-                pstmtUpdate.setInt(3, logId);
-                pstmtUpdate.executeUpdate();
-
-                System.out.println("Updated to-do item: " + task + " to " + isChecked + ". Progress: " + progress);
-                return progress;
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+        int itemId = toDoItemsDAO.findToDoItemId(logId, task);
+        if (itemId < 0) {
+            return toDoItemsDAO.getProgress(logId);  // No such task, progress is unchanged
         }
-        return 0;
+        return toDoItemsDAO.setToDoItemChecked(itemId, isChecked);
     }
 
     /**
@@ -452,11 +375,14 @@ public class LogsDAO extends BaseDAO implements ILogsDAO{
     @Override
     public void updateLogName(int logId, String newLogName) throws SQLException {
         String query = "UPDATE logs SET log_name = ? WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, newLogName);
-            pstmt.setInt(2, logId);
-            pstmt.executeUpdate();
-        }
+        write(conn -> {
+            try (PreparedStatement pstmt = prepare(conn, query)) {
+                pstmt.setString(1, newLogName);
+                pstmt.setInt(2, logId);
+                return pstmt.executeUpdate();
+            }
+        });
+        SearchIndex.changedShared(SearchDocument.Kind.LOG, logId);
     }
 
     /**
@@ -466,77 +392,159 @@ public class LogsDAO extends BaseDAO implements ILogsDAO{
     @Override
     public void deleteLog(int logId) {
         String sql = "DELETE FROM logs WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, logId);
-            pstmt.executeUpdate();
+        try {
+            transaction(conn -> {
+                for (String child : new String[] { "log_todo_items", "log_images", "log_materials" }) {
+                    try (PreparedStatement pstmt = prepare(conn, "DELETE FROM " + child + " WHERE log_id = ?")) {
+                        pstmt.setInt(1, logId);
+                        pstmt.executeUpdate();
+                    }
+                }
+                try (PreparedStatement pstmt = prepare(conn, sql)) {
+                    pstmt.setInt(1, logId);
+                    return pstmt.executeUpdate();
+                }
+            });
+            SearchIndex.changedShared(SearchDocument.Kind.LOG, logId);
         } catch (SQLException e) {
             System.out.println(e.getMessage());
         }
     }
 
-    // Method to calculate progress as a percentage of completed tasks
+    // Helper method to convert to-do items to the task and checked pairs used by Logs
     /**
-     * Calculate the progress as a percentage of completed tasks
-     * @param toDoItems the list of to-do items to calculate progress for
-     * @return the progress percentage
+     * Convert to-do items to task and checked state pairs
+     * @param items the to-do items in order
+     * @return a list of Pair objects containing the task description and checked state
      */
-    private double calculateProgress(List<Pair<String, Boolean>> toDoItems) {
-        int completedCount = 0;
-        for (Pair<String, Boolean> item : toDoItems) {
-            if (item.getValue()) {
-                completedCount++;
-            }
-        }
-        if (toDoItems.isEmpty()) {
-            return 0.0;
+    private List<Pair<String, Boolean>> toPairs(List<ToDoItem> items) {
+        List<Pair<String, Boolean>> toDoItems = new ArrayList<>(items.size());
+        for (ToDoItem item : items) {
+            toDoItems.add(new Pair<>(item.getTask(), item.isChecked()));
         }
-        return (double) completedCount / toDoItems.size() * 100;
+        return toDoItems;
     }
 
-    // Helper method to deserialize to-do items from a comma-separated string
     /**
-     * Deserialize to-do items from a comma-separated string
-     * @param toDoItemsStr the string containing the serialized to-do items
-     * @return a list of Pair objects containing the task description and checked state
+     * Get every dashboard metric for a user from the user_stats table, a single primary key lookup.
+     * @param userId the ID of the user
+     * @return the user's stats, all zero if the user has no logs
      */
-    private List<Pair<String, Boolean>> parseToDoItems(String toDoItemsStr) {
-        List<Pair<String, Boolean>> toDoItems = new ArrayList<>();
-
-        if (toDoItemsStr == null || toDoItemsStr.isEmpty()) {
-            return toDoItems;  // Return an empty list if there's no data
-        }
+    @Override
+    public UserStats getUserStats(int userId) {
+        return statsForKey(USER_STATS, userId);
+    }
 
-        // Split the string into individual tasks
-        String[] itemsArray = toDoItemsStr.split(",");
+    /**
+     * Get the same metrics for one log from the log_stats table, a single primary key lookup.
+     * Projects completed is 1 if all of the log's to-do items are completed, otherwise 0.
+     * @param logId the ID of the log
+     * @return the log's stats, all zero if there is no such log
+     */
+    @Override
+    public UserStats getLogStats(int logId) {
+        return statsForKey(LOG_STATS, logId);
+    }
 
-        for (String item : itemsArray) {
-            String[] taskDetails = item.split(":");
-            if (taskDetails.length == 2) {
-                String taskDescription = taskDetails[0].trim();
-                boolean isChecked = Boolean.parseBoolean(taskDetails[1].trim());
-                toDoItems.add(new Pair<>(taskDescription, isChecked));  // Store task and its checked state
-            }
+    /**
+     * Get the like and comment totals of every log of a user in one query over log_stats.
+     * @param userId the ID of the user
+     * @return the totals by log ID; logs with no stats row have zero likes and comments
+     */
+    @Override
+    public LogCounts getLogCountsForUser(int userId) {
+        try {
+            return read(conn -> {
+                try (PreparedStatement pstmt = prepare(conn, LOG_COUNTS_FOR_USER)) {
+                    pstmt.setInt(1, userId);
+                    LogCounts counts = new LogCounts(16);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            counts.put(rs.getInt(1), rs.getInt(2), rs.getInt(3));
+                        }
+                    }
+                    return counts;
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
         }
+        return new LogCounts(0);
+    }
 
-        return toDoItems;
+    // Helper method to read one row of user_stats or log_stats
+    private UserStats statsForKey(String query, int key) {
+        try {
+            return read(conn -> {
+                try (PreparedStatement pstmt = prepare(conn, query)) {
+                    pstmt.setInt(1, key);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (rs.next()) {
+                            return new UserStats(rs.getDouble(1), rs.getInt(2), rs.getInt(3),
+                                    rs.getInt(4), rs.getInt(5), rs.getInt(6));
+                        }
+                    }
+                }
+                return new UserStats(0, 0, 0, 0, 0, 0);
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new UserStats(0, 0, 0, 0, 0, 0);
     }
 
 
-    // Helper method to deserialize images from a comma-separated string
-    /**
-     * Deserialize images from a comma-separated string
-     * @param imagesStr the string containing the serialized image paths
-     * @return a list of image paths
-     */
-    private List<String> parseImages(String imagesStr) {
-        if (imagesStr == null || imagesStr.trim().isEmpty()) {
-            return Collections.emptyList();  // Returns an immutable empty list
+    // Helper method to append an image to a log after its last image
+    static int insertImage(Connection conn, int logId, String imagePath) throws SQLException {
+        String query = "INSERT INTO log_images(log_id, position, path) "
+                + "SELECT ?, COALESCE(MAX(position) + 1, 0), ? FROM log_images WHERE log_id = ?";
+        try (PreparedStatement pstmt = prepare(conn, query)) {
+            pstmt.setInt(1, logId);
+            pstmt.setString(2, imagePath);
+            pstmt.setInt(3, logId);
+            return pstmt.executeUpdate();
         }
-        return List.of(imagesStr.split(","));
     }
 
+    // Helper method to append a material to a log after its last material
+    static int insertMaterial(Connection conn, int logId, Material material) throws SQLException {
+        String query = "INSERT INTO log_materials(log_id, position, name, quantity, price, created_at) "
+                + "SELECT ?, COALESCE(MAX(position) + 1, 0), ?, ?, ?, ? FROM log_materials WHERE log_id = ?";
+        try (PreparedStatement pstmt = prepare(conn, query)) {
+            pstmt.setInt(1, logId);
+            pstmt.setString(2, material.getName());
+            pstmt.setInt(3, material.getQuantity());
+            pstmt.setDouble(4, material.getPrice());
+            pstmt.setString(5, LocalDate.now().toString());
+            pstmt.setInt(6, logId);
+            return pstmt.executeUpdate();
+        }
+    }
 
+    // Helper method to load image paths grouped by log ID, in position order
+    private void loadImages(Connection conn, String query, int key, Map<Integer, List<String>> imagesByLog) throws SQLException {
+        try (PreparedStatement pstmt = prepare(conn, query)) {
+            pstmt.setInt(1, key);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    imagesByLog.computeIfAbsent(rs.getInt("log_id"), id -> new ArrayList<>()).add(rs.getString("path"));
+                }
+            }
+        }
+    }
 
+    // Helper method to load materials grouped by log ID, in position order
+    private void loadMaterials(Connection conn, String query, int key, Map<Integer, List<Material>> materialsByLog) throws SQLException {
+        try (PreparedStatement pstmt = prepare(conn, query)) {
+            pstmt.setInt(1, key);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Material material = new Material(rs.getString("name"), rs.getInt("quantity"), rs.getDouble("price"));
+                    materialsByLog.computeIfAbsent(rs.getInt("log_id"), id -> new ArrayList<>()).add(material);
+                }
+            }
+        }
+    }
 }
 
 
@@ -0,0 +1,28 @@
+package com.example.demoplswork.model;
+
+import java.util.List;
+
+/**
+ * Migration 2 adds the index used to load the logs of a user.
+ * Lookups by log id, profile user id and user id already use the primary keys,
+ * and lookups by email use the unique index on users.email.
+ */
+public class LogsIndexesMigration extends Migration {
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Add logs index on user_id";
+    }
+
+    @Override
+    protected List<String> getStatements() {
+        return List.of(
+                "CREATE INDEX IF NOT EXISTS idx_logs_user_id ON logs(user_id)"
+        );
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demoplswork.model;
+
+import java.util.List;
+
+/**
+ * Migration 8 adds the created_at date to log_materials, so spend can be charted over time.
+ * New materials are dated when they are added. Existing materials are dated with their log's first event,
+ * normally its StartEvent; materials of a log with no events are left undated.
+ */
+public class MaterialDatesMigration extends Migration {
+
+    @Override
+    public int getVersion() {
+        return 8;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Add created_at to log_materials";
+    }
+
+    @Override
+    protected List<String> getStatements() {
+        return List.of(
+                "ALTER TABLE log_materials ADD COLUMN created_at TEXT",
+                "UPDATE log_materials SET created_at = "
+                        + "(SELECT MIN(timestamp) FROM log_events WHERE log_events.log_id = log_materials.log_id) "
+                        + "WHERE created_at IS NULL"
+        );
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.demoplswork.model;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MediaFetcher class downloads images and videos for the ImageDiskCache over one shared HttpClient,
+ * so connections to the same host are kept open and reused rather than opened for every file.
+ * Connecting gives up after the connect timeout and waiting for a response after the request timeout.
+ * At most a fixed number of downloads run at once; a download counts until its stream is closed.
+ * When the cache already holds a copy, the request carries its ETag in If-None-Match and an unchanged
+ * file comes back as 304 Not Modified with no body.
+ */
+public class MediaFetcher implements ImageDiskCache.Fetcher {
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(Long.getLong("hobbylog.http.connectTimeoutSeconds", 5));
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(Long.getLong("hobbylog.http.requestTimeoutSeconds", 30));
+    public static final int DEFAULT_MAX_CONCURRENT = Integer.getInteger("hobbylog.http.maxConcurrent", 8);
+
+    private static MediaFetcher instance;
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+    private final Semaphore permits;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    /**
+     * Constructor for MediaFetcher class.
+     * @param client the client every request is sent with
+     * @param maxConcurrent the most downloads running at once
+     * @param requestTimeout how long to wait for the response to a request
+     */
+    public MediaFetcher(HttpClient client, int maxConcurrent, Duration requestTimeout) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("Number of downloads must be positive: " + maxConcurrent);
+        }
+        this.client = client;
+        this.requestTimeout = requestTimeout;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Gets the fetcher shared by the whole application, with DEFAULT_MAX_CONCURRENT downloads at once.
+     * @return the shared fetcher
+     */
+    public static synchronized MediaFetcher getInstance() {
+        if (instance == null) {
+            instance = new MediaFetcher(newClient(DEFAULT_CONNECT_TIMEOUT), DEFAULT_MAX_CONCURRENT, DEFAULT_REQUEST_TIMEOUT);
+        }
+        return instance;
+    }
+
+    /**
+     * Makes a client that prefers HTTP/2, follows redirects other than from HTTPS to HTTP,
+     * and keeps its connections open between requests.
+     * @param connectTimeout how long to wait for a connection
+     * @return the client
+     */
+    public static HttpClient newClient(Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(connectTimeout)
+                .build();
+    }
+
+    @Override
+    public InputStream open(String url) throws IOException {
+        return openIfChanged(url, null).getBody();
+    }
+
+    @Override
+    public ImageDiskCache.Download openIfChanged(String url, String etag) throws IOException {
+        HttpRequest.Builder builder;
+        try {
+            builder = HttpRequest.newBuilder(URI.create(url)).timeout(requestTimeout).GET();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid URL: " + url, e);
+        }
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to download " + url, e);
+        }
+        boolean handedOver = false;
+        try {
+            requests.incrementAndGet();
+            HttpResponse<InputStream> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            int status = response.statusCode();
+            if (status == 304) {
+                response.body().close();
+                notModified.incrementAndGet();
+                return null;
+            }
+            if (status != 200) {
+                response.body().close();
+                throw new IOException("HTTP " + status + " for " + url);
+            }
+            String newEtag = response.headers().firstValue("ETag").orElse(null);
+            InputStream body = new PermitStream(response.body());
+            handedOver = true;
+            return new ImageDiskCache.Download(body, newEtag);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading " + url, e);
+        } finally {
+            if (!handedOver) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * The body of a download, which counts the bytes read and frees the download's place when it is closed.
+     */
+    private final class PermitStream extends FilterInputStream {
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private PermitStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                bytesReceived.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                bytesReceived.addAndGet(n);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed.compareAndSet(false, true)) {
+                try {
+                    super.close();
+                } finally {
+                    permits.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of requests sent.
+     * @return the number of requests
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Gets the number of requests answered with 304 Not Modified.
+     * @return the number of unchanged files
+     */
+    public long getNotModified() {
+        return notModified.get();
+    }
+
+    /**
+     * Gets the number of bytes of bodies read.
+     * @return the number of bytes received
+     */
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    /**
+     * Gets the number of downloads that could start now.
+     * @return the number of free places
+     */
+    public int getAvailable() {
+        return permits.availablePermits();
+    }
+}
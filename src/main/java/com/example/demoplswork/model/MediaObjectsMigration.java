@@ -0,0 +1,31 @@
+package com.example.demoplswork.model;
+
+import java.util.List;
+
+/**
+ * Migration 12 adds media_objects, the keys of the files known to be in the bucket.
+ * Uploaded media is named by the hash of its contents, so the UploadService checks this table before uploading
+ * and skips a file that is already there.
+ */
+public class MediaObjectsMigration extends Migration {
+
+    @Override
+    public int getVersion() {
+        return 12;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Record the keys of uploaded media in media_objects";
+    }
+
+    @Override
+    protected List<String> getStatements() {
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS media_objects ("
+                        + "object_key TEXT PRIMARY KEY,"
+                        + "size INTEGER NOT NULL,"
+                        + "uploaded_at TEXT NOT NULL DEFAULT (datetime('now')))"
+        );
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demoplswork.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Migration class is the base class for one versioned change to the database schema.
+ * Each subclass has a unique version number and a list of SQL statements that make up the change.
+ * The checksum is computed from the statements so an edited migration is detected at startup.
+ * Java code in an apply override cannot be hashed, so a migration that overrides apply also overrides
+ * getCodeRevision, and whoever changes that code bumps the revision so the change is detected too.
+ * Statements of the form "ALTER TABLE t ADD COLUMN c ..." are skipped when the column already exists,
+ * because the create table methods in BaseDAO always build the latest schema for new databases.
+ */
+public abstract class Migration {
+    private static final Pattern ADD_COLUMN = Pattern.compile(
+            "ALTER TABLE (\\w+) ADD COLUMN (\\w+).*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    /**
+     * Gets the version of the migration. Migrations are applied in ascending version order.
+     * @return the version number
+     */
+    public abstract int getVersion();
+
+    /**
+     * Gets a short description of the migration.
+     * @return the description
+     */
+    public abstract String getDescription();
+
+    /**
+     * Gets the SQL statements that make up the migration.
+     * @return the statements, in the order they run
+     */
+    protected abstract List<String> getStatements();
+
+    /**
+     * Gets the revision of the Java code the migration runs besides its statements, if it overrides apply.
+     * Revision 1 is the first and is not part of the checksum, so checksums recorded before revisions existed still match.
+     * @return the revision, 1 unless the code has changed
+     */
+    protected int getCodeRevision() {
+        return 1;
+    }
+
+    /**
+     * Applies the migration on the given connection. The caller owns the transaction.
+     * @param conn the connection to run the statements on
+     * @throws SQLException if a statement fails
+     */
+    public void apply(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : getStatements()) {
+                Matcher matcher = ADD_COLUMN.matcher(sql.trim());
+                if (matcher.matches() && columnExists(conn, matcher.group(1), matcher.group(2))) {
+                    continue;
+                }
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * Computes the SHA-256 checksum of the migration statements and, past its first, the code revision.
+     * @return the checksum as a hex string
+     */
+    public String getChecksum() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String sql : getStatements()) {
+                digest.update(sql.trim().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            if (getCodeRevision() > 1) {
+                digest.update(("revision " + getCodeRevision()).getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    /**
+     * Checks if a table already has the given column.
+     * @param conn the connection to check on
+     * @param table the table name
+     * @param column the column name
+     * @return true if the column exists
+     * @throws SQLException if the table info cannot be read
+     */
+    protected static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (rs.getString("name").equalsIgnoreCase(column)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.demoplswork.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MigrationRunner class brings the database schema up to date.
+ * It records every applied migration with its checksum in the schema_migrations table.
+ * At startup it checks that applied migrations have not been edited, then applies any pending ones in version order.
+ * Each migration runs in its own transaction together with its schema_migrations row.
+ */
+public class MigrationRunner {
+    private final List<Migration> migrations;
+
+    /**
+     * Constructs a new MigrationRunner.
+     * @param migrations the migrations to run, in any order
+     */
+    public MigrationRunner(List<Migration> migrations) {
+        this.migrations = new ArrayList<>(migrations);
+        this.migrations.sort(Comparator.comparingInt(Migration::getVersion));
+        for (int i = 1; i < this.migrations.size(); i++) {
+            if (this.migrations.get(i).getVersion() == this.migrations.get(i - 1).getVersion()) {
+                throw new IllegalArgumentException("Duplicate migration version: " + this.migrations.get(i).getVersion());
+            }
+        }
+    }
+
+    /**
+     * Creates a runner with every migration the application knows about.
+     * @return the runner
+     */
+    public static MigrationRunner withDefaultMigrations() {
+        return new MigrationRunner(List.of(
+                new LogEventIndexesMigration(),
+                new LogsIndexesMigration(),
+                new ToDoItemsMigration(),
+                new EventLikesCommentsMigration(),
+                new LogImagesMaterialsMigration(),
+                new LogEventFeedIndexMigration(),
+                new StatsMigration(),
+                new MaterialDatesMigration(),
+                new SearchIndexMigration(),
+                new BlogBodiesMigration(),
+                new UploadOutboxMigration(),
+                new MediaObjectsMigration(),
+                new UploadFileStampsMigration()
+        ));
+    }
+
+    /**
+     * Verifies applied migrations and applies the pending ones.
+     * @param conn the connection to migrate
+     * @return the number of migrations applied
+     * @throws SQLException if a migration fails to apply
+     * @throws IllegalStateException if an applied migration no longer matches its recorded checksum
+     */
+    public int migrate(Connection conn) throws SQLException {
+        createMigrationsTable(conn);
+        Map<Integer, String> applied = getAppliedChecksums(conn);
+
+        for (Migration migration : migrations) {
+            String recorded = applied.get(migration.getVersion());
+            if (recorded != null && !recorded.equals(migration.getChecksum())) {
+                throw new IllegalStateException("Checksum mismatch for migration " + migration.getVersion()
+                        + " (" + migration.getDescription() + "). Applied migrations must not be edited.");
+            }
+        }
+
+        int count = 0;
+        for (Migration migration : migrations) {
+            if (!applied.containsKey(migration.getVersion())) {
+                applyMigration(conn, migration);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the highest applied migration version.
+     * @param conn the connection to check
+     * @return the current schema version, or 0 if none has been applied
+     * @throws SQLException if the migrations table cannot be read
+     */
+    public int getCurrentVersion(Connection conn) throws SQLException {
+        createMigrationsTable(conn);
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_migrations")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // Apply one migration and record it in the same transaction
+    private void applyMigration(Connection conn, Migration migration) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            migration.apply(conn);
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO schema_migrations (version, description, checksum, applied_at) VALUES (?, ?, ?, ?)")) {
+                pstmt.setInt(1, migration.getVersion());
+                pstmt.setString(2, migration.getDescription());
+                pstmt.setString(3, migration.getChecksum());
+                pstmt.setString(4, LocalDateTime.now().toString());
+                pstmt.executeUpdate();
+            }
+            conn.commit();
+            System.out.println("Applied migration " + migration.getVersion() + ": " + migration.getDescription());
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void createMigrationsTable(Connection conn) throws SQLException {
+        String sql = "CREATE TABLE IF NOT EXISTS schema_migrations ("
+                + "version INTEGER PRIMARY KEY, "
+                + "description TEXT NOT NULL, "
+                + "checksum TEXT NOT NULL, "
+                + "applied_at TEXT NOT NULL"
+                + ")";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private Map<Integer, String> getAppliedChecksums(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        return applied;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demoplswork.model;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * PendingUpload class is one row of the upload outbox: a local file waiting to be uploaded to the bucket under a key.
+ * A large file uploaded in parts also has the ID of its multipart upload and the ETags of the parts already sent,
+ * so the upload can carry on from where it stopped.
+ * A file uploaded under the hash of its contents also has the size and modified time it had when it was hashed.
+ */
+public final class PendingUpload {
+    private final int id;
+    private final String filePath;
+    private final String key;
+    private final String multipartId;
+    private final Map<Integer, String> parts;
+    private final int attempts;
+    private final long fileSize;
+    private final long fileModified;
+
+    /**
+     * Constructor for PendingUpload class.
+     * @param id the ID of the outbox row
+     * @param filePath the path of the local file
+     * @param key the key the file is uploaded under
+     * @param multipartId the ID of the multipart upload, or null if none has been started
+     * @param parts the ETags of the parts already sent, by part number
+     * @param attempts the number of attempts that failed
+     * @param fileSize the size of the file when it was hashed, or -1 if it was not
+     * @param fileModified the modified time of the file in milliseconds when it was hashed, or -1 if it was not
+     */
+    public PendingUpload(int id, String filePath, String key, String multipartId, Map<Integer, String> parts, int attempts,
+                         long fileSize, long fileModified) {
+        this.id = id;
+        this.filePath = filePath;
+        this.key = key;
+        this.multipartId = multipartId;
+        this.parts = Collections.unmodifiableMap(new TreeMap<>(parts));
+        this.attempts = attempts;
+        this.fileSize = fileSize;
+        this.fileModified = fileModified;
+    }
+
+    /**
+     * Gets the ID of the outbox row.
+     * @return the ID
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the path of the local file.
+     * @return the file path
+     */
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Gets the key the file is uploaded under.
+     * @return the key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the ID of the multipart upload.
+     * @return the multipart upload ID, or null if none has been started
+     */
+    public String getMultipartId() {
+        return multipartId;
+    }
+
+    /**
+     * Gets the ETags of the parts already sent.
+     * @return the ETags by part number, in part order
+     */
+    public Map<Integer, String> getParts() {
+        return parts;
+    }
+
+    /**
+     * Gets the number of attempts that failed.
+     * @return the number of failed attempts
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Gets the size the file had when it was hashed for its key.
+     * @return the size, or -1 if the key was not made from the file's contents here
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Gets the modified time the file had when it was hashed for its key.
+     * @return the time in milliseconds since the epoch, or -1 if the key was not made from the file's contents here
+     */
+    public long getFileModified() {
+        return fileModified;
+    }
+}
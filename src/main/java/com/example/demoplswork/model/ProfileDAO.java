@@ -23,12 +23,17 @@ public class ProfileDAO extends BaseDAO implements IProfileDAO {
         }
         if (!profileExists(userId)) {  // Check if profile exists
             String query = "INSERT INTO user_profiles (user_id, bio, photo) VALUES (?, ?, ?)";
-            try (PreparedStatement statement = connection.prepareStatement(query)) {
-                statement.setInt(1, userId);
-                statement.setString(2, bio != null ? bio : "");  // Use default empty string if bio is null
-                statement.setString(3, photo != null ? photo : "");  // Use default empty string if photo is null
-                statement.executeUpdate();
+            try {
+                write(conn -> {
+                    try (PreparedStatement statement = prepare(conn, query)) {
+                        statement.setInt(1, userId);
+                        statement.setString(2, bio != null ? bio : "");  // Use default empty string if bio is null
+                        statement.setString(3, photo != null ? photo : "");  // Use default empty string if photo is null
+                        return statement.executeUpdate();
+                    }
+                });
                 System.out.println("New blank profile created for user ID: " + userId);
+                UserDirectory.invalidateShared(userId);
             } catch (SQLException e) {
                 e.printStackTrace();
             }
@@ -43,12 +48,15 @@ public class ProfileDAO extends BaseDAO implements IProfileDAO {
      */
     private boolean profileExists(int userId) {
         String query = "SELECT COUNT(*) FROM user_profiles WHERE user_id = ?";
-        try (PreparedStatement statement = connection.prepareStatement(query)) {
-            statement.setInt(1, userId);
-            ResultSet rs = statement.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1) > 0;  // Returns true if the profile exists
-            }
+        try {
+            return read(conn -> {
+                try (PreparedStatement statement = prepare(conn, query)) {
+                    statement.setInt(1, userId);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        return rs.next() && rs.getInt(1) > 0;  // Returns true if the profile exists
+                    }
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -67,18 +75,23 @@ public class ProfileDAO extends BaseDAO implements IProfileDAO {
         }
         String query = "SELECT bio, photo FROM user_profiles WHERE user_id = ?";
 
-        try (PreparedStatement statement = connection.prepareStatement(query)) {
-            statement.setInt(1, userId);
-            ResultSet rs = statement.executeQuery();
-
-            if (rs.next()) {
-                String bio = rs.getString("bio");
-                String photo = rs.getString("photo");
-
-                // Update the existing Contact object
-                contact.setBio(bio);
-                contact.setPhoto(photo);
-            }
+        try {
+            read(conn -> {
+                try (PreparedStatement statement = prepare(conn, query)) {
+                    statement.setInt(1, userId);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        if (rs.next()) {
+                            String bio = rs.getString("bio");
+                            String photo = rs.getString("photo");
+
+                            // Update the existing Contact object
+                            contact.setBio(bio);
+                            contact.setPhoto(photo);
+                        }
+                    }
+                }
+                return null;
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -114,25 +127,51 @@ public class ProfileDAO extends BaseDAO implements IProfileDAO {
         queryBuilder.append(" WHERE user_id = ?");
 
         // Prepare the statement and set parameters dynamically
-        try (PreparedStatement statement = connection.prepareStatement(queryBuilder.toString())) {
-            int paramIndex = 1;
+        try {
+            write(conn -> {
+                try (PreparedStatement statement = prepare(conn, queryBuilder.toString())) {
+                    int paramIndex = 1;
 
-            if (bio != null) {
-                statement.setString(paramIndex++, bio);  // Set the bio if it's not null
-            }
+                    if (bio != null) {
+                        statement.setString(paramIndex++, bio);  // Set the bio if it's not null
+                    }
 
-            if (photo != null) {
-                statement.setString(paramIndex++, photo);  // Set the photo if it's not null
-            }
+                    if (photo != null) {
+                        statement.setString(paramIndex++, photo);  // Set the photo if it's not null
+                    }
 
-            statement.setInt(paramIndex, userId);  // Set the user ID
+                    statement.setInt(paramIndex, userId);  // Set the user ID
 
-            // Execute the update only if there are changes
-            statement.executeUpdate();
+                    // Execute the update only if there are changes
+                    return statement.executeUpdate();
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        UserDirectory.invalidateShared(userId);
+    }
 
+    /**
+     * @param userId The user ID to remove the photo from
+     * @param photo The photo file path or URL to remove, which is left if it has since been replaced
+     * @throws SQLException
+     */
+    @Override
+    public void removePhoto(int userId, String photo) throws SQLException {
+        String query = "UPDATE user_profiles SET photo = NULL WHERE user_id = ? AND photo = ?";
+        try {
+            write(conn -> {
+                try (PreparedStatement statement = prepare(conn, query)) {
+                    statement.setInt(1, userId);
+                    statement.setString(2, photo);
+                    return statement.executeUpdate();
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        UserDirectory.invalidateShared(userId);
     }
 
 
@@ -0,0 +1,96 @@
+package com.example.demoplswork.model;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * QueryContext class carries the query timeout and cancellation state of one asynchronous DAO call.
+ * AsyncDAO binds a context to the thread running the call, and BaseDAO applies it to every statement it prepares.
+ * Cancelling the context interrupts the statement that is currently running and fails any statement prepared afterwards.
+ * BaseDAO releases the statement before the connection goes back to the pool, so a cancel between queries
+ * never interrupts a connection another call is using.
+ */
+final class QueryContext {
+    private static final ThreadLocal<QueryContext> CURRENT = new ThreadLocal<>();
+
+    private final int timeoutSeconds;
+    private Statement active;
+    private boolean cancelled;
+    private boolean finished;
+
+    /**
+     * Constructor for QueryContext class.
+     * @param timeoutSeconds the query timeout for each statement, or 0 for none
+     */
+    QueryContext(int timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    /**
+     * Binds this context to the current thread.
+     */
+    void enter() {
+        CURRENT.set(this);
+    }
+
+    /**
+     * Unbinds this context from the current thread. Later cancels no longer touch any statement.
+     */
+    synchronized void exit() {
+        CURRENT.remove();
+        active = null;
+        finished = true;
+    }
+
+    /**
+     * Applies the current thread's context, if any, to a statement that is about to run.
+     * Statements prepared outside an asynchronous call get no timeout.
+     * @param statement the statement
+     * @throws SQLException if the call has already been cancelled
+     */
+    static void apply(Statement statement) throws SQLException {
+        QueryContext context = CURRENT.get();
+        if (context == null) {
+            statement.setQueryTimeout(0);
+            return;
+        }
+        context.track(statement);
+    }
+
+    /**
+     * Forgets the current thread's statement, if any, because its connection is about to be given back.
+     * Until the call prepares another statement, cancelling it only stops it from preparing more.
+     */
+    static void release() {
+        QueryContext context = CURRENT.get();
+        if (context != null) {
+            context.forget();
+        }
+    }
+
+    private synchronized void forget() {
+        active = null;
+    }
+
+    private synchronized void track(Statement statement) throws SQLException {
+        if (cancelled) {
+            throw new SQLException("Query was cancelled.");
+        }
+        statement.setQueryTimeout(timeoutSeconds);
+        active = statement;
+    }
+
+    /**
+     * Cancels the call: the running statement is interrupted and no further statement may be prepared.
+     */
+    synchronized void cancel() {
+        cancelled = true;
+        if (active != null && !finished) {
+            try {
+                active.cancel();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demoplswork.model;
+
+import java.util.regex.Pattern;
+
+/**
+ * Rendition enum lists the sizes a picture uploaded under a content key (see ContentHash) is stored at,
+ * so a screen showing it small downloads and decodes a small file instead of the original.
+ * Each smaller rendition is scaled so both of its sides are at least its size, which means it covers any view
+ * no wider and no taller than that, whether or not the view keeps the picture's proportions.
+ * A rendition is stored under the original's key with its name before the extension,
+ * e.g. "media/9f86...a08.thumb.jpg" for "media/9f86...a08.jpg".
+ */
+public enum Rendition {
+    THUMB("thumb", 96),   // Avatars
+    CARD("card", 400),    // Feed cards, blog covers and log tiles
+    FULL(null, 0);        // The original
+
+    private static final Pattern ORIGINAL = Pattern.compile("(^|/)media/[0-9a-f]{64}\\.(jpg|jpeg|png)$");
+
+    private final String name;
+    private final int size;
+
+    Rendition(String name, int size) {
+        this.name = name;
+        this.size = size;
+    }
+
+    /**
+     * Gets the length of the shorter side of the rendition, unless the original is smaller.
+     * @return the size in pixels, or 0 for the original
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the key or URL of this rendition of a picture.
+     * @param original the key or URL of the original
+     * @return the key or URL of the rendition
+     */
+    public String of(String original) {
+        if (name == null) {
+            return original;
+        }
+        int dot = original.lastIndexOf('.');
+        return original.substring(0, dot) + "." + name + original.substring(dot);
+    }
+
+    /**
+     * Checks whether a key or URL is of an original picture that was uploaded with renditions.
+     * Files uploaded under their own names, videos and renditions themselves have none.
+     * @param original the key or URL
+     * @return true if it has renditions
+     */
+    public static boolean hasRenditions(String original) {
+        return original != null && ORIGINAL.matcher(original).find();
+    }
+
+    /**
+     * Picks the smallest rendition that covers a view, so the picture is never shown larger than it was stored.
+     * @param fitWidth the fit width of the view, or 0 if it has none
+     * @param fitHeight the fit height of the view, or 0 if it has none
+     * @return the rendition to show
+     */
+    public static Rendition forFitSize(double fitWidth, double fitHeight) {
+        if (fitWidth <= 0 || fitHeight <= 0) {
+            return FULL;  // Shown at the picture's own size
+        }
+        double needed = Math.max(fitWidth, fitHeight);
+        for (Rendition rendition : values()) {
+            if (rendition == FULL || rendition.size >= needed) {
+                return rendition;
+            }
+        }
+        return FULL;
+    }
+
+    /**
+     * Gets the URL of the smallest rendition of a picture that covers a view.
+     * @param url the URL of the original picture
+     * @param fitWidth the fit width of the view, or 0 if it has none
+     * @param fitHeight the fit height of the view, or 0 if it has none
+     * @return the URL to load, which is the original's if it has no renditions or none is small enough
+     */
+    public static String resolve(String url, double fitWidth, double fitHeight) {
+        if (!hasRenditions(url)) {
+            return url;
+        }
+        return forFitSize(fitWidth, fitHeight).of(url);
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.demoplswork.model;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RenditionGenerator class makes the smaller Renditions of a picture before it is uploaded, with ImageIO.
+ * Decoding and scaling are CPU work, so they run on a fixed pool of platform threads: the picture is decoded once,
+ * skipping pixels a large photo has to spare, and then each rendition is scaled and written as a task of its own.
+ * The renditions are written to the generator's directory, where they stay until they are uploaded.
+ */
+public class RenditionGenerator {
+    public static final int DEFAULT_WORKERS = Integer.getInteger("hobbylog.renditions.workers",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    public static final Path DEFAULT_DIRECTORY = Path.of(System.getProperty("hobbylog.renditions.dir",
+            Path.of(System.getProperty("user.home"), ".hobbylog", "renditions").toString()));
+
+    private static RenditionGenerator instance;
+
+    private final Path directory;
+    private final ExecutorService workers;
+    private final AtomicLong generated = new AtomicLong();
+
+    /**
+     * Constructor for RenditionGenerator class.
+     * @param directory where the renditions are written
+     * @param workers the number of threads decoding and scaling pictures
+     * @throws IOException if the directory cannot be made
+     */
+    public RenditionGenerator(Path directory, int workers) throws IOException {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Workers must be positive: " + workers);
+        }
+        this.directory = Files.createDirectories(directory);
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "rendition-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);  // Behind the JavaFX Application Thread
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the generator shared by the whole application, writing to DEFAULT_DIRECTORY on DEFAULT_WORKERS threads.
+     * @return the shared generator
+     * @throws IOException if the directory cannot be made
+     */
+    public static synchronized RenditionGenerator getInstance() throws IOException {
+        if (instance == null) {
+            instance = new RenditionGenerator(DEFAULT_DIRECTORY, DEFAULT_WORKERS);
+        }
+        return instance;
+    }
+
+    /**
+     * Makes every smaller rendition of a picture in the background.
+     * @param source the picture
+     * @param key the key the picture is uploaded under, which the renditions' keys are made from
+     * @return completed with the file of each rendition but FULL, or exceptionally if the picture cannot be read
+     */
+    public CompletableFuture<Map<Rendition, Path>> generate(Path source, String key) {
+        int largest = 0;
+        for (Rendition rendition : Rendition.values()) {
+            largest = Math.max(largest, rendition.getSize());
+        }
+        int decodeSize = largest;
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return decode(source, decodeSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, workers).thenCompose(image -> {
+            // Each rendition is scaled on a worker of its own
+            Map<Rendition, CompletableFuture<Path>> files = new EnumMap<>(Rendition.class);
+            for (Rendition rendition : Rendition.values()) {
+                if (rendition != Rendition.FULL) {
+                    files.put(rendition, CompletableFuture.supplyAsync(() -> write(image, rendition, key), workers));
+                }
+            }
+            return CompletableFuture.allOf(files.values().toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+                Map<Rendition, Path> result = new EnumMap<>(Rendition.class);
+                files.forEach((rendition, file) -> result.put(rendition, file.join()));
+                return result;
+            });
+        });
+    }
+
+    /**
+     * Checks whether a file is a rendition written by this generator, so it can be deleted once it is uploaded.
+     * @param file the file
+     * @return true if it is in the generator's directory
+     */
+    public boolean owns(Path file) {
+        return file.toAbsolutePath().normalize().startsWith(directory.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Stops the workers. Renditions being made are not finished.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Decodes a picture, skipping rows and columns as long as both sides stay at least twice minSize,
+     * so a 12 megapixel photo is never held in memory at full size.
+     * @param source the picture
+     * @param minSize the smallest the shorter side may be made
+     * @return the picture
+     * @throws IOException if it cannot be read or is not a picture ImageIO can decode
+     */
+    static BufferedImage decode(Path source, int minSize) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Not a picture: " + source);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int shorter = Math.min(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, shorter / (2 * minSize));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales a picture down so its shorter side is size, halving it in steps first so it keeps its detail.
+     * A picture already that small is only copied into a type every encoder can write.
+     * @param image the picture
+     * @param size the length of the shorter side
+     * @param alpha whether to keep transparency
+     * @return the scaled picture
+     */
+    static BufferedImage scale(BufferedImage image, int size, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        double factor = Math.min(1.0, (double) size / Math.min(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * factor));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * factor));
+
+        BufferedImage current = image;
+        do {
+            int w = Math.max(width, current.getWidth() / 2);
+            int h = Math.max(height, current.getHeight() / 2);
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (!alpha) {
+                    g.setColor(Color.WHITE);  // JPEG has no transparency
+                    g.fillRect(0, 0, w, h);
+                }
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (current.getWidth() != width || current.getHeight() != height);
+        return current;
+    }
+
+    // Helper method run by a worker: scale a picture for a rendition and write it, unless an earlier run already did
+    private Path write(BufferedImage image, Rendition rendition, String key) {
+        String renditionKey = rendition.of(key);
+        Path file = directory.resolve(renditionKey.substring(renditionKey.lastIndexOf('/') + 1));
+        if (Files.exists(file)) {
+            return file;  // Its name comes from the picture's contents, so it is the same rendition
+        }
+        String format = ContentHash.extension(key).equals(".png") ? "png" : "jpg";
+        BufferedImage scaled = scale(image, rendition.getSize(), format.equals("png"));
+        try {
+            Path temp = Files.createTempFile(directory, "rendition", ".tmp");
+            try {
+                if (!ImageIO.write(scaled, format, temp.toFile())) {
+                    throw new IOException("No " + format + " encoder");
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        generated.incrementAndGet();
+        return file;
+    }
+
+    /**
+     * Gets the number of renditions written.
+     * @return the number of renditions written
+     */
+    public long getGenerated() {
+        return generated.get();
+    }
+}
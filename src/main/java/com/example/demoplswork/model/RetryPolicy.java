@@ -0,0 +1,109 @@
+package com.example.demoplswork.model;
+
+import java.sql.SQLException;
+
+/**
+ * RetryPolicy class decides how often a database call is retried when SQLite reports the database as busy or locked.
+ * The same backoff is used between the attempts of an UploadService upload.
+ * It retries with an exponential backoff up to a maximum number of attempts.
+ * Any other SQLException is passed straight through to the caller.
+ */
+public class RetryPolicy {
+    private static final int SQLITE_BUSY = 5;
+    private static final int SQLITE_LOCKED = 6;
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    /**
+     * Constructs a new RetryPolicy.
+     * @param maxAttempts the total number of attempts, including the first one
+     * @param initialBackoffMillis the wait before the first retry
+     * @param maxBackoffMillis the upper bound for the wait between retries
+     */
+    public RetryPolicy(int maxAttempts, long initialBackoffMillis, long maxBackoffMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be at least 1.");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * Creates the default policy: 5 attempts starting at 20ms and capped at 500ms between attempts.
+     * @return the default policy
+     */
+    public static RetryPolicy defaults() {
+        return new RetryPolicy(5, 20, 500);
+    }
+
+    /**
+     * Gets the total number of attempts.
+     * @return the max attempts
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Gets the wait before a retry: the initial backoff, doubled for each retry before it, up to the maximum.
+     * @param retry the number of the retry, starting at 1
+     * @return the wait in milliseconds
+     */
+    public long getBackoffMillis(int retry) {
+        long backoff = initialBackoffMillis;
+        for (int i = 1; i < retry && backoff < maxBackoffMillis; i++) {
+            backoff *= 2;
+        }
+        return Math.min(backoff, maxBackoffMillis);
+    }
+
+    /**
+     * Runs the given action, retrying while the database is busy.
+     * @param action the action to run
+     * @return the result of the action
+     * @throws SQLException the last failure if every attempt failed, or any non-busy failure
+     */
+    public <T> T execute(Action<T> action) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.run();
+            } catch (SQLException e) {
+                if (!isBusy(e) || attempt >= maxAttempts) {
+                    throw e;
+                }
+            }
+            try {
+                Thread.sleep(getBackoffMillis(attempt));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting to retry.", ie);
+            }
+        }
+    }
+
+    /**
+     * Checks if the exception means the database was busy or locked.
+     * @param e the exception to check
+     * @return true if the call may succeed when retried
+     */
+    public static boolean isBusy(SQLException e) {
+        int code = e.getErrorCode();
+        if (code == SQLITE_BUSY || code == SQLITE_LOCKED) {
+            return true;
+        }
+        String message = e.getMessage();
+        return message != null && (message.contains("SQLITE_BUSY") || message.contains("SQLITE_LOCKED"));
+    }
+
+    /**
+     * An action that can be retried.
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface Action<T> {
+        T run() throws SQLException;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.demoplswork.model;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * SearchDAO class searches blogs and logs through the blog_search and log_search full-text indexes added by SearchIndexMigration.
+ * Results come best match first by bm25 rank, a page at a time. Working out the rank costs time for every match,
+ * so only the newest 1000 matches are ranked: a rare word is ranked over all its matches,
+ * while a common one is ranked over recent posts instead of over most of the table.
+ * The rank is worked out inside the index before the page is joined back to blogs or logs,
+ * so only the rows on the page are read from those tables.
+ * What the user types is turned into a match query by toMatchQuery, so it can never be read as FTS5 syntax.
+ * It also reads blogs, logs and users as SearchDocuments for the in-memory SearchIndex.
+ */
+public class SearchDAO extends BaseDAO {
+    private static final int MAX_TERMS = 8;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    public static final int MAX_CANDIDATES = 1000;
+
+    private static final String SEARCH_BLOGS = "SELECT b.id, b.user_id, b.title, b.description, b.image_path, b.tag "
+            + "FROM " + rankedPage("blog_search") + " s JOIN blogs b ON b.id = s.rowid ORDER BY s.rank, s.rowid DESC";
+    private static final String SEARCH_LOGS = "SELECT l.id, l.user_id, l.log_name "
+            + "FROM " + rankedPage("log_search") + " s JOIN logs l ON l.id = s.rowid ORDER BY s.rank, s.rowid DESC";
+
+    private static final String BLOG_DOCUMENTS = "SELECT id, user_id, title, tag FROM blogs";
+    private static final String LOG_DOCUMENTS = "SELECT l.id, l.user_id, l.log_name, "
+            + "(SELECT group_concat(m.name, ' ') FROM log_materials m WHERE m.log_id = l.id) FROM logs l";
+    private static final String USER_DOCUMENTS = "SELECT id, firstName, lastName FROM users";
+
+    // A page of the newest matches in an index by rank, with newer rows first among equal ranks
+    private static String rankedPage(String index) {
+        return "(SELECT rowid, rank FROM (SELECT rowid, rank FROM " + index + " WHERE " + index + " MATCH ? "
+                + "ORDER BY rowid DESC LIMIT " + MAX_CANDIDATES + ") ORDER BY rank, rowid DESC LIMIT ? OFFSET ?)";
+    }
+
+    /**
+     * Turns search box text into an FTS5 match query. Each word becomes a quoted term and every term must match.
+     * Words are split on anything that is not a letter or digit, so quotes and operators are dropped.
+     * While the user is still typing the last word, i.e. the text ends with a letter or digit, that word matches as a prefix.
+     * Only the first eight words are used.
+     * @param text what the user typed
+     * @return the match query, or null if the text has no words
+     */
+    public static String toMatchQuery(String text) {
+        if (text == null) {
+            return null;
+        }
+        List<String> terms = new ArrayList<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                terms.add(word);
+            }
+        }
+        if (terms.isEmpty()) {
+            return null;
+        }
+        boolean typing = terms.size() <= MAX_TERMS && Character.isLetterOrDigit(text.charAt(text.length() - 1));
+        StringBuilder query = new StringBuilder();
+        for (String term : terms.subList(0, Math.min(terms.size(), MAX_TERMS))) {
+            if (!query.isEmpty()) {
+                query.append(' ');
+            }
+            query.append('"').append(term).append('"');
+        }
+        if (typing && terms.get(terms.size() - 1).length() >= MIN_PREFIX_LENGTH) {
+            query.append('*');
+        }
+        return query.toString();
+    }
+
+    /**
+     * Searches blog titles, descriptions and tags.
+     * @param text what the user typed
+     * @param offset the number of results to skip
+     * @param limit the maximum number of results
+     * @return the matching blogs, best match first; empty if the text has no words
+     * @throws SQLException if the page is invalid or the index cannot be read
+     */
+    public List<Blog> searchBlogs(String text, int offset, int limit) throws SQLException {
+        checkPage(offset, limit);
+        String match = toMatchQuery(text);
+        List<Blog> blogs = new ArrayList<>();
+        if (match == null) {
+            return blogs;
+        }
+        read(conn -> {
+            try (PreparedStatement pstmt = prepare(conn, SEARCH_BLOGS)) {
+                pstmt.setString(1, match);
+                pstmt.setInt(2, limit);
+                pstmt.setInt(3, offset);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        blogs.add(new Blog(rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getString(4),
+                                rs.getString(5), rs.getString(6)));
+                    }
+                }
+            }
+            return null;
+        });
+        return blogs;
+    }
+
+    /**
+     * Searches log names and the tasks on their to-do lists.
+     * @param text what the user typed
+     * @param offset the number of results to skip
+     * @param limit the maximum number of results
+     * @return the matching logs, best match first; empty if the text has no words
+     * @throws SQLException if the page is invalid or the index cannot be read
+     */
+    public List<LogSearchResult> searchLogs(String text, int offset, int limit) throws SQLException {
+        checkPage(offset, limit);
+        String match = toMatchQuery(text);
+        List<LogSearchResult> logs = new ArrayList<>();
+        if (match == null) {
+            return logs;
+        }
+        read(conn -> {
+            try (PreparedStatement pstmt = prepare(conn, SEARCH_LOGS)) {
+                pstmt.setString(1, match);
+                pstmt.setInt(2, limit);
+                pstmt.setInt(3, offset);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        logs.add(new LogSearchResult(rs.getInt(1), rs.getInt(2), rs.getString(3)));
+                    }
+                }
+            }
+            return null;
+        });
+        return logs;
+    }
+
+    /**
+     * Indexes every blog and log again from scratch in one transaction, e.g. after the index has been damaged.
+     * @throws SQLException if the indexes cannot be written
+     */
+    public void rebuildIndexes() throws SQLException {
+        transaction(conn -> {
+            SearchIndexMigration.rebuild(conn);
+            return null;
+        });
+    }
+
+    /**
+     * Reads every user, log and blog as a SearchDocument, in that order and each by ID,
+     * so that blogs are the newest documents in an index built from them.
+     * @param consumer called with each document
+     * @throws SQLException if the tables cannot be read
+     */
+    public void forEachDocument(Consumer<SearchDocument> consumer) throws SQLException {
+        read(conn -> {
+            for (SearchDocument.Kind kind : new SearchDocument.Kind[] {
+                    SearchDocument.Kind.USER, SearchDocument.Kind.LOG, SearchDocument.Kind.BLOG }) {
+                try (PreparedStatement pstmt = prepare(conn, documentQuery(kind) + " ORDER BY id");
+                     ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(toDocument(kind, rs));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Reads one blog, log or user as a SearchDocument.
+     * @param kind the kind of document
+     * @param id the ID of the blog, log or user
+     * @return the document, or null if it no longer exists
+     * @throws SQLException if the table cannot be read
+     */
+    public SearchDocument getDocument(SearchDocument.Kind kind, int id) throws SQLException {
+        String query = documentQuery(kind) + " WHERE id = ?";
+        return read(conn -> {
+            try (PreparedStatement pstmt = prepare(conn, query)) {
+                pstmt.setInt(1, id);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? toDocument(kind, rs) : null;
+                }
+            }
+        });
+    }
+
+    private static String documentQuery(SearchDocument.Kind kind) {
+        switch (kind) {
+            case BLOG:
+                return BLOG_DOCUMENTS;
+            case LOG:
+                return LOG_DOCUMENTS;
+            default:
+                return USER_DOCUMENTS;
+        }
+    }
+
+    // Blogs are found by title and tag, logs by name and material names, users by first name
+    private static SearchDocument toDocument(SearchDocument.Kind kind, ResultSet rs) throws SQLException {
+        int id = rs.getInt(1);
+        if (kind == SearchDocument.Kind.USER) {
+            return new SearchDocument(kind, id, id, rs.getString(2) + " " + rs.getString(3), rs.getString(2), null);
+        }
+        return new SearchDocument(kind, id, rs.getInt(2), rs.getString(3), rs.getString(3), rs.getString(4));
+    }
+
+    private static void checkPage(int offset, int limit) throws SQLException {
+        if (offset < 0 || limit <= 0) {
+            throw new SQLException("Invalid page: offset " + offset + ", limit " + limit);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demoplswork.model;
+
+/**
+ * SearchDocument class is one blog, log or user as it is put into an InvertedIndex.
+ * Words in the primary text (a blog title, log name or first name) rank above words in the secondary text
+ * (a blog's tag or a log's material names). The label is what a search hit shows.
+ */
+public final class SearchDocument {
+
+    /**
+     * The kinds of document that are searched.
+     */
+    public enum Kind {
+        BLOG, LOG, USER
+    }
+
+    private final Kind kind;
+    private final int id;
+    private final int ownerId;
+    private final String label;
+    private final String primaryText;
+    private final String secondaryText;
+
+    /**
+     * Constructor for SearchDocument class.
+     * @param kind the kind of document
+     * @param id the ID of the blog, log or user
+     * @param ownerId the ID of the user who owns the document; a user owns themselves
+     * @param label the text shown for a hit
+     * @param primaryText the text whose words rank highest
+     * @param secondaryText more text to search, or null
+     */
+    public SearchDocument(Kind kind, int id, int ownerId, String label, String primaryText, String secondaryText) {
+        this.kind = kind;
+        this.id = id;
+        this.ownerId = ownerId;
+        this.label = label;
+        this.primaryText = primaryText;
+        this.secondaryText = secondaryText;
+    }
+
+    /**
+     * Gets the kind of document.
+     * @return the kind
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets the ID of the blog, log or user.
+     * @return the ID
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the ID of the user who owns the document.
+     * @return the owner's user ID
+     */
+    public int getOwnerId() {
+        return ownerId;
+    }
+
+    /**
+     * Gets the text shown for a hit.
+     * @return the label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Gets the text whose words rank highest.
+     * @return the primary text
+     */
+    public String getPrimaryText() {
+        return primaryText;
+    }
+
+    /**
+     * Gets the rest of the text searched.
+     * @return the secondary text, or null
+     */
+    public String getSecondaryText() {
+        return secondaryText;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchDocument[" + kind + " " + id + ", owner=" + ownerId + ", label=" + label + "]";
+    }
+}
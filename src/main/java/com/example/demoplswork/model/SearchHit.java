@@ -0,0 +1,75 @@
+package com.example.demoplswork.model;
+
+/**
+ * SearchHit class is one document found by an InvertedIndex search, with its score.
+ * The score adds up, for each word searched, how well the document matched it:
+ * an exact word beats a prefix, which beats a one-letter typo, and a match in the primary text beats one in the secondary text.
+ */
+public final class SearchHit {
+    private final SearchDocument.Kind kind;
+    private final int id;
+    private final int ownerId;
+    private final String label;
+    private final int score;
+
+    /**
+     * Constructor for SearchHit class.
+     * @param kind the kind of document
+     * @param id the ID of the blog, log or user
+     * @param ownerId the ID of the user who owns the document
+     * @param label the text shown for the hit
+     * @param score how well the document matched
+     */
+    public SearchHit(SearchDocument.Kind kind, int id, int ownerId, String label, int score) {
+        this.kind = kind;
+        this.id = id;
+        this.ownerId = ownerId;
+        this.label = label;
+        this.score = score;
+    }
+
+    /**
+     * Gets the kind of document.
+     * @return the kind
+     */
+    public SearchDocument.Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets the ID of the blog, log or user.
+     * @return the ID
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the ID of the user who owns the document.
+     * @return the owner's user ID
+     */
+    public int getOwnerId() {
+        return ownerId;
+    }
+
+    /**
+     * Gets the text shown for the hit.
+     * @return the label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Gets how well the document matched.
+     * @return the score, higher is better
+     */
+    public int getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchHit[" + kind + " " + id + ", label=" + label + ", score=" + score + "]";
+    }
+}
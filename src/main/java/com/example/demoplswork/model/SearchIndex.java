@@ -0,0 +1,213 @@
+package com.example.demoplswork.model;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * SearchIndex class keeps an InvertedIndex of every blog, log and user in step with the database, for instant search as the user types.
+ * The shared index is built on a background thread when the application starts, and can be searched while it fills.
+ * BlogDAO, LogsDAO and ContactDAO report each blog, log or user they write; the index reads those back through SearchDAO
+ * and updates just them, on a background thread, so a write never waits for the index.
+ * Changes reported while the index is being built are applied once it is done.
+ */
+public class SearchIndex {
+    public static final int DEFAULT_HITS = 8;
+
+    private static SearchIndex instance;
+
+    private final SearchDAO searchDAO;
+    private final Executor executor;
+    private final InvertedIndex index = new InvertedIndex();
+    private final Object refreshLock = new Object();
+    private final Set<Long> pending = new LinkedHashSet<>();  // Changed documents by kind and ID
+    private boolean ready = false;
+    private boolean refreshScheduled = false;
+    private int generation = 0;  // Counts clears, so a build that started before one is not marked ready
+
+    /**
+     * Constructor for SearchIndex class.
+     * @param searchDAO the DAO documents are read through
+     * @param executor runs the build and updates in the background
+     */
+    public SearchIndex(SearchDAO searchDAO, Executor executor) {
+        this.searchDAO = searchDAO;
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the index shared by the whole application, which builds and updates on virtual threads.
+     * @return the shared index
+     */
+    public static synchronized SearchIndex getInstance() {
+        if (instance == null) {
+            instance = new SearchIndex(new SearchDAO(), Executors.newVirtualThreadPerTaskExecutor());
+        }
+        return instance;
+    }
+
+    /**
+     * Reports a changed blog, log or user to the shared index, if it has been created.
+     * @param kind the kind of document
+     * @param id the ID of the blog, log or user that was added, changed or deleted
+     */
+    static void changedShared(SearchDocument.Kind kind, int id) {
+        SearchIndex searchIndex;
+        synchronized (SearchIndex.class) {
+            searchIndex = instance;
+        }
+        if (searchIndex != null) {
+            searchIndex.changed(kind, id);
+        }
+    }
+
+    /**
+     * Empties the shared index, if it has been created, e.g. when the database connection is replaced.
+     * It stays empty until it is built again.
+     */
+    static void clearShared() {
+        SearchIndex searchIndex;
+        synchronized (SearchIndex.class) {
+            searchIndex = instance;
+        }
+        if (searchIndex != null) {
+            searchIndex.clear();
+        }
+    }
+
+    /**
+     * Starts building the index in the background.
+     */
+    public void start() {
+        executor.execute(() -> {
+            try {
+                rebuild();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Builds the index again from every blog, log and user, then applies the changes reported meanwhile.
+     * @return the number of documents in the index
+     * @throws SQLException if the documents cannot be read
+     */
+    public int rebuild() throws SQLException {
+        synchronized (refreshLock) {
+            int started;
+            synchronized (this) {
+                ready = false;
+                started = generation;
+            }
+            index.clear();
+            searchDAO.forEachDocument(index::addDocument);
+            synchronized (this) {
+                ready = generation == started;
+            }
+            refresh();
+            return index.size();
+        }
+    }
+
+    /**
+     * Reads the documents reported as changed and updates them in the index. Deleted documents are removed.
+     * @return the number of documents updated
+     * @throws SQLException if a document cannot be read; the ones not yet updated stay reported
+     */
+    public int refresh() throws SQLException {
+        synchronized (refreshLock) {
+            List<Long> keys;
+            synchronized (this) {
+                keys = new ArrayList<>(pending);
+                pending.clear();
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                long key = keys.get(i);
+                SearchDocument.Kind kind = SearchDocument.Kind.values()[(int) (key >>> 32)];
+                int id = (int) key;
+                try {
+                    SearchDocument document = searchDAO.getDocument(kind, id);
+                    if (document != null) {
+                        index.addDocument(document);
+                    } else {
+                        index.removeDocument(kind, id);
+                    }
+                } catch (SQLException e) {
+                    synchronized (this) {
+                        pending.addAll(keys.subList(i, keys.size()));
+                    }
+                    throw e;
+                }
+            }
+            return keys.size();
+        }
+    }
+
+    /**
+     * Reports a changed blog, log or user. Once the index is built, an update is scheduled in the background.
+     * @param kind the kind of document
+     * @param id the ID of the blog, log or user that was added, changed or deleted
+     */
+    public void changed(SearchDocument.Kind kind, int id) {
+        synchronized (this) {
+            pending.add((long) kind.ordinal() << 32 | (id & 0xFFFFFFFFL));
+            if (!ready || refreshScheduled) {
+                return;
+            }
+            refreshScheduled = true;
+        }
+        executor.execute(() -> {
+            synchronized (this) {
+                refreshScheduled = false;
+            }
+            try {
+                refresh();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Empties the index and forgets reported changes. It stays empty until it is built again.
+     */
+    public void clear() {
+        synchronized (this) {
+            ready = false;
+            generation++;
+            pending.clear();
+        }
+        index.clear();
+    }
+
+    /**
+     * Searches with the default one millisecond budget.
+     * @param text what the user typed
+     * @param k the maximum number of hits
+     * @return the best hits
+     */
+    public SearchResults search(String text, int k) {
+        return index.search(text, k);
+    }
+
+    /**
+     * Checks if the index has been built; until then a search only finds the documents read so far.
+     * @return true once the index is built
+     */
+    public synchronized boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Gets the index itself, e.g. for its size.
+     * @return the index
+     */
+    public InvertedIndex getIndex() {
+        return index;
+    }
+}
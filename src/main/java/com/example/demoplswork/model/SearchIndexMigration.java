@@ -0,0 +1,118 @@
+package com.example.demoplswork.model;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Migration 9 adds the FTS5 full-text indexes searched from the Explore page.
+ * blog_search indexes the title, description and tag of each blog. It is an external content table over blogs,
+ * so the text is not stored twice; its rowid is the blog ID.
+ * log_search indexes each log's name and the text of its to-do items, joined into one column; its rowid is the log ID.
+ * Triggers on blogs, logs and log_todo_items keep both indexes up to date on every insert, update and delete.
+ * Both rank matches with bm25, weighting title and name matches above tag matches, and those above the rest.
+ * Existing rows are indexed when the migration is applied.
+ */
+public class SearchIndexMigration extends Migration {
+
+    // Words are split on Unicode letters and digits with accents folded, and two and three letter prefixes are indexed
+    private static final String TOKENIZE = "tokenize = 'unicode61 remove_diacritics 2', prefix = '2 3'";
+
+    // A log's ID, name and to-do text, in the column order of log_search
+    private static final String LOG_ROWS = "SELECT id, log_name, "
+            + "(SELECT group_concat(task, ' ') FROM log_todo_items WHERE log_todo_items.log_id = logs.id)";
+
+    @Override
+    public int getVersion() {
+        return 9;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Add FTS5 search indexes over blogs and logs";
+    }
+
+    @Override
+    protected List<String> getStatements() {
+        return List.of(
+                "CREATE VIRTUAL TABLE IF NOT EXISTS blog_search USING fts5("
+                        + "title, description, tag, content = 'blogs', content_rowid = 'id', " + TOKENIZE + ")",
+                "INSERT INTO blog_search (blog_search, rank) VALUES ('rank', 'bm25(10.0, 1.0, 5.0)')",
+                "CREATE VIRTUAL TABLE IF NOT EXISTS log_search USING fts5(log_name, tasks, " + TOKENIZE + ")",
+                "INSERT INTO log_search (log_search, rank) VALUES ('rank', 'bm25(10.0, 1.0)')",
+
+                // An external content index is changed by deleting the old text and inserting the new
+                "CREATE TRIGGER IF NOT EXISTS trg_search_blog_insert AFTER INSERT ON blogs BEGIN "
+                        + addBlog("NEW")
+                        + "END",
+                "CREATE TRIGGER IF NOT EXISTS trg_search_blog_update AFTER UPDATE OF title, description, tag ON blogs BEGIN "
+                        + removeBlog("OLD")
+                        + addBlog("NEW")
+                        + "END",
+                "CREATE TRIGGER IF NOT EXISTS trg_search_blog_delete AFTER DELETE ON blogs BEGIN "
+                        + removeBlog("OLD")
+                        + "END",
+
+                // A log's row is rebuilt from logs and log_todo_items whenever its name or one of its tasks changes
+                "CREATE TRIGGER IF NOT EXISTS trg_search_log_insert AFTER INSERT ON logs BEGIN "
+                        + reindexLog("NEW.id")
+                        + "END",
+                "CREATE TRIGGER IF NOT EXISTS trg_search_log_update AFTER UPDATE OF log_name ON logs BEGIN "
+                        + reindexLog("NEW.id")
+                        + "END",
+                "CREATE TRIGGER IF NOT EXISTS trg_search_log_delete AFTER DELETE ON logs BEGIN "
+                        + "DELETE FROM log_search WHERE rowid = OLD.id; "
+                        + "END",
+                "CREATE TRIGGER IF NOT EXISTS trg_search_todo_insert AFTER INSERT ON log_todo_items BEGIN "
+                        + reindexLog("NEW.log_id")
+                        + "END",
+                "CREATE TRIGGER IF NOT EXISTS trg_search_todo_update AFTER UPDATE OF log_id, task ON log_todo_items BEGIN "
+                        + reindexLog("OLD.log_id")
+                        + reindexLog("NEW.log_id")
+                        + "END",
+                "CREATE TRIGGER IF NOT EXISTS trg_search_todo_delete AFTER DELETE ON log_todo_items BEGIN "
+                        + reindexLog("OLD.log_id")
+                        + "END"
+        );
+    }
+
+    @Override
+    protected int getCodeRevision() {
+        return 1;  // Bump when apply changes
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        super.apply(conn);
+        rebuild(conn);
+    }
+
+    /**
+     * Indexes every blog and log again from scratch. The caller owns the transaction.
+     * @param conn the connection to run on
+     * @throws SQLException if the indexes cannot be written
+     */
+    static void rebuild(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO blog_search (blog_search) VALUES ('rebuild')");
+            stmt.executeUpdate("DELETE FROM log_search");
+            stmt.executeUpdate("INSERT INTO log_search (rowid, log_name, tasks) " + LOG_ROWS + " FROM logs");
+        }
+    }
+
+    private static String addBlog(String row) {
+        return "INSERT INTO blog_search (rowid, title, description, tag) "
+                + "VALUES (" + row + ".id, " + row + ".title, " + row + ".description, " + row + ".tag); ";
+    }
+
+    private static String removeBlog(String row) {
+        return "INSERT INTO blog_search (blog_search, rowid, title, description, tag) "
+                + "VALUES ('delete', " + row + ".id, " + row + ".title, " + row + ".description, " + row + ".tag); ";
+    }
+
+    private static String reindexLog(String logId) {
+        return "DELETE FROM log_search WHERE rowid = " + logId + "; "
+                + "INSERT INTO log_search (rowid, log_name, tasks) " + LOG_ROWS + " FROM logs WHERE id = " + logId + "; ";
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demoplswork.model;
+
+import java.util.List;
+
+/**
+ * SearchResults class is what an InvertedIndex search returns: the best hits, best first,
+ * and a corrected query when a word searched for was not found but a word one letter away was.
+ * A search that ran out of its time budget returns the best hits among the newest documents it got through,
+ * and is marked as not complete.
+ */
+public final class SearchResults {
+    private final List<SearchHit> hits;
+    private final String suggestion;
+    private final boolean complete;
+    private final long elapsedNanos;
+
+    /**
+     * Constructor for SearchResults class.
+     * @param hits the hits, best first
+     * @param suggestion the corrected query, or null if every word was found
+     * @param complete false if the search ran out of time before looking at every document
+     * @param elapsedNanos how long the search took
+     */
+    public SearchResults(List<SearchHit> hits, String suggestion, boolean complete, long elapsedNanos) {
+        this.hits = List.copyOf(hits);
+        this.suggestion = suggestion;
+        this.complete = complete;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the hits.
+     * @return the hits, best first
+     */
+    public List<SearchHit> getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the query with each word that was not found replaced by the most common word one letter away.
+     * @return the corrected query, or null if every word was found
+     */
+    public String getSuggestion() {
+        return suggestion;
+    }
+
+    /**
+     * Checks if the search looked at every document.
+     * @return false if it ran out of time first
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Gets how long the search took.
+     * @return the time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResults[hits=" + hits.size() + ", suggestion=" + suggestion + ", complete=" + complete
+                + ", elapsed=" + elapsedNanos / 1000 + "us]";
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.demoplswork.model;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StatementCache class keeps compiled PreparedStatements so the same SQL is only compiled once per connection.
+ * Statements are cached per connection, keyed by SQL text, and each connection keeps at most a fixed number of them.
+ * When a connection is full the least recently used statement is closed and dropped.
+ * The statements handed out can be used with try-with-resources as usual: closing one clears its parameters
+ * and returns it to the cache instead of releasing the native handle.
+ * A connection is only ever used by one thread at a time, so each per-connection cache is only touched by that thread.
+ * It has counters for cache hits, misses and evictions.
+ */
+public class StatementCache {
+
+    private final int maxPerConnection;
+    private final Map<Connection, LinkedHashMap<String, Entry>> caches = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Constructor for StatementCache class.
+     * @param maxPerConnection the most statements kept open for each connection
+     */
+    public StatementCache(int maxPerConnection) {
+        if (maxPerConnection <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive.");
+        }
+        this.maxPerConnection = maxPerConnection;
+    }
+
+    /**
+     * Gets the cached statement for the SQL on this connection, compiling it on a miss.
+     * @param conn the connection the statement belongs to
+     * @param sql the SQL text
+     * @return a statement whose close() returns it to the cache
+     * @throws SQLException if the SQL cannot be compiled
+     */
+    public PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        return prepare(conn, sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    /**
+     * Gets the cached statement for the SQL on this connection, compiling it on a miss.
+     * @param conn the connection the statement belongs to
+     * @param sql the SQL text
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS or Statement.NO_GENERATED_KEYS
+     * @return a statement whose close() returns it to the cache
+     * @throws SQLException if the SQL cannot be compiled
+     */
+    public PreparedStatement prepare(Connection conn, String sql, int autoGeneratedKeys) throws SQLException {
+        LinkedHashMap<String, Entry> cache = caches.computeIfAbsent(conn, c -> newConnectionCache());
+        // Statements compiled for generated keys are kept apart from the plain ones
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "+keys:" + sql : sql;
+
+        Entry entry = cache.get(key);
+        if (entry != null && !entry.statement.isClosed()) {
+            hits.incrementAndGet();
+            return entry.handle;
+        }
+
+        misses.incrementAndGet();
+        PreparedStatement statement = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS
+                ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : conn.prepareStatement(sql);
+        entry = new Entry(statement);
+        cache.put(key, entry);
+        return entry.handle;
+    }
+
+    /**
+     * Closes and drops every statement cached for one connection, e.g. before the connection is closed.
+     * @param conn the connection
+     */
+    public void invalidate(Connection conn) {
+        LinkedHashMap<String, Entry> cache = caches.remove(conn);
+        if (cache != null) {
+            closeAll(cache);
+        }
+    }
+
+    /**
+     * Closes and drops every cached statement on every connection.
+     */
+    public void clear() {
+        for (Connection conn : new ArrayList<>(caches.keySet())) {
+            invalidate(conn);
+        }
+    }
+
+    /**
+     * Gets the number of statements currently open for a connection.
+     * @param conn the connection
+     * @return the number of cached statements
+     */
+    public int size(Connection conn) {
+        LinkedHashMap<String, Entry> cache = caches.get(conn);
+        return cache == null ? 0 : cache.size();
+    }
+
+    /**
+     * Gets the most statements kept open for each connection.
+     * @return the per-connection limit
+     */
+    public int getMaxPerConnection() {
+        return maxPerConnection;
+    }
+
+    /**
+     * Gets the number of times a compiled statement was reused.
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of times a statement had to be compiled.
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of statements closed to make room for others.
+     * @return the eviction count
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return "StatementCache[hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions() + "]";
+    }
+
+    // An access-ordered map that closes its least recently used statement once it grows past the limit
+    private LinkedHashMap<String, Entry> newConnectionCache() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= maxPerConnection) {
+                    return false;
+                }
+                evictions.incrementAndGet();
+                closeQuietly(eldest.getValue().statement);
+                return true;
+            }
+        };
+    }
+
+    private static void closeAll(LinkedHashMap<String, Entry> cache) {
+        List<Entry> entries = new ArrayList<>(cache.values());
+        cache.clear();
+        for (Entry entry : entries) {
+            closeQuietly(entry.statement);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * A cached statement and the handle given to callers.
+     * The handle forwards every call to the statement, except close(), which only clears the parameters.
+     */
+    private static final class Entry implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final PreparedStatement handle;
+
+        private Entry(PreparedStatement statement) {
+            this.statement = statement;
+            this.handle = (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!statement.isClosed()) {
+                        statement.clearParameters();
+                        statement.clearBatch();
+                    }
+                    return null;
+                case "isClosed":
+                    return statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached " + statement;
+                default:
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.demoplswork.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * StatsDAO class looks after the materialized log_stats and user_stats tables added by StatsMigration.
+ * The triggers keep them up to date on every write; this class can rebuild them from scratch
+ * and check them against the raw rows in logs, log_materials and log_events.
+ * Run it from the command line to check the stats of the application database, or to rebuild and then check them:
+ * java com.example.demoplswork.model.StatsDAO [rebuild]
+ */
+public class StatsDAO extends BaseDAO {
+    private static final double SPEND_TOLERANCE = 0.005;
+
+    // Every log's stats computed from the raw rows, in the column order of log_stats
+    static final String LOG_STATS_FROM_ROWS = "SELECT l.id, l.user_id, COALESCE(m.total_spend, 0), l.todo_completed, "
+            + "(l.todo_total > 0 AND l.todo_completed = l.todo_total), COALESCE(m.materials_used, 0), "
+            + "COALESCE(e.total_likes, 0), COALESCE(e.total_comments, 0) FROM logs l "
+            + "LEFT JOIN (SELECT log_id, SUM(quantity * price) AS total_spend, COUNT(*) AS materials_used "
+            + "FROM log_materials GROUP BY log_id) m ON m.log_id = l.id "
+            + "LEFT JOIN (SELECT log_id, SUM(like_count) AS total_likes, SUM(comment_count) AS total_comments "
+            + "FROM log_events GROUP BY log_id) e ON e.log_id = l.id";
+    private static final String LOG_STATS_COLUMNS = "log_id, user_id, total_spend, tasks_completed, projects_completed, "
+            + "materials_used, total_likes, total_comments";
+    private static final String USER_STATS_COLUMNS = "user_id, total_spend, tasks_completed, projects_completed, "
+            + "materials_used, total_likes, total_comments";
+
+    /**
+     * Recomputes log_stats and user_stats from the raw rows. The caller owns the transaction.
+     * @param conn the connection to run on
+     * @return the number of logs whose stats were written
+     * @throws SQLException if the stats cannot be written
+     */
+    static int rebuild(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM log_stats");
+            int logs = stmt.executeUpdate("INSERT INTO log_stats (" + LOG_STATS_COLUMNS + ") " + LOG_STATS_FROM_ROWS);
+            stmt.executeUpdate("DELETE FROM user_stats");
+            stmt.executeUpdate("INSERT INTO user_stats (" + USER_STATS_COLUMNS + ") "
+                    + "SELECT user_id, SUM(total_spend), SUM(tasks_completed), SUM(projects_completed), "
+                    + "SUM(materials_used), SUM(total_likes), SUM(total_comments) FROM log_stats GROUP BY user_id");
+            return logs;
+        }
+    }
+
+    /**
+     * Recomputes log_stats and user_stats from the raw rows in one transaction.
+     * @return the number of logs whose stats were written
+     * @throws SQLException if the stats cannot be written
+     */
+    public int rebuildStats() throws SQLException {
+        return transaction(StatsDAO::rebuild);
+    }
+
+    /**
+     * Compares log_stats and user_stats with the stats computed from the raw rows.
+     * A user with no row in user_stats counts as having all zero stats.
+     * @return one message per difference found, empty if the tables are consistent
+     * @throws SQLException if the stats cannot be read
+     */
+    public List<String> checkStats() throws SQLException {
+        return read(conn -> {
+            Map<Integer, Integer> owners = new HashMap<>();
+            Map<Integer, UserStats> expectedLogs = readStats(conn, LOG_STATS_FROM_ROWS, owners);
+            Map<Integer, Integer> storedOwners = new HashMap<>();
+            Map<Integer, UserStats> storedLogs = readStats(conn, "SELECT " + LOG_STATS_COLUMNS + " FROM log_stats", storedOwners);
+            Map<Integer, UserStats> storedUsers = readStats(conn, "SELECT " + USER_STATS_COLUMNS + " FROM user_stats", null);
+
+            List<String> problems = new ArrayList<>();
+            Set<Integer> logIds = new TreeSet<>(expectedLogs.keySet());
+            logIds.addAll(storedLogs.keySet());
+            for (int logId : logIds) {
+                if (!storedLogs.containsKey(logId)) {
+                    problems.add("log " + logId + ": missing from log_stats");
+                } else if (!expectedLogs.containsKey(logId)) {
+                    problems.add("log " + logId + ": in log_stats but the log does not exist");
+                } else {
+                    if (!owners.get(logId).equals(storedOwners.get(logId))) {
+                        problems.add("log " + logId + ": user_id is " + storedOwners.get(logId) + " but should be " + owners.get(logId));
+                    }
+                    compare("log " + logId, expectedLogs.get(logId), storedLogs.get(logId), problems);
+                }
+            }
+
+            // Each user's stats are the sum of their logs' stats
+            Map<Integer, UserStats> expectedUsers = new LinkedHashMap<>();
+            for (Map.Entry<Integer, UserStats> entry : expectedLogs.entrySet()) {
+                expectedUsers.merge(owners.get(entry.getKey()), entry.getValue(), StatsDAO::add);
+            }
+            Set<Integer> userIds = new TreeSet<>(expectedUsers.keySet());
+            userIds.addAll(storedUsers.keySet());
+            UserStats zero = new UserStats(0, 0, 0, 0, 0, 0);
+            for (int userId : userIds) {
+                compare("user " + userId, expectedUsers.getOrDefault(userId, zero), storedUsers.getOrDefault(userId, zero), problems);
+            }
+            return problems;
+        });
+    }
+
+    // Read stats rows keyed by their first column; for log rows, the owner in the second column goes into owners
+    private static Map<Integer, UserStats> readStats(Connection conn, String query, Map<Integer, Integer> owners) throws SQLException {
+        Map<Integer, UserStats> stats = new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(query);
+             ResultSet rs = pstmt.executeQuery()) {
+            int first = owners != null ? 3 : 2;
+            while (rs.next()) {
+                int key = rs.getInt(1);
+                if (owners != null) {
+                    owners.put(key, rs.getInt(2));
+                }
+                stats.put(key, new UserStats(rs.getDouble(first), rs.getInt(first + 1), rs.getInt(first + 2),
+                        rs.getInt(first + 3), rs.getInt(first + 4), rs.getInt(first + 5)));
+            }
+        }
+        return stats;
+    }
+
+    // Add a message for each metric that differs between the expected and stored stats
+    private static void compare(String what, UserStats expected, UserStats stored, List<String> problems) {
+        if (Math.abs(expected.getTotalSpend() - stored.getTotalSpend()) > SPEND_TOLERANCE) {
+            problems.add(what + ": total_spend is " + stored.getTotalSpend() + " but should be " + expected.getTotalSpend());
+        }
+        compare(what, "tasks_completed", expected.getTasksCompleted(), stored.getTasksCompleted(), problems);
+        compare(what, "projects_completed", expected.getProjectsCompleted(), stored.getProjectsCompleted(), problems);
+        compare(what, "materials_used", expected.getMaterialsUsed(), stored.getMaterialsUsed(), problems);
+        compare(what, "total_likes", expected.getTotalLikes(), stored.getTotalLikes(), problems);
+        compare(what, "total_comments", expected.getTotalComments(), stored.getTotalComments(), problems);
+    }
+
+    private static void compare(String what, String column, int expected, int stored, List<String> problems) {
+        if (expected != stored) {
+            problems.add(what + ": " + column + " is " + stored + " but should be " + expected);
+        }
+    }
+
+    private static UserStats add(UserStats a, UserStats b) {
+        return new UserStats(a.getTotalSpend() + b.getTotalSpend(), a.getTasksCompleted() + b.getTasksCompleted(),
+                a.getProjectsCompleted() + b.getProjectsCompleted(), a.getMaterialsUsed() + b.getMaterialsUsed(),
+                a.getTotalLikes() + b.getTotalLikes(), a.getTotalComments() + b.getTotalComments());
+    }
+
+    /**
+     * Checks the stats of the application database, after rebuilding them if the first argument is "rebuild".
+     * Exits with status 1 if any difference is found.
+     * @param args optionally "rebuild"
+     * @throws SQLException if the stats cannot be read or written
+     */
+    public static void main(String[] args) throws SQLException {
+        StatsDAO statsDAO = new StatsDAO();
+        if (args.length > 0 && args[0].equals("rebuild")) {
+            System.out.println("Rebuilt stats for " + statsDAO.rebuildStats() + " logs.");
+        }
+        List<String> problems = statsDAO.checkStats();
+        problems.forEach(System.out::println);
+        System.out.println(problems.isEmpty() ? "Stats are consistent." : problems.size() + " differences found.");
+        statsDAO.closeConnection();
+        System.exit(problems.isEmpty() ? 0 : 1);
+    }
+}
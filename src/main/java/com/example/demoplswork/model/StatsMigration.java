@@ -0,0 +1,136 @@
+package com.example.demoplswork.model;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Migration 7 adds the materialized log_stats and user_stats tables read by the dashboard and profile.
+ * log_stats has one row per log with its spend, tasks completed, whether it is complete, materials, likes and comments;
+ * user_stats has one row per user with the same metrics summed over their logs.
+ * Triggers on logs, log_materials and log_events keep both tables up to date, so every write changes them
+ * in the same transaction, whichever DAO makes it. Existing data is copied in with StatsDAO.rebuild.
+ */
+public class StatsMigration extends Migration {
+
+    // Whether a log's to-do items are all completed, for the NEW or OLD row of a trigger
+    private static final String NEW_COMPLETE = "(NEW.todo_total > 0 AND NEW.todo_completed = NEW.todo_total)";
+    private static final String OLD_COMPLETE = "(OLD.todo_total > 0 AND OLD.todo_completed = OLD.todo_total)";
+
+    @Override
+    public int getVersion() {
+        return 7;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Add log_stats and user_stats maintained by triggers";
+    }
+
+    @Override
+    protected List<String> getStatements() {
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS log_stats ("
+                        + "log_id INTEGER PRIMARY KEY,"
+                        + "user_id INTEGER NOT NULL,"
+                        + "total_spend REAL NOT NULL DEFAULT 0,"
+                        + "tasks_completed INTEGER NOT NULL DEFAULT 0,"
+                        + "projects_completed INTEGER NOT NULL DEFAULT 0,"
+                        + "materials_used INTEGER NOT NULL DEFAULT 0,"
+                        + "total_likes INTEGER NOT NULL DEFAULT 0,"
+                        + "total_comments INTEGER NOT NULL DEFAULT 0)",
+                "CREATE INDEX IF NOT EXISTS idx_log_stats_user_id ON log_stats(user_id)",
+                "CREATE TABLE IF NOT EXISTS user_stats ("
+                        + "user_id INTEGER PRIMARY KEY,"
+                        + "total_spend REAL NOT NULL DEFAULT 0,"
+                        + "tasks_completed INTEGER NOT NULL DEFAULT 0,"
+                        + "projects_completed INTEGER NOT NULL DEFAULT 0,"
+                        + "materials_used INTEGER NOT NULL DEFAULT 0,"
+                        + "total_likes INTEGER NOT NULL DEFAULT 0,"
+                        + "total_comments INTEGER NOT NULL DEFAULT 0)",
+
+                // A new log starts its own row and makes sure its owner has one
+                "CREATE TRIGGER IF NOT EXISTS trg_stats_log_insert AFTER INSERT ON logs BEGIN "
+                        + "INSERT INTO log_stats (log_id, user_id, tasks_completed, projects_completed) "
+                        + "VALUES (NEW.id, NEW.user_id, NEW.todo_completed, " + NEW_COMPLETE + "); "
+                        + "INSERT OR IGNORE INTO user_stats (user_id) VALUES (NEW.user_id); "
+                        + "UPDATE user_stats SET tasks_completed = tasks_completed + NEW.todo_completed, "
+                        + "projects_completed = projects_completed + " + NEW_COMPLETE + " WHERE user_id = NEW.user_id; "
+                        + "END",
+                // ToDoItemsDAO changes the to-do counters on logs whenever an item is added, checked or removed
+                "CREATE TRIGGER IF NOT EXISTS trg_stats_log_todo AFTER UPDATE OF todo_total, todo_completed ON logs BEGIN "
+                        + "UPDATE log_stats SET tasks_completed = NEW.todo_completed, projects_completed = " + NEW_COMPLETE
+                        + " WHERE log_id = NEW.id; "
+                        + "UPDATE user_stats SET tasks_completed = tasks_completed + NEW.todo_completed - OLD.todo_completed, "
+                        + "projects_completed = projects_completed + " + NEW_COMPLETE + " - " + OLD_COMPLETE
+                        + " WHERE user_id = NEW.user_id; "
+                        + "END",
+                // A deleted log takes whatever it still counted away from its owner
+                "CREATE TRIGGER IF NOT EXISTS trg_stats_log_delete AFTER DELETE ON logs BEGIN "
+                        + "UPDATE user_stats SET total_spend = user_stats.total_spend - s.total_spend, "
+                        + "tasks_completed = user_stats.tasks_completed - s.tasks_completed, "
+                        + "projects_completed = user_stats.projects_completed - s.projects_completed, "
+                        + "materials_used = user_stats.materials_used - s.materials_used, "
+                        + "total_likes = user_stats.total_likes - s.total_likes, "
+                        + "total_comments = user_stats.total_comments - s.total_comments "
+                        + "FROM (SELECT * FROM log_stats WHERE log_id = OLD.id) AS s WHERE user_stats.user_id = s.user_id; "
+                        + "DELETE FROM log_stats WHERE log_id = OLD.id; "
+                        + "END",
+
+                "CREATE TRIGGER IF NOT EXISTS trg_stats_material_insert AFTER INSERT ON log_materials BEGIN "
+                        + addMaterial("NEW", "+")
+                        + "END",
+                "CREATE TRIGGER IF NOT EXISTS trg_stats_material_update "
+                        + "AFTER UPDATE OF log_id, quantity, price ON log_materials BEGIN "
+                        + addMaterial("OLD", "-")
+                        + addMaterial("NEW", "+")
+                        + "END",
+                "CREATE TRIGGER IF NOT EXISTS trg_stats_material_delete AFTER DELETE ON log_materials BEGIN "
+                        + addMaterial("OLD", "-")
+                        + "END",
+
+                // LogEventDAO keeps like_count and comment_count on log_events in step with likes and comments
+                "CREATE TRIGGER IF NOT EXISTS trg_stats_event_insert AFTER INSERT ON log_events "
+                        + "WHEN NEW.like_count != 0 OR NEW.comment_count != 0 BEGIN "
+                        + addEvent("NEW", "+")
+                        + "END",
+                "CREATE TRIGGER IF NOT EXISTS trg_stats_event_update "
+                        + "AFTER UPDATE OF log_id, like_count, comment_count ON log_events BEGIN "
+                        + addEvent("OLD", "-")
+                        + addEvent("NEW", "+")
+                        + "END",
+                "CREATE TRIGGER IF NOT EXISTS trg_stats_event_delete AFTER DELETE ON log_events BEGIN "
+                        + addEvent("OLD", "-")
+                        + "END"
+        );
+    }
+
+    @Override
+    protected int getCodeRevision() {
+        return 1;  // Bump when apply changes
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        super.apply(conn);
+        StatsDAO.rebuild(conn);
+    }
+
+    // Add (+) or take away (-) a material row in its log's stats and its owner's stats
+    private static String addMaterial(String row, String sign) {
+        String set = "total_spend = total_spend " + sign + " " + row + ".quantity * " + row + ".price, "
+                + "materials_used = materials_used " + sign + " 1";
+        return "UPDATE log_stats SET " + set + " WHERE log_id = " + row + ".log_id; "
+                + "UPDATE user_stats SET " + set
+                + " WHERE user_id = (SELECT user_id FROM log_stats WHERE log_id = " + row + ".log_id); ";
+    }
+
+    // Add (+) or take away (-) an event's like and comment counts in its log's stats and its owner's stats
+    private static String addEvent(String row, String sign) {
+        String set = "total_likes = total_likes " + sign + " " + row + ".like_count, "
+                + "total_comments = total_comments " + sign + " " + row + ".comment_count";
+        return "UPDATE log_stats SET " + set + " WHERE log_id = " + row + ".log_id; "
+                + "UPDATE user_stats SET " + set
+                + " WHERE user_id = (SELECT user_id FROM log_stats WHERE log_id = " + row + ".log_id); ";
+    }
+}
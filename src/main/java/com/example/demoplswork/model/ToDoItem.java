@@ -0,0 +1,59 @@
+package com.example.demoplswork.model;
+
+/**
+ * The ToDoItem class represents one row of the log_todo_items table.
+ * It has the item ID, the ID of the log it belongs to, the task description and whether it is checked.
+ */
+public class ToDoItem {
+
+    private final int id;
+    private final int logId;
+    private final String task;
+    private final boolean checked;
+
+    /**
+     * Constructs a ToDoItem object.
+     * @param id the ID of the item
+     * @param logId the ID of the log the item belongs to
+     * @param task the task description
+     * @param checked whether the task is completed
+     */
+    public ToDoItem(int id, int logId, String task, boolean checked) {
+        this.id = id;
+        this.logId = logId;
+        this.task = task;
+        this.checked = checked;
+    }
+
+    /**
+     * Gets the ID of the item.
+     * @return the item ID
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the ID of the log the item belongs to.
+     * @return the log ID
+     */
+    public int getLogId() {
+        return logId;
+    }
+
+    /**
+     * Gets the task description.
+     * @return the task
+     */
+    public String getTask() {
+        return task;
+    }
+
+    /**
+     * Checks if the task is completed.
+     * @return true if the task is checked
+     */
+    public boolean isChecked() {
+        return checked;
+    }
+}
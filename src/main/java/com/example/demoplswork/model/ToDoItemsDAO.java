@@ -0,0 +1,245 @@
+package com.example.demoplswork.model;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+/**
+ * The ToDoItemsDAO class stores the to-do items of logs in the log_todo_items table.
+ * It has a method to add an item, which also increases the log's total counter.
+ * It has a method to check or uncheck an item by its ID, which moves the log's completed counter by one.
+ * The log's progress is recalculated from the two counters in the same statement, so a checkbox click costs the same for any number of items.
+ * Every change to an item and to its log's counters runs in one transaction.
+ */
+public class ToDoItemsDAO extends BaseDAO implements IToDoItemsDAO {
+
+    // Move the counters of a log and recalculate its progress from the new values
+    private static final String ADJUST_COUNTERS = "UPDATE logs SET "
+            + "todo_total = todo_total + ?, "
+            + "todo_completed = todo_completed + ?, "
+            + "progress = CASE WHEN todo_total + ? = 0 THEN 0 "
+            + "ELSE (todo_completed + ?) * 100.0 / (todo_total + ?) END "
+            + "WHERE id = ?";
+
+    /**
+     * Add a to-do item to a log
+     * @param logId the ID of the log to add the item to
+     * @param task the description of the item
+     * @param isChecked the status of the item
+     * @return the ID of the new item
+     * @throws SQLException if the log ID is invalid
+     */
+    @Override
+    public int addToDoItem(int logId, String task, boolean isChecked) throws SQLException {
+        if (logId <= 0) {
+            throw new SQLException("Invalid log ID.");
+        }
+        int itemId = -1;
+        try {
+            itemId = transaction(conn -> insertItem(conn, logId, task, isChecked));
+            System.out.println("To-do item added to log " + logId + " with state: " + isChecked);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return itemId;
+    }
+
+    /**
+     * Check or uncheck a to-do item
+     * @param itemId the ID of the item to update
+     * @param isChecked the new status of the item
+     * @return the updated progress of the item's log
+     */
+    @Override
+    public double setToDoItemChecked(int itemId, boolean isChecked) {
+        try {
+            return transaction(conn -> {
+                int logId;
+                try (PreparedStatement pstmt = prepare(conn, "SELECT log_id FROM log_todo_items WHERE id = ?")) {
+                    pstmt.setInt(1, itemId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (!rs.next()) {
+                            return 0.0;
+                        }
+                        logId = rs.getInt("log_id");
+                    }
+                }
+
+                // Only rows whose status actually changes move the counter
+                int changed;
+                try (PreparedStatement pstmt = prepare(conn, 
+                        "UPDATE log_todo_items SET is_checked = ? WHERE id = ? AND is_checked != ?")) {
+                    pstmt.setBoolean(1, isChecked);
+                    pstmt.setInt(2, itemId);
+                    pstmt.setBoolean(3, isChecked);
+                    changed = pstmt.executeUpdate();
+                }
+                if (changed > 0) {
+                    adjustCounters(conn, logId, 0, isChecked ? 1 : -1);
+                }
+
+                double progress = readProgress(conn, logId);
+                System.out.println("Updated to-do item " + itemId + " to " + isChecked + ". Progress: " + progress);
+                return progress;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Find a to-do item in a log by its description
+     * @param logId the ID of the log to search
+     * @param task the description of the item
+     * @return the ID of the first matching item, or -1 if none matches
+     */
+    @Override
+    public int findToDoItemId(int logId, String task) {
+        String query = "SELECT id FROM log_todo_items WHERE log_id = ? AND task = ? ORDER BY id LIMIT 1";
+        try {
+            return read(conn -> {
+                try (PreparedStatement pstmt = prepare(conn, query)) {
+                    pstmt.setInt(1, logId);
+                    pstmt.setString(2, task);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return rs.next() ? rs.getInt("id") : -1;
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    /**
+     * Retrieve the to-do items of a log
+     * @param logId the ID of the log
+     * @return the items in the order they were added
+     */
+    @Override
+    public List<ToDoItem> getToDoItems(int logId) {
+        String query = "SELECT id, log_id, task, is_checked FROM log_todo_items WHERE log_id = ? ORDER BY id";
+        List<ToDoItem> items = new ArrayList<>();
+        try {
+            read(conn -> {
+                try (PreparedStatement pstmt = prepare(conn, query)) {
+                    pstmt.setInt(1, logId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            items.add(toToDoItem(rs));
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return items;
+    }
+
+    /**
+     * Retrieve the to-do items of every log owned by a user in one query
+     * @param userId the ID of the user
+     * @return the items grouped by log ID
+     */
+    @Override
+    public Map<Integer, List<ToDoItem>> getToDoItemsForUser(int userId) {
+        String query = "SELECT id, log_id, task, is_checked FROM log_todo_items "
+                + "WHERE log_id IN (SELECT id FROM logs WHERE user_id = ?) ORDER BY log_id, id";
+        Map<Integer, List<ToDoItem>> itemsByLog = new LinkedHashMap<>();
+        try {
+            read(conn -> {
+                try (PreparedStatement pstmt = prepare(conn, query)) {
+                    pstmt.setInt(1, userId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            ToDoItem item = toToDoItem(rs);
+                            itemsByLog.computeIfAbsent(item.getLogId(), id -> new ArrayList<>()).add(item);
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return itemsByLog;
+    }
+
+    /**
+     * Retrieve the stored progress of a log
+     * @param logId the ID of the log
+     * @return the progress percentage
+     */
+    @Override
+    public double getProgress(int logId) {
+        try {
+            return read(conn -> readProgress(conn, logId));
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Insert an item and count it on its log. The caller owns the transaction.
+     * @param conn the write connection
+     * @param logId the ID of the log
+     * @param task the description of the item
+     * @param isChecked the status of the item
+     * @return the ID of the new item
+     */
+    static int insertItem(Connection conn, int logId, String task, boolean isChecked) throws SQLException {
+        int itemId;
+        try (PreparedStatement pstmt = prepare(conn, 
+                "INSERT INTO log_todo_items(log_id, task, is_checked) VALUES(?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setInt(1, logId);
+            pstmt.setString(2, task);
+            pstmt.setBoolean(3, isChecked);
+            pstmt.executeUpdate();
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                itemId = rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+        adjustCounters(conn, logId, 1, isChecked ? 1 : 0);
+        return itemId;
+    }
+
+    /**
+     * Move the counters of a log and recalculate its progress in one statement.
+     * @param conn the write connection
+     * @param logId the ID of the log
+     * @param totalDelta the change to the total counter
+     * @param completedDelta the change to the completed counter
+     */
+    static void adjustCounters(Connection conn, int logId, int totalDelta, int completedDelta) throws SQLException {
+        try (PreparedStatement pstmt = prepare(conn, ADJUST_COUNTERS)) {
+            pstmt.setInt(1, totalDelta);
+            pstmt.setInt(2, completedDelta);
+            pstmt.setInt(3, totalDelta);
+            pstmt.setInt(4, completedDelta);
+            pstmt.setInt(5, totalDelta);
+            pstmt.setInt(6, logId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Read the progress column of a log
+    private static double readProgress(Connection conn, int logId) throws SQLException {
+        try (PreparedStatement pstmt = prepare(conn, "SELECT progress FROM logs WHERE id = ?")) {
+            pstmt.setInt(1, logId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getDouble("progress") : 0.0;
+            }
+        }
+    }
+
+    // Map the current row of a result set to a ToDoItem
+    private static ToDoItem toToDoItem(ResultSet rs) throws SQLException {
+        return new ToDoItem(rs.getInt("id"), rs.getInt("log_id"), rs.getString("task"), rs.getBoolean("is_checked"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demoplswork.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Migration 3 moves to-do items out of the logs.to_do_items string into the log_todo_items table.
+ * It adds the todo_total and todo_completed counters to logs, then copies every log's items into their own rows
+ * and sets the counters and progress from them. The old column is cleared once its items are copied.
+ * The old format is "task:true,task2:false"; a piece without a true/false suffix is treated as part of the next task,
+ * so tasks that contained a comma are kept whole.
+ */
+public class ToDoItemsMigration extends Migration {
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Move to-do items into log_todo_items with counters on logs";
+    }
+
+    @Override
+    protected List<String> getStatements() {
+        return List.of(
+                "ALTER TABLE logs ADD COLUMN todo_total INTEGER NOT NULL DEFAULT 0",
+                "ALTER TABLE logs ADD COLUMN todo_completed INTEGER NOT NULL DEFAULT 0",
+                "CREATE TABLE IF NOT EXISTS log_todo_items ("
+                        + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                        + "log_id INTEGER NOT NULL,"
+                        + "task TEXT NOT NULL,"
+                        + "is_checked INTEGER NOT NULL DEFAULT 0,"
+                        + "FOREIGN KEY (log_id) REFERENCES logs(id))",
+                "CREATE INDEX IF NOT EXISTS idx_log_todo_items_log_id ON log_todo_items(log_id)",
+                "CREATE INDEX IF NOT EXISTS idx_log_todo_items_log_id_task ON log_todo_items(log_id, task)"
+        );
+    }
+
+    @Override
+    protected int getCodeRevision() {
+        return 1;  // Bump when apply changes
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        super.apply(conn);
+
+        Map<Integer, String> legacyItems = new LinkedHashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT id, to_do_items FROM logs WHERE to_do_items IS NOT NULL AND to_do_items != ''");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                legacyItems.put(rs.getInt("id"), rs.getString("to_do_items"));
+            }
+        }
+
+        for (Map.Entry<Integer, String> entry : legacyItems.entrySet()) {
+            for (String[] item : parseLegacyItems(entry.getValue())) {
+                ToDoItemsDAO.insertItem(conn, entry.getKey(), item[0], Boolean.parseBoolean(item[1]));
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement("UPDATE logs SET to_do_items = NULL WHERE id = ?")) {
+                pstmt.setInt(1, entry.getKey());
+                pstmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Parses the old "task:true,task2:false" format.
+     * @param toDoItemsStr the stored string
+     * @return the items as {task, "true"/"false"} pairs in order
+     */
+    static List<String[]> parseLegacyItems(String toDoItemsStr) {
+        List<String[]> items = new ArrayList<>();
+        StringBuilder pending = new StringBuilder();
+        for (String piece : toDoItemsStr.split(",")) {
+            if (pending.length() > 0) {
+                pending.append(',');
+            }
+            pending.append(piece);
+
+            String text = pending.toString();
+            int colon = text.lastIndexOf(':');
+            String state = colon >= 0 ? text.substring(colon + 1).trim() : "";
+            if (state.equals("true") || state.equals("false")) {
+                String task = text.substring(0, colon).trim();
+                if (!task.isEmpty()) {
+                    items.add(new String[] { task, state });
+                }
+                pending.setLength(0);
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demoplswork.model;
+
+import java.util.List;
+
+/**
+ * Migration 13 adds file_size and file_modified to upload_outbox: the size and modified time a file had when it was
+ * hashed for its content key, so the UploadService can tell a file that was edited since from one that was not.
+ * Rows added before, and rows uploaded under a key given by the caller, have neither.
+ */
+public class UploadFileStampsMigration extends Migration {
+
+    @Override
+    public int getVersion() {
+        return 13;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Record the size and modified time of hashed files in upload_outbox";
+    }
+
+    @Override
+    protected List<String> getStatements() {
+        return List.of(
+                "ALTER TABLE upload_outbox ADD COLUMN file_size INTEGER",
+                "ALTER TABLE upload_outbox ADD COLUMN file_modified INTEGER"
+        );
+    }
+}
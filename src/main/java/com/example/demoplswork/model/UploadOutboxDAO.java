@@ -0,0 +1,190 @@
+package com.example.demoplswork.model;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+/**
+ * The UploadOutboxDAO class keeps the uploads the UploadService has been asked for in the upload_outbox table until they finish.
+ * It has methods to add an upload, list the ones waiting, record the parts of a multipart upload as they are sent,
+ * count failed attempts and remove an upload once its file is in the bucket.
+ * It also records the key of every file in the bucket in media_objects.
+ * A row's parts are deleted with it by a trigger.
+ */
+public class UploadOutboxDAO extends BaseDAO implements IUploadOutboxDAO {
+
+    private static final String SELECT_UPLOADS =
+            "SELECT id, file_path, object_key, multipart_id, attempts, file_size, file_modified FROM upload_outbox";
+
+    @Override
+    public int addUpload(String filePath, String key) throws SQLException {
+        return insertUpload(filePath, key, null, null);
+    }
+
+    @Override
+    public int addUpload(String filePath, String key, long fileSize, long fileModified) throws SQLException {
+        return insertUpload(filePath, key, fileSize, fileModified);
+    }
+
+    // Helper method to add an upload, with the size and modified time of its file if it was hashed
+    private int insertUpload(String filePath, String key, Long fileSize, Long fileModified) throws SQLException {
+        if (filePath == null || filePath.isEmpty() || key == null || key.isEmpty()) {
+            throw new SQLException("File path and key must not be empty.");
+        }
+        return write(conn -> {
+            try (PreparedStatement pstmt = prepare(conn,
+                    "INSERT INTO upload_outbox (file_path, object_key, file_size, file_modified) VALUES (?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, filePath);
+                pstmt.setString(2, key);
+                pstmt.setObject(3, fileSize);
+                pstmt.setObject(4, fileModified);
+                pstmt.executeUpdate();
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    return keys.next() ? keys.getInt(1) : -1;
+                }
+            }
+        });
+    }
+
+    @Override
+    public List<PendingUpload> getPendingUploads() throws SQLException {
+        return read(conn -> readUploads(conn, SELECT_UPLOADS + " ORDER BY id", null));
+    }
+
+    @Override
+    public PendingUpload getPendingUpload(int id) throws SQLException {
+        List<PendingUpload> uploads = read(conn -> readUploads(conn, SELECT_UPLOADS + " WHERE id = ?", id));
+        return uploads.isEmpty() ? null : uploads.get(0);
+    }
+
+    @Override
+    public void setMultipartId(int id, String multipartId) throws SQLException {
+        transaction(conn -> {
+            try (PreparedStatement pstmt = prepare(conn, "UPDATE upload_outbox SET multipart_id = ? WHERE id = ?")) {
+                pstmt.setString(1, multipartId);
+                pstmt.setInt(2, id);
+                pstmt.executeUpdate();
+            }
+            // Parts belong to the multipart upload they were sent in
+            try (PreparedStatement pstmt = prepare(conn, "DELETE FROM upload_outbox_parts WHERE upload_id = ?")) {
+                pstmt.setInt(1, id);
+                pstmt.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void addPart(int id, int partNumber, String etag) throws SQLException {
+        write(conn -> {
+            try (PreparedStatement pstmt = prepare(conn,
+                    "INSERT OR REPLACE INTO upload_outbox_parts (upload_id, part_number, etag) VALUES (?, ?, ?)")) {
+                pstmt.setInt(1, id);
+                pstmt.setInt(2, partNumber);
+                pstmt.setString(3, etag);
+                pstmt.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void recordFailure(int id, String error) throws SQLException {
+        write(conn -> {
+            try (PreparedStatement pstmt = prepare(conn,
+                    "UPDATE upload_outbox SET attempts = attempts + 1, last_error = ? WHERE id = ?")) {
+                pstmt.setString(1, error);
+                pstmt.setInt(2, id);
+                pstmt.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void removeUpload(int id) throws SQLException {
+        write(conn -> {
+            try (PreparedStatement pstmt = prepare(conn, "DELETE FROM upload_outbox WHERE id = ?")) {
+                pstmt.setInt(1, id);
+                pstmt.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public boolean isUploaded(String key) throws SQLException {
+        return read(conn -> {
+            try (PreparedStatement pstmt = prepare(conn, "SELECT 1 FROM media_objects WHERE object_key = ?")) {
+                pstmt.setString(1, key);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void recordUploaded(String key, long size) throws SQLException {
+        write(conn -> {
+            try (PreparedStatement pstmt = prepare(conn, "INSERT OR REPLACE INTO media_objects (object_key, size) VALUES (?, ?)")) {
+                pstmt.setString(1, key);
+                pstmt.setLong(2, size);
+                pstmt.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    // Helper method to read outbox rows and their parts
+    private static List<PendingUpload> readUploads(Connection conn, String sql, Integer id) throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        try (PreparedStatement pstmt = prepare(conn, sql)) {
+            if (id != null) {
+                pstmt.setInt(1, id);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new Object[] { rs.getInt("id"), rs.getString("file_path"), rs.getString("object_key"),
+                            rs.getString("multipart_id"), rs.getInt("attempts"),
+                            longOrNone(rs, "file_size"), longOrNone(rs, "file_modified") });
+                }
+            }
+        }
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Integer, Map<Integer, String>> parts = new HashMap<>();
+        String partsSql = "SELECT upload_id, part_number, etag FROM upload_outbox_parts"
+                + (id != null ? " WHERE upload_id = ?" : "");
+        try (PreparedStatement pstmt = prepare(conn, partsSql)) {
+            if (id != null) {
+                pstmt.setInt(1, id);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    parts.computeIfAbsent(rs.getInt("upload_id"), key -> new TreeMap<>())
+                            .put(rs.getInt("part_number"), rs.getString("etag"));
+                }
+            }
+        }
+
+        List<PendingUpload> uploads = new ArrayList<>();
+        for (Object[] row : rows) {
+            int rowId = (int) row[0];
+            uploads.add(new PendingUpload(rowId, (String) row[1], (String) row[2], (String) row[3],
+                    parts.getOrDefault(rowId, Map.of()), (int) row[4], (long) row[5], (long) row[6]));
+        }
+        return uploads;
+    }
+
+    // Helper method to read a column that may be NULL, as -1
+    private static long longOrNone(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? -1 : value;
+    }
+}
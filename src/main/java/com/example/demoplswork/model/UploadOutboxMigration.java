@@ -0,0 +1,45 @@
+package com.example.demoplswork.model;
+
+import java.util.List;
+
+/**
+ * Migration 11 adds upload_outbox, the uploads the UploadService has been asked for and not finished,
+ * and upload_outbox_parts, the parts of a multipart upload already sent.
+ * A row stays until its file is in the bucket, so uploads still waiting when the app closes are made on the next start,
+ * and a large file carries on from the first part that was not sent.
+ */
+public class UploadOutboxMigration extends Migration {
+
+    @Override
+    public int getVersion() {
+        return 11;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Keep unfinished uploads in upload_outbox";
+    }
+
+    @Override
+    protected List<String> getStatements() {
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS upload_outbox ("
+                        + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                        + "file_path TEXT NOT NULL,"
+                        + "object_key TEXT NOT NULL,"
+                        + "multipart_id TEXT,"
+                        + "attempts INTEGER NOT NULL DEFAULT 0,"
+                        + "last_error TEXT,"
+                        + "created_at TEXT NOT NULL DEFAULT (datetime('now')))",
+                "CREATE TABLE IF NOT EXISTS upload_outbox_parts ("
+                        + "upload_id INTEGER NOT NULL,"
+                        + "part_number INTEGER NOT NULL,"
+                        + "etag TEXT NOT NULL,"
+                        + "PRIMARY KEY (upload_id, part_number),"
+                        + "FOREIGN KEY (upload_id) REFERENCES upload_outbox(id))",
+                "CREATE TRIGGER IF NOT EXISTS trg_upload_outbox_delete AFTER DELETE ON upload_outbox BEGIN "
+                        + "DELETE FROM upload_outbox_parts WHERE upload_id = OLD.id; "
+                        + "END"
+        );
+    }
+}
@@ -0,0 +1,549 @@
+package com.example.demoplswork.model;
+
+import javafx.application.Platform;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * UploadService class uploads the files the user adds to the app's bucket in the background,
+ * so the JavaFX Application Thread never waits for S3.
+ * Uploads run on a fixed number of virtual threads through the shared S3ImageUploader. A file larger than the
+ * multipart threshold is sent in parts, so a failure only costs the part that was being sent.
+ * A failed upload is tried again after the RetryPolicy's backoff, and reported as failed once it has used every attempt.
+ * Every upload is kept in the upload outbox until its file is in the bucket, so uploads still waiting or failed
+ * when the app closes are made on the next start, carrying on from the parts already sent.
+ * A file submitted without a key is uploaded under one made from the hash of its contents (see ContentHash), so a file
+ * already in the bucket, known from media_objects or found with a HEAD request, is not sent again. Its size and
+ * modified time when it was hashed are kept in the outbox, and it is given up if either changes before it is sent.
+ * If the service has a RenditionGenerator, a picture submitted that way also has its smaller Renditions made
+ * and uploaded under their own keys; each is deleted from the generator's directory once it is in the bucket.
+ * Progress, completion and failure are reported to an upload's Listener on a given executor,
+ * the JavaFX Application Thread in the application. A failure says whether the upload is still in the outbox (onFailed)
+ * or will never be made (onAbandoned).
+ */
+public class UploadService {
+    public static final int DEFAULT_WORKERS = Integer.getInteger("hobbylog.uploads.workers", 3);
+    public static final long DEFAULT_MULTIPART_THRESHOLD = Long.getLong("hobbylog.uploads.multipartMegabytes", 16) * 1024 * 1024;
+    public static final int DEFAULT_PART_SIZE = Integer.getInteger("hobbylog.uploads.partMegabytes", 8) * 1024 * 1024;
+
+    private static UploadService instance;
+
+    /**
+     * Receives the progress of an upload. Every method does nothing unless overridden.
+     */
+    public interface Listener {
+        /**
+         * Called when the file has been added to the outbox, before anything else is reported.
+         * @param url the URL the file can be read from once it is uploaded
+         */
+        default void onQueued(String url) {
+        }
+
+        /**
+         * Called as the file is sent, at most once for each percent.
+         * @param sent the number of bytes sent so far
+         * @param total the size of the file
+         */
+        default void onProgress(long sent, long total) {
+        }
+
+        /**
+         * Called once the file is in the bucket.
+         * @param url the URL of the file
+         */
+        default void onComplete(String url) {
+        }
+
+        /**
+         * Called when the upload has failed every attempt. It stays in the outbox and is tried again on the next start.
+         * @param error the last failure
+         */
+        default void onFailed(Exception error) {
+        }
+
+        /**
+         * Called when the file will never be uploaded: it could not be read, or it was deleted or changed
+         * before it was sent. Nothing is left in the outbox, so a URL given to onQueued will never work.
+         * @param error why it was given up
+         */
+        default void onAbandoned(Exception error) {
+        }
+    }
+
+    /**
+     * An upload that has been asked for and not finished.
+     */
+    public final class Upload {
+        private final int id;
+        private final String key;
+        private final Listener listener;
+        private volatile long sent;
+        private volatile long total;
+        private int lastPercent = -1;
+        private int attempts;  // Failed attempts in this run
+
+        private Upload(int id, String key, Listener listener) {
+            this.id = id;
+            this.key = key;
+            this.listener = listener;
+        }
+
+        /**
+         * Gets the ID of the upload's outbox row.
+         * @return the ID
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Gets the key the file is uploaded under.
+         * @return the key
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Gets the URL the file can be read from once it is uploaded.
+         * @return the URL
+         */
+        public String getUrl() {
+            return uploader.getUrl(key);
+        }
+
+        /**
+         * Gets the number of bytes sent so far.
+         * @return the bytes sent
+         */
+        public long getSent() {
+            return sent;
+        }
+
+        /**
+         * Gets the size of the file, once the upload has started.
+         * @return the size, or 0 if it has not started
+         */
+        public long getTotal() {
+            return total;
+        }
+    }
+
+    private final S3ImageUploader uploader;
+    private final IUploadOutboxDAO outbox;
+    private final long multipartThreshold;
+    private final int partSize;
+    private final RetryPolicy retryPolicy;
+    private final Executor callbackExecutor;
+    private final RenditionGenerator renditions;
+    private final ScheduledThreadPoolExecutor workers;
+    private final ExecutorService hashers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Integer, Upload> active = new ConcurrentHashMap<>();  // By outbox ID
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    /**
+     * Constructor for UploadService class. Uploads left in the outbox are not started until resumePending is called.
+     * @param uploader where the files are uploaded
+     * @param outbox where unfinished uploads are kept
+     * @param workers the most uploads running at once
+     * @param multipartThreshold the size above which a file is sent in parts
+     * @param partSize the size of each part but the last
+     * @param retryPolicy how many attempts an upload gets and how long to wait between them
+     * @param callbackExecutor where the listeners are called
+     */
+    public UploadService(S3ImageUploader uploader, IUploadOutboxDAO outbox, int workers, long multipartThreshold,
+                         int partSize, RetryPolicy retryPolicy, Executor callbackExecutor) {
+        this(uploader, outbox, workers, multipartThreshold, partSize, retryPolicy, callbackExecutor, null);
+    }
+
+    /**
+     * Constructor for UploadService class that also uploads the renditions of pictures submitted without a key.
+     * Uploads left in the outbox are not started until resumePending is called.
+     * @param uploader where the files are uploaded
+     * @param outbox where unfinished uploads are kept
+     * @param workers the most uploads running at once
+     * @param multipartThreshold the size above which a file is sent in parts
+     * @param partSize the size of each part but the last
+     * @param retryPolicy how many attempts an upload gets and how long to wait between them
+     * @param callbackExecutor where the listeners are called
+     * @param renditions makes the renditions of pictures, or null for none
+     */
+    public UploadService(S3ImageUploader uploader, IUploadOutboxDAO outbox, int workers, long multipartThreshold,
+                         int partSize, RetryPolicy retryPolicy, Executor callbackExecutor, RenditionGenerator renditions) {
+        if (workers <= 0 || partSize <= 0) {
+            throw new IllegalArgumentException("Workers and part size must be positive: " + workers + ", " + partSize);
+        }
+        this.uploader = uploader;
+        this.outbox = outbox;
+        this.multipartThreshold = multipartThreshold;
+        this.partSize = partSize;
+        this.retryPolicy = retryPolicy;
+        this.callbackExecutor = callbackExecutor;
+        this.renditions = renditions;
+        this.workers = new ScheduledThreadPoolExecutor(workers, Thread.ofVirtual().name("upload-", 0).factory());
+    }
+
+    /**
+     * Gets the service shared by the whole application, uploading through the shared S3ImageUploader
+     * on DEFAULT_WORKERS threads with the renditions made by the shared RenditionGenerator.
+     * The uploads left in the outbox by the last run are started when it is made.
+     * @return the shared service
+     */
+    public static synchronized UploadService getInstance() {
+        if (instance == null) {
+            RenditionGenerator renditions = null;
+            try {
+                renditions = RenditionGenerator.getInstance();
+            } catch (IOException e) {
+                e.printStackTrace();  // Pictures are still uploaded, only at full size
+            }
+            instance = new UploadService(S3ImageUploader.getInstance(), new UploadOutboxDAO(), DEFAULT_WORKERS,
+                    DEFAULT_MULTIPART_THRESHOLD, DEFAULT_PART_SIZE, new RetryPolicy(5, 1000, 60_000), Platform::runLater,
+                    renditions);
+            try {
+                instance.resumePending();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Adds an upload to the outbox and starts it as soon as a worker is free.
+     * @param file the file to upload
+     * @param key the key to upload it under
+     * @param listener told of its progress, or null
+     * @return the upload
+     * @throws SQLException if the upload cannot be added to the outbox
+     */
+    public Upload submit(Path file, String key, Listener listener) throws SQLException {
+        return start(outbox.addUpload(file.toAbsolutePath().toString(), key), key, listener);
+    }
+
+    /**
+     * Hashes a file off the calling thread, then adds it to the outbox under the key made from its contents
+     * and starts it as soon as a worker is free. The listener's onQueued is told its URL once it is in the outbox.
+     * The renditions of a picture are made and added to the outbox after it, and are not reported to the listener.
+     * The file's size and modified time are kept with it, and it is not uploaded if either has changed by then.
+     * @param file the file to upload
+     * @param listener told of its progress, or null
+     * @return completed with the upload once it is in the outbox, or exceptionally (after onAbandoned) if it cannot be added
+     */
+    public CompletableFuture<Upload> submit(Path file, Listener listener) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                long size = Files.size(file);
+                FileTime modified = Files.getLastModifiedTime(file);
+                String key = ContentHash.key(file);
+                if (Files.size(file) != size || !Files.getLastModifiedTime(file).equals(modified)) {
+                    throw new IOException(file + " changed while it was being hashed");
+                }
+                Upload upload = start(outbox.addUpload(file.toAbsolutePath().toString(), key, size, modified.toMillis()),
+                        key, listener);
+                try {
+                    submitRenditions(file, upload.key);
+                } catch (SQLException e) {
+                    // The picture itself is already queued
+                    System.err.println("Error adding renditions of " + upload.key + ", it is only uploaded at full size: " + e);
+                }
+                return upload;
+            } catch (IOException | SQLException e) {
+                System.err.println("Error adding " + file + " to the outbox: " + e);
+                if (listener != null) {
+                    callbackExecutor.execute(() -> listener.onAbandoned(e));
+                }
+                throw new CompletionException(e);
+            }
+        }, hashers);
+    }
+
+    // Helper method to start an upload just added to the outbox
+    private Upload start(int id, String key, Listener listener) {
+        Upload upload = new Upload(id, key, listener);
+        active.put(id, upload);
+        notify(upload, l -> l.onQueued(upload.getUrl()));
+        schedule(upload, 0);
+        return upload;
+    }
+
+    // Helper method to make the renditions of a picture on the generator's workers and upload them, unless they already are
+    private void submitRenditions(Path file, String key) throws SQLException {
+        if (renditions == null || !Rendition.hasRenditions(key)) {
+            return;
+        }
+        boolean uploaded = true;
+        for (Rendition rendition : Rendition.values()) {
+            uploaded &= rendition == Rendition.FULL || outbox.isUploaded(rendition.of(key));
+        }
+        if (uploaded) {
+            return;  // The same picture was posted before
+        }
+        renditions.generate(file, key).whenComplete((files, error) -> {
+            if (error != null) {
+                System.err.println("Error making renditions of " + key + ", it is only uploaded at full size: " + error.getCause());
+                return;
+            }
+            for (Map.Entry<Rendition, Path> entry : files.entrySet()) {
+                try {
+                    submit(entry.getValue(), entry.getKey().of(key), null);
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts every upload in the outbox that is not already running, e.g. those left by the last run.
+     * @return the number of uploads started
+     * @throws SQLException if the outbox cannot be read
+     */
+    public int resumePending() throws SQLException {
+        int count = 0;
+        for (PendingUpload pending : outbox.getPendingUploads()) {
+            Upload upload = new Upload(pending.getId(), pending.getKey(), null);
+            if (active.putIfAbsent(pending.getId(), upload) == null) {
+                schedule(upload, 0);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Stops the workers. Uploads that have not finished stay in the outbox for the next start.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+        hashers.shutdownNow();
+    }
+
+    // Helper method to run an attempt at an upload after a delay
+    private void schedule(Upload upload, long delayMillis) {
+        workers.schedule(() -> attempt(upload), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Helper method run by a worker: make one attempt at an upload, and schedule the next if it fails
+    private void attempt(Upload upload) {
+        try {
+            PendingUpload pending = outbox.getPendingUpload(upload.id);
+            if (pending == null) {
+                active.remove(upload.id);  // Already finished
+                return;
+            }
+            Path file = Path.of(pending.getFilePath());
+            long size = Files.size(file);
+            upload.total = size;
+            if (isAlreadyUploaded(upload.key, size)) {
+                skipped.incrementAndGet();
+                if (pending.getMultipartId() != null) {
+                    uploader.abortMultipartUpload(upload.key, pending.getMultipartId());
+                }
+            } else if (isChangedSinceHashed(pending, file, size)) {
+                // Its contents may no longer be the ones its key, and the URL already given out, were made from
+                abandon(upload, new IOException(file + " changed after it was hashed, so it no longer matches " + upload.key));
+                return;
+            } else if (size > multipartThreshold) {
+                sendParts(upload, pending, file, size);
+            } else {
+                uploader.putObject(upload.key, file, sent -> progress(upload, sent));
+            }
+            if (ContentHash.isContentKey(upload.key)) {
+                outbox.recordUploaded(upload.key, size);
+            }
+            outbox.removeUpload(upload.id);
+            if (renditions != null && renditions.owns(file)) {
+                Files.deleteIfExists(file);  // Made only to be uploaded
+            }
+            active.remove(upload.id);
+            completed.incrementAndGet();
+            progress(upload, size);
+            notify(upload, listener -> listener.onComplete(upload.getUrl()));
+        } catch (NoSuchFileException e) {
+            // The file was deleted or moved before it was uploaded, so it never will be
+            abandon(upload, e);
+        } catch (IOException | SQLException | RuntimeException e) {
+            if (Thread.currentThread().isInterrupted() || workers.isShutdown()) {
+                return;  // Stopped: it stays in the outbox
+            }
+            upload.attempts++;
+            try {
+                outbox.recordFailure(upload.id, e.getMessage());
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+            if (upload.attempts < retryPolicy.getMaxAttempts()) {
+                System.out.println("Upload of " + upload.key + " failed, trying again: " + e.getMessage());
+                retries.incrementAndGet();
+                schedule(upload, retryPolicy.getBackoffMillis(upload.attempts));
+            } else {
+                System.err.println("Error uploading " + upload.key + ", it will be tried again on the next start: " + e.getMessage());
+                active.remove(upload.id);
+                failed.incrementAndGet();
+                notify(upload, listener -> listener.onFailed(e));
+            }
+        }
+    }
+
+    // Helper method to check whether a file named by its contents is in the bucket already, asking S3 only if it is not known
+    private boolean isAlreadyUploaded(String key, long size) throws IOException, SQLException {
+        if (!ContentHash.isContentKey(key)) {
+            return false;  // Another file may have had this name
+        }
+        return outbox.isUploaded(key) || uploader.exists(key, size);
+    }
+
+    // Helper method to check whether a file hashed for its key was edited since, going by its size and modified time
+    private static boolean isChangedSinceHashed(PendingUpload pending, Path file, long size) throws IOException {
+        if (pending.getFileSize() < 0) {
+            return false;  // Its key was not made from its contents here
+        }
+        return size != pending.getFileSize() || Files.getLastModifiedTime(file).toMillis() != pending.getFileModified();
+    }
+
+    // Helper method to send a large file in parts, skipping the parts an earlier attempt already sent
+    private void sendParts(Upload upload, PendingUpload pending, Path file, long size) throws IOException, SQLException {
+        try {
+            sendParts(upload, pending.getMultipartId(), pending.getParts(), file, size);
+        } catch (S3ImageUploader.UploadGoneException e) {
+            // S3 dropped the multipart upload the outbox remembers, e.g. it expired while the app was closed,
+            // and its parts with it, so the file is sent again in a new one
+            outbox.setMultipartId(upload.id, null);
+            sendParts(upload, null, Map.of(), file, size);
+        }
+    }
+
+    // Helper method to send the parts of a file not yet sent in a multipart upload, starting one if multipartId is null
+    private void sendParts(Upload upload, String multipartId, Map<Integer, String> sentParts, Path file, long size)
+            throws IOException, SQLException {
+        Map<Integer, String> parts = new TreeMap<>(sentParts);
+        if (multipartId == null) {
+            multipartId = uploader.createMultipartUpload(upload.key);
+            outbox.setMultipartId(upload.id, multipartId);
+            parts.clear();
+        }
+
+        int count = (int) ((size + partSize - 1) / partSize);
+        long done = 0;
+        for (int partNumber : parts.keySet()) {
+            done += partLength(partNumber, size);
+        }
+        for (int partNumber = 1; partNumber <= count; partNumber++) {
+            if (parts.containsKey(partNumber)) {
+                continue;
+            }
+            int length = partLength(partNumber, size);
+            long before = done;
+            String etag = uploader.uploadPart(upload.key, multipartId, partNumber, file,
+                    (long) (partNumber - 1) * partSize, length, sent -> progress(upload, before + sent));
+            parts.put(partNumber, etag);
+            outbox.addPart(upload.id, partNumber, etag);
+            done += length;
+        }
+        uploader.completeMultipartUpload(upload.key, multipartId, parts);
+    }
+
+    // Helper method to get the length of a part of a file
+    private int partLength(int partNumber, long size) {
+        return (int) Math.min(partSize, size - (long) (partNumber - 1) * partSize);
+    }
+
+    // Helper method to drop an upload that can never be made
+    private void abandon(Upload upload, Exception e) {
+        System.err.println("Error uploading " + upload.key + ", giving up: " + e.getMessage());
+        try {
+            PendingUpload pending = outbox.getPendingUpload(upload.id);
+            if (pending != null && pending.getMultipartId() != null) {
+                uploader.abortMultipartUpload(upload.key, pending.getMultipartId());
+            }
+            outbox.removeUpload(upload.id);
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+        active.remove(upload.id);
+        failed.incrementAndGet();
+        notify(upload, listener -> listener.onAbandoned(e));
+    }
+
+    // Helper method to report progress, at most once for each percent
+    private void progress(Upload upload, long sent) {
+        upload.sent = sent;
+        long total = upload.total;
+        int percent = total > 0 ? (int) (sent * 100 / total) : 100;
+        synchronized (upload) {
+            if (percent == upload.lastPercent) {
+                return;
+            }
+            upload.lastPercent = percent;
+        }
+        notify(upload, listener -> listener.onProgress(sent, total));
+    }
+
+    // Helper method to call an upload's listener, if it has one, on the callback executor
+    private void notify(Upload upload, Consumer<Listener> call) {
+        if (upload.listener != null) {
+            callbackExecutor.execute(() -> call.accept(upload.listener));
+        }
+    }
+
+    /**
+     * Gets the uploads that have been asked for and not finished or failed in this run.
+     * @return the number of uploads
+     */
+    public int getActive() {
+        return active.size();
+    }
+
+    /**
+     * Gets the number of uploads finished.
+     * @return the number of uploads finished
+     */
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    /**
+     * Gets the number of uploads finished without sending anything, because the file was in the bucket already.
+     * @return the number of uploads skipped
+     */
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    /**
+     * Gets the number of uploads that failed every attempt or were given up.
+     * @return the number of uploads failed
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * Gets the number of attempts made again after a failure.
+     * @return the number of retries
+     */
+    public long getRetries() {
+        return retries.get();
+    }
+}
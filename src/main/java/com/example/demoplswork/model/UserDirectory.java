@@ -0,0 +1,251 @@
+package com.example.demoplswork.model;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * UserDirectory class is a shared, bounded cache of user details (name, bio and photo) by user ID.
+ * Screens that show many posts or comments look their authors up here instead of querying users and user_profiles per row.
+ * Entries are kept in least recently used order up to a maximum size, and each entry expires after a time to live.
+ * Missing users are read from the database in batches through ContactDAO.getContactsByIds.
+ * ContactDAO and ProfileDAO invalidate a user's entry whenever they change that user.
+ * Each lookup returns a new Contact, so callers may change it without affecting the cache.
+ */
+public class UserDirectory {
+    public static final int DEFAULT_MAX_SIZE = Integer.getInteger("hobbylog.users.cacheSize", 1024);
+    public static final long DEFAULT_TTL_MILLIS = Long.getLong("hobbylog.users.cacheTtlSeconds", 300) * 1000;
+
+    private static UserDirectory instance;
+
+    /**
+     * One cached user. Entries are never changed once made.
+     */
+    private static final class Entry {
+        private final int id;
+        private final String firstName;
+        private final String lastName;
+        private final String bio;
+        private final String photo;
+        private final long expiresAt;
+
+        private Entry(Contact contact, long expiresAt) {
+            this.id = contact.getId();
+            this.firstName = contact.getFirstName();
+            this.lastName = contact.getLastName();
+            this.bio = contact.getBio();
+            this.photo = contact.getPhoto();
+            this.expiresAt = expiresAt;
+        }
+
+        private Contact toContact() {
+            Contact contact = new Contact(firstName, lastName, bio, photo);
+            contact.setId(id);
+            return contact;
+        }
+    }
+
+    private final ContactDAO contactDAO;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<Integer, Entry> entries;
+    private long invalidations = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Constructor for UserDirectory class, using the default size, time to live and the system clock.
+     * @param contactDAO the DAO that missing users are read through
+     */
+    public UserDirectory(ContactDAO contactDAO) {
+        this(contactDAO, DEFAULT_MAX_SIZE, DEFAULT_TTL_MILLIS, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor for UserDirectory class.
+     * @param contactDAO the DAO that missing users are read through
+     * @param maxSize the maximum number of users kept
+     * @param ttlMillis how long an entry is used before it is read again
+     * @param clock the current time in milliseconds
+     */
+    public UserDirectory(ContactDAO contactDAO, int maxSize, long ttlMillis, LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.contactDAO = contactDAO;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                return size() > UserDirectory.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the directory shared by the whole application.
+     * @return the shared directory
+     */
+    public static synchronized UserDirectory getInstance() {
+        if (instance == null) {
+            instance = new UserDirectory(new ContactDAO());
+        }
+        return instance;
+    }
+
+    /**
+     * Invalidates a user in the shared directory, if it has been created.
+     * @param userId the ID of the user that changed
+     */
+    static void invalidateShared(int userId) {
+        UserDirectory directory;
+        synchronized (UserDirectory.class) {
+            directory = instance;
+        }
+        if (directory != null) {
+            directory.invalidate(userId);
+        }
+    }
+
+    /**
+     * Clears the shared directory, if it has been created, e.g. when the database connection is replaced.
+     */
+    static void clearShared() {
+        UserDirectory directory;
+        synchronized (UserDirectory.class) {
+            directory = instance;
+        }
+        if (directory != null) {
+            directory.clear();
+        }
+    }
+
+    /**
+     * Gets one user.
+     * @param userId the ID of the user
+     * @return the user, or null if there is no such user
+     */
+    public Contact getContact(int userId) {
+        return getContacts(List.of(userId)).get(userId);
+    }
+
+    /**
+     * Gets many users at once. Users that are not cached, or whose entry has expired, are read in batches.
+     * @param userIds the IDs of the users
+     * @return the users found, by user ID; IDs with no user are left out
+     */
+    public Map<Integer, Contact> getContacts(Collection<Integer> userIds) {
+        Map<Integer, Contact> found = new HashMap<>();
+        Set<Integer> missing = new LinkedHashSet<>();
+        long generation;
+        synchronized (this) {
+            long now = clock.getAsLong();
+            for (Integer userId : userIds) {
+                if (found.containsKey(userId) || missing.contains(userId)) {
+                    continue;
+                }
+                Entry entry = entries.get(userId);
+                if (entry != null && entry.expiresAt > now) {
+                    found.put(userId, entry.toContact());
+                    hits++;
+                } else {
+                    if (entry != null) {
+                        entries.remove(userId);
+                    }
+                    missing.add(userId);
+                    misses++;
+                }
+            }
+            generation = invalidations;
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        Map<Integer, Contact> loaded = contactDAO.getContactsByIds(missing);
+        synchronized (this) {
+            // Only cache what was read if no user was changed while it was being read
+            boolean fresh = generation == invalidations;
+            long expiresAt = clock.getAsLong() + ttlMillis;
+            for (Contact contact : loaded.values()) {
+                Entry entry = new Entry(contact, expiresAt);
+                if (fresh) {
+                    entries.put(contact.getId(), entry);
+                }
+                found.put(contact.getId(), entry.toContact());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Removes a user, so the next lookup reads them from the database again.
+     * @param userId the ID of the user that changed
+     */
+    public synchronized void invalidate(int userId) {
+        entries.remove(userId);
+        invalidations++;
+    }
+
+    /**
+     * Removes every user.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        invalidations++;
+    }
+
+    /**
+     * Gets the number of users cached, including expired entries not yet removed.
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes expired entries.
+     * @return the number of entries removed
+     */
+    public synchronized int evictExpired() {
+        long now = clock.getAsLong();
+        int removed = 0;
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+            if (it.next().expiresAt <= now) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache.
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that had to read the database.
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "UserDirectory[size=" + entries.size() + "/" + maxSize + ", hits=" + hits + ", misses=" + misses + "]";
+    }
+}
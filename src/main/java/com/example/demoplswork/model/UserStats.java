@@ -0,0 +1,86 @@
+package com.example.demoplswork.model;
+
+/**
+ * UserStats class holds every dashboard metric for one user, read together by LogsDAO.getUserStats.
+ * LogsDAO.getLogStats returns the same metrics for one log, where projects completed is 1 if the log is complete.
+ * It has fields for the total spend, tasks completed, projects completed, materials used, likes and comments.
+ * It has getter methods for each field.
+ */
+public final class UserStats {
+    private final double totalSpend;
+    private final int tasksCompleted;
+    private final int projectsCompleted;
+    private final int materialsUsed;
+    private final int totalLikes;
+    private final int totalComments;
+
+    /**
+     * Constructor for UserStats class.
+     * @param totalSpend The total spend on materials across the user's logs.
+     * @param tasksCompleted The number of completed to-do items.
+     * @param projectsCompleted The number of logs whose to-do items are all completed.
+     * @param materialsUsed The number of materials across the user's logs.
+     * @param totalLikes The number of likes on the events in the user's logs.
+     * @param totalComments The number of comments on the events in the user's logs.
+     */
+    public UserStats(double totalSpend, int tasksCompleted, int projectsCompleted, int materialsUsed,
+                     int totalLikes, int totalComments) {
+        this.totalSpend = totalSpend;
+        this.tasksCompleted = tasksCompleted;
+        this.projectsCompleted = projectsCompleted;
+        this.materialsUsed = materialsUsed;
+        this.totalLikes = totalLikes;
+        this.totalComments = totalComments;
+    }
+
+    /**
+     * Getter method for the total spend.
+     */
+    public double getTotalSpend() {
+        return totalSpend;
+    }
+
+    /**
+     * Getter method for the number of completed tasks.
+     */
+    public int getTasksCompleted() {
+        return tasksCompleted;
+    }
+
+    /**
+     * Getter method for the number of completed projects.
+     */
+    public int getProjectsCompleted() {
+        return projectsCompleted;
+    }
+
+    /**
+     * Getter method for the number of materials used.
+     */
+    public int getMaterialsUsed() {
+        return materialsUsed;
+    }
+
+    /**
+     * Getter method for the total number of likes.
+     */
+    public int getTotalLikes() {
+        return totalLikes;
+    }
+
+    /**
+     * Getter method for the total number of comments.
+     */
+    public int getTotalComments() {
+        return totalComments;
+    }
+
+    /**
+     * toString method to return a string representation of the stats.
+     */
+    @Override
+    public String toString() {
+        return "UserStats[spend=" + totalSpend + ", tasks=" + tasksCompleted + ", projects=" + projectsCompleted
+                + ", materials=" + materialsUsed + ", likes=" + totalLikes + ", comments=" + totalComments + "]";
+    }
+}
@@ -3,8 +3,11 @@ module com.example.demoplswork {
     requires javafx.fxml;
     requires java.sql;
     requires java.desktop;
+    requires java.net.http;
     requires javafx.media;
     requires software.amazon.awssdk.auth;
+    requires software.amazon.awssdk.core;
+    requires software.amazon.awssdk.http;
     requires software.amazon.awssdk.regions;
     requires software.amazon.awssdk.services.s3;
 
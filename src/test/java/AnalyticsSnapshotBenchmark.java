@@ -0,0 +1,148 @@
+import com.example.demoplswork.events.LogEvent;
+import com.example.demoplswork.events.LogEventDAO;
+import com.example.demoplswork.events.ToDoEvent;
+import com.example.demoplswork.model.AnalyticsSnapshot;
+import com.example.demoplswork.model.BaseDAO;
+import com.example.demoplswork.model.Logs;
+import com.example.demoplswork.model.LogsDAO;
+import com.example.demoplswork.model.Material;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Benchmark for the dashboard trends: total spend and tasks completed per week over the last year.
+ * Compares the object loops Analytics used before (load every log and event as objects, then sum and group boxed values)
+ * with an AnalyticsSnapshot that is refreshed incrementally and aggregated with ColumnKernels.
+ * Both are timed per dashboard visit, including the database reads each needs.
+ * Run with: java AnalyticsSnapshotBenchmark [materials] [events] [iterations]
+ */
+public class AnalyticsSnapshotBenchmark {
+
+    private static final int LOGS = 200;
+    private static final int WEEKS = 52;
+
+    public static void main(String[] args) throws Exception {
+        int materials = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int events = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        LogsDAO logsDAO = new LogsDAO();
+        LogEventDAO logEventDAO = new LogEventDAO();
+        BaseDAO.setConnection(conn);
+        TestDatabase.createSchema(logsDAO, conn);
+        LocalDate today = LocalDate.now();
+        insertRows(conn, logsDAO, today, materials, events);
+
+        LocalDate from = today.minusWeeks(WEEKS - 1);
+        AnalyticsSnapshot snapshot = new AnalyticsSnapshot(1);
+        long loadStart = System.nanoTime();
+        snapshot.refresh();
+        System.out.printf("snapshot first load: %d ms, rows %s%n", (System.nanoTime() - loadStart) / 1_000_000, snapshot);
+
+        for (int i = 0; i < 3; i++) {  // Warm up
+            objectLoops(logsDAO, logEventDAO, from);
+            snapshotKernels(snapshot, from);
+        }
+
+        System.out.println("iteration, object loops us, snapshot us");
+        long objectTotal = 0;
+        long snapshotTotal = 0;
+        for (int i = 1; i <= iterations; i++) {
+            long start = System.nanoTime();
+            double objectResult = objectLoops(logsDAO, logEventDAO, from);
+            long objectNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            double snapshotResult = snapshotKernels(snapshot, from);
+            long snapshotNanos = System.nanoTime() - start;
+
+            if (Math.abs(objectResult - snapshotResult) > 0.01) {
+                throw new IllegalStateException("Results differ: " + objectResult + " vs " + snapshotResult);
+            }
+            objectTotal += objectNanos;
+            snapshotTotal += snapshotNanos;
+            System.out.printf("%d, %d, %d%n", i, objectNanos / 1000, snapshotNanos / 1000);
+        }
+        System.out.printf("average: object loops %d us, snapshot %d us (%.1fx)%n", objectTotal / iterations / 1000,
+                snapshotTotal / iterations / 1000, (double) objectTotal / snapshotTotal);
+
+        BaseDAO.setConnection(null);
+        conn.close();
+    }
+
+    // The old way: every log and event as objects, summed and grouped with boxed values
+    private static double objectLoops(LogsDAO logsDAO, LogEventDAO logEventDAO, LocalDate from) throws Exception {
+        double totalSpend = 0;
+        for (Object[] logData : logsDAO.getLogsForUser(1)) {
+            for (Material material : ((Logs) logData[1]).getMaterials()) {
+                totalSpend += material.getQuantity() * material.getPrice();
+            }
+        }
+        Map<Long, Integer> tasksByWeek = new HashMap<>();
+        for (LogEvent event : logEventDAO.getLogEventsForUser(1)) {
+            if (event instanceof ToDoEvent) {
+                long day = ChronoUnit.DAYS.between(from, LocalDate.parse(event.getTimestamp()));
+                if (day >= 0 && day < WEEKS * 7) {
+                    tasksByWeek.merge(day / 7, 1, Integer::sum);
+                }
+            }
+        }
+        int tasks = 0;
+        for (int count : tasksByWeek.values()) {
+            tasks += count;
+        }
+        return totalSpend + tasks;
+    }
+
+    // The new way: pick up new rows, then run the kernels over the columns
+    private static double snapshotKernels(AnalyticsSnapshot snapshot, LocalDate from) throws Exception {
+        snapshot.refresh();
+        double totalSpend = snapshot.getTotalSpend();
+        int tasks = 0;
+        for (int count : snapshot.getEventsByBucket(AnalyticsSnapshot.TODO, (int) from.toEpochDay(), 7, WEEKS)) {
+            tasks += count;
+        }
+        return totalSpend + tasks;
+    }
+
+    private static void insertRows(Connection conn, LogsDAO logsDAO, LocalDate today, int materials, int events) throws Exception {
+        for (int i = 0; i < LOGS; i++) {
+            logsDAO.insertLog(1, new Logs("Log " + i, new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+        }
+        String[] types = {"ToDoEvent", "ToDoEvent", "MaterialEvent", "ImageEvent", "StartEvent"};
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO log_materials (log_id, position, name, quantity, price, created_at) VALUES (?, ?, 'Wood', ?, ?, ?)")) {
+            for (int i = 0; i < materials; i++) {
+                stmt.setInt(1, 1 + i % LOGS);
+                stmt.setInt(2, i / LOGS);
+                stmt.setInt(3, 1 + i % 5);
+                stmt.setDouble(4, (i % 100) / 4.0);
+                stmt.setString(5, today.minusDays(i % 365).toString());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO log_events (timestamp, description, user_id, log_id, event_type) VALUES (?, ?, 1, ?, ?)")) {
+            for (int i = 0; i < events; i++) {
+                stmt.setString(1, today.minusDays(i % 365).toString());
+                stmt.setString(2, "Event " + i);
+                stmt.setInt(3, 1 + i % LOGS);
+                stmt.setString(4, types[i % types.length]);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        conn.commit();
+        conn.setAutoCommit(true);
+    }
+}
@@ -0,0 +1,145 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.events.LogEventDAO;
+import com.example.demoplswork.events.StartEvent;
+import com.example.demoplswork.events.ToDoEvent;
+import com.example.demoplswork.model.Analytics;
+import com.example.demoplswork.model.AnalyticsSnapshot;
+import com.example.demoplswork.model.BaseDAO;
+import com.example.demoplswork.model.Logs;
+import com.example.demoplswork.model.LogsDAO;
+import com.example.demoplswork.model.Material;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+public class AnalyticsSnapshotTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 5, 6);
+
+    private Connection connection;
+    private LogsDAO logsDAO;
+    private LogEventDAO logEventDAO;
+    private int logId;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        logsDAO = new LogsDAO();
+        logEventDAO = new LogEventDAO();
+        BaseDAO.setConnection(connection);
+        TestDatabase.createSchema(logsDAO, connection);
+
+        logId = logsDAO.insertLog(1, new Logs("Birdhouse", new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+        int otherLogId = logsDAO.insertLog(2, new Logs("Kite", new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+        insertMaterial(logId, 2, 12.5, MONDAY);
+        insertMaterial(logId, 1, 8.0, MONDAY.plusDays(2));
+        insertMaterial(logId, 40, 0.1, MONDAY.plusDays(9));
+        insertMaterial(otherLogId, 1, 100.0, MONDAY);
+
+        logEventDAO.insertLogEvent(new StartEvent(0, 1, logId, "Birdhouse", MONDAY.toString(), 0, 0, false));
+        logEventDAO.insertLogEvent(new ToDoEvent(0, 1, logId, "Cut panels", MONDAY.plusDays(1).toString(), 0, 0, false));
+        logEventDAO.insertLogEvent(new ToDoEvent(0, 1, logId, "Sand", MONDAY.plusDays(6).toString(), 0, 0, false));
+        logEventDAO.insertLogEvent(new ToDoEvent(0, 1, logId, "Paint", MONDAY.plusDays(7).toString(), 0, 0, false));
+        logEventDAO.insertLogEvent(new ToDoEvent(0, 2, otherLogId, "Fly", MONDAY.toString(), 0, 0, false));
+    }
+
+    private void insertMaterial(int logId, int quantity, double price, LocalDate day) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO log_materials (log_id, position, name, quantity, price, created_at) VALUES (?, 0, 'Wood', ?, ?, ?)")) {
+            stmt.setInt(1, logId);
+            stmt.setInt(2, quantity);
+            stmt.setDouble(3, price);
+            stmt.setString(4, day.toString());
+            stmt.executeUpdate();
+        }
+    }
+
+    @Test
+    public void testColumnsHoldOnlyTheUsersRows() throws SQLException {
+        AnalyticsSnapshot snapshot = new AnalyticsSnapshot(1);
+
+        assertEquals(7, snapshot.refresh());
+        assertArrayEquals(new int[] { 3, 4, 0 }, snapshot.getRowCounts());
+        assertEquals(37.0, snapshot.getTotalSpend(), 0.0001);
+    }
+
+    @Test
+    public void testTrendsByDayAndWeek() throws SQLException {
+        Analytics analytics = new Analytics();
+
+        double[] spend = analytics.calculateSpendByDay(1, MONDAY, 3);
+        int[] tasks = analytics.calculateTasksCompletedByWeek(1, MONDAY.plusDays(3), 2);
+
+        assertArrayEquals(new double[] { 25.0, 0.0, 8.0 }, spend, 0.0001);
+        assertArrayEquals(new int[] { 2, 1 }, tasks);  // Weeks start on Monday
+    }
+
+    @Test
+    public void testRollingSpendHasFullWindowsFromTheFirstDay() throws SQLException {
+        Analytics analytics = new Analytics();
+
+        double[] rolling = analytics.calculateRollingSpend(1, MONDAY.plusDays(6), 4, 7);
+
+        // Windows ending on days 6 to 9: day 0 drops out at day 7, day 2 at day 9, and day 9 adds 4.0
+        assertArrayEquals(new double[] { 33.0, 8.0, 8.0, 4.0 }, rolling, 0.0001);
+    }
+
+    @Test
+    public void testLikesByDay() throws SQLException {
+        int eventId = logEventDAO.getLogEventsForLog(logId).get(0).getId();
+        logEventDAO.likeEvent(eventId, 2);
+        logEventDAO.likeEvent(eventId, 3);
+
+        int[] likes = new Analytics().calculateLikesByDay(1, LocalDate.now().minusDays(1), 2);
+
+        assertArrayEquals(new int[] { 0, 2 }, likes);
+    }
+
+    @Test
+    public void testRefreshReadsOnlyNewRows() throws SQLException {
+        AnalyticsSnapshot snapshot = new AnalyticsSnapshot(1);
+        snapshot.refresh();
+
+        assertEquals(0, snapshot.refresh());
+        logsDAO.addMaterial(logId, new Material("Nails", 10, 0.5));
+        assertEquals(1, snapshot.refresh());
+        assertEquals(42.0, snapshot.getTotalSpend(), 0.0001);
+        assertEquals(5.0, snapshot.getSpendByBucket((int) LocalDate.now().toEpochDay(), 1, 1)[0], 0.0001);
+    }
+
+    @Test
+    public void testDeletedRowsAreReadAgain() throws SQLException {
+        AnalyticsSnapshot snapshot = new AnalyticsSnapshot(1);
+        snapshot.refresh();
+
+        logsDAO.deleteLog(logId);
+        snapshot.refresh();
+
+        assertEquals(0.0, snapshot.getTotalSpend(), 0.0001);
+        assertEquals(0, snapshot.getRowCounts()[0]);
+    }
+
+    @Test
+    public void testSnapshotIsSharedBetweenAnalytics() throws SQLException {
+        AnalyticsSnapshot snapshot = new Analytics().getSnapshot(1);
+
+        assertSame(snapshot, new Analytics().getSnapshot(1));
+        assertEquals(0, snapshot.refresh());
+        assertNotSame(snapshot, new Analytics().getSnapshot(2));
+    }
+
+    @Test
+    public void testSnapshotsAreClearedWithTheConnection() throws SQLException {
+        AnalyticsSnapshot snapshot = new Analytics().getSnapshot(1);
+        BaseDAO.setConnection(connection);
+
+        assertNotSame(snapshot, new Analytics().getSnapshot(1));
+    }
+}
@@ -0,0 +1,140 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.events.LogEvent;
+import com.example.demoplswork.events.LogEventDAO;
+import com.example.demoplswork.events.StartEvent;
+import com.example.demoplswork.model.Analytics;
+import com.example.demoplswork.model.BaseDAO;
+import com.example.demoplswork.model.LogCounts;
+import com.example.demoplswork.model.Logs;
+import com.example.demoplswork.model.LogsDAO;
+import com.example.demoplswork.model.Material;
+import com.example.demoplswork.model.StatementCache;
+import com.example.demoplswork.model.UserStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+public class AnalyticsTest {
+
+    private Analytics analytics;
+    private int doneLogId;
+    private int openLogId;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        LogsDAO logsDAO = new LogsDAO();
+        LogEventDAO logEventDAO = new LogEventDAO();
+        BaseDAO.setConnection(connection);
+        TestDatabase.createSchema(logsDAO, connection);
+        analytics = new Analytics();
+
+        // A finished log: both tasks done, two materials
+        doneLogId = logsDAO.insertLog(1, new Logs("Birdhouse", new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+        logsDAO.addToDoItem(doneLogId, "Cut panels", true);
+        logsDAO.addToDoItem(doneLogId, "Paint", true);
+        logsDAO.addMaterial(doneLogId, new Material("Plywood", 2, 12.5));
+        logsDAO.addMaterial(doneLogId, new Material("Paint", 1, 8.0));
+
+        // An unfinished log: one of three tasks done, one material
+        openLogId = logsDAO.insertLog(1, new Logs("Bookshelf", new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+        logsDAO.addToDoItem(openLogId, "Sand", true);
+        logsDAO.addToDoItem(openLogId, "Assemble", false);
+        logsDAO.addToDoItem(openLogId, "Varnish", false);
+        logsDAO.addMaterial(openLogId, new Material("Screws", 40, 0.1));
+
+        // A log with no tasks is not a completed project
+        logsDAO.insertLog(1, new Logs("Ideas", new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+
+        // Another user's log is not counted
+        int other = logsDAO.insertLog(2, new Logs("Kite", new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+        logsDAO.addToDoItem(other, "Fly", true);
+        logsDAO.addMaterial(other, new Material("String", 1, 3.0));
+
+        logEventDAO.insertLogEvent(new StartEvent(0, 1, doneLogId, "Started Birdhouse"));
+        logEventDAO.insertLogEvent(new StartEvent(0, 1, openLogId, "Started Bookshelf"));
+        logEventDAO.insertLogEvent(new StartEvent(0, 2, other, "Started Kite"));
+        for (LogEvent event : logEventDAO.getLogEventsForUser(1)) {
+            logEventDAO.likeEvent(event.getId(), 2);
+            logEventDAO.addComment(event.getId(), 2, "Nice");
+        }
+        logEventDAO.likeEvent(logEventDAO.getLogEventsForLog(doneLogId).get(0).getId(), 3);
+        logEventDAO.likeEvent(logEventDAO.getLogEventsForUser(2).get(0).getId(), 1);
+    }
+
+    @Test
+    public void testUserStatsCombinesEveryMetric() {
+        UserStats stats = analytics.getUserStats(1);
+
+        assertEquals(37.0, stats.getTotalSpend(), 0.0001);
+        assertEquals(3, stats.getTasksCompleted());
+        assertEquals(1, stats.getProjectsCompleted());
+        assertEquals(3, stats.getMaterialsUsed());
+        assertEquals(3, stats.getTotalLikes());
+        assertEquals(2, stats.getTotalComments());
+    }
+
+    @Test
+    public void testPerMetricMethodsMatchUserStats() {
+        UserStats stats = analytics.getUserStats(1);
+
+        assertEquals(stats.getTotalSpend(), analytics.calculateTotalSpend(1), 0.0001);
+        assertEquals(stats.getTasksCompleted(), analytics.calculateTasksCompleted(1));
+        assertEquals(stats.getProjectsCompleted(), analytics.calculateProjectsCompleted(1));
+        assertEquals(stats.getMaterialsUsed(), analytics.calculateMaterialsUsed(1));
+        assertEquals(stats.getTotalLikes(), analytics.calculateTotalLikes(1));
+        assertEquals(stats.getTotalComments(), analytics.calculateTotalComments(1));
+    }
+
+    @Test
+    public void testUserStatsIsOneStatement() {
+        StatementCache cache = BaseDAO.getStatementCache();
+        long before = cache.getHits() + cache.getMisses();
+
+        analytics.getUserStats(1);
+
+        assertEquals(1, cache.getHits() + cache.getMisses() - before);
+    }
+
+    @Test
+    public void testPerLogMethodsReadLogStats() {
+        assertEquals(33.0, analytics.calculateLogCost(doneLogId), 0.0001);
+        assertEquals(2, analytics.calculateTotalLikesForLog(doneLogId));
+        assertEquals(1, analytics.calculateTotalCommentsForLog(doneLogId));
+        assertEquals(4.0, analytics.calculateLogCost(openLogId), 0.0001);
+        assertEquals(1, analytics.calculateTotalLikesForLog(openLogId));
+        assertEquals(1, analytics.calculateTotalCommentsForLog(openLogId));
+    }
+
+    @Test
+    public void testLikesCommentsForAllLogsInOneStatement() {
+        StatementCache cache = BaseDAO.getStatementCache();
+        long before = cache.getHits() + cache.getMisses();
+
+        LogCounts counts = analytics.calculateLikesCommentsForLogs(1);
+
+        assertEquals(1, cache.getHits() + cache.getMisses() - before);
+        assertEquals(3, counts.size());  // Including the log with no events
+        for (int logId : new int[] { doneLogId, openLogId }) {
+            assertEquals(analytics.calculateTotalLikesForLog(logId), counts.getLikes(logId));
+            assertEquals(analytics.calculateTotalCommentsForLog(logId), counts.getComments(logId));
+        }
+    }
+
+    @Test
+    public void testUserWithNoLogsHasZeroStats() {
+        UserStats stats = analytics.getUserStats(99);
+
+        assertEquals(0.0, stats.getTotalSpend(), 0.0001);
+        assertEquals(0, stats.getTasksCompleted());
+        assertEquals(0, stats.getProjectsCompleted());
+        assertEquals(0, stats.getMaterialsUsed());
+        assertEquals(0, stats.getTotalLikes());
+        assertEquals(0, stats.getTotalComments());
+    }
+}
@@ -0,0 +1,161 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.AsyncDAO;
+import com.example.demoplswork.model.BaseDAO;
+import com.example.demoplswork.model.Logs;
+import com.example.demoplswork.model.LogsDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class AsyncDAOTest {
+
+    /**
+     * A DAO with a query that only ends when it is interrupted.
+     */
+    static class SlowDAO extends BaseDAO {
+        long countForever() throws SQLException {
+            return read(conn -> {
+                try (PreparedStatement pstmt = prepare(conn,
+                        "WITH RECURSIVE c(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM c) SELECT count(*) FROM c")) {
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return rs.next() ? rs.getLong(1) : 0;
+                    }
+                }
+            });
+        }
+
+        long countTo(long n) throws SQLException {
+            return read(conn -> {
+                try (PreparedStatement pstmt = prepare(conn,
+                        "WITH RECURSIVE c(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM c WHERE x < ?) SELECT count(*) FROM c")) {
+                    pstmt.setLong(1, n);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return rs.next() ? rs.getLong(1) : 0;
+                    }
+                }
+            });
+        }
+    }
+
+    private LogsDAO logsDAO;
+    private int logId;
+    private final List<Runnable> handedOver = new CopyOnWriteArrayList<>();
+    private final Executor fxExecutor = task -> {
+        handedOver.add(task);
+        task.run();
+    };
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        logsDAO = new LogsDAO();
+        BaseDAO.setConnection(connection);
+        logsDAO.createLogsTable();
+        logId = logsDAO.insertLog(1, new Logs("Birdhouse", new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+    }
+
+    @Test
+    public void testSupplyRunsOffTheCallingThread() throws Exception {
+        AsyncDAO<LogsDAO> async = new AsyncDAO<>(logsDAO, 5, fxExecutor);
+
+        CompletableFuture<Boolean> virtual = async.supply(dao -> Thread.currentThread().isVirtual());
+
+        assertTrue(virtual.get(5, TimeUnit.SECONDS));
+        assertEquals("Birdhouse", async.supply(dao -> dao.getLogNameById(logId)).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testLoadHandsResultToFxExecutor() throws Exception {
+        AsyncDAO<LogsDAO> async = new AsyncDAO<>(logsDAO, 5, fxExecutor);
+        CountDownLatch done = new CountDownLatch(1);
+        List<String> shown = new ArrayList<>();
+
+        async.load(dao -> dao.getLogNameById(logId), name -> {
+            shown.add(name);
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("Birdhouse"), shown);
+        assertEquals(1, handedOver.size());
+    }
+
+    @Test
+    @Timeout(20)
+    public void testTimeoutInterruptsRunningQuery() throws Exception {
+        AsyncDAO<SlowDAO> async = new AsyncDAO<>(new SlowDAO(), 1, fxExecutor);
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> async.supply(SlowDAO::countForever).get(10, TimeUnit.SECONDS));
+
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        // The connection is free again once the query has been interrupted
+        assertEquals("Birdhouse", new AsyncDAO<>(logsDAO, 5, fxExecutor)
+                .supply(dao -> dao.getLogNameById(logId)).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @Timeout(20)
+    public void testCancelInterruptsRunningQuery() throws Exception {
+        AsyncDAO<SlowDAO> async = new AsyncDAO<>(new SlowDAO(), 0, fxExecutor);
+        List<Long> shown = new CopyOnWriteArrayList<>();
+        CompletableFuture<Long> future = async.load(SlowDAO::countForever, shown::add);
+
+        Thread.sleep(200);
+        assertTrue(future.cancel(true));
+
+        assertTrue(future.isCancelled());
+        assertEquals("Birdhouse", new AsyncDAO<>(logsDAO, 5, fxExecutor)
+                .supply(dao -> dao.getLogNameById(logId)).get(5, TimeUnit.SECONDS));
+        assertTrue(shown.isEmpty());
+    }
+
+    @Test
+    @Timeout(20)
+    public void testCancelAfterTheQueryLeavesOtherReadsAlone() throws Exception {
+        AsyncDAO<LogsDAO> async = new AsyncDAO<>(logsDAO, 0, fxExecutor);
+        CountDownLatch queried = new CountDownLatch(1);
+        CompletableFuture<String> call = async.supply(dao -> {
+            String name = dao.getLogNameById(logId);
+            queried.countDown();
+            try {
+                Thread.sleep(10_000);  // Still in the call, e.g. looking users up, with its connection given back
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return name;
+        });
+        assertTrue(queried.await(5, TimeUnit.SECONDS));
+
+        // Another read runs on the same connection while the call is cancelled
+        SlowDAO other = new SlowDAO();
+        CompletableFuture<Long> read = CompletableFuture.supplyAsync(() -> {
+            try {
+                return other.countTo(3_000_000);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertTrue(call.cancel(true));
+
+        assertEquals(3_000_000L, (long) read.get(10, TimeUnit.SECONDS));
+    }
+}
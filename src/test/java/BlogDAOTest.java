@@ -0,0 +1,149 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.BaseDAO;
+import com.example.demoplswork.model.Blog;
+import com.example.demoplswork.model.BlogBodiesMigration;
+import com.example.demoplswork.model.BlogDAO;
+import com.example.demoplswork.model.BlogSummary;
+import com.example.demoplswork.model.SearchDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BlogDAOTest {
+
+    private Connection connection;
+    private BlogDAO blogDAO;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        blogDAO = new BlogDAO();
+        BaseDAO.setConnection(connection);
+        TestDatabase.createSchema(blogDAO, connection);
+    }
+
+    // A text well over the compression threshold, with the given word at the start
+    private static String longText(String firstWord) {
+        StringBuilder sb = new StringBuilder(firstWord);
+        for (int i = 0; sb.length() <= BlogDAO.COMPRESS_THRESHOLD * 2; i++) {
+            sb.append(" paragraph ").append(i).append(" about sanding, gluing and finishing the joints.");
+        }
+        return sb.toString();
+    }
+
+    private int count(String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.getInt(1);
+        }
+    }
+
+    private String storedDescription(int blogId) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT description FROM blogs WHERE id = ?")) {
+            pstmt.setInt(1, blogId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.getString(1);
+            }
+        }
+    }
+
+    @Test
+    public void testSummariesArePagedNewestFirst() throws SQLException {
+        for (int i = 1; i <= 5; i++) {
+            blogDAO.insertBlog(new Blog(i, "Blog " + i, "Text " + i, "cover" + i + ".jpg", "Cooking"));
+        }
+
+        List<BlogSummary> first = blogDAO.getBlogSummaries(null, 2);
+        assertEquals(2, first.size());
+        assertEquals("Blog 5", first.get(0).getTitle());
+        assertEquals(5, first.get(0).getUserId());
+        assertEquals("Cooking", first.get(0).getTag());
+        assertEquals("cover5.jpg", first.get(0).getImagePath());
+
+        List<String> titles = new ArrayList<>();
+        Integer cursor = null;
+        List<BlogSummary> page;
+        do {
+            page = blogDAO.getBlogSummaries(cursor, 2);
+            for (BlogSummary summary : page) {
+                titles.add(summary.getTitle());
+                cursor = summary.getId();
+            }
+        } while (page.size() == 2);
+        assertEquals(List.of("Blog 5", "Blog 4", "Blog 3", "Blog 2", "Blog 1"), titles);
+    }
+
+    @Test
+    public void testRemoveImageClearsEveryBlogThatUsesIt() throws SQLException {
+        blogDAO.insertBlog(new Blog(1, "Birdhouse", "Text", "cover.jpg", "Woodworking"));
+        blogDAO.insertBlog(new Blog(2, "Kite", "Text", "cover.jpg", "Crafts"));
+        blogDAO.insertBlog(new Blog(3, "Bread", "Text", "bread.jpg", "Cooking"));
+
+        blogDAO.removeImage("cover.jpg");
+
+        assertNull(blogDAO.getBlog(1).getImagePath());
+        assertNull(blogDAO.getBlog(2).getImagePath());
+        assertEquals("bread.jpg", blogDAO.getBlog(3).getImagePath());
+    }
+
+    @Test
+    public void testInvalidPageSizeIsRejected() {
+        assertThrows(SQLException.class, () -> blogDAO.getBlogSummaries(null, 0));
+    }
+
+    @Test
+    public void testShortBlogIsStoredAsIs() throws SQLException {
+        blogDAO.insertBlog(new Blog(1, "Birdhouse", "Cut the roof at 45 degrees.", null, "Woodworking"));
+
+        assertEquals("Cut the roof at 45 degrees.", blogDAO.getBlogBody(1));
+        assertEquals("Cut the roof at 45 degrees.", storedDescription(1));
+        assertEquals(0, count("SELECT COUNT(*) FROM blog_bodies"));
+        assertNull(blogDAO.getBlogBody(2));
+    }
+
+    @Test
+    public void testLongBlogIsStoredCompressed() throws SQLException {
+        String text = longText("Walnut");
+        blogDAO.insertBlog(new Blog(1, "Hall table", text, null, "Woodworking"));
+
+        assertEquals(1, count("SELECT COUNT(*) FROM blog_bodies"));
+        assertTrue(count("SELECT length(body) FROM blog_bodies") < text.length() / 2);
+        String excerpt = storedDescription(1);
+        assertTrue(excerpt.length() <= 1024);
+        assertTrue(text.startsWith(excerpt));
+
+        assertEquals(text, blogDAO.getBlogBody(1));
+        assertEquals(text, blogDAO.getBlog(1).getDescription());
+        assertEquals(text, blogDAO.getAllBlogs().get(0).getDescription());
+        assertEquals(1, new SearchDAO().searchBlogs("walnut", 0, 10).size());  // The excerpt is searched
+
+        connection.createStatement().executeUpdate("DELETE FROM blogs WHERE id = 1");
+        assertEquals(0, count("SELECT COUNT(*) FROM blog_bodies"));
+    }
+
+    @Test
+    public void testMigrationCompressesExistingLongBlogs() throws SQLException {
+        String text = longText("Cherry");
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT INTO blogs (user_id, title, description, image_path, tag) VALUES (1, 'Old blog', ?, NULL, 'Woodworking')")) {
+            pstmt.setString(1, text);
+            pstmt.executeUpdate();
+        }
+        blogDAO.insertBlog(new Blog(1, "Short blog", "Short text", null, "Woodworking"));
+
+        new BlogBodiesMigration().apply(connection);
+
+        assertEquals(1, count("SELECT COUNT(*) FROM blog_bodies"));
+        assertTrue(text.startsWith(storedDescription(1)));
+        assertEquals(text, blogDAO.getBlogBody(1));
+        assertEquals("Short text", blogDAO.getBlogBody(2));
+    }
+}
@@ -0,0 +1,77 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.ColumnKernels;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+public class ColumnKernelsTest {
+
+    private final int[] days = { 10, 11, 11, 13, 20, 9, Integer.MIN_VALUE };
+    private final int[] keys = { 1, 2, 1, 1, 1, 1, 1 };
+    private final double[] values = { 1.5, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0 };
+
+    @Test
+    public void testSumUsesOnlyTheGivenRows() {
+        assertEquals(28.5, ColumnKernels.sum(values, 7), 0.0001);
+        assertEquals(6.5, ColumnKernels.sum(values, 3), 0.0001);
+        assertEquals(0.0, ColumnKernels.sum(values, 0), 0.0001);
+        assertEquals(8, ColumnKernels.sum(keys, 7));
+        assertEquals(65, ColumnKernels.sum(days, 5));
+    }
+
+    @Test
+    public void testCountByDayRange() {
+        assertEquals(4, ColumnKernels.count(days, 7, 10, 14));
+        assertEquals(0, ColumnKernels.count(days, 7, 14, 20));
+    }
+
+    @Test
+    public void testSumByDay() {
+        double[] daily = ColumnKernels.sumByBucket(days, values, 7, 10, 1, 4);
+
+        assertArrayEquals(new double[] { 1.5, 5.0, 0.0, 4.0 }, daily, 0.0001);
+    }
+
+    @Test
+    public void testCountByWeekWithKey() {
+        int[] all = ColumnKernels.countByBucket(days, null, 0, 7, 7, 7, 2);
+        int[] keyed = ColumnKernels.countByBucket(days, keys, 1, 7, 7, 7, 2);
+
+        assertArrayEquals(new int[] { 5, 1 }, all);  // Days 7-13 and 14-20; the undated row is skipped
+        assertArrayEquals(new int[] { 4, 1 }, keyed);
+    }
+
+    @Test
+    public void testRollingSum() {
+        assertArrayEquals(new int[] { 1, 3, 6, 9, 12 }, ColumnKernels.rollingSum(new int[] { 1, 2, 3, 4, 5 }, 3));
+        assertArrayEquals(new double[] { 1, 3, 5, 7 }, ColumnKernels.rollingSum(new double[] { 1, 2, 3, 4 }, 2), 0.0001);
+    }
+
+    @Test
+    public void testRollingSumDoesNotDriftOverALongSeries() {
+        // Cents every day, with a large spend every 1000 days that leaves the window again 30 days later
+        int length = 50_000;
+        int window = 30;
+        double[] daily = new double[length];
+        for (int i = 0; i < length; i++) {
+            daily[i] = i % 1000 == 0 ? 123_456_789.01 : 0.01 * (i % 97);
+        }
+
+        double[] rolling = ColumnKernels.rollingSum(daily, window);
+        BigDecimal expected = BigDecimal.ZERO;  // Exact, so it can slide the window without drifting itself
+        for (int i = 0; i < length; i++) {
+            expected = expected.add(new BigDecimal(daily[i]));
+            if (i >= window) {
+                expected = expected.subtract(new BigDecimal(daily[i - window]));
+            }
+            assertEquals(expected.doubleValue(), rolling[i], Math.ulp(expected.doubleValue()) * 2, "window ending at " + i);
+        }
+    }
+
+    @Test
+    public void testRejectsInvalidBucketsAndWindows() {
+        assertThrows(IllegalArgumentException.class, () -> ColumnKernels.sumByBucket(days, values, 7, 0, 0, 4));
+        assertThrows(IllegalArgumentException.class, () -> ColumnKernels.rollingSum(new int[3], 0));
+    }
+}
@@ -0,0 +1,77 @@
+import com.example.demoplswork.model.ConnectionPool;
+import com.example.demoplswork.model.RetryPolicy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures how read throughput scales with the number of reader threads.
+ * It runs the feed query against a copy of contacts.db so the real database is never touched.
+ * Run with: java ConnectionPoolBenchmark [queriesPerThread]
+ */
+public class ConnectionPoolBenchmark {
+
+    private static final String FEED_QUERY = "SELECT * FROM log_events WHERE user_id != ? ORDER BY timestamp ASC";
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+
+    public static void main(String[] args) throws Exception {
+        int queriesPerThread = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+
+        Path copy = Files.createTempFile("contacts-bench", ".db");
+        Files.copy(Paths.get("contacts.db"), copy, StandardCopyOption.REPLACE_EXISTING);
+        String url = "jdbc:sqlite:" + copy.toAbsolutePath();
+
+        System.out.println("threads, queries/sec");
+        for (int threads : THREAD_COUNTS) {
+            try (ConnectionPool pool = new ConnectionPool(url, threads, 5000, RetryPolicy.defaults())) {
+                runReaders(pool, threads, queriesPerThread / 10);  // Warm up
+                long start = System.nanoTime();
+                runReaders(pool, threads, queriesPerThread);
+                double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+                System.out.printf("%d, %.0f%n", threads, threads * queriesPerThread / seconds);
+            }
+        }
+
+        Files.deleteIfExists(copy);
+        Files.deleteIfExists(Paths.get(copy + "-wal"));
+        Files.deleteIfExists(Paths.get(copy + "-shm"));
+    }
+
+    private static void runReaders(ConnectionPool pool, int threads, int queriesPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                int rows = 0;
+                for (int i = 0; i < queriesPerThread; i++) {
+                    rows += pool.read(conn -> {
+                        try (PreparedStatement stmt = conn.prepareStatement(FEED_QUERY)) {
+                            stmt.setInt(1, 1);
+                            int count = 0;
+                            try (ResultSet rs = stmt.executeQuery()) {
+                                while (rs.next()) {
+                                    count++;
+                                }
+                            }
+                            return count;
+                        }
+                    });
+                }
+                return rows;
+            }));
+        }
+        for (Future<Integer> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+    }
+}
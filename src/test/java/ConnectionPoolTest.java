@@ -0,0 +1,98 @@
+import com.example.demoplswork.model.ConnectionPool;
+import com.example.demoplswork.model.RetryPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+
+    private Path dbFile;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        dbFile = Files.createTempFile("pool-test", ".db");
+        pool = new ConnectionPool("jdbc:sqlite:" + dbFile.toAbsolutePath(), 2, 1000, RetryPolicy.defaults());
+        pool.write(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE items (id INTEGER PRIMARY KEY, name TEXT)");
+                return stmt.executeUpdate("INSERT INTO items (name) VALUES ('first')");
+            }
+        });
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        pool.close();
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Paths.get(dbFile + "-wal"));
+        Files.deleteIfExists(Paths.get(dbFile + "-shm"));
+    }
+
+    @Test
+    public void testWriterUsesWalJournal() throws SQLException {
+        String mode = pool.write(conn -> {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA journal_mode")) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        });
+        assertEquals("wal", mode.toLowerCase());
+    }
+
+    @Test
+    public void testReadSeesCommittedWrite() throws SQLException {
+        int count = pool.read(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM items");
+                 ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        });
+        assertEquals(1, count);
+    }
+
+    @Test
+    public void testReaderRejectsWrites() {
+        assertThrows(SQLException.class, () -> pool.read(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                return stmt.executeUpdate("INSERT INTO items (name) VALUES ('blocked')");
+            }
+        }));
+    }
+
+    @Test
+    public void testRetryPolicyRetriesBusyErrors() throws SQLException {
+        AtomicInteger attempts = new AtomicInteger();
+        RetryPolicy policy = new RetryPolicy(3, 1, 2);
+        int result = policy.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new SQLException("[SQLITE_BUSY] The database file is locked", null, 5);
+            }
+            return 42;
+        });
+        assertEquals(42, result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void testRetryPolicyDoesNotRetryOtherErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+        RetryPolicy policy = new RetryPolicy(3, 1, 2);
+        assertThrows(SQLException.class, () -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            throw new SQLException("no such table: missing");
+        }));
+        assertEquals(1, attempts.get());
+    }
+}
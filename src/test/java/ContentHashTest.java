@@ -0,0 +1,98 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.ContentHash;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public class ContentHashTest {
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("content-hash-test");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private Path file(String name, byte[] data) throws IOException {
+        Path file = directory.resolve(name);
+        Files.createDirectories(file.getParent());
+        return Files.write(file, data);
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    private static String expected(byte[] data) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+
+    @Test
+    public void testSmallFileHashIsSha256OfItsContents() throws Exception {
+        byte[] data = randomBytes(10_000, 1);
+        assertEquals(expected(data), ContentHash.sha256(file("photo.jpg", data)));
+    }
+
+    @Test
+    public void testLargeFileIsHashedTheSameWhenMapped() throws Exception {
+        byte[] data = randomBytes((int) ContentHash.MAP_THRESHOLD + 12_345, 2);  // Memory-mapped
+        assertEquals(expected(data), ContentHash.sha256(file("clip.mp4", data)));
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        assertEquals(expected(new byte[0]), ContentHash.sha256(file("empty.jpg", new byte[0])));
+    }
+
+    @Test
+    public void testSameNameDifferentContentsGetDifferentKeys() throws Exception {
+        Path mine = file("mine/IMG_0001.jpg", randomBytes(1000, 3));
+        Path yours = file("yours/IMG_0001.jpg", randomBytes(1000, 4));
+        assertNotEquals(ContentHash.key(mine), ContentHash.key(yours));
+    }
+
+    @Test
+    public void testSameContentsGetTheSameKeyWhateverTheName() throws Exception {
+        byte[] data = randomBytes(1000, 5);
+        String key = ContentHash.key(file("IMG_0001.JPG", data));
+        assertEquals(key, ContentHash.key(file("progress-shot.jpg", data)));
+        assertEquals("media/" + expected(data) + ".jpg", key);
+        assertTrue(ContentHash.isContentKey(key));
+        assertFalse(ContentHash.isContentKey("IMG_0001.jpg"));
+    }
+
+    @Test
+    public void testOnlyHashKeysAndTheirRenditionsAreContentKeys() {
+        String hash = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+        assertTrue(ContentHash.isContentKey("media/" + hash + ".jpg"));
+        assertTrue(ContentHash.isContentKey("media/" + hash + ".thumb.jpg"));
+        assertTrue(ContentHash.isContentKey("media/" + hash));
+        assertFalse(ContentHash.isContentKey("media/IMG_0001.jpg"));
+        assertFalse(ContentHash.isContentKey("media/" + hash.substring(1) + ".jpg"));
+        assertFalse(ContentHash.isContentKey("media/" + hash.toUpperCase() + ".jpg"));
+        assertFalse(ContentHash.isContentKey("media/" + hash + "/other.jpg"));
+        assertFalse(ContentHash.isContentKey("old/media/" + hash + ".jpg"));
+    }
+}
@@ -0,0 +1,100 @@
+import com.example.demoplswork.model.BaseDAO;
+import com.example.demoplswork.model.ContactDAO;
+import com.example.demoplswork.model.Logs;
+import com.example.demoplswork.model.LogsDAO;
+import com.example.demoplswork.model.StatementCache;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Soak test for the statement lifecycle: runs a mix of DAO calls against a temporary database
+ * and samples the process resident set size, which includes SQLite's native memory.
+ * With every statement coming from the statement cache, RSS should stay flat once warmed up.
+ * Exits with status 1 if RSS grows by more than the allowed amount after warm-up.
+ * Run with: java DaoSoakBenchmark [calls] [allowedGrowthMb]
+ */
+public class DaoSoakBenchmark {
+
+    private static final int SAMPLES = 10;
+
+    public static void main(String[] args) throws Exception {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long allowedGrowthKb = (args.length > 1 ? Long.parseLong(args[1]) : 16) * 1024;
+
+        Path db = Files.createTempFile("contacts-soak", ".db");
+        Connection conn = DriverManager.getConnection("jdbc:sqlite:" + db.toAbsolutePath());
+        LogsDAO logsDAO = new LogsDAO();
+        ContactDAO contactDAO = new ContactDAO();
+        BaseDAO.setConnection(conn);
+        TestDatabase.createSchema(logsDAO, conn);
+
+        contactDAO.createAccount("Ada", "Lovelace", "ada@example.com", "pw");
+        List<Integer> logIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            logIds.add(logsDAO.insertLog(1, new Logs("Log " + i, new ArrayList<>(), new ArrayList<>(), new ArrayList<>())));
+        }
+
+        runCalls(logsDAO, contactDAO, logIds, calls / 10);  // Warm up
+        System.gc();
+        long baselineKb = residentKb();
+        System.out.println("calls, rss kB");
+        System.out.println("0, " + baselineKb);
+
+        long start = System.nanoTime();
+        int perSample = calls / SAMPLES;
+        long lastKb = baselineKb;
+        for (int s = 1; s <= SAMPLES; s++) {
+            runCalls(logsDAO, contactDAO, logIds, perSample);
+            lastKb = residentKb();
+            System.out.println((long) s * perSample + ", " + lastKb);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        StatementCache cache = BaseDAO.getStatementCache();
+        System.out.printf("%.0f calls/sec, %s%n", calls / seconds, cache);
+
+        BaseDAO.setConnection(null);
+        conn.close();
+        Files.deleteIfExists(db);
+        Files.deleteIfExists(Paths.get(db + "-wal"));
+        Files.deleteIfExists(Paths.get(db + "-shm"));
+
+        if (lastKb - baselineKb > allowedGrowthKb) {
+            System.out.println("RSS grew by " + (lastKb - baselineKb) + " kB");
+            System.exit(1);
+        }
+    }
+
+    private static void runCalls(LogsDAO logsDAO, ContactDAO contactDAO, List<Integer> logIds, int calls) {
+        for (int i = 0; i < calls; i++) {
+            int logId = logIds.get(i % logIds.size());
+            switch (i % 5) {
+                case 0 -> logsDAO.getLogNameById(logId);
+                case 1 -> logsDAO.getUserIdForLog(logId);
+                case 2 -> logsDAO.doesLogExist(logId);
+                case 3 -> logsDAO.getLogById(logId);
+                default -> contactDAO.getContactById(1);
+            }
+        }
+    }
+
+    // VmRSS from /proc, or 0 where it is not available
+    private static long residentKb() throws Exception {
+        Path status = Paths.get("/proc/self/status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,153 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.ImageDiskCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+public class ImageDiskCacheTest {
+
+    private Path directory;
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("image-cache-test");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // Serves a URL's last character repeated 100 times, counting downloads
+    private InputStream serve(String url) {
+        fetches.incrementAndGet();
+        return new ByteArrayInputStream(String.valueOf(url.charAt(url.length() - 1)).repeat(100).getBytes());
+    }
+
+    private List<String> fileNames() throws IOException {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                names.add(file.getFileName().toString());
+            }
+        }
+        return names;
+    }
+
+    @Test
+    public void testDownloadsOnce() throws IOException {
+        ImageDiskCache cache = new ImageDiskCache(directory, 10_000, this::serve);
+
+        Path first = cache.get("https://example.com/a");
+        Path second = cache.get("https://example.com/a");
+
+        assertEquals(first, second);
+        assertEquals("a".repeat(100), Files.readString(first));
+        assertEquals(1, fetches.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(100, cache.getTotalBytes());
+        assertTrue(cache.getUri("https://example.com/a").startsWith("file:"));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws IOException {
+        ImageDiskCache cache = new ImageDiskCache(directory, 250, this::serve);
+        cache.get("https://example.com/a");
+        cache.get("https://example.com/b");
+        cache.get("https://example.com/a");  // b is now the least recently used
+        cache.get("https://example.com/c");
+
+        assertTrue(cache.contains("https://example.com/a"));
+        assertFalse(cache.contains("https://example.com/b"));
+        assertTrue(cache.contains("https://example.com/c"));
+        assertEquals(200, cache.getTotalBytes());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, fileNames().size());
+    }
+
+    @Test
+    public void testFilesAreKeptForTheNextRun() throws IOException {
+        new ImageDiskCache(directory, 10_000, this::serve).get("https://example.com/a");
+        Files.writeString(directory.resolve("unfinished.part"), "half");
+
+        ImageDiskCache cache = new ImageDiskCache(directory, 10_000, this::serve);
+        cache.get("https://example.com/a");
+
+        assertEquals(1, fetches.get());
+        assertEquals(1, cache.size());
+        assertEquals(1, fileNames().size());  // The unfinished download was deleted
+    }
+
+    @Test
+    public void testConcurrentRequestsShareOneDownload() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ImageDiskCache cache = new ImageDiskCache(directory, 10_000, url -> {
+            started.countDown();
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return serve(url);
+        });
+
+        CompletableFuture<Path> first = CompletableFuture.supplyAsync(() -> get(cache, "https://example.com/a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Path> second = CompletableFuture.supplyAsync(() -> get(cache, "https://example.com/a"));
+        Thread.sleep(50);  // Let the second request find the download running
+        release.countDown();
+
+        assertEquals(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    public void testFailedDownloadLeavesNothing() throws IOException {
+        ImageDiskCache cache = new ImageDiskCache(directory, 10_000, url -> new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+
+        try {
+            cache.get("https://example.com/a");
+            fail("expected an IOException");
+        } catch (IOException e) {
+            assertEquals("Connection reset", e.getMessage());
+        }
+        assertFalse(cache.contains("https://example.com/a"));
+        assertTrue(fileNames().isEmpty());
+    }
+
+    private static Path get(ImageDiskCache cache, String url) {
+        try {
+            return cache.get(url);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.ImageLoadQueue;
+import com.example.demoplswork.model.ImageMemoryCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ImageLoadQueueTest {
+
+    private final List<String> decoded = new CopyOnWriteArrayList<>();
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+    private final Semaphore gate = new Semaphore(0);
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private ImageMemoryCache<String> cache;
+
+    @BeforeEach
+    public void setUp() {
+        // Each decode waits for a permit, so the test decides when images finish loading
+        cache = new ImageMemoryCache<>(1_000_000, 100, (source, width, height) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                assertTrue(gate.tryAcquire(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+            if (source.endsWith(".mp4")) {
+                throw new IOException("Not an image");
+            }
+            decoded.add(source);
+            return source;
+        }, image -> 4);
+    }
+
+    private ImageLoadQueue<String>.Ticket submit(ImageLoadQueue<String> queue, String source, boolean visible, CountDownLatch done) {
+        return queue.submit(source, 50, 50, visible, image -> {
+            delivered.add(image);
+            done.countDown();
+        }, error -> {
+            delivered.add("failed " + source);
+            done.countDown();
+        });
+    }
+
+    // Waits until the workers have taken everything they can
+    private static void waitForWorkers(AtomicInteger running, int expected) throws InterruptedException {
+        for (int i = 0; i < 500 && running.get() < expected; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, running.get());
+    }
+
+    @Test
+    public void testVisibleImagesLoadFirst() throws InterruptedException {
+        ImageLoadQueue<String> queue = new ImageLoadQueue<>(cache, 1, Runnable::run);
+        CountDownLatch done = new CountDownLatch(4);
+        submit(queue, "first.jpg", false, done);
+        waitForWorkers(running, 1);  // The only worker is busy with the first image
+        submit(queue, "below1.jpg", false, done);
+        submit(queue, "below2.jpg", false, done);
+        submit(queue, "onscreen.jpg", true, done);
+
+        gate.release(4);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first.jpg", "onscreen.jpg", "below1.jpg", "below2.jpg"), decoded);
+    }
+
+    @Test
+    public void testScrollingIntoSightMovesARequestAhead() throws InterruptedException {
+        ImageLoadQueue<String> queue = new ImageLoadQueue<>(cache, 1, Runnable::run);
+        CountDownLatch done = new CountDownLatch(3);
+        submit(queue, "first.jpg", false, done);
+        waitForWorkers(running, 1);
+        submit(queue, "a.jpg", false, done);
+        ImageLoadQueue<String>.Ticket b = submit(queue, "b.jpg", false, done);
+        b.setVisible(true);
+
+        gate.release(3);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first.jpg", "b.jpg", "a.jpg"), decoded);
+    }
+
+    @Test
+    public void testCancelledRequestsAreSkippedOrDropped() throws InterruptedException {
+        ImageLoadQueue<String> queue = new ImageLoadQueue<>(cache, 1, Runnable::run);
+        CountDownLatch done = new CountDownLatch(1);
+        ImageLoadQueue<String>.Ticket started = submit(queue, "started.jpg", true, new CountDownLatch(1));
+        waitForWorkers(running, 1);
+        ImageLoadQueue<String>.Ticket waiting = submit(queue, "waiting.jpg", true, new CountDownLatch(1));
+        submit(queue, "kept.jpg", true, done);
+
+        started.cancel();  // Already loading: the result is dropped
+        waiting.cancel();  // Not started: never loaded
+        gate.release(2);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("started.jpg", "kept.jpg"), decoded);
+        assertEquals(List.of("kept.jpg"), delivered);
+        assertEquals(1, queue.getSkipped());
+        assertTrue(waiting.isCancelled());
+    }
+
+    @Test
+    public void testWorkersBoundConcurrency() throws InterruptedException {
+        ImageLoadQueue<String> queue = new ImageLoadQueue<>(cache, 2, Runnable::run);
+        CountDownLatch done = new CountDownLatch(6);
+        for (int i = 0; i < 6; i++) {
+            submit(queue, "image" + i + ".jpg", true, done);
+        }
+        waitForWorkers(running, 2);
+        assertEquals(4, queue.getWaiting());
+
+        gate.release(6);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+        assertEquals(6, queue.getLoaded());
+    }
+
+    @Test
+    public void testFailureIsReported() throws InterruptedException {
+        ImageLoadQueue<String> queue = new ImageLoadQueue<>(cache, 1, Runnable::run);
+        CountDownLatch done = new CountDownLatch(1);
+        submit(queue, "clip.mp4", true, done);
+
+        gate.release();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("failed clip.mp4"), delivered);
+    }
+}
@@ -0,0 +1,27 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.ImageLoader;
+import javafx.scene.image.Image;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class ImageLoaderTest {
+
+    @Test
+    public void testEveryPlaceholderIsBundled() {
+        // The placeholders the views show while images load, so a missing one is found here rather than on a screen
+        for (String path : List.of(ImageLoader.AVATAR_PLACEHOLDER, ImageLoader.POST_PLACEHOLDER)) {
+            assertNotNull(ImageLoader.class.getResource(path), path);
+            Image image = ImageLoader.resource(path);
+            assertNotNull(image, path);
+            assertFalse(image.isError(), path);
+            assertSame(image, ImageLoader.resource(path));  // Decoded once
+        }
+    }
+
+    @Test
+    public void testMissingImageIsNull() {
+        assertNull(ImageLoader.resource("/images/missing.png"));
+    }
+}
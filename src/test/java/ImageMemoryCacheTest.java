@@ -0,0 +1,138 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.ImageMemoryCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImageMemoryCacheTest {
+
+    /**
+     * Stands in for a decoded image: the source and the size it was decoded at.
+     */
+    private static final class FakeImage {
+        private final String source;
+        private final int width;
+        private final int height;
+
+        private FakeImage(String source, int width, int height) {
+            this.source = source;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    private final List<String> decoded = new ArrayList<>();
+    private ImageMemoryCache<FakeImage> cache;
+
+    @BeforeEach
+    public void setUp() {
+        decoded.clear();
+        cache = cache(2 * 50 * 50 * 4);  // Two 50x50 images
+    }
+
+    private ImageMemoryCache<FakeImage> cache(long maxBytes) {
+        return new ImageMemoryCache<>(maxBytes, 100, (source, width, height) -> {
+            decoded.add(source + " " + width + "x" + height);
+            return new FakeImage(source, width, height);
+        }, image -> (long) image.width * image.height * 4);
+    }
+
+    @Test
+    public void testDecodesOncePerSourceAndSize() throws IOException {
+        FakeImage avatar = cache.get("a.jpg", 50, 50);
+        assertSame(avatar, cache.get("a.jpg", 49.5, 50));  // Fit sizes are rounded up to whole pixels
+        FakeImage large = cache.get("a.jpg", 100, 100);
+
+        assertEquals(50, avatar.width);
+        assertEquals(100, large.width);
+        assertEquals(List.of("a.jpg 50x50", "a.jpg 100x100"), decoded);
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testImagesPastTheBudgetMoveToTheSoftTier() throws IOException {
+        FakeImage a = cache.get("a.jpg", 50, 50);
+        cache.get("b.jpg", 50, 50);
+        cache.get("c.jpg", 50, 50);  // a is the least recently used
+
+        assertEquals(2, cache.size());
+        assertEquals(2 * 50 * 50 * 4, cache.getBytes());
+        assertEquals(1, cache.getSoftSize());
+        assertEquals(1, cache.getEvictions());
+
+        assertSame(a, cache.get("a.jpg", 50, 50));  // Still softly reachable, so not decoded again
+        assertEquals(1, cache.getSoftHits());
+        assertEquals(3, decoded.size());
+        assertEquals(2, cache.size());  // a came back and b went to the soft tier
+        assertSame(a, cache.getIfPresent("a.jpg", 50, 50));
+        assertNull(cache.getIfPresent("d.jpg", 50, 50));
+    }
+
+    @Test
+    public void testImageLargerThanTheBudgetIsOnlyHeldSoftly() throws IOException {
+        cache.get("a.jpg", 50, 50);
+        FakeImage huge = cache.get("huge.jpg", 1000, 1000);
+
+        assertEquals(1, cache.size());
+        assertEquals(50 * 50 * 4, cache.getBytes());
+        assertSame(huge, cache.getIfPresent("huge.jpg", 1000, 1000));
+    }
+
+    @Test
+    public void testPutReplacesAndClearEmpties() throws IOException {
+        cache.get("a.jpg", 50, 50);
+        FakeImage replacement = new FakeImage("a.jpg", 40, 40);
+        cache.put("a.jpg", 50, 50, replacement);
+
+        assertSame(replacement, cache.get("a.jpg", 50, 50));
+        assertEquals(40 * 40 * 4, cache.getBytes());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+        assertNull(cache.getIfPresent("a.jpg", 50, 50));
+    }
+
+    @Test
+    public void testInvalidateDropsEverySizeOfAnImage() throws IOException {
+        cache = cache(50 * 50 * 4);  // Room for one 50x50 image, so the other is held softly
+        cache.get("a.jpg", 50, 50);
+        cache.get("a.jpg", 40, 40);
+        cache.get("b.jpg", 50, 50);
+
+        cache.invalidate("a.jpg");
+
+        assertNull(cache.getIfPresent("a.jpg", 50, 50));
+        assertNull(cache.getIfPresent("a.jpg", 40, 40));
+        assertNotNull(cache.getIfPresent("b.jpg", 50, 50));
+        assertEquals(50 * 50 * 4, cache.getBytes());
+
+        cache.get("a.jpg", 50, 50);
+        assertEquals(2, decoded.stream().filter(d -> d.equals("a.jpg 50x50")).count());  // Decoded again
+    }
+
+    @Test
+    public void testFailedDecodeIsNotCached() throws IOException {
+        int[] calls = {0};
+        ImageMemoryCache<FakeImage> failing = new ImageMemoryCache<>(10_000, 100, (source, width, height) -> {
+            calls[0]++;
+            throw new IOException("Not an image");
+        }, image -> 0);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                failing.get("a.mp4", 50, 50);
+                fail("expected an IOException");
+            } catch (IOException e) {
+                assertEquals("Not an image", e.getMessage());
+            }
+        }
+        assertEquals(2, calls[0]);
+        assertEquals(0, failing.size());
+    }
+}
@@ -0,0 +1,140 @@
+import com.example.demoplswork.model.InvertedIndex;
+import com.example.demoplswork.model.SearchDocument;
+import com.example.demoplswork.model.SearchResults;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark for search as you type over the in-memory InvertedIndex.
+ * Fills the index with generated blogs, logs and users whose words follow a long-tailed distribution, like real writing,
+ * then types common, middling and rare words one letter at a time, pairs of words, and words with a typo.
+ * Every keystroke is a search for the top 8 with the default one millisecond budget; the share of searches
+ * that finished inside the budget is reported next to the times.
+ * Run with: java InvertedIndexBenchmark [documents] [iterations]
+ */
+public class InvertedIndexBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+    private static final int HITS = 8;
+    private static final String[] SYLLABLES = {
+            "ka", "ro", "mi", "ten", "lo", "su", "ber", "an", "dis", "qua", "vel", "tor", "ni", "pa", "gra", "fen", "os", "lum", "ci", "de"
+    };
+    private static final String[] TAGS = {
+            "Woodworking", "PC Building", "Miniatures", "Music Production", "Coding", "Cooking", "Gardening", "Digital Art", "Traditional Art"
+    };
+
+    public static void main(String[] args) {
+        int documents = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        String[] vocabulary = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            vocabulary[i] = word(i);
+        }
+        double[] cumulative = new double[VOCABULARY];
+        double total = 0;
+        for (int i = 0; i < VOCABULARY; i++) {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+
+        InvertedIndex index = new InvertedIndex();
+        Random random = new Random(42);
+        long buildStart = System.nanoTime();
+        for (int i = 0; i < documents; i++) {
+            int kind = i % 10;
+            if (kind < 7) {
+                String title = words(random, cumulative, vocabulary, 3);
+                index.addDocument(new SearchDocument(SearchDocument.Kind.BLOG, i, 1 + i % 1000, title, title, TAGS[i % TAGS.length]));
+            } else if (kind < 9) {
+                String name = words(random, cumulative, vocabulary, 2);
+                index.addDocument(new SearchDocument(SearchDocument.Kind.LOG, i, 1 + i % 1000, name, name,
+                        words(random, cumulative, vocabulary, 3)));
+            } else {
+                String firstName = vocabulary[random.nextInt(500)];
+                index.addDocument(new SearchDocument(SearchDocument.Kind.USER, i, i, firstName + " Smith", firstName, null));
+            }
+        }
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+        System.out.printf("indexed %d documents, %d words, in %d ms%n", index.size(), index.getWordCount(), buildMillis);
+        System.out.printf("postings %d in %d bytes, %.2f bytes each (4 as plain ints)%n",
+                index.getPostingCount(), index.getPostingBytes(), (double) index.getPostingBytes() / index.getPostingCount());
+
+        String common = vocabulary[1];
+        String middling = vocabulary[100];
+        String rare = vocabulary[10_000];
+        report(index, "typing a common word", typing(common), iterations);
+        report(index, "typing a middling word", typing(middling), iterations);
+        report(index, "typing a rare word", typing(rare), iterations);
+        report(index, "two common words", typing(vocabulary[0] + " " + common), iterations);
+        report(index, "common and rare word", typing(common + " " + rare), iterations);
+        report(index, "tag and word", typing("cooking " + middling), iterations);
+        report(index, "typo", List.of(typo(middling) + " ", typo(rare) + " ", common + " " + typo(vocabulary[500]) + " "), iterations);
+    }
+
+    // Times each query as a keystroke in the search box, with the default budget
+    private static void report(InvertedIndex index, String name, List<String> queries, int iterations) {
+        for (int i = 0; i < 5; i++) {  // Warm up
+            for (String query : queries) {
+                index.search(query, HITS);
+            }
+        }
+        long[] nanos = new long[iterations * queries.size()];
+        int complete = 0;
+        int n = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (String query : queries) {
+                long start = System.nanoTime();
+                SearchResults results = index.search(query, HITS);
+                nanos[n++] = System.nanoTime() - start;
+                if (results.isComplete()) {
+                    complete++;
+                }
+            }
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%s (%d keystrokes): median %d us, p99 %d us, %d%% complete in budget%n",
+                name, queries.size(), nanos[n / 2] / 1000, nanos[n * 99 / 100] / 1000, complete * 100 / n);
+    }
+
+    // Each prefix of the text, as the user types it
+    private static List<String> typing(String text) {
+        List<String> queries = new ArrayList<>();
+        for (int i = 1; i <= text.length(); i++) {
+            if (text.charAt(i - 1) != ' ') {
+                queries.add(text.substring(0, i));
+            }
+        }
+        return queries;
+    }
+
+    // The word with its second to last letter changed
+    private static String typo(String word) {
+        int i = word.length() - 2;
+        return word.substring(0, i) + (word.charAt(i) == 'x' ? 'y' : 'x') + word.substring(i + 1);
+    }
+
+    // Word i spelt in syllables, so that words look like words and a typo is near only a few others
+    private static String word(int i) {
+        StringBuilder sb = new StringBuilder();
+        int n = i;
+        do {
+            sb.append(SYLLABLES[n % SYLLABLES.length]);
+            n /= SYLLABLES.length;
+        } while (n > 0 || sb.length() < 4);
+        return sb.toString();
+    }
+
+    // Word i is picked with a chance proportional to 1 / (i + 1)
+    private static String words(Random random, double[] cumulative, String[] vocabulary, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[VOCABULARY - 1]);
+            sb.append(i > 0 ? " " : "").append(vocabulary[index >= 0 ? index : -index - 1]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,148 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.InvertedIndex;
+import com.example.demoplswork.model.SearchDocument;
+import com.example.demoplswork.model.SearchHit;
+import com.example.demoplswork.model.SearchResults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new InvertedIndex();
+    }
+
+    private void addBlog(int id, String title, String tag) {
+        index.addDocument(new SearchDocument(SearchDocument.Kind.BLOG, id, 1, title, title, tag));
+    }
+
+    private List<String> labels(String query) {
+        List<String> labels = new ArrayList<>();
+        for (SearchHit hit : index.search(query, 10, Long.MAX_VALUE).getHits()) {
+            labels.add(hit.getLabel());
+        }
+        return labels;
+    }
+
+    @Test
+    public void testTokenize() {
+        assertEquals(List.of("oak", "side", "table", "2"), InvertedIndex.tokenize("Oak side-table #2"));
+        assertEquals(List.of("creme", "brulee"), InvertedIndex.tokenize("Cr\u00e8me Br\u00fbl\u00e9e"));
+        assertEquals(List.of(), InvertedIndex.tokenize(null));
+        assertEquals(List.of("ok"), InvertedIndex.tokenize("x".repeat(41) + " ok"));
+    }
+
+    @Test
+    public void testExactPrefixAndEveryWord() {
+        addBlog(1, "Oak side table", "Woodworking");
+        addBlog(2, "Oat bread", "Cooking");
+
+        assertEquals(List.of("Oak side table"), labels("oak "));
+        assertEquals(List.of("Oat bread", "Oak side table"), labels("oa"));  // Prefix of the word being typed
+        assertEquals(List.of(), labels("oa "));  // A finished word must match whole
+        assertEquals(List.of("Oak side table"), labels("wood"));
+        assertEquals(List.of("Oak side table"), labels("table oak"));
+        assertEquals(List.of(), labels("oak bread"));
+        assertEquals(List.of(), labels(" -- "));
+    }
+
+    @Test
+    public void testRanking() {
+        addBlog(1, "Garden shed", "Walnut");
+        addBlog(2, "Walnut bowl", "Woodworking");
+        addBlog(3, "Walnuts", "Cooking");
+        addBlog(4, "Walnut", "Woodworking");
+
+        // Title beats tag, an exact word beats a prefix, and newer wins a tie
+        assertEquals(List.of("Walnut", "Walnut bowl", "Garden shed"), labels("walnut "));
+        assertEquals(List.of("Walnut", "Walnut bowl", "Garden shed", "Walnuts"), labels("walnut"));
+        SearchResults results = index.search("walnut bowl", 1);
+        assertEquals(1, results.getHits().size());
+        assertEquals("Walnut bowl", results.getHits().get(0).getLabel());
+        assertTrue(results.isComplete());
+    }
+
+    @Test
+    public void testTypoSuggestion() {
+        addBlog(1, "Sourdough starter", "Cooking");
+        addBlog(2, "Guitar pedal", "Music Production");
+
+        SearchResults results = index.search("sourdogh starter", 10, Long.MAX_VALUE);
+        assertEquals("sourdough starter", results.getSuggestion());
+        assertEquals("Sourdough starter", results.getHits().get(0).getLabel());
+        assertEquals("guitar pedal", index.search("gutiar pedal ", 10).getSuggestion());  // Swapped letters
+        assertNull(index.search("sourdough", 10).getSuggestion());
+        assertEquals(List.of("guitar"), index.suggest("guiter", 5));
+        assertEquals(List.of(), index.suggest("gu", 5));  // Too short to correct
+    }
+
+    @Test
+    public void testKindsAndOwners() {
+        index.addDocument(new SearchDocument(SearchDocument.Kind.LOG, 1, 7, "Birdhouse", "Birdhouse", "cedar nails"));
+        index.addDocument(new SearchDocument(SearchDocument.Kind.USER, 1, 1, "Cedar Jones", "Cedar", null));
+
+        List<SearchHit> hits = index.search("cedar", 10).getHits();
+        assertEquals(2, hits.size());
+        assertEquals(SearchDocument.Kind.USER, hits.get(0).getKind());  // First name is primary, material names are not
+        assertEquals(SearchDocument.Kind.LOG, hits.get(1).getKind());
+        assertEquals(7, hits.get(1).getOwnerId());
+    }
+
+    @Test
+    public void testReplaceAndRemove() {
+        addBlog(1, "Oak chair", "Woodworking");
+        addBlog(1, "Ash chair", "Woodworking");
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(), labels("oak"));
+        assertEquals(List.of("Ash chair"), labels("chair"));
+        assertTrue(index.removeDocument(SearchDocument.Kind.BLOG, 1));
+        assertFalse(index.removeDocument(SearchDocument.Kind.BLOG, 1));
+        assertEquals(List.of(), labels("chair"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testCompactKeepsLiveDocuments() {
+        for (int i = 0; i < 3000; i++) {
+            addBlog(i, "Lathe project " + i, i % 2 == 0 ? "Woodworking" : "Metalwork");
+        }
+        for (int i = 0; i < 2500; i++) {
+            index.removeDocument(SearchDocument.Kind.BLOG, i);  // Compacts once the dead outnumber the live
+        }
+        index.compact();
+
+        assertEquals(500, index.size());
+        assertEquals(500, index.getPostingCount() / 4);  // Lathe, project, the number and the tag, for each document left
+        List<SearchHit> hits = index.search("lathe", 3, Long.MAX_VALUE).getHits();
+        assertEquals(List.of(2999, 2998, 2997), List.of(hits.get(0).getId(), hits.get(1).getId(), hits.get(2).getId()));
+        assertEquals(List.of("Lathe project 2500"), labels("project 2500"));
+        assertEquals(List.of(), labels("project 12"));
+    }
+
+    @Test
+    public void testTopKAcrossWindows() {
+        for (int i = 0; i < 200_000; i++) {
+            addBlog(i, (i % 1000 == 0 ? "Rare " : "Common ") + "post " + i, null);
+        }
+
+        SearchResults results = index.search("rare post", 5, Long.MAX_VALUE);
+        List<Integer> ids = new ArrayList<>();
+        for (SearchHit hit : results.getHits()) {
+            ids.add(hit.getId());
+        }
+        assertEquals(List.of(199_000, 198_000, 197_000, 196_000, 195_000), ids);
+        assertTrue(results.isComplete());
+        assertTrue(index.getPostingBytes() < index.getPostingCount() * 2);  // Gaps take a byte or two, not four
+        SearchResults partial = index.search("rare", 500, 0);  // Never has 500 hits to stop early, and no time for a second window
+        assertFalse(partial.isComplete());
+        assertEquals(199_000, partial.getHits().get(0).getId());
+    }
+}
@@ -0,0 +1,61 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.LogCounts;
+import org.junit.jupiter.api.Test;
+
+public class LogCountsTest {
+
+    @Test
+    public void testPutAndGet() {
+        LogCounts counts = new LogCounts(4);
+        counts.put(3, 10, 2);
+        counts.put(7, 0, 5);
+
+        assertEquals(10, counts.getLikes(3));
+        assertEquals(2, counts.getComments(3));
+        assertEquals(5, counts.getComments(7));
+        assertEquals(2, counts.size());
+        assertTrue(counts.contains(7));
+    }
+
+    @Test
+    public void testMissingLogHasZeroTotals() {
+        LogCounts counts = new LogCounts(4);
+        counts.put(3, 10, 2);
+
+        assertEquals(0, counts.getLikes(4));
+        assertEquals(0, counts.getComments(4));
+        assertFalse(counts.contains(4));
+        assertFalse(counts.contains(0));
+    }
+
+    @Test
+    public void testPutReplacesTotals() {
+        LogCounts counts = new LogCounts(4);
+        counts.put(3, 10, 2);
+        counts.put(3, 11, 4);
+
+        assertEquals(11, counts.getLikes(3));
+        assertEquals(4, counts.getComments(3));
+        assertEquals(1, counts.size());
+    }
+
+    @Test
+    public void testGrowsPastExpectedSize() {
+        LogCounts counts = new LogCounts(1);
+        for (int logId = 1; logId <= 10_000; logId++) {
+            counts.put(logId, logId * 2, logId % 7);
+        }
+
+        assertEquals(10_000, counts.size());
+        for (int logId = 1; logId <= 10_000; logId++) {
+            assertEquals(logId * 2, counts.getLikes(logId));
+            assertEquals(logId % 7, counts.getComments(logId));
+        }
+    }
+
+    @Test
+    public void testRejectsLogIdZero() {
+        assertThrows(IllegalArgumentException.class, () -> new LogCounts(4).put(0, 1, 1));
+    }
+}
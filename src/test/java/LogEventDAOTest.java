@@ -0,0 +1,205 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.events.EventComment;
+import com.example.demoplswork.events.FeedCursor;
+import com.example.demoplswork.events.FeedItem;
+import com.example.demoplswork.events.ImageEvent;
+import com.example.demoplswork.events.LogEvent;
+import com.example.demoplswork.events.LogEventDAO;
+import com.example.demoplswork.events.MaterialEvent;
+import com.example.demoplswork.events.StartEvent;
+import com.example.demoplswork.model.BaseDAO;
+import com.example.demoplswork.model.EventLikesCommentsMigration;
+import com.example.demoplswork.model.MigrationRunner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LogEventDAOTest {
+
+    private LogEventDAO logEventDAO;
+    private Connection connection;
+    private int eventId;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        // Set up an in-memory SQLite database for testing
+        String url = "jdbc:sqlite::memory:";
+        connection = DriverManager.getConnection(url);
+        logEventDAO = new LogEventDAO();
+        BaseDAO.setConnection(connection); // Use the setter method
+        TestDatabase.createSchema(logEventDAO, connection);
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("INSERT INTO users (firstName, lastName, email, password) VALUES ('Ada', 'Lovelace', 'ada@example.com', 'pw')");
+        }
+        logEventDAO.insertLogEvent(new StartEvent(0, 2, 1, "Bookshelf"));
+        eventId = logEventDAO.getLogEventsForLog(1).get(0).getId();
+    }
+
+    @Test
+    public void testLikeIsCountedOncePerUser() throws SQLException {
+        assertEquals(1, logEventDAO.likeEvent(eventId, 1));
+        assertEquals(1, logEventDAO.likeEvent(eventId, 1));
+        assertEquals(2, logEventDAO.likeEvent(eventId, 3));
+
+        assertTrue(logEventDAO.hasLiked(eventId, 1));
+        assertEquals(2, logEventDAO.getLogEventsForUser(2).get(0).getLikeCount());
+    }
+
+    @Test
+    public void testUnlikeRemovesOnlyExistingLike() throws SQLException {
+        logEventDAO.likeEvent(eventId, 1);
+
+        assertEquals(0, logEventDAO.unlikeEvent(eventId, 1));
+        assertEquals(0, logEventDAO.unlikeEvent(eventId, 1));
+        assertFalse(logEventDAO.hasLiked(eventId, 1));
+    }
+
+    @Test
+    public void testFeedMarksEventsLikedByViewer() throws SQLException {
+        logEventDAO.likeEvent(eventId, 1);
+
+        LogEvent seenByLiker = logEventDAO.getLogEventsForOtherUsers(1).get(0);
+        LogEvent seenByOther = logEventDAO.getLogEventsForOtherUsers(3).get(0);
+
+        assertTrue(seenByLiker.isLikedByViewer());
+        assertFalse(seenByOther.isLikedByViewer());
+        assertEquals(1, seenByOther.getLikeCount());
+    }
+
+    @Test
+    public void testFeedIsPagedNewestFirstByCursor() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("INSERT INTO logs (id, user_id, log_name) VALUES (1, 2, 'Bookshelf')");
+        }
+        // Events on the same day share a timestamp, so the ID decides their order
+        for (int i = 0; i < 4; i++) {
+            String timestamp = i < 2 ? "2024-05-01" : "2024-05-02";
+            logEventDAO.insertLogEvent(new StartEvent(0, 2, 1, "Bookshelf", timestamp, 0, 0, false));
+        }
+        logEventDAO.insertLogEvent(new StartEvent(0, 1, 1, "Own log"));
+
+        List<Integer> seen = new ArrayList<>();
+        FeedCursor cursor = null;
+        List<FeedItem> page;
+        do {
+            page = logEventDAO.getFeedPage(1, cursor, 2);
+            for (FeedItem item : page) {
+                seen.add(item.getEvent().getId());
+            }
+            if (!page.isEmpty()) {
+                cursor = FeedCursor.after(page.get(page.size() - 1));
+            }
+        } while (page.size() == 2);
+
+        // The setUp event is dated today, so it comes first; the viewer's own event is left out
+        List<LogEvent> all = logEventDAO.getLogEventsForUser(2);
+        assertEquals(5, seen.size());
+        assertEquals(eventId, (int) seen.get(0));
+        assertEquals(List.of(all.get(3).getId(), all.get(2).getId(), all.get(1).getId(), all.get(0).getId()),
+                seen.subList(1, 5));
+
+        // A new event does not shift the pages that follow an existing cursor
+        FeedCursor afterFirst = new FeedCursor("2024-05-02", seen.get(2));
+        logEventDAO.insertLogEvent(new StartEvent(0, 2, 1, "Bookshelf"));
+        assertEquals((int) seen.get(3), logEventDAO.getFeedPage(1, afterFirst, 1).get(0).getEvent().getId());
+    }
+
+    @Test
+    public void testFeedPageJoinsAuthorAndLogAndSkipsOrphans() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("INSERT INTO users (firstName, lastName, email, password) VALUES ('Grace', 'Hopper', 'grace@example.com', 'pw')");
+            stmt.execute("INSERT INTO user_profiles (user_id, bio, photo) VALUES (2, '', 'https://example.com/grace.jpg')");
+            stmt.execute("INSERT INTO logs (id, user_id, log_name) VALUES (1, 2, 'Bookshelf')");
+        }
+        // An event whose log has been deleted
+        logEventDAO.insertLogEvent(new StartEvent(0, 2, 99, "Gone"));
+        logEventDAO.likeEvent(eventId, 1);
+        logEventDAO.addComment(eventId, 1, "Nice");
+
+        List<FeedItem> page = logEventDAO.getFeedPage(1, null, 10);
+
+        assertEquals(1, page.size());
+        FeedItem item = page.get(0);
+        assertEquals(eventId, item.getEvent().getId());
+        assertEquals("Grace", item.getAuthorName());
+        assertEquals("https://example.com/grace.jpg", item.getAuthorPhoto());
+        assertEquals("Bookshelf", item.getLogName());
+        assertEquals(1, item.getLikeCount());
+        assertEquals(1, item.getCommentCount());
+        assertTrue(item.getEvent().isLikedByViewer());
+    }
+
+    @Test
+    public void testRowsAreMappedToTheirEventType() throws SQLException {
+        logEventDAO.insertLogEvent(new ImageEvent(0, 2, 5, "bench.jpg"));
+        logEventDAO.insertLogEvent(new MaterialEvent(0, 2, 5, "Oak"));
+
+        List<LogEvent> events = logEventDAO.getLogEventsForLog(5);
+
+        assertEquals(2, events.size());
+        assertInstanceOf(ImageEvent.class, events.get(0));
+        assertEquals("added new media: bench.jpg", events.get(0).getDescription());
+        assertEquals("bench.jpg", ((ImageEvent) events.get(0)).getImagePath(events.get(0).getDescription()));
+        assertInstanceOf(MaterialEvent.class, events.get(1));
+        assertEquals(2, events.get(1).getUserId());
+        assertEquals(5, events.get(1).getLogId());
+        assertTrue(events.get(1).getId() > events.get(0).getId());
+        assertNotNull(events.get(1).getTimestamp());
+    }
+
+    @Test
+    public void testCommentsArePagedByKeyset() throws SQLException {
+        for (int i = 1; i <= 5; i++) {
+            logEventDAO.addComment(eventId, 1, "Comment " + i);
+        }
+
+        List<EventComment> firstPage = logEventDAO.getComments(eventId, 0, 2);
+        List<EventComment> secondPage = logEventDAO.getComments(eventId, firstPage.get(1).getId(), 2);
+        List<EventComment> lastPage = logEventDAO.getComments(eventId, secondPage.get(1).getId(), 2);
+
+        assertEquals("Comment 1", firstPage.get(0).getBody());
+        assertEquals("Comment 3", secondPage.get(0).getBody());
+        assertEquals(1, lastPage.size());
+        assertEquals("Ada: Comment 5", lastPage.get(0).getDisplayText());
+        assertEquals(5, logEventDAO.getLogEventsForLog(1).get(0).getCommentCount());
+    }
+
+    @Test
+    public void testMigrationCopiesLegacyLikesAndComments() throws SQLException {
+        Connection legacy = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = legacy.createStatement()) {
+            stmt.execute("CREATE TABLE log_events (id INTEGER PRIMARY KEY AUTOINCREMENT, timestamp TEXT NOT NULL, "
+                    + "description TEXT NOT NULL, user_id INTEGER NOT NULL, log_id INTEGER NOT NULL, "
+                    + "event_type TEXT NOT NULL, comments TEXT, likes TEXT)");
+            stmt.execute("INSERT INTO log_events (timestamp, description, user_id, log_id, event_type, comments, likes) "
+                    + "VALUES ('2024-10-01', 'x', 2, 1, 'StartEvent', 'Ada: nice||Bob: great, really', '1,3,1')");
+        }
+
+        new MigrationRunner(List.of(new EventLikesCommentsMigration())).migrate(legacy);
+
+        try (Statement stmt = legacy.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT like_count, comment_count, likes, comments FROM log_events")) {
+            assertTrue(rs.next());
+            assertEquals(2, rs.getInt(1));
+            assertEquals(2, rs.getInt(2));
+            assertNull(rs.getString(3));
+            assertNull(rs.getString(4));
+        }
+        try (Statement stmt = legacy.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT body FROM event_comments ORDER BY id")) {
+            assertTrue(rs.next());
+            assertEquals("Ada: nice", rs.getString(1));
+            assertTrue(rs.next());
+            assertEquals("Bob: great, really", rs.getString(1));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+import com.example.demoplswork.events.LogEvent;
+import com.example.demoplswork.events.LogEventDAO;
+import com.example.demoplswork.model.BaseDAO;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+/**
+ * Allocation benchmark for mapping log_events rows to LogEvent objects.
+ * Loads one user's events from an in-memory database and reports the bytes allocated and the time taken per row,
+ * as measured by the thread allocation counter (the same counter the JMH GC profiler reads).
+ * Events are plain data objects, so each row should cost the event and its strings, with no DAOs behind it.
+ * Run with: java LogEventMappingBenchmark [rows] [iterations]
+ */
+public class LogEventMappingBenchmark {
+
+    private static final String[] TYPES = {"StartEvent", "ToDoEvent", "MaterialEvent", "ImageEvent", "EndEvent"};
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        LogEventDAO logEventDAO = new LogEventDAO();
+        BaseDAO.setConnection(conn);
+        TestDatabase.createSchema(logEventDAO, conn);
+        insertEvents(conn, rows);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < 3; i++) {
+            logEventDAO.getLogEventsForUser(1);  // Warm up
+        }
+
+        System.out.println("iteration, rows, bytes/row, ns/row");
+        long totalBytes = 0;
+        long totalNanos = 0;
+        for (int i = 1; i <= iterations; i++) {
+            long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            List<LogEvent> events = logEventDAO.getLogEventsForUser(1);
+            long nanos = System.nanoTime() - start;
+            long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+            if (events.size() != rows) {
+                throw new IllegalStateException("Expected " + rows + " events but mapped " + events.size());
+            }
+            totalBytes += bytes;
+            totalNanos += nanos;
+            System.out.printf("%d, %d, %d, %d%n", i, rows, bytes / rows, nanos / rows);
+        }
+        System.out.printf("average: %d bytes/row, %d ns/row%n",
+                totalBytes / ((long) rows * iterations), totalNanos / ((long) rows * iterations));
+
+        BaseDAO.setConnection(null);
+        conn.close();
+    }
+
+    private static void insertEvents(Connection conn, int rows) throws Exception {
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO log_events (timestamp, description, user_id, log_id, event_type) VALUES (?, ?, 1, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                stmt.setString(1, "2024-05-" + String.format("%02d", 1 + i % 28));
+                stmt.setString(2, "Event " + i);
+                stmt.setInt(3, 1 + i % 50);
+                stmt.setString(4, TYPES[i % TYPES.length]);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        conn.commit();
+        conn.setAutoCommit(true);
+    }
+}
@@ -4,8 +4,12 @@ import com.example.demoplswork.model.BaseDAO;
 import com.example.demoplswork.model.LogsDAO;
 import com.example.demoplswork.model.Logs;
 import com.example.demoplswork.model.Material;
+import com.example.demoplswork.model.LogImagesMaterialsMigration;
+import com.example.demoplswork.model.MigrationRunner;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
@@ -104,7 +108,74 @@ public class LogsDAOTest {
         assertEquals(logName, retrievedLog.getLogName());
         assertEquals(50.0, retrievedLog.getProgress());
     }
-}
 
+    @Test
+    public void testImagesAndMaterialsKeepTheirOrder() throws SQLException {
+        List<String> images = new ArrayList<>(List.of("a.jpg", "b.jpg"));
+        List<Material> materials = new ArrayList<>(List.of(new Material("Pine", 3, 12.5)));
+        int logId = logsDAO.insertLog(1, new Logs("Test Log", new ArrayList<>(), images, materials));
+
+        logsDAO.addImage(logId, "c.jpg");
+        logsDAO.addMaterial(logId, new Material("Screws", 100, 0.05));
+
+        Logs retrievedLog = logsDAO.getLogById(logId);
+        assertEquals(List.of("a.jpg", "b.jpg", "c.jpg"), retrievedLog.getImages());
+        assertEquals("Pine", retrievedLog.getMaterials().get(0).getName());
+        assertEquals("Screws", retrievedLog.getMaterials().get(1).getName());
+        assertEquals(100, retrievedLog.getMaterials().get(1).getQuantity());
+    }
 
+    @Test
+    public void testRemoveImage() throws SQLException {
+        int logId = logsDAO.insertLog(1, new Logs("Test Log", new ArrayList<>(), new ArrayList<>(List.of("a.jpg", "b.jpg")), new ArrayList<>()));
+
+        logsDAO.removeImage(logId, "a.jpg");
+        logsDAO.addImage(logId, "c.jpg");
+
+        assertEquals(List.of("b.jpg", "c.jpg"), logsDAO.getLogById(logId).getImages());
+    }
 
+    @Test
+    public void testDeleteLogRemovesImagesAndMaterials() throws SQLException {
+        int logId = logsDAO.insertLog(1, new Logs("Test Log", new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+        logsDAO.addImage(logId, "a.jpg");
+        logsDAO.addMaterial(logId, new Material("Pine", 2, 10.0));
+
+        logsDAO.deleteLog(logId);
+
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM log_images")) {
+            assertEquals(0, rs.getInt(1));
+        }
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM log_materials")) {
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    public void testMigrationCopiesLegacyImagesAndMaterials() throws SQLException {
+        Connection legacy = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = legacy.createStatement()) {
+            stmt.execute("CREATE TABLE logs (id INTEGER PRIMARY KEY AUTOINCREMENT, user_id INTEGER NOT NULL, "
+                    + "log_name TEXT NOT NULL, to_do_items TEXT, images TEXT, progress REAL, materials TEXT)");
+            stmt.execute("INSERT INTO logs (user_id, log_name, images, materials) "
+                    + "VALUES (1, 'Old', 'a.jpg,b.jpg', 'Pine:2:10.0,Glue:1:4.5,')");
+        }
+
+        new MigrationRunner(List.of(new LogImagesMaterialsMigration())).migrate(legacy);
+
+        try (Statement stmt = legacy.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*), SUM(quantity * price) FROM log_materials")) {
+            assertEquals(2, rs.getInt(1));
+            assertEquals(24.5, rs.getDouble(2), 0.0001);
+        }
+        try (Statement stmt = legacy.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT path FROM log_images ORDER BY position")) {
+            assertTrue(rs.next());
+            assertEquals("a.jpg", rs.getString(1));
+            assertTrue(rs.next());
+            assertEquals("b.jpg", rs.getString(1));
+        }
+    }
+}
@@ -0,0 +1,234 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.ImageDiskCache;
+import com.example.demoplswork.model.MediaFetcher;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+public class MediaFetcherTest {
+
+    private static final int IMAGE_SIZE = 20_000;
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private Path directory;
+    private volatile String version = "v1";
+    private volatile CountDownLatch slow = null;  // When set, responses wait for it
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicInteger notModifiedSent = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("media-fetcher-test");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        server.stop(0);
+        serverThreads.shutdownNow();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // Serves IMAGE_SIZE bytes of the current version under its ETag, honouring If-None-Match, and counts what it sends
+    private void handle(HttpExchange exchange) throws IOException {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            try (InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+            }
+            CountDownLatch gate = slow;
+            if (gate != null) {
+                gate.await(5, TimeUnit.SECONDS);
+            }
+            if (exchange.getRequestURI().getPath().endsWith("missing.jpg")) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            String etag = "\"" + version + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModifiedSent.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            byte[] body = new byte[IMAGE_SIZE];
+            Arrays.fill(body, (byte) version.charAt(1));
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            bytesSent.addAndGet(body.length);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private String url(String name) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/" + name;
+    }
+
+    private MediaFetcher fetcher(int maxConcurrent) {
+        return new MediaFetcher(MediaFetcher.newClient(Duration.ofSeconds(2)), maxConcurrent, Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testUnchangedImageComesBackAsNotModified() throws IOException {
+        MediaFetcher fetcher = fetcher(4);
+        ImageDiskCache cache = new ImageDiskCache(directory, 1_000_000, fetcher, 0);  // Always revalidate
+        Path first = cache.get(url("a.jpg"));
+        Path second = cache.get(url("a.jpg"));
+
+        assertEquals(first, second);
+        assertEquals(IMAGE_SIZE, Files.size(second));
+        assertEquals(IMAGE_SIZE, bytesSent.get());  // The body was only sent once
+        assertEquals(IMAGE_SIZE, fetcher.getBytesReceived());
+        assertEquals(1, notModifiedSent.get());
+        assertEquals(1, fetcher.getNotModified());
+        assertEquals(1, cache.getRevalidations());
+        assertEquals(1, cache.getNotModified());
+
+        // The ETag is kept on disk, so a new cache revalidates instead of downloading again
+        ImageDiskCache reopened = new ImageDiskCache(directory, 1_000_000, fetcher, 0);
+        reopened.get(url("a.jpg"));
+        assertEquals(IMAGE_SIZE, bytesSent.get());
+        assertEquals(2, notModifiedSent.get());
+    }
+
+    @Test
+    public void testChangedImageIsDownloadedAgain() throws IOException {
+        MediaFetcher fetcher = fetcher(4);
+        ImageDiskCache cache = new ImageDiskCache(directory, 1_000_000, fetcher, 0);
+        List<String> replaced = new ArrayList<>();
+        cache.addReplacedListener(replaced::add);
+        Path file = cache.get(url("a.jpg"));
+        cache.get(url("a.jpg"));  // Not modified
+        assertTrue(replaced.isEmpty());
+        version = "v2";
+        cache.get(url("a.jpg"));
+
+        assertEquals(2 * IMAGE_SIZE, bytesSent.get());
+        assertEquals('2', (char) Files.readAllBytes(file)[0]);
+        assertEquals(IMAGE_SIZE, cache.getTotalBytes());
+        assertEquals(1, cache.getNotModified());
+        assertEquals(List.of(url("a.jpg")), replaced);  // So the memory cache drops the old version
+    }
+
+    @Test
+    public void testFreshEntriesAreNotRevalidated() throws IOException {
+        MediaFetcher fetcher = fetcher(4);
+        ImageDiskCache cache = new ImageDiskCache(directory, 1_000_000, fetcher, 60_000);
+        cache.get(url("a.jpg"));
+        cache.get(url("a.jpg"));
+
+        assertEquals(1, fetcher.getRequests());
+        assertEquals(0, cache.getRevalidations());
+    }
+
+    @Test
+    public void testErrorStatusIsNotCached() throws IOException {
+        MediaFetcher fetcher = fetcher(4);
+        ImageDiskCache cache = new ImageDiskCache(directory, 1_000_000, fetcher, 0);
+        try {
+            cache.get(url("missing.jpg"));
+            fail("expected an IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("404"));
+        }
+        assertEquals(0, cache.size());
+        assertEquals(4, fetcher.getAvailable());  // The failed download gave its place back
+    }
+
+    @Test
+    public void testConnectionIsReused() throws IOException {
+        MediaFetcher fetcher = fetcher(4);
+        ImageDiskCache cache = new ImageDiskCache(directory, 1_000_000, fetcher, 0);
+        for (int i = 0; i < 5; i++) {
+            cache.get(url("image" + i + ".jpg"));
+        }
+        cache.get(url("image0.jpg"));
+
+        assertEquals(6, fetcher.getRequests());
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    public void testConcurrentDownloadsAreBounded() throws Exception {
+        MediaFetcher fetcher = fetcher(2);
+        ImageDiskCache cache = new ImageDiskCache(directory, 1_000_000, fetcher);
+        slow = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<Path>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                String url = url("image" + i + ".jpg");
+                results.add(pool.submit(() -> cache.get(url)));
+            }
+            for (int i = 0; i < 500 && running.get() < 2; i++) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(100);  // Give any download past the limit time to reach the server
+            assertEquals(2, running.get());
+
+            slow.countDown();
+            for (Future<Path> result : results) {
+                assertEquals(IMAGE_SIZE, Files.size(result.get(5, TimeUnit.SECONDS)));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(2, maxRunning.get());
+        assertEquals(2, fetcher.getAvailable());
+    }
+
+    @Test
+    public void testStaleCopyIsUsedWhenTheServerIsDown() throws IOException {
+        MediaFetcher fetcher = fetcher(4);
+        ImageDiskCache cache = new ImageDiskCache(directory, 1_000_000, fetcher, 0);
+        Path file = cache.get(url("a.jpg"));
+        server.stop(0);
+
+        assertEquals(file, cache.get(url("a.jpg")));
+        assertEquals(IMAGE_SIZE, Files.size(file));
+    }
+}
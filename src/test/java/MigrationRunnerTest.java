@@ -0,0 +1,118 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.Migration;
+import com.example.demoplswork.model.MigrationRunner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+public class MigrationRunnerTest {
+
+    private Connection connection;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE items (id INTEGER PRIMARY KEY, name TEXT)");
+        }
+    }
+
+    private static Migration migration(int version, String... statements) {
+        return migration(version, 1, statements);
+    }
+
+    private static Migration migration(int version, int codeRevision, String... statements) {
+        return new Migration() {
+            @Override
+            protected int getCodeRevision() {
+                return codeRevision;
+            }
+
+            @Override
+            public int getVersion() {
+                return version;
+            }
+
+            @Override
+            public String getDescription() {
+                return "test migration " + version;
+            }
+
+            @Override
+            protected List<String> getStatements() {
+                return List.of(statements);
+            }
+        };
+    }
+
+    @Test
+    public void testAppliesPendingMigrationsInOrder() throws SQLException {
+        MigrationRunner runner = new MigrationRunner(List.of(
+                migration(2, "CREATE INDEX idx_items_price ON items(price)"),
+                migration(1, "ALTER TABLE items ADD COLUMN price REAL")
+        ));
+
+        assertEquals(2, runner.migrate(connection));
+        assertEquals(2, runner.getCurrentVersion(connection));
+    }
+
+    @Test
+    public void testSecondRunAppliesNothing() throws SQLException {
+        MigrationRunner runner = new MigrationRunner(List.of(migration(1, "ALTER TABLE items ADD COLUMN price REAL")));
+        runner.migrate(connection);
+
+        assertEquals(0, runner.migrate(connection));
+    }
+
+    @Test
+    public void testSkipsAddColumnWhenColumnExists() throws SQLException {
+        MigrationRunner runner = new MigrationRunner(List.of(migration(1, "ALTER TABLE items ADD COLUMN name TEXT")));
+
+        assertEquals(1, runner.migrate(connection));
+    }
+
+    @Test
+    public void testEditedMigrationFailsChecksum() throws SQLException {
+        new MigrationRunner(List.of(migration(1, "ALTER TABLE items ADD COLUMN price REAL"))).migrate(connection);
+
+        MigrationRunner edited = new MigrationRunner(List.of(migration(1, "ALTER TABLE items ADD COLUMN cost REAL")));
+        assertThrows(IllegalStateException.class, () -> edited.migrate(connection));
+    }
+
+    @Test
+    public void testFailedMigrationIsRolledBack() throws SQLException {
+        MigrationRunner runner = new MigrationRunner(List.of(
+                migration(1, "CREATE TABLE extra (id INTEGER PRIMARY KEY)", "INSERT INTO missing_table VALUES (1)")
+        ));
+
+        assertThrows(SQLException.class, () -> runner.migrate(connection));
+        assertEquals(0, runner.getCurrentVersion(connection));
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM sqlite_master WHERE name = 'extra'")) {
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    public void testDuplicateVersionsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new MigrationRunner(List.of(
+                migration(1, "SELECT 1"),
+                migration(1, "SELECT 2")
+        )));
+    }
+
+    @Test
+    public void testChangedCodeRevisionFailsChecksum() throws SQLException {
+        new MigrationRunner(List.of(migration(1, "ALTER TABLE items ADD COLUMN price REAL"))).migrate(connection);
+
+        MigrationRunner changed = new MigrationRunner(List.of(migration(1, 2, "ALTER TABLE items ADD COLUMN price REAL")));
+        assertThrows(IllegalStateException.class, () -> changed.migrate(connection));
+    }
+}
@@ -0,0 +1,165 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.BaseDAO;
+import com.example.demoplswork.model.LogsDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class QueryPlanTest {
+
+    // A plan line like "SCAN log_events" (no index) means the whole table is read
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (TABLE )?\\w+$");
+
+    private Connection connection;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        String url = "jdbc:sqlite::memory:";
+        connection = DriverManager.getConnection(url);
+        LogsDAO logsDAO = new LogsDAO();
+        BaseDAO.setConnection(connection);
+        TestDatabase.createSchema(logsDAO, connection); // Create the tables and apply all migrations
+    }
+
+    private List<String> explain(String sql) throws SQLException {
+        List<String> details = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                details.add(rs.getString("detail"));
+            }
+        }
+        return details;
+    }
+
+    private void assertUsesIndex(String sql) throws SQLException {
+        List<String> plan = explain(sql);
+        assertFalse(plan.isEmpty(), "No query plan for: " + sql);
+        for (String detail : plan) {
+            assertFalse(FULL_SCAN.matcher(detail).matches(), "Full table scan for: " + sql + " -> " + plan);
+            assertFalse(detail.contains("TEMP B-TREE"), "Sort without index for: " + sql + " -> " + plan);
+        }
+    }
+
+    @Test
+    public void testLogEventsForOtherUsersQuery() throws SQLException {
+        assertUsesIndex("SELECT e.*, EXISTS (SELECT 1 FROM event_likes l WHERE l.event_id = e.id AND l.user_id = ?) AS liked_by_viewer "
+                + "FROM log_events e WHERE e.user_id != ? ORDER BY e.timestamp ASC");
+    }
+
+    @Test
+    public void testFeedPageQueries() throws SQLException {
+        String select = "SELECT e.*, u.firstName AS author_name, p.photo AS author_photo, g.log_name, "
+                + "EXISTS (SELECT 1 FROM event_likes l WHERE l.event_id = e.id AND l.user_id = ?) AS liked_by_viewer "
+                + "FROM log_events e "
+                + "JOIN logs g ON g.id = e.log_id "
+                + "LEFT JOIN users u ON u.id = e.user_id "
+                + "LEFT JOIN user_profiles p ON p.user_id = e.user_id "
+                + "WHERE e.user_id != ? ";
+        assertUsesIndex(select + "ORDER BY e.timestamp DESC, e.id DESC LIMIT ?");
+        assertUsesIndex(select + "AND (e.timestamp, e.id) < (?, ?) ORDER BY e.timestamp DESC, e.id DESC LIMIT ?");
+    }
+
+    @Test
+    public void testLogEventsForLogQuery() throws SQLException {
+        assertUsesIndex("SELECT * FROM log_events WHERE log_id = ? ORDER BY timestamp ASC");
+    }
+
+    @Test
+    public void testLogEventsForUserQuery() throws SQLException {
+        assertUsesIndex("SELECT * FROM log_events WHERE user_id = ? ORDER BY timestamp ASC");
+    }
+
+    @Test
+    public void testCommentPageQuery() throws SQLException {
+        assertUsesIndex("SELECT c.id, c.user_id, c.body, c.created_at, u.firstName FROM event_comments c "
+                + "LEFT JOIN users u ON u.id = c.user_id "
+                + "WHERE c.event_id = ? AND c.id > ? ORDER BY c.id LIMIT ?");
+    }
+
+    @Test
+    public void testLikeQueries() throws SQLException {
+        assertUsesIndex("SELECT 1 FROM event_likes WHERE event_id = ? AND user_id = ?");
+        assertUsesIndex("DELETE FROM event_likes WHERE event_id = ? AND user_id = ?");
+        assertUsesIndex("SELECT like_count FROM log_events WHERE id = ?");
+    }
+
+    @Test
+    public void testLogsForUserQuery() throws SQLException {
+        assertUsesIndex("SELECT id, log_name, images, materials, progress FROM logs WHERE user_id = ?");
+    }
+
+    @Test
+    public void testLogByIdQueries() throws SQLException {
+        assertUsesIndex("SELECT log_name, images, materials, progress FROM logs WHERE id = ?");
+        assertUsesIndex("SELECT user_id FROM logs WHERE id = ?");
+        assertUsesIndex("SELECT COUNT(1) FROM logs WHERE id = ?");
+    }
+
+    @Test
+    public void testToDoItemQueries() throws SQLException {
+        assertUsesIndex("SELECT id FROM log_todo_items WHERE log_id = ? AND task = ? ORDER BY id LIMIT 1");
+        assertUsesIndex("SELECT id, log_id, task, is_checked FROM log_todo_items WHERE log_id = ? ORDER BY id");
+        assertUsesIndex("SELECT log_id FROM log_todo_items WHERE id = ?");
+        assertUsesIndex("SELECT id, log_id, task, is_checked FROM log_todo_items "
+                + "WHERE log_id IN (SELECT id FROM logs WHERE user_id = ?) ORDER BY log_id, id");
+    }
+
+    @Test
+    public void testImageAndMaterialQueries() throws SQLException {
+        assertUsesIndex("SELECT log_id, path FROM log_images WHERE log_id = ? ORDER BY position");
+        assertUsesIndex("SELECT log_id, path FROM log_images WHERE log_id IN (SELECT id FROM logs WHERE user_id = ?) ORDER BY log_id, position");
+        assertUsesIndex("SELECT log_id, name, quantity, price FROM log_materials WHERE log_id = ? ORDER BY position");
+        assertUsesIndex("SELECT log_id, name, quantity, price FROM log_materials WHERE log_id IN (SELECT id FROM logs WHERE user_id = ?) ORDER BY log_id, position");
+        assertUsesIndex("SELECT COALESCE(MAX(position) + 1, 0) FROM log_materials WHERE log_id = ?");
+    }
+
+    @Test
+    public void testSpendAggregateQueries() throws SQLException {
+        assertUsesIndex("SELECT COALESCE(SUM(quantity * price), 0) FROM log_materials WHERE log_id IN (SELECT id FROM logs WHERE user_id = ?)");
+        assertUsesIndex("SELECT COALESCE(SUM(quantity * price), 0) FROM log_materials WHERE log_id = ?");
+    }
+
+    @Test
+    public void testStatsQueries() throws SQLException {
+        assertUsesIndex("SELECT total_spend, tasks_completed, projects_completed, materials_used, total_likes, total_comments "
+                + "FROM user_stats WHERE user_id = ?");
+        assertUsesIndex("SELECT total_spend, tasks_completed, projects_completed, materials_used, total_likes, total_comments "
+                + "FROM log_stats WHERE log_id = ?");
+        assertUsesIndex("SELECT log_id, total_likes, total_comments FROM log_stats WHERE user_id = ?");
+    }
+
+    @Test
+    public void testSnapshotQueries() throws SQLException {
+        assertUsesIndex("SELECT id, log_id, created_at, quantity * price FROM log_materials "
+                + "WHERE id > ? AND log_id IN (SELECT id FROM logs WHERE user_id = ?)");
+        assertUsesIndex("SELECT COUNT(*) FROM log_materials WHERE id <= ? AND log_id IN (SELECT id FROM logs WHERE user_id = ?)");
+        assertUsesIndex("SELECT id, event_type, timestamp FROM log_events WHERE id > ? AND user_id = ?");
+        assertUsesIndex("SELECT COUNT(*) FROM log_events WHERE id <= ? AND user_id = ?");
+        assertUsesIndex("SELECT rowid, event_id, created_at FROM event_likes "
+                + "WHERE rowid > ? AND event_id IN (SELECT id FROM log_events WHERE user_id = ?)");
+        assertUsesIndex("SELECT COUNT(*) FROM event_likes WHERE rowid <= ? AND event_id IN (SELECT id FROM log_events WHERE user_id = ?)");
+    }
+
+    @Test
+    public void testProfileQueries() throws SQLException {
+        assertUsesIndex("SELECT COUNT(*) FROM user_profiles WHERE user_id = ?");
+        assertUsesIndex("SELECT bio, photo FROM user_profiles WHERE user_id = ?");
+    }
+
+    @Test
+    public void testContactQueries() throws SQLException {
+        assertUsesIndex("SELECT * FROM users WHERE email = ? AND password = ?");
+        assertUsesIndex("SELECT id FROM users WHERE email = ?");
+        assertUsesIndex("SELECT firstName, lastName FROM users WHERE id = ?");
+    }
+}
@@ -0,0 +1,104 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.Rendition;
+import com.example.demoplswork.model.RenditionGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class RenditionGeneratorTest {
+
+    private static final String KEY = "media/9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    private Path directory;
+    private RenditionGenerator generator;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("rendition-test");
+        generator = new RenditionGenerator(directory.resolve("renditions"), 2);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        generator.shutdown();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private Path picture(String name, int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.BLUE);
+        g.fillOval(width / 4, height / 4, width / 2, height / 2);
+        g.dispose();
+        Path file = directory.resolve(name);
+        ImageIO.write(image, format, file.toFile());
+        return file;
+    }
+
+    @Test
+    public void testEverySmallerRenditionIsMadeAndCoversItsSize() throws Exception {
+        Path photo = picture("photo.jpg", 3000, 4000, "jpg");
+        Map<Rendition, Path> files = generator.generate(photo, KEY + ".jpg").get(30, TimeUnit.SECONDS);
+
+        assertEquals(2, files.size());
+        assertFalse(files.containsKey(Rendition.FULL));
+        for (Map.Entry<Rendition, Path> entry : files.entrySet()) {
+            BufferedImage image = ImageIO.read(entry.getValue().toFile());
+            assertEquals(entry.getKey().getSize(), Math.min(image.getWidth(), image.getHeight()));
+            assertEquals(4.0 / 3, (double) image.getHeight() / image.getWidth(), 0.02);  // Keeps its proportions
+            assertTrue(Files.size(entry.getValue()) < Files.size(photo));
+            assertTrue(generator.owns(entry.getValue()));
+        }
+        assertEquals(directory.resolve("renditions").resolve(Rendition.THUMB.of(KEY + ".jpg").substring(6)),
+                files.get(Rendition.THUMB));
+        assertEquals(2, generator.getGenerated());
+    }
+
+    @Test
+    public void testSmallPictureIsNotScaledUp() throws Exception {
+        Path icon = picture("icon.png", 64, 48, "png");
+        Map<Rendition, Path> files = generator.generate(icon, KEY + ".png").get(30, TimeUnit.SECONDS);
+
+        BufferedImage card = ImageIO.read(files.get(Rendition.CARD).toFile());
+        assertEquals(64, card.getWidth());
+        assertEquals(48, card.getHeight());
+        assertTrue(files.get(Rendition.CARD).toString().endsWith(".card.png"));
+    }
+
+    @Test
+    public void testRenditionsAreOnlyMadeOnce() throws Exception {
+        Path photo = picture("photo.jpg", 1200, 900, "jpg");
+        generator.generate(photo, KEY + ".jpg").get(30, TimeUnit.SECONDS);
+        generator.generate(photo, KEY + ".jpg").get(30, TimeUnit.SECONDS);
+        assertEquals(2, generator.getGenerated());
+    }
+
+    @Test
+    public void testFileThatIsNotAPictureFails() throws Exception {
+        Path text = Files.writeString(directory.resolve("notes.jpg"), "not a picture");
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> generator.generate(text, KEY + ".jpg").get(30, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, e.getCause().getCause());
+        assertFalse(generator.owns(text));
+    }
+}
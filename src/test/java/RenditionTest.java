@@ -0,0 +1,45 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.Rendition;
+import org.junit.jupiter.api.Test;
+
+public class RenditionTest {
+
+    private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+    private static final String URL = "https://hobby-log.s3.ap-southeast-2.amazonaws.com/media/" + HASH + ".jpg";
+
+    @Test
+    public void testRenditionKeysAreMadeFromTheOriginal() {
+        assertEquals("media/" + HASH + ".thumb.jpg", Rendition.THUMB.of("media/" + HASH + ".jpg"));
+        assertEquals("media/" + HASH + ".card.png", Rendition.CARD.of("media/" + HASH + ".png"));
+        assertEquals("media/" + HASH + ".jpg", Rendition.FULL.of("media/" + HASH + ".jpg"));
+    }
+
+    @Test
+    public void testOnlyContentKeyedPicturesHaveRenditions() {
+        assertTrue(Rendition.hasRenditions("media/" + HASH + ".jpg"));
+        assertTrue(Rendition.hasRenditions(URL));
+        assertFalse(Rendition.hasRenditions("https://hobby-log.s3.ap-southeast-2.amazonaws.com/IMG_0001.jpg"));
+        assertFalse(Rendition.hasRenditions("media/" + HASH + ".mp4"));
+        assertFalse(Rendition.hasRenditions(Rendition.CARD.of(URL)));
+        assertFalse(Rendition.hasRenditions(null));
+    }
+
+    @Test
+    public void testSmallestRenditionThatCoversTheViewIsPicked() {
+        assertEquals(Rendition.THUMB, Rendition.forFitSize(50, 50));      // Avatars
+        assertEquals(Rendition.CARD, Rendition.forFitSize(200, 150));     // Feed cards
+        assertEquals(Rendition.CARD, Rendition.forFitSize(250, 200));     // Log tiles
+        assertEquals(Rendition.CARD, Rendition.forFitSize(400, 400));
+        assertEquals(Rendition.FULL, Rendition.forFitSize(800, 600));
+        assertEquals(Rendition.FULL, Rendition.forFitSize(0, 0));         // No fit size, so shown at its own size
+    }
+
+    @Test
+    public void testResolve() {
+        assertEquals(Rendition.THUMB.of(URL), Rendition.resolve(URL, 50, 50));
+        assertEquals(URL, Rendition.resolve(URL, 1000, 800));
+        String named = "https://hobby-log.s3.ap-southeast-2.amazonaws.com/IMG_0001.jpg";
+        assertEquals(named, Rendition.resolve(named, 50, 50));  // Uploaded before renditions were made
+    }
+}
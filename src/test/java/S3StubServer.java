@@ -0,0 +1,361 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An in-process stand-in for the parts of the S3 REST API the app uses, with path-style addressing:
+ * PutObject, HeadObject, GetObject, DeleteObject and the multipart upload calls.
+ * Objects are kept in memory by "bucket/key". Requests are not authenticated.
+ * It counts the requests and body bytes it receives, can answer the next requests that change something with
+ * 503 SlowDown, and can hold uploads until the test lets them through.
+ */
+public class S3StubServer implements AutoCloseable {
+    private static final Pattern PART_NUMBER = Pattern.compile("<PartNumber>(\\d+)</PartNumber>");
+
+    private final HttpServer server;
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, byte[]>> multipartUploads = new ConcurrentHashMap<>();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger puts = new AtomicInteger();
+    private final AtomicInteger parts = new AtomicInteger();
+    private final AtomicInteger heads = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong partBytes = new AtomicLong();
+    private volatile CountDownLatch gate = null;
+
+    public S3StubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(threads);
+        server.start();
+    }
+
+    public URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    /**
+     * Makes a client for the stub that does not retry, so every failure the stub makes reaches the caller.
+     */
+    public S3Client client() {
+        return S3Client.builder()
+                .endpointOverride(endpoint())
+                .region(Region.AP_SOUTHEAST_2)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .forcePathStyle(true)
+                .overrideConfiguration(config -> config.retryPolicy(software.amazon.awssdk.core.retry.RetryPolicy.none()))
+                .build();
+    }
+
+    /**
+     * Gets the URL prefix of a bucket's objects on the stub.
+     */
+    public String urlPrefix(String bucket) {
+        return endpoint() + "/" + bucket + "/";
+    }
+
+    public byte[] getObject(String bucket, String key) {
+        return objects.get(bucket + "/" + key);
+    }
+
+    public void putObject(String bucket, String key, byte[] data) {
+        objects.put(bucket + "/" + key, data);
+    }
+
+    public int getObjectCount() {
+        return objects.size();
+    }
+
+    public int getOpenMultipartUploads() {
+        return multipartUploads.size();
+    }
+
+    /**
+     * Answers the next requests that change something with 503 SlowDown.
+     */
+    public void failNext(int count) {
+        failures.set(count);
+    }
+
+    /**
+     * Holds every PUT until release is called.
+     */
+    public void hold() {
+        gate = new CountDownLatch(1);
+    }
+
+    public void release() {
+        CountDownLatch held = gate;
+        gate = null;
+        if (held != null) {
+            held.countDown();
+        }
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    public int getPuts() {
+        return puts.get();
+    }
+
+    public int getParts() {
+        return parts.get();
+    }
+
+    public int getHeads() {
+        return heads.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long getPartBytes() {
+        return partBytes.get();
+    }
+
+    public void resetCounters() {
+        puts.set(0);
+        parts.set(0);
+        heads.set(0);
+        bytesReceived.set(0);
+        partBytes.set(0);
+    }
+
+    @Override
+    public void close() {
+        release();
+        server.stop(0);
+        threads.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath().substring(1);  // bucket/key
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            byte[] body = readBody(exchange);
+            bytesReceived.addAndGet(body.length);
+
+            if (!method.equals("GET") && !method.equals("HEAD")
+                    && failures.getAndUpdate(n -> Math.max(n - 1, 0)) > 0) {
+                error(exchange, 503, "SlowDown", "Please reduce your request rate.");
+                return;
+            }
+            CountDownLatch held = gate;
+            if (method.equals("PUT") && held != null) {
+                waiting.incrementAndGet();
+                try {
+                    held.await(10, TimeUnit.SECONDS);
+                } finally {
+                    waiting.decrementAndGet();
+                }
+            }
+
+            switch (method) {
+                case "PUT":
+                    if (query.containsKey("uploadId")) {
+                        Map<Integer, byte[]> upload = multipartUploads.get(query.get("uploadId"));
+                        if (upload == null) {
+                            error(exchange, 404, "NoSuchUpload", "The specified upload does not exist.");
+                            return;
+                        }
+                        upload.put(Integer.parseInt(query.get("partNumber")), body);
+                        parts.incrementAndGet();
+                        partBytes.addAndGet(body.length);
+                    } else {
+                        objects.put(path, body);
+                        puts.incrementAndGet();
+                    }
+                    exchange.getResponseHeaders().set("ETag", etag(body));
+                    exchange.sendResponseHeaders(200, -1);
+                    break;
+                case "POST":
+                    if (query.containsKey("uploads")) {
+                        String uploadId = UUID.randomUUID().toString();
+                        multipartUploads.put(uploadId, new ConcurrentSkipListMap<>());
+                        xml(exchange, 200, "<InitiateMultipartUploadResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">"
+                                + "<Bucket>" + bucket(path) + "</Bucket><Key>" + key(path) + "</Key>"
+                                + "<UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+                    } else if (query.containsKey("uploadId")) {
+                        complete(exchange, path, query.get("uploadId"), new String(body, StandardCharsets.UTF_8));
+                    } else {
+                        error(exchange, 400, "InvalidRequest", "Unsupported POST");
+                    }
+                    break;
+                case "DELETE":
+                    if (query.containsKey("uploadId")) {
+                        multipartUploads.remove(query.get("uploadId"));
+                    } else {
+                        objects.remove(path);
+                    }
+                    exchange.sendResponseHeaders(204, -1);
+                    break;
+                case "HEAD":
+                    heads.incrementAndGet();
+                    byte[] head = objects.get(path);
+                    if (head == null) {
+                        exchange.sendResponseHeaders(404, -1);
+                    } else {
+                        exchange.getResponseHeaders().set("ETag", etag(head));
+                        exchange.getResponseHeaders().set("Content-Length", String.valueOf(head.length));
+                        exchange.sendResponseHeaders(200, -1);
+                    }
+                    break;
+                case "GET":
+                    byte[] object = objects.get(path);
+                    if (object == null) {
+                        error(exchange, 404, "NoSuchKey", "The specified key does not exist.");
+                    } else {
+                        exchange.getResponseHeaders().set("ETag", etag(object));
+                        exchange.sendResponseHeaders(200, object.length);
+                        try (OutputStream out = exchange.getResponseBody()) {
+                            out.write(object);
+                        }
+                    }
+                    break;
+                default:
+                    error(exchange, 405, "MethodNotAllowed", method);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Joins the parts named in a CompleteMultipartUpload request into one object
+    private void complete(HttpExchange exchange, String path, String uploadId, String request) throws IOException {
+        Map<Integer, byte[]> upload = multipartUploads.get(uploadId);
+        if (upload == null) {
+            error(exchange, 404, "NoSuchUpload", "The specified upload does not exist.");
+            return;
+        }
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        Matcher matcher = PART_NUMBER.matcher(request);
+        while (matcher.find()) {
+            byte[] part = upload.get(Integer.parseInt(matcher.group(1)));
+            if (part == null) {
+                error(exchange, 400, "InvalidPart", "Part " + matcher.group(1) + " was not uploaded.");
+                return;
+            }
+            joined.write(part);
+        }
+        byte[] object = joined.toByteArray();
+        objects.put(path, object);
+        multipartUploads.remove(uploadId);
+        xml(exchange, 200, "<CompleteMultipartUploadResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">"
+                + "<Location>" + endpoint() + "/" + path + "</Location>"
+                + "<Bucket>" + bucket(path) + "</Bucket><Key>" + key(path) + "</Key>"
+                + "<ETag>" + etag(object).replace("\"", "&quot;") + "</ETag></CompleteMultipartUploadResult>");
+    }
+
+    // Reads a request body, undoing the aws-chunked encoding the SDK uses for streamed and checksummed uploads
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        byte[] raw;
+        try (InputStream in = exchange.getRequestBody()) {
+            raw = in.readAllBytes();
+        }
+        String sha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        boolean chunked = (sha != null && sha.startsWith("STREAMING-"))
+                || (encoding != null && encoding.contains("aws-chunked"));
+        if (!chunked) {
+            return raw;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int pos = 0;
+        while (pos < raw.length) {
+            int lineEnd = indexOfCrlf(raw, pos);
+            String header = new String(raw, pos, lineEnd - pos, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0].trim(), 16);
+            pos = lineEnd + 2;
+            if (size == 0) {
+                break;  // Trailing checksums follow
+            }
+            out.write(raw, pos, size);
+            pos += size + 2;
+        }
+        return out.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] data, int from) {
+        for (int i = from; i < data.length - 1; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return data.length;
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                params.put(eq < 0 ? pair : pair.substring(0, eq), eq < 0 ? "" : pair.substring(eq + 1));
+            }
+        }
+        return params;
+    }
+
+    private static String bucket(String path) {
+        return path.substring(0, path.indexOf('/'));
+    }
+
+    private static String key(String path) {
+        return path.substring(path.indexOf('/') + 1);
+    }
+
+    static String etag(byte[] data) {
+        try {
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(data)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void xml(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void error(HttpExchange exchange, int status, String code, String message) throws IOException {
+        xml(exchange, status, "<Error><Code>" + code + "</Code><Message>" + message + "</Message></Error>");
+    }
+}
@@ -0,0 +1,95 @@
+import com.example.demoplswork.model.BaseDAO;
+import com.example.demoplswork.model.BlogDAO;
+import com.example.demoplswork.model.SearchDAO;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Benchmark for the Explore page search over a large number of blogs.
+ * Fills blogs with generated text whose words follow a long-tailed distribution, like real writing,
+ * so the queries range from rare words with a handful of matches to common words matching a large share of the blogs.
+ * Each query fetches the first page of 10 results through SearchDAO and is timed as a search box would run it.
+ * Run with: java SearchBenchmark [blogs] [iterations]
+ */
+public class SearchBenchmark {
+
+    private static final int VOCABULARY = 20_000;
+    private static final int PAGE_SIZE = 10;
+    private static final String[] QUERIES = {
+            "w15000", "w1500", "w150", "w15", "w1 w2", "w123", "w12", "w1", "woodworking"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int blogs = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        BlogDAO blogDAO = new BlogDAO();
+        SearchDAO searchDAO = new SearchDAO();
+        BaseDAO.setConnection(conn);
+        TestDatabase.createSchema(blogDAO, conn);
+        long insertStart = System.nanoTime();
+        insertBlogs(conn, blogs);
+        System.out.printf("indexed %d blogs in %d ms%n", blogs, (System.nanoTime() - insertStart) / 1_000_000);
+
+        System.out.println("query, first page us (median), p99 us");
+        for (String query : QUERIES) {
+            for (int i = 0; i < 5; i++) {  // Warm up
+                searchDAO.searchBlogs(query, 0, PAGE_SIZE);
+            }
+            long[] nanos = new long[iterations];
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                searchDAO.searchBlogs(query, 0, PAGE_SIZE);
+                nanos[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+            System.out.printf("%s, %d, %d%n", query, nanos[iterations / 2] / 1000, nanos[iterations * 99 / 100] / 1000);
+        }
+
+        BaseDAO.setConnection(null);
+        conn.close();
+    }
+
+    // Word i is picked with a chance proportional to 1 / (i + 1)
+    private static String words(Random random, double[] cumulative, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[VOCABULARY - 1]);
+            sb.append(i > 0 ? " " : "").append('w').append(index >= 0 ? index : -index - 1);
+        }
+        return sb.toString();
+    }
+
+    private static void insertBlogs(Connection conn, int blogs) throws Exception {
+        double[] cumulative = new double[VOCABULARY];
+        double total = 0;
+        for (int i = 0; i < VOCABULARY; i++) {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+        String[] tags = {"Woodworking", "Cooking", "Coding", "Gardening", "Digital Art"};
+        Random random = new Random(42);
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO blogs (user_id, title, description, tag) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < blogs; i++) {
+                stmt.setInt(1, 1 + i % 1000);
+                stmt.setString(2, words(random, cumulative, 3));
+                stmt.setString(3, words(random, cumulative, 20));
+                stmt.setString(4, tags[i % tags.length]);
+                stmt.addBatch();
+                if (i % 10_000 == 9_999) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+        conn.commit();
+        conn.setAutoCommit(true);
+    }
+}
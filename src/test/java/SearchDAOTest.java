@@ -0,0 +1,180 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.BaseDAO;
+import com.example.demoplswork.model.Blog;
+import com.example.demoplswork.model.BlogDAO;
+import com.example.demoplswork.model.LogSearchResult;
+import com.example.demoplswork.model.Logs;
+import com.example.demoplswork.model.LogsDAO;
+import com.example.demoplswork.model.SearchDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SearchDAOTest {
+
+    private Connection connection;
+    private BlogDAO blogDAO;
+    private LogsDAO logsDAO;
+    private SearchDAO searchDAO;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        blogDAO = new BlogDAO();
+        logsDAO = new LogsDAO();
+        searchDAO = new SearchDAO();
+        BaseDAO.setConnection(connection);
+        TestDatabase.createSchema(logsDAO, connection);
+    }
+
+    private int insertLog(int userId, String name) throws SQLException {
+        return logsDAO.insertLog(userId, new Logs(name, new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+    }
+
+    private List<String> blogTitles(String text) throws SQLException {
+        List<String> titles = new ArrayList<>();
+        for (Blog blog : searchDAO.searchBlogs(text, 0, 20)) {
+            titles.add(blog.getTitle());
+        }
+        return titles;
+    }
+
+    private List<String> logNames(String text) throws SQLException {
+        List<String> names = new ArrayList<>();
+        for (LogSearchResult log : searchDAO.searchLogs(text, 0, 20)) {
+            names.add(log.getLogName());
+        }
+        return names;
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    @Test
+    public void testToMatchQuery() {
+        assertEquals("\"oak\" \"table\"", SearchDAO.toMatchQuery("Oak table "));
+        assertEquals("\"oak\" \"ta\"*", SearchDAO.toMatchQuery("oak ta"));
+        assertEquals("\"oak\" \"t\"", SearchDAO.toMatchQuery("oak t"));  // One letter is too short for a prefix
+        assertEquals("\"or\" \"not\" \"title\"", SearchDAO.toMatchQuery("OR NOT title:\""));
+        assertNull(SearchDAO.toMatchQuery(" \"*- "));
+        assertNull(SearchDAO.toMatchQuery(null));
+    }
+
+    @Test
+    public void testSearchBlogsFindsTitleDescriptionAndTag() throws SQLException {
+        blogDAO.insertBlog(new Blog(1, "Oak side table", "Joinery notes", null, "Woodworking"));
+        blogDAO.insertBlog(new Blog(2, "Sourdough", "Feeding the starter", null, "Cooking"));
+
+        assertEquals(List.of("Oak side table"), blogTitles("oak"));
+        assertEquals(List.of("Sourdough"), blogTitles("starter"));
+        assertEquals(List.of("Sourdough"), blogTitles("cooking"));
+        assertEquals(List.of("Oak side table"), blogTitles("woodw"));  // Prefix of the word being typed
+        assertEquals(List.of(), blogTitles("oak starter"));  // Every word must match
+        assertEquals(List.of(), blogTitles("\"oak\" OR"));
+    }
+
+    @Test
+    public void testSearchBlogsRanksTitleMatchesFirst() throws SQLException {
+        blogDAO.insertBlog(new Blog(1, "Garden diary", "Planted some walnut seedlings today", null, "Gardening"));
+        blogDAO.insertBlog(new Blog(1, "Walnut", "A walnut bowl", null, "Woodworking"));
+        blogDAO.insertBlog(new Blog(2, "Shed", "Built a shed", null, "Woodworking"));
+
+        assertEquals(List.of("Walnut", "Garden diary"), blogTitles("walnut"));
+    }
+
+    @Test
+    public void testBlogIndexFollowsUpdatesAndDeletes() throws SQLException {
+        blogDAO.insertBlog(new Blog(1, "Oak chair", "Steam bending", null, "Woodworking"));
+        int blogId = searchDAO.searchBlogs("oak", 0, 1).get(0).getId();
+
+        execute("UPDATE blogs SET title = 'Ash chair' WHERE id = " + blogId);
+        assertEquals(List.of(), blogTitles("oak"));
+        assertEquals(List.of("Ash chair"), blogTitles("ash"));
+        assertEquals(List.of("Ash chair"), blogTitles("steam"));
+
+        execute("DELETE FROM blogs WHERE id = " + blogId);
+        assertEquals(List.of(), blogTitles("ash"));
+        assertEquals(List.of(), blogTitles("steam"));
+    }
+
+    @Test
+    public void testSearchLogsFindsNamesAndTasks() throws SQLException {
+        int logId = insertLog(1, "Birdhouse");
+        logsDAO.addToDoItem(logId, "Cut cedar panels", false);
+        logsDAO.addToDoItem(logId, "Paint roof", false);
+        insertLog(2, "Guitar pedal");
+
+        assertEquals(List.of("Birdhouse"), logNames("cedar"));
+        assertEquals(List.of("Birdhouse"), logNames("paint"));
+        assertEquals(List.of("Guitar pedal"), logNames("guitar"));
+        LogSearchResult result = searchDAO.searchLogs("pedal", 0, 10).get(0);
+        assertEquals(2, result.getUserId());
+    }
+
+    @Test
+    public void testLogIndexFollowsRenamesTasksAndDeletes() throws SQLException {
+        int logId = insertLog(1, "Birdhouse");
+        logsDAO.addToDoItem(logId, "Cut cedar panels", false);
+
+        logsDAO.updateLogName(logId, "Nest box");
+        assertEquals(List.of(), logNames("birdhouse"));
+        assertEquals(List.of("Nest box"), logNames("nest"));
+
+        execute("UPDATE log_todo_items SET task = 'Cut pine panels' WHERE log_id = " + logId);
+        assertEquals(List.of(), logNames("cedar"));
+        assertEquals(List.of("Nest box"), logNames("pine"));
+
+        execute("DELETE FROM log_todo_items WHERE log_id = " + logId);
+        assertEquals(List.of(), logNames("pine"));
+        assertEquals(List.of("Nest box"), logNames("nest"));
+
+        logsDAO.deleteLog(logId);
+        assertEquals(List.of(), logNames("nest"));
+    }
+
+    @Test
+    public void testSearchPages() throws SQLException {
+        for (int i = 0; i < 25; i++) {
+            blogDAO.insertBlog(new Blog(1, "Lathe project " + i, "Turning", null, "Woodworking"));
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        for (int offset = 0; offset < 30; offset += 10) {
+            for (Blog blog : searchDAO.searchBlogs("lathe", offset, 10)) {
+                assertFalse(seen.contains(blog.getId()));
+                seen.add(blog.getId());
+            }
+        }
+        assertEquals(25, seen.size());
+        assertEquals("Lathe project 24", searchDAO.searchBlogs("lathe", 0, 10).get(0).getTitle());  // Newest first among equal ranks
+        assertEquals(5, searchDAO.searchBlogs("lathe", 20, 10).size());
+        assertThrows(SQLException.class, () -> searchDAO.searchBlogs("lathe", -1, 10));
+        assertThrows(SQLException.class, () -> searchDAO.searchLogs("lathe", 0, 0));
+    }
+
+    @Test
+    public void testMigrationIndexesExistingRows() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        BaseDAO.setConnection(connection);
+        logsDAO.createLogsTable();
+        logsDAO.createBlogsTable();
+        execute("INSERT INTO blogs (user_id, title, description, tag) VALUES (1, 'Sourdough', 'Feeding the starter', 'Cooking')");
+        execute("INSERT INTO logs (user_id, log_name, progress) VALUES (1, 'Birdhouse', 0)");
+        execute("INSERT INTO log_todo_items (log_id, task) VALUES (1, 'Cut cedar panels')");
+
+        TestDatabase.createSchema(logsDAO, connection);
+
+        assertEquals(List.of("Sourdough"), blogTitles("starter"));
+        assertEquals(List.of("Birdhouse"), logNames("cedar"));
+    }
+}
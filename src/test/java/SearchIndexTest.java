@@ -0,0 +1,120 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.BaseDAO;
+import com.example.demoplswork.model.Blog;
+import com.example.demoplswork.model.BlogDAO;
+import com.example.demoplswork.model.ContactDAO;
+import com.example.demoplswork.model.Logs;
+import com.example.demoplswork.model.LogsDAO;
+import com.example.demoplswork.model.Material;
+import com.example.demoplswork.model.SearchDAO;
+import com.example.demoplswork.model.SearchDocument;
+import com.example.demoplswork.model.SearchHit;
+import com.example.demoplswork.model.SearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SearchIndexTest {
+
+    private BlogDAO blogDAO;
+    private LogsDAO logsDAO;
+    private ContactDAO contactDAO;
+    private SearchIndex searchIndex;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        blogDAO = new BlogDAO();
+        logsDAO = new LogsDAO();
+        contactDAO = new ContactDAO();
+        BaseDAO.setConnection(connection);
+        TestDatabase.createSchema(logsDAO, connection);
+        searchIndex = SearchIndex.getInstance();
+    }
+
+    private int insertLog(int userId, String name, Material... materials) throws SQLException {
+        return logsDAO.insertLog(userId, new Logs(name, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(List.of(materials))));
+    }
+
+    private List<String> hits(String text) {
+        List<String> hits = new ArrayList<>();
+        for (SearchHit hit : searchIndex.search(text, 10).getHits()) {
+            hits.add(hit.getKind() + " " + hit.getLabel());
+        }
+        return hits;
+    }
+
+    @Test
+    public void testRebuildReadsBlogsLogsAndUsers() throws SQLException {
+        contactDAO.createAccount("Robin", "Oakley", "robin@example.com", "pw");
+        blogDAO.insertBlog(new Blog(1, "Oak side table", "Joinery notes", null, "Woodworking"));
+        insertLog(1, "Birdhouse", new Material("Cedar board", 2, 9.5));
+
+        assertFalse(searchIndex.isReady());  // Emptied when the connection was replaced
+        assertEquals(3, searchIndex.rebuild());
+        assertTrue(searchIndex.isReady());
+
+        assertEquals(List.of("BLOG Oak side table"), hits("oak"));  // A last name is not searched
+        assertEquals(List.of("BLOG Oak side table"), hits("woodworking"));
+        assertEquals(List.of("LOG Birdhouse"), hits("cedar"));
+        assertEquals(List.of("USER Robin Oakley"), hits("rob"));
+        assertEquals(List.of(), hits("joinery"));  // Descriptions are left to the full-text search
+    }
+
+    @Test
+    public void testDaoWritesUpdateTheIndex() throws SQLException {
+        searchIndex.rebuild();
+
+        blogDAO.insertBlog(new Blog(1, "Sourdough starter", "Feeding", null, "Cooking"));
+        int logId = insertLog(1, "Birdhouse");
+        logsDAO.addMaterial(logId, new Material("Pine dowel", 1, 2.0));
+        contactDAO.createAccount("Robin", "Oakley", "robin@example.com", "pw");
+        searchIndex.refresh();
+
+        assertEquals(List.of("BLOG Sourdough starter"), hits("sourdough"));
+        assertEquals(List.of("LOG Birdhouse"), hits("dowel"));
+        assertEquals(List.of("USER Robin Oakley"), hits("robin"));
+        SearchHit log = searchIndex.search("birdhouse", 1).getHits().get(0);
+        assertEquals(logId, log.getId());
+        assertEquals(1, log.getOwnerId());
+
+        logsDAO.updateLogName(logId, "Nest box");
+        int userId = contactDAO.getUserIDByEmail("robin@example.com");
+        contactDAO.updateUser(userId, "Sam", "Oakley", "robin@example.com", "pw");
+        searchIndex.refresh();
+        assertEquals(List.of(), hits("birdhouse"));
+        assertEquals(List.of("LOG Nest box"), hits("nest"));
+        assertEquals(List.of("USER Sam Oakley"), hits("sam"));
+
+        logsDAO.deleteLog(logId);
+        contactDAO.deleteUser(userId);
+        searchIndex.refresh();
+        assertEquals(List.of(), hits("nest"));
+        assertEquals(List.of(), hits("sam"));
+        assertEquals(1, searchIndex.getIndex().size());
+    }
+
+    @Test
+    public void testChangesDuringBuildAreApplied() throws SQLException {
+        List<Runnable> scheduled = new ArrayList<>();
+        SearchIndex index = new SearchIndex(new SearchDAO(), scheduled::add);
+        blogDAO.insertBlog(new Blog(1, "Lathe tools", "Turning", null, "Woodworking"));
+
+        index.changed(SearchDocument.Kind.BLOG, 1);
+        assertTrue(scheduled.isEmpty());  // Nothing is updated before the index is built
+        index.rebuild();
+        assertEquals(1, index.search("lathe", 10).getHits().size());
+
+        index.changed(SearchDocument.Kind.BLOG, 1);
+        index.changed(SearchDocument.Kind.BLOG, 2);
+        assertEquals(1, scheduled.size());  // One update for a burst of changes
+        scheduled.get(0).run();
+        assertEquals(1, index.getIndex().size());
+    }
+}
@@ -0,0 +1,110 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.BaseDAO;
+import com.example.demoplswork.model.Logs;
+import com.example.demoplswork.model.LogsDAO;
+import com.example.demoplswork.model.StatementCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+public class StatementCacheTest {
+
+    private Connection connection;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @Test
+    public void testSameSqlIsCompiledOnce() throws SQLException {
+        StatementCache cache = new StatementCache(4);
+
+        for (int i = 0; i < 3; i++) {
+            try (PreparedStatement stmt = cache.prepare(connection, "SELECT ?")) {
+                stmt.setInt(1, i);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(i, rs.getInt(1));
+                }
+            }
+        }
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.size(connection));
+    }
+
+    @Test
+    public void testClosingReturnsStatementToCache() throws SQLException {
+        StatementCache cache = new StatementCache(4);
+
+        PreparedStatement first = cache.prepare(connection, "SELECT 1");
+        first.close();
+
+        assertFalse(first.isClosed());
+        assertSame(first, cache.prepare(connection, "SELECT 1"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedStatementIsEvictedAndClosed() throws SQLException {
+        StatementCache cache = new StatementCache(2);
+
+        PreparedStatement one = cache.prepare(connection, "SELECT 1");
+        cache.prepare(connection, "SELECT 2");
+        cache.prepare(connection, "SELECT 1");  // Touch, so SELECT 2 is now the eldest
+        PreparedStatement three = cache.prepare(connection, "SELECT 3");
+
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.size(connection));
+        assertFalse(one.isClosed());
+        assertFalse(three.isClosed());
+        cache.prepare(connection, "SELECT 2");
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void testStatementsAreCachedPerConnection() throws SQLException {
+        StatementCache cache = new StatementCache(4);
+        Connection other = DriverManager.getConnection("jdbc:sqlite::memory:");
+
+        PreparedStatement mine = cache.prepare(connection, "SELECT 1");
+        PreparedStatement theirs = cache.prepare(other, "SELECT 1");
+
+        assertNotSame(mine, theirs);
+        assertSame(other, theirs.getConnection());
+        assertEquals(2, cache.getMisses());
+
+        cache.invalidate(other);
+        assertTrue(theirs.isClosed());
+        assertFalse(mine.isClosed());
+        other.close();
+    }
+
+    @Test
+    public void testDaoCallsReuseCachedStatements() throws SQLException {
+        LogsDAO logsDAO = new LogsDAO();
+        BaseDAO.setConnection(connection);
+        logsDAO.createLogsTable();
+        int logId = logsDAO.insertLog(1, new Logs("Birdhouse", new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+
+        StatementCache cache = BaseDAO.getStatementCache();
+        logsDAO.getLogNameById(logId);
+        long misses = cache.getMisses();
+        long hits = cache.getHits();
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Birdhouse", logsDAO.getLogNameById(logId));
+        }
+
+        assertEquals(misses, cache.getMisses());
+        assertEquals(hits + 100, cache.getHits());
+        assertTrue(cache.size(connection) <= cache.getMaxPerConnection());
+    }
+}
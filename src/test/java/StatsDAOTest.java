@@ -0,0 +1,138 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.events.LogEventDAO;
+import com.example.demoplswork.events.StartEvent;
+import com.example.demoplswork.model.BaseDAO;
+import com.example.demoplswork.model.Logs;
+import com.example.demoplswork.model.LogsDAO;
+import com.example.demoplswork.model.Material;
+import com.example.demoplswork.model.StatsDAO;
+import com.example.demoplswork.model.UserStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StatsDAOTest {
+
+    private Connection connection;
+    private LogsDAO logsDAO;
+    private LogEventDAO logEventDAO;
+    private StatsDAO statsDAO;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        logsDAO = new LogsDAO();
+        logEventDAO = new LogEventDAO();
+        statsDAO = new StatsDAO();
+        BaseDAO.setConnection(connection);
+        TestDatabase.createSchema(logsDAO, connection);
+    }
+
+    private int insertLog(int userId, String name) throws SQLException {
+        return logsDAO.insertLog(userId, new Logs(name, new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+    }
+
+    @Test
+    public void testStatsFollowEveryWrite() throws SQLException {
+        int logId = insertLog(1, "Birdhouse");
+        logsDAO.addToDoItem(logId, "Cut panels", true);
+        logsDAO.addToDoItem(logId, "Paint", false);
+        logsDAO.addMaterial(logId, new Material("Plywood", 2, 12.5));
+        logEventDAO.insertLogEvent(new StartEvent(0, 1, logId, "Started Birdhouse"));
+        int eventId = logEventDAO.getLogEventsForLog(logId).get(0).getId();
+        logEventDAO.likeEvent(eventId, 2);
+        logEventDAO.likeEvent(eventId, 3);
+        logEventDAO.addComment(eventId, 2, "Nice");
+
+        UserStats stats = logsDAO.getUserStats(1);
+        assertEquals(25.0, stats.getTotalSpend(), 0.0001);
+        assertEquals(1, stats.getTasksCompleted());
+        assertEquals(0, stats.getProjectsCompleted());
+        assertEquals(1, stats.getMaterialsUsed());
+        assertEquals(2, stats.getTotalLikes());
+        assertEquals(1, stats.getTotalComments());
+        assertEquals(List.of(), statsDAO.checkStats());
+
+        logsDAO.updateToDoItemStatus(logId, "Paint", true);
+        logEventDAO.unlikeEvent(eventId, 3);
+
+        stats = logsDAO.getUserStats(1);
+        assertEquals(2, stats.getTasksCompleted());
+        assertEquals(1, stats.getProjectsCompleted());
+        assertEquals(1, stats.getTotalLikes());
+        assertEquals(1, logsDAO.getLogStats(logId).getProjectsCompleted());
+        assertEquals(List.of(), statsDAO.checkStats());
+
+        logsDAO.deleteLog(logId);
+
+        stats = logsDAO.getUserStats(1);
+        assertEquals(0.0, stats.getTotalSpend(), 0.0001);
+        assertEquals(0, stats.getTasksCompleted());
+        assertEquals(0, stats.getProjectsCompleted());
+        assertEquals(0, stats.getTotalLikes());
+        assertEquals(0, logsDAO.getLogStats(logId).getMaterialsUsed());
+        assertEquals(List.of(), statsDAO.checkStats());
+    }
+
+    @Test
+    public void testStatsAreKeptPerUser() throws SQLException {
+        int mine = insertLog(1, "Birdhouse");
+        int theirs = insertLog(2, "Kite");
+        logsDAO.addMaterial(mine, new Material("Plywood", 1, 10.0));
+        logsDAO.addMaterial(theirs, new Material("String", 3, 1.0));
+
+        assertEquals(10.0, logsDAO.getUserStats(1).getTotalSpend(), 0.0001);
+        assertEquals(3.0, logsDAO.getUserStats(2).getTotalSpend(), 0.0001);
+        assertEquals(0.0, logsDAO.getUserStats(3).getTotalSpend(), 0.0001);
+    }
+
+    @Test
+    public void testCheckFindsAndRebuildRepairsDrift() throws SQLException {
+        int logId = insertLog(1, "Birdhouse");
+        logsDAO.addMaterial(logId, new Material("Plywood", 2, 12.5));
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("UPDATE user_stats SET total_likes = 7 WHERE user_id = 1");
+            stmt.executeUpdate("DELETE FROM log_stats WHERE log_id = " + logId);
+        }
+
+        List<String> problems = statsDAO.checkStats();
+        assertTrue(problems.contains("log " + logId + ": missing from log_stats"), problems.toString());
+        assertTrue(problems.contains("user 1: total_likes is 7 but should be 0"), problems.toString());
+
+        assertEquals(1, statsDAO.rebuildStats());
+        assertEquals(List.of(), statsDAO.checkStats());
+        assertEquals(25.0, logsDAO.getLogStats(logId).getTotalSpend(), 0.0001);
+        assertEquals(0, logsDAO.getUserStats(1).getTotalLikes());
+    }
+
+    @Test
+    public void testMigrationFillsStatsForExistingData() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        BaseDAO.setConnection(connection);
+        logsDAO.createLogsTable();
+        logsDAO.createLogEventsTable();
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO logs (user_id, log_name, progress, todo_total, todo_completed) VALUES (1, 'Birdhouse', 100, 2, 2)");
+            stmt.executeUpdate("INSERT INTO log_materials (log_id, position, name, quantity, price) VALUES (1, 0, 'Plywood', 2, 12.5)");
+            stmt.executeUpdate("INSERT INTO log_events (timestamp, description, user_id, log_id, event_type, like_count, comment_count) "
+                    + "VALUES ('2024-05-01', 'Started', 1, 1, 'StartEvent', 4, 2)");
+        }
+
+        TestDatabase.createSchema(logsDAO, connection);
+
+        UserStats stats = logsDAO.getUserStats(1);
+        assertEquals(25.0, stats.getTotalSpend(), 0.0001);
+        assertEquals(2, stats.getTasksCompleted());
+        assertEquals(1, stats.getProjectsCompleted());
+        assertEquals(4, stats.getTotalLikes());
+        assertEquals(2, stats.getTotalComments());
+        assertEquals(List.of(), statsDAO.checkStats());
+    }
+}
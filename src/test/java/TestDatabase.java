@@ -0,0 +1,33 @@
+import com.example.demoplswork.model.BaseDAO;
+import com.example.demoplswork.model.MigrationRunner;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Creates the schema the app makes when it first opens its database, the tables BaseDAO creates followed by
+ * every migration, in a database a test has already passed to BaseDAO.setConnection.
+ */
+public final class TestDatabase {
+
+    private TestDatabase() {
+    }
+
+    public static void createSchema(BaseDAO dao, Connection connection) throws SQLException {
+        dao.createProfileTable();
+        dao.createLogsTable();
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS users ("
+                    + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                    + "firstName VARCHAR NOT NULL, "
+                    + "lastName VARCHAR NOT NULL, "
+                    + "email VARCHAR NOT NULL UNIQUE, "
+                    + "password VARCHAR NOT NULL"
+                    + ")");
+        }
+        dao.createLogEventsTable();
+        dao.createBlogsTable();
+        MigrationRunner.withDefaultMigrations().migrate(connection);
+    }
+}
@@ -0,0 +1,155 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.BaseDAO;
+import com.example.demoplswork.model.Logs;
+import com.example.demoplswork.model.LogsDAO;
+import com.example.demoplswork.model.MigrationRunner;
+import com.example.demoplswork.model.ToDoItem;
+import com.example.demoplswork.model.ToDoItemsDAO;
+import com.example.demoplswork.model.ToDoItemsMigration;
+import javafx.util.Pair;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ToDoItemsDAOTest {
+
+    private LogsDAO logsDAO;
+    private ToDoItemsDAO toDoItemsDAO;
+    private Connection connection;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        // Set up an in-memory SQLite database for testing
+        String url = "jdbc:sqlite::memory:";
+        connection = DriverManager.getConnection(url);
+        logsDAO = new LogsDAO();
+        toDoItemsDAO = new ToDoItemsDAO();
+        BaseDAO.setConnection(connection); // Use the setter method
+        logsDAO.createLogsTable();
+    }
+
+    private int insertEmptyLog() throws SQLException {
+        return logsDAO.insertLog(1, new Logs("Test Log", new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+    }
+
+    private int[] readCounters(int logId) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT todo_total, todo_completed FROM logs WHERE id = ?")) {
+            pstmt.setInt(1, logId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                assertTrue(rs.next());
+                return new int[] { rs.getInt(1), rs.getInt(2) };
+            }
+        }
+    }
+
+    @Test
+    public void testAddToDoItemUpdatesCounters() throws SQLException {
+        int logId = insertEmptyLog();
+
+        toDoItemsDAO.addToDoItem(logId, "Sand", true);
+        toDoItemsDAO.addToDoItem(logId, "Paint", false);
+
+        assertArrayEquals(new int[] { 2, 1 }, readCounters(logId));
+        assertEquals(50.0, toDoItemsDAO.getProgress(logId));
+    }
+
+    @Test
+    public void testSetToDoItemCheckedMovesCompletedCounter() throws SQLException {
+        int logId = insertEmptyLog();
+        int sand = toDoItemsDAO.addToDoItem(logId, "Sand", false);
+        toDoItemsDAO.addToDoItem(logId, "Paint", false);
+
+        assertEquals(50.0, toDoItemsDAO.setToDoItemChecked(sand, true));
+        assertEquals(50.0, toDoItemsDAO.setToDoItemChecked(sand, true)); // Checking twice does not count twice
+        assertArrayEquals(new int[] { 2, 1 }, readCounters(logId));
+
+        assertEquals(0.0, toDoItemsDAO.setToDoItemChecked(sand, false));
+        assertArrayEquals(new int[] { 2, 0 }, readCounters(logId));
+    }
+
+    @Test
+    public void testTasksWithSeparatorsAreStoredIntact() throws SQLException {
+        int logId = insertEmptyLog();
+        String task = "Buy screws: 10mm, 12mm";
+
+        logsDAO.addToDoItem(logId, task, false);
+        double progress = logsDAO.updateToDoItemStatus(logId, task, true);
+
+        Logs log = logsDAO.getLogById(logId);
+        assertEquals(1, log.getToDoItems().size());
+        assertEquals(task, log.getToDoItems().get(0).getKey());
+        assertTrue(log.getToDoItems().get(0).getValue());
+        assertEquals(100.0, progress);
+    }
+
+    @Test
+    public void testInsertLogStoresToDoItems() throws SQLException {
+        List<Pair<String, Boolean>> toDoItems = new ArrayList<>();
+        toDoItems.add(new Pair<>("Cut", true));
+        toDoItems.add(new Pair<>("Glue", false));
+        toDoItems.add(new Pair<>("Clamp", false));
+        toDoItems.add(new Pair<>("Finish", true));
+        int logId = logsDAO.insertLog(1, new Logs("Shelf", toDoItems, new ArrayList<>(), new ArrayList<>()));
+
+        List<ToDoItem> items = toDoItemsDAO.getToDoItems(logId);
+        assertEquals(4, items.size());
+        assertEquals("Cut", items.get(0).getTask());
+        assertEquals("Finish", items.get(3).getTask());
+        assertArrayEquals(new int[] { 4, 2 }, readCounters(logId));
+
+        Logs log = (Logs) logsDAO.getLogsForUser(1).get(0)[1];
+        assertEquals(toDoItems, log.getToDoItems());
+        assertEquals(50.0, log.getProgress());
+    }
+
+    @Test
+    public void testDeleteLogRemovesToDoItems() throws SQLException {
+        int logId = insertEmptyLog();
+        toDoItemsDAO.addToDoItem(logId, "Sand", false);
+
+        logsDAO.deleteLog(logId);
+
+        assertTrue(toDoItemsDAO.getToDoItems(logId).isEmpty());
+    }
+
+    @Test
+    public void testMigrationCopiesLegacyToDoItems() throws SQLException {
+        Connection legacy = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = legacy.createStatement()) {
+            stmt.execute("CREATE TABLE logs (id INTEGER PRIMARY KEY AUTOINCREMENT, user_id INTEGER NOT NULL, "
+                    + "log_name TEXT NOT NULL, to_do_items TEXT, images TEXT, progress REAL, materials TEXT)");
+            stmt.execute("INSERT INTO logs (user_id, log_name, to_do_items, progress) "
+                    + "VALUES (1, 'Old', 'Sand:true,Buy nails, screws:false,Paint:false', 33.3)");
+        }
+
+        new MigrationRunner(List.of(new ToDoItemsMigration())).migrate(legacy);
+
+        try (Statement stmt = legacy.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT task, is_checked FROM log_todo_items ORDER BY id")) {
+            assertTrue(rs.next());
+            assertEquals("Sand", rs.getString(1));
+            assertTrue(rs.getBoolean(2));
+            assertTrue(rs.next());
+            assertEquals("Buy nails, screws", rs.getString(1));
+            assertTrue(rs.next());
+            assertEquals("Paint", rs.getString(1));
+            assertFalse(rs.next());
+        }
+        try (Statement stmt = legacy.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT todo_total, todo_completed, to_do_items FROM logs")) {
+            assertTrue(rs.next());
+            assertEquals(3, rs.getInt(1));
+            assertEquals(1, rs.getInt(2));
+            assertNull(rs.getString(3));
+        }
+    }
+}
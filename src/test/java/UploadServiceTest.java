@@ -0,0 +1,431 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.BaseDAO;
+import com.example.demoplswork.model.ContentHash;
+import com.example.demoplswork.model.MediaObjectsMigration;
+import com.example.demoplswork.model.PendingUpload;
+import com.example.demoplswork.model.Rendition;
+import com.example.demoplswork.model.RenditionGenerator;
+import com.example.demoplswork.model.RetryPolicy;
+import com.example.demoplswork.model.S3ImageUploader;
+import com.example.demoplswork.model.UploadOutboxDAO;
+import com.example.demoplswork.model.UploadOutboxMigration;
+import com.example.demoplswork.model.UploadService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class UploadServiceTest {
+
+    private static final String BUCKET = "hobby-log";
+    private static final int THRESHOLD = 64 * 1024;
+    private static final int PART_SIZE = 16 * 1024;
+
+    private Connection connection;
+    private UploadOutboxDAO outbox;
+    private S3StubServer s3;
+    private S3Client client;
+    private S3ImageUploader uploader;
+    private Path directory;
+    private final List<UploadService> services = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws SQLException, IOException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        BaseDAO.setConnection(connection);
+        new UploadOutboxMigration().apply(connection);
+        new MediaObjectsMigration().apply(connection);
+        outbox = new UploadOutboxDAO();
+        s3 = new S3StubServer();
+        client = s3.client();
+        uploader = new S3ImageUploader(client, BUCKET, s3.urlPrefix(BUCKET));
+        directory = Files.createTempDirectory("upload-service-test");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException, SQLException {
+        for (UploadService service : services) {
+            service.shutdown();
+        }
+        client.close();
+        s3.close();
+        connection.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private UploadService service(int workers) {
+        UploadService service = new UploadService(uploader, outbox, workers, THRESHOLD, PART_SIZE,
+                new RetryPolicy(3, 10, 50), Runnable::run);
+        services.add(service);
+        return service;
+    }
+
+    private Path file(String name, int size) throws IOException {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return Files.write(directory.resolve(name), data);
+    }
+
+    /**
+     * Records what an upload reports and lets the test wait for it to finish.
+     */
+    private static final class Recorder implements UploadService.Listener {
+        private final List<Long> progress = new CopyOnWriteArrayList<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile String queuedUrl;
+        private volatile String url;
+        private volatile Exception error;
+        private volatile boolean abandoned;
+
+        @Override
+        public void onQueued(String url) {
+            queuedUrl = url;
+        }
+
+        @Override
+        public void onProgress(long sent, long total) {
+            progress.add(sent);
+        }
+
+        @Override
+        public void onComplete(String url) {
+            this.url = url;
+            done.countDown();
+        }
+
+        @Override
+        public void onFailed(Exception error) {
+            this.error = error;
+            done.countDown();
+        }
+
+        @Override
+        public void onAbandoned(Exception error) {
+            this.error = error;
+            abandoned = true;
+            done.countDown();
+        }
+
+        private void await() throws InterruptedException {
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private void waitForEmptyOutbox() throws SQLException, InterruptedException {
+        for (int i = 0; i < 1000 && !outbox.getPendingUploads().isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(outbox.getPendingUploads().isEmpty());
+    }
+
+    @Test
+    public void testSmallFileIsUploadedInOneRequest() throws Exception {
+        Path file = file("photo.jpg", 10_000);
+        Recorder recorder = new Recorder();
+        UploadService.Upload upload = service(2).submit(file, "photo.jpg", recorder);
+        recorder.await();
+
+        assertNull(recorder.error);
+        assertEquals(s3.urlPrefix(BUCKET) + "photo.jpg", recorder.url);
+        assertEquals(upload.getUrl(), recorder.url);
+        assertArrayEquals(Files.readAllBytes(file), s3.getObject(BUCKET, "photo.jpg"));
+        assertEquals(1, s3.getPuts());
+        assertEquals(0, s3.getParts());
+        assertEquals(10_000, (long) recorder.progress.get(recorder.progress.size() - 1));
+        assertTrue(outbox.getPendingUploads().isEmpty());
+    }
+
+    @Test
+    public void testLargeFileIsUploadedInParts() throws Exception {
+        Path file = file("clip.mp4", 100_000);  // 6 full parts and a short one
+        Recorder recorder = new Recorder();
+        service(2).submit(file, "clip.mp4", recorder);
+        recorder.await();
+
+        assertNull(recorder.error);
+        assertArrayEquals(Files.readAllBytes(file), s3.getObject(BUCKET, "clip.mp4"));
+        assertEquals(0, s3.getPuts());  // Every PUT was a part
+        assertEquals(7, s3.getParts());
+        assertEquals(0, s3.getOpenMultipartUploads());
+        for (int i = 1; i < recorder.progress.size(); i++) {
+            assertTrue(recorder.progress.get(i) >= recorder.progress.get(i - 1));
+        }
+        assertTrue(outbox.getPendingUploads().isEmpty());
+    }
+
+    @Test
+    public void testFailedRequestsAreRetried() throws Exception {
+        s3.failNext(2);
+        Recorder recorder = new Recorder();
+        UploadService service = service(1);
+        service.submit(file("photo.jpg", 1000), "photo.jpg", recorder);
+        recorder.await();
+
+        assertNull(recorder.error);
+        assertEquals(2, service.getRetries());
+        assertEquals(1, service.getCompleted());
+        assertNotNull(s3.getObject(BUCKET, "photo.jpg"));
+    }
+
+    @Test
+    public void testUploadThatFailsEveryAttemptStaysInTheOutbox() throws Exception {
+        s3.failNext(100);
+        Recorder recorder = new Recorder();
+        UploadService service = service(1);
+        service.submit(file("photo.jpg", 1000), "photo.jpg", recorder);
+        recorder.await();
+
+        assertNotNull(recorder.error);
+        assertFalse(recorder.abandoned);
+        assertEquals(1, service.getFailed());
+        List<PendingUpload> pending = outbox.getPendingUploads();
+        assertEquals(1, pending.size());
+        assertEquals(3, pending.get(0).getAttempts());
+
+        // The next start tries it again
+        s3.failNext(0);
+        assertEquals(1, service(1).resumePending());
+        waitForEmptyOutbox();
+        assertNotNull(s3.getObject(BUCKET, "photo.jpg"));
+    }
+
+    @Test
+    public void testQueuedUploadsSurviveARestart() throws Exception {
+        s3.hold();
+        UploadService first = service(1);
+        first.submit(file("a.jpg", 1000), "a.jpg", null);
+        first.submit(file("b.jpg", 1000), "b.jpg", null);
+        for (int i = 0; i < 500 && s3.getWaiting() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, s3.getWaiting());  // One worker, so the second upload is still queued
+        first.shutdown();  // The app closes
+        s3.release();
+
+        UploadService second = service(2);
+        assertTrue(second.resumePending() >= 1);
+        waitForEmptyOutbox();
+        assertNotNull(s3.getObject(BUCKET, "a.jpg"));
+        assertNotNull(s3.getObject(BUCKET, "b.jpg"));
+    }
+
+    @Test
+    public void testMultipartUploadCarriesOnFromTheLastPartSent() throws Exception {
+        Path file = file("clip.mp4", 100_000);
+        // An earlier run sent the first three parts before the app closed
+        int id = outbox.addUpload(file.toString(), "clip.mp4");
+        String multipartId = uploader.createMultipartUpload("clip.mp4");
+        outbox.setMultipartId(id, multipartId);
+        for (int partNumber = 1; partNumber <= 3; partNumber++) {
+            String etag = uploader.uploadPart("clip.mp4", multipartId, partNumber, file,
+                    (long) (partNumber - 1) * PART_SIZE, PART_SIZE, sent -> { });
+            outbox.addPart(id, partNumber, etag);
+        }
+        assertEquals(3, outbox.getPendingUpload(id).getParts().size());
+        s3.resetCounters();
+
+        assertEquals(1, service(2).resumePending());
+        waitForEmptyOutbox();
+
+        assertEquals(4, s3.getParts());  // Only the parts that had not been sent
+        assertEquals(100_000 - 3 * PART_SIZE, s3.getPartBytes());
+        assertArrayEquals(Files.readAllBytes(file), s3.getObject(BUCKET, "clip.mp4"));
+    }
+
+    @Test
+    public void testExpiredMultipartUploadIsStartedAgain() throws Exception {
+        Path file = file("clip.mp4", 100_000);
+        // An earlier run sent the first three parts, then S3 dropped the upload before the app opened again
+        int id = outbox.addUpload(file.toString(), "clip.mp4");
+        String multipartId = uploader.createMultipartUpload("clip.mp4");
+        outbox.setMultipartId(id, multipartId);
+        for (int partNumber = 1; partNumber <= 3; partNumber++) {
+            String etag = uploader.uploadPart("clip.mp4", multipartId, partNumber, file,
+                    (long) (partNumber - 1) * PART_SIZE, PART_SIZE, sent -> { });
+            outbox.addPart(id, partNumber, etag);
+        }
+        uploader.abortMultipartUpload("clip.mp4", multipartId);
+        s3.resetCounters();
+
+        UploadService service = service(2);
+        assertEquals(1, service.resumePending());
+        waitForEmptyOutbox();
+
+        assertEquals(7, s3.getParts());  // Every part, in a new upload
+        assertArrayEquals(Files.readAllBytes(file), s3.getObject(BUCKET, "clip.mp4"));
+        assertEquals(0, s3.getOpenMultipartUploads());
+        assertEquals(0, service.getRetries());  // Not counted as a failed attempt
+    }
+
+    @Test
+    public void testMissingFileIsGivenUp() throws Exception {
+        Recorder recorder = new Recorder();
+        UploadService service = service(1);
+        service.submit(directory.resolve("deleted.jpg"), "deleted.jpg", recorder);
+        recorder.await();
+
+        assertNotNull(recorder.error);
+        assertTrue(recorder.abandoned);
+        assertEquals(0, service.getRetries());
+        assertTrue(outbox.getPendingUploads().isEmpty());
+        assertEquals(0, s3.getObjectCount());
+    }
+
+    @Test
+    public void testFileIsUploadedUnderTheHashOfItsContents() throws Exception {
+        Path file = file("IMG_0001.jpg", 10_000);
+        Recorder recorder = new Recorder();
+        UploadService.Upload upload = service(1).submit(file, recorder).get(10, TimeUnit.SECONDS);
+        recorder.await();
+
+        assertNull(recorder.error);
+        assertEquals(ContentHash.key(file), upload.getKey());
+        assertEquals(upload.getUrl(), recorder.queuedUrl);
+        assertEquals(upload.getUrl(), recorder.url);
+        assertArrayEquals(Files.readAllBytes(file), s3.getObject(BUCKET, upload.getKey()));
+        assertTrue(outbox.isUploaded(upload.getKey()));
+    }
+
+    @Test
+    public void testFileChangedAfterItWasHashedIsGivenUp() throws Exception {
+        Path file = file("IMG_0001.jpg", 10_000);
+        String key = ContentHash.key(file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        outbox.addUpload(file.toString(), key, 10_000, modified);
+        // Edited before the upload started, to the same size
+        Files.write(file, new byte[10_000]);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified + 60_000));
+
+        UploadService service = service(1);
+        assertEquals(1, service.resumePending());
+        waitForEmptyOutbox();
+
+        assertEquals(1, service.getFailed());
+        assertEquals(0, s3.getPuts());
+        assertNull(s3.getObject(BUCKET, key));
+        assertFalse(outbox.isUploaded(key));
+    }
+
+    @Test
+    public void testSameContentsAreUploadedOnce() throws Exception {
+        Path first = file("IMG_0001.jpg", 10_000);
+        Path second = Files.copy(first, directory.resolve("progress-shot.jpg"));
+        UploadService service = service(1);
+        Recorder recorder = new Recorder();
+        service.submit(first, recorder);
+        recorder.await();
+        s3.resetCounters();
+
+        Recorder again = new Recorder();
+        service.submit(second, again);
+        again.await();
+
+        assertNull(again.error);
+        assertEquals(recorder.url, again.url);
+        assertEquals(0, s3.getPuts());
+        assertEquals(0, s3.getHeads());  // Known from media_objects, so S3 was not asked
+        assertEquals(0, s3.getBytesReceived());
+        assertEquals(1, service.getSkipped());
+        waitForEmptyOutbox();
+    }
+
+    @Test
+    public void testObjectAlreadyInTheBucketIsNotUploadedAgain() throws Exception {
+        Path file = file("IMG_0001.jpg", 10_000);
+        String key = ContentHash.key(file);
+        s3.putObject(BUCKET, key, Files.readAllBytes(file));  // Uploaded by someone else, so not in media_objects
+
+        Recorder recorder = new Recorder();
+        UploadService service = service(1);
+        service.submit(file, recorder);
+        recorder.await();
+
+        assertNull(recorder.error);
+        assertEquals(1, s3.getHeads());
+        assertEquals(0, s3.getPuts());
+        assertEquals(1, service.getSkipped());
+        assertTrue(outbox.isUploaded(key));
+    }
+
+    @Test
+    public void testSameNameDifferentContentsAreBothUploaded() throws Exception {
+        Files.createDirectories(directory.resolve("mine"));
+        Files.createDirectories(directory.resolve("yours"));
+        Path mine = file("mine/IMG_0001.jpg", 1000);
+        Path yours = file("yours/IMG_0001.jpg", 2000);
+        UploadService service = service(2);
+        UploadService.Upload first = service.submit(mine, null).get(10, TimeUnit.SECONDS);
+        UploadService.Upload second = service.submit(yours, null).get(10, TimeUnit.SECONDS);
+        waitForEmptyOutbox();
+
+        assertNotEquals(first.getKey(), second.getKey());
+        assertArrayEquals(Files.readAllBytes(mine), s3.getObject(BUCKET, first.getKey()));
+        assertArrayEquals(Files.readAllBytes(yours), s3.getObject(BUCKET, second.getKey()));
+        assertEquals(0, service.getSkipped());
+    }
+
+    @Test
+    public void testUnreadableFileFailsBeforeItIsQueued() throws Exception {
+        Recorder recorder = new Recorder();
+        service(1).submit(directory.resolve("deleted.jpg"), recorder);
+        recorder.await();
+
+        assertNotNull(recorder.error);
+        assertTrue(recorder.abandoned);
+        assertNull(recorder.queuedUrl);
+        assertTrue(outbox.getPendingUploads().isEmpty());
+    }
+
+    @Test
+    public void testPictureIsUploadedWithItsRenditions() throws Exception {
+        RenditionGenerator renditions = new RenditionGenerator(directory.resolve("renditions"), 2);
+        UploadService service = new UploadService(uploader, outbox, 2, THRESHOLD, PART_SIZE,
+                new RetryPolicy(3, 10, 50), Runnable::run, renditions);
+        services.add(service);
+        Path photo = directory.resolve("photo.jpg");
+        ImageIO.write(new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB), "jpg", photo.toFile());
+
+        UploadService.Upload upload = service.submit(photo, null).get(10, TimeUnit.SECONDS);
+        for (int i = 0; i < 1000 && service.getCompleted() < 3; i++) {
+            Thread.sleep(10);
+        }
+        waitForEmptyOutbox();
+        renditions.shutdown();
+
+        assertArrayEquals(Files.readAllBytes(photo), s3.getObject(BUCKET, upload.getKey()));
+        for (Rendition rendition : new Rendition[] { Rendition.THUMB, Rendition.CARD }) {
+            byte[] data = s3.getObject(BUCKET, rendition.of(upload.getKey()));
+            assertNotNull(data);
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(data));
+            assertEquals(rendition.getSize(), image.getHeight());
+            assertTrue(outbox.isUploaded(rendition.of(upload.getKey())));
+        }
+        try (Stream<Path> files = Files.list(directory.resolve("renditions"))) {
+            assertEquals(0, files.count());  // Deleted once uploaded
+        }
+    }
+}
@@ -0,0 +1,121 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demoplswork.model.BaseDAO;
+import com.example.demoplswork.model.Contact;
+import com.example.demoplswork.model.ContactDAO;
+import com.example.demoplswork.model.ProfileDAO;
+import com.example.demoplswork.model.UserDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class UserDirectoryTest {
+
+    private ContactDAO contactDAO;
+    private ProfileDAO profileDAO;
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        contactDAO = new ContactDAO();
+        profileDAO = new ProfileDAO();
+        BaseDAO.setConnection(connection);
+        TestDatabase.createSchema(contactDAO, connection);
+
+        for (int i = 1; i <= 100; i++) {
+            contactDAO.createAccount("User" + i, "Last" + i, "user" + i + "@example.com", "pw");
+        }
+        profileDAO.insertProfile(1, "Builds birdhouses", "https://example.com/1.jpg");
+    }
+
+    @Test
+    public void testBulkLoadReadsUsersWithProfiles() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 1; i <= 75; i++) {
+            ids.add(i);
+        }
+        ids.add(500);  // No such user
+
+        Map<Integer, Contact> contacts = contactDAO.getContactsByIds(ids);
+
+        assertEquals(75, contacts.size());
+        assertEquals("User1", contacts.get(1).getFirstName());
+        assertEquals("Builds birdhouses", contacts.get(1).getBio());
+        assertEquals("https://example.com/1.jpg", contacts.get(1).getPhoto());
+        assertNull(contacts.get(2).getPhoto());
+        assertEquals(75, contacts.get(75).getId());
+        assertFalse(contacts.containsKey(500));
+    }
+
+    @Test
+    public void testRepeatedLookupsAreServedFromCache() {
+        UserDirectory directory = new UserDirectory(contactDAO, 10, 60_000, now::get);
+
+        Map<Integer, Contact> first = directory.getContacts(List.of(1, 2, 3));
+        Map<Integer, Contact> second = directory.getContacts(List.of(1, 2, 3));
+
+        assertEquals(3, directory.getMisses());
+        assertEquals(3, directory.getHits());
+        assertEquals(first.get(1).getFirstName(), second.get(1).getFirstName());
+        assertNotSame(first.get(1), second.get(1));  // Callers get their own copy
+    }
+
+    @Test
+    public void testLeastRecentlyUsedUsersAreDroppedAtCapacity() {
+        UserDirectory directory = new UserDirectory(contactDAO, 2, 60_000, now::get);
+
+        directory.getContact(1);
+        directory.getContact(2);
+        directory.getContact(1);  // Touch, so user 2 is now the eldest
+        directory.getContact(3);
+
+        assertEquals(2, directory.size());
+        long misses = directory.getMisses();
+        directory.getContact(1);
+        assertEquals(misses, directory.getMisses());
+        directory.getContact(2);
+        assertEquals(misses + 1, directory.getMisses());
+    }
+
+    @Test
+    public void testEntriesExpireAfterTimeToLive() {
+        UserDirectory directory = new UserDirectory(contactDAO, 10, 5_000, now::get);
+
+        directory.getContact(1);
+        now.addAndGet(4_999);
+        directory.getContact(1);
+        assertEquals(1, directory.getMisses());
+
+        now.addAndGet(1);
+        directory.getContact(1);
+        assertEquals(2, directory.getMisses());
+    }
+
+    @Test
+    public void testProfileAndUserUpdatesInvalidateSharedDirectory() throws SQLException {
+        UserDirectory directory = UserDirectory.getInstance();
+        assertEquals("https://example.com/1.jpg", directory.getContact(1).getPhoto());
+
+        profileDAO.updateProfile(1, null, "https://example.com/new.jpg");
+        assertEquals("https://example.com/new.jpg", directory.getContact(1).getPhoto());
+
+        contactDAO.updateUser(1, "Ada", "Lovelace", "user1@example.com", "pw");
+        assertEquals("Ada", directory.getContact(1).getFirstName());
+    }
+
+    @Test
+    public void testUnknownUserIsNotCached() {
+        UserDirectory directory = new UserDirectory(contactDAO, 10, 60_000, now::get);
+
+        assertNull(directory.getContact(500));
+        assertEquals(0, directory.size());
+    }
+}